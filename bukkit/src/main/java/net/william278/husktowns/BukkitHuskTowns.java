@@ -52,6 +52,7 @@ import net.william278.husktowns.network.Broker;
 import net.william278.husktowns.network.PluginMessageBroker;
 import net.william278.husktowns.town.Invite;
 import net.william278.husktowns.town.Town;
+import net.william278.husktowns.town.TownRegistry;
 import net.william278.husktowns.user.BukkitUser;
 import net.william278.husktowns.user.BukkitUserProvider;
 import net.william278.husktowns.user.OnlineUser;
@@ -60,6 +61,7 @@ import net.william278.husktowns.user.User;
 import net.william278.husktowns.util.BukkitTask;
 import net.william278.husktowns.util.Validator;
 import net.william278.husktowns.visualizer.Visualizer;
+import net.william278.husktowns.visualizer.VisualizerScheduler;
 import net.william278.toilet.BukkitToilet;
 import net.william278.toilet.Toilet;
 import org.bstats.bukkit.Metrics;
@@ -101,11 +103,12 @@ public class BukkitHuskTowns extends JavaPlugin implements HuskTowns, BukkitTask
     private AsynchronousScheduler asyncScheduler;
     private RegionalScheduler regionalScheduler;
     private OperationListener operationListener;
-    private final Set<Town> towns = Sets.newConcurrentHashSet();
+    private final TownRegistry towns = new TownRegistry();
     private final Map<String, ClaimWorld> claimWorlds = Maps.newConcurrentMap();
     private final Map<UUID, Deque<Invite>> invites = Maps.newConcurrentMap();
     private final Map<UUID, Preferences> userPreferences = Maps.newConcurrentMap();
     private final Map<UUID, Visualizer> visualizers = Maps.newConcurrentMap();
+    private final VisualizerScheduler visualizerScheduler = new VisualizerScheduler(this);
     private final Map<String, List<User>> globalUserList = Maps.newConcurrentMap();
     private final ConcurrentMap<UUID, OnlineUser> onlineUserMap = Maps.newConcurrentMap();
     private final Validator validator = new Validator(this);
@@ -238,6 +241,9 @@ public class BukkitHuskTowns extends JavaPlugin implements HuskTowns, BukkitTask
 
     @Override
     public void onDisable() {
+        if (manager != null) {
+            manager.flushTownSaves();
+        }
         if (database != null) {
             getDatabase().close();
         }
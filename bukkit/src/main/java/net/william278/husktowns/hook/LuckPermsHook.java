@@ -33,22 +33,30 @@ import net.william278.husktowns.town.Privilege;
 import net.william278.husktowns.town.Role;
 import net.william278.husktowns.town.Town;
 import net.william278.husktowns.user.BukkitUser;
+import net.william278.husktowns.user.OnlineUser;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.RegisteredServiceProvider;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 
-public class LuckPermsHook extends Hook {
+/**
+ * Provides town and claim permission contexts to LuckPerms.
+ * <p>
+ * LuckPerms may ask for a player's contexts many times per tick, so the contexts for each player are computed once and
+ * cached until they move to another chunk, or their town or the town whose claim they're standing in changes, at which
+ * point LuckPerms is signalled to request them again.
+ */
+public class LuckPermsHook extends ContextHook {
     private ContextManager contexts;
     private final List<ContextCalculator<Player>> calculators = new ArrayList<>();
+    private final Map<UUID, CachedContexts> cache = new ConcurrentHashMap<>();
 
     @PluginHook(id = "LuckPerms", register = PluginHook.Register.ON_ENABLE, platform = "bukkit")
     public LuckPermsHook(@NotNull HuskTowns plugin) {
@@ -65,8 +73,9 @@ public class LuckPermsHook extends Hook {
         this.contexts = api.getContextManager();
         this.calculators.forEach(contextCalculator -> this.contexts.unregisterCalculator(contextCalculator));
         this.calculators.clear();
-        this.registerCalculator(() -> new ClaimContextCalculator(plugin));
-        this.registerCalculator(() -> new TownContextCalculator((BukkitHuskTowns) plugin));
+        this.cache.clear();
+        this.registerCalculator(ClaimContextCalculator::new);
+        this.registerCalculator(TownContextCalculator::new);
         plugin.log(Level.INFO, "Enabled LuckPerms context provider hook");
     }
 
@@ -76,40 +85,129 @@ public class LuckPermsHook extends Hook {
         this.calculators.add(contextCalculator);
     }
 
-    private record ClaimContextCalculator(@NotNull HuskTowns plugin) implements ContextCalculator<Player> {
-        @Override
-        public void calculate(@NotNull Player target, @NotNull ContextConsumer consumer) {
-            final Location location = target.getLocation();
-            final Optional<TownClaim> claim = plugin.getClaimAt(Position.at(
-                location.getBlockX(), location.getBlockY(), location.getBlockZ(),
-                World.of(target.getWorld().getUID(), target.getWorld().getName(),
-                    target.getWorld().getEnvironment().name().toLowerCase())));
-            if (claim.isEmpty()) {
-                final Rules wilderness = plugin.getRulePresets().getWildernessRules(plugin.getFlags());
-                setContextsFromRules(consumer, wilderness);
-                consumer.accept(ContextKey.STANDING_IN_OWN_TOWN.getKey(plugin), "false");
-                consumer.accept(ContextKey.IN_CLAIM_KEY.getKey(plugin), "false");
-                return;
+    @Override
+    public void invalidate(@NotNull OnlineUser user) {
+        cache.remove(user.getUuid());
+        signalContextUpdate(((BukkitUser) user).getPlayer());
+    }
+
+    @Override
+    public void invalidateTown(@NotNull Town town) {
+        final Map<UUID, Player> affected = new HashMap<>();
+        cache.forEach((uuid, cached) -> {
+            if (cached.isAffectedBy(town.getId())) {
+                affected.put(uuid, cached.player());
             }
+        });
+        plugin.getTowns().getOnlineMembers(town.getId())
+            .forEach(user -> affected.put(user.getUuid(), ((BukkitUser) user).getPlayer()));
+        affected.forEach((uuid, player) -> {
+            cache.remove(uuid);
+            signalContextUpdate(player);
+        });
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.clear();
+        Bukkit.getOnlinePlayers().forEach(this::signalContextUpdate);
+    }
+
+    private void signalContextUpdate(@NotNull Player player) {
+        if (contexts != null && player.isOnline()) {
+            contexts.signalContextUpdate(player);
+        }
+    }
+
+    // Get a player's cached contexts, (re)computing them if there are none or they were computed in another chunk
+    @NotNull
+    private CachedContexts getContexts(@NotNull Player player) {
+        final Location location = player.getLocation();
+        final UUID worldId = player.getWorld().getUID();
+        final int chunkX = location.getBlockX() >> 4;
+        final int chunkZ = location.getBlockZ() >> 4;
+        if (!plugin.isLoaded()) {
+            return computeContexts(player, location, worldId, chunkX, chunkZ);
+        }
+
+        // Computed under the map's lock for the player, so an invalidation can't be overwritten by a stale result
+        return cache.compute(player.getUniqueId(), (uuid, cached) -> cached != null
+            && cached.isAt(worldId, chunkX, chunkZ) ? cached : computeContexts(player, location, worldId, chunkX, chunkZ));
+    }
+
+    @NotNull
+    private CachedContexts computeContexts(@NotNull Player player, @NotNull Location location, @NotNull UUID worldId,
+                                           int chunkX, int chunkZ) {
+        final Optional<TownClaim> claim = plugin.getClaimAt(Position.at(
+            location.getBlockX(), location.getBlockY(), location.getBlockZ(),
+            World.of(worldId, player.getWorld().getName(),
+                player.getWorld().getEnvironment().name().toLowerCase())));
+        final Optional<Member> member = plugin.getUserTown(((BukkitHuskTowns) plugin).getOnlineUser(player));
+        return new CachedContexts(
+            player, worldId, chunkX, chunkZ,
+            claim.map(townClaim -> townClaim.town().getId()).orElse(null),
+            member.map(user -> user.town().getId()).orElse(null),
+            getClaimContexts(claim.orElse(null), member.orElse(null)),
+            getTownContexts(member.orElse(null))
+        );
+    }
+
+    @NotNull
+    private ImmutableContextSet getClaimContexts(@Nullable TownClaim townClaim, @Nullable Member member) {
+        final ImmutableContextSet.Builder builder = ImmutableContextSet.builder();
+        if (townClaim == null) {
+            final Rules wilderness = plugin.getRulePresets().getWildernessRules(plugin.getFlags());
+            setContextsFromRules(builder, wilderness);
+            builder.add(ContextKey.STANDING_IN_OWN_TOWN.getKey(plugin), "false");
+            builder.add(ContextKey.IN_CLAIM_KEY.getKey(plugin), "false");
+            return builder.build();
+        }
 
-            final TownClaim townClaim = claim.get();
-            final Optional<Member> member = plugin.getUserTown(((BukkitHuskTowns) plugin).getOnlineUser(target));
-            if (member.isPresent() && member.get().town().equals(townClaim.town())) {
-                final Member user = member.get();
-                consumer.accept(ContextKey.STANDING_IN_OWN_TOWN.getKey(plugin), "true");
-                if (user.hasPrivilege(plugin, Privilege.TRUSTED_ACCESS)) {
-                    consumer.accept(ContextKey.CAN_PLAYER_BUILD.getKey(plugin), "true");
-                    consumer.accept(ContextKey.CAN_PLAYER_OPEN_CONTAINERS.getKey(plugin), "true");
-                    consumer.accept(ContextKey.CAN_PLAYER_INTERACT.getKey(plugin), "true");
-                    consumer.accept(ContextKey.IN_CLAIM_KEY.getKey(plugin), "true");
-                    return;
-                }
-            } else {
-                consumer.accept(ContextKey.STANDING_IN_OWN_TOWN.getKey(plugin), "false");
+        if (member != null && member.town().equals(townClaim.town())) {
+            builder.add(ContextKey.STANDING_IN_OWN_TOWN.getKey(plugin), "true");
+            if (member.hasPrivilege(plugin, Privilege.TRUSTED_ACCESS)) {
+                builder.add(ContextKey.CAN_PLAYER_BUILD.getKey(plugin), "true");
+                builder.add(ContextKey.CAN_PLAYER_OPEN_CONTAINERS.getKey(plugin), "true");
+                builder.add(ContextKey.CAN_PLAYER_INTERACT.getKey(plugin), "true");
+                builder.add(ContextKey.IN_CLAIM_KEY.getKey(plugin), "true");
+                return builder.build();
             }
+        } else {
+            builder.add(ContextKey.STANDING_IN_OWN_TOWN.getKey(plugin), "false");
+        }
+
+        final Rules rules = townClaim.town().getRules().get(townClaim.claim().getType());
+        setContextsFromRules(builder, rules);
+        return builder.build();
+    }
+
+    private void setContextsFromRules(@NotNull ImmutableContextSet.Builder builder, @NotNull Rules rules) {
+        builder.add(ContextKey.CAN_PLAYER_BUILD.getKey(plugin), rules
+            .cancelOperation(OperationType.BLOCK_BREAK, plugin.getFlags()) ? "false" : "true");
+        builder.add(ContextKey.CAN_PLAYER_OPEN_CONTAINERS.getKey(plugin), rules
+            .cancelOperation(OperationType.CONTAINER_OPEN, plugin.getFlags()) ? "false" : "true");
+        builder.add(ContextKey.CAN_PLAYER_INTERACT.getKey(plugin), rules
+            .cancelOperation(OperationType.BLOCK_INTERACT, plugin.getFlags()) ? "false" : "true");
+    }
 
-            final Rules rules = townClaim.town().getRules().get(townClaim.claim().getType());
-            setContextsFromRules(consumer, rules);
+    @NotNull
+    private ImmutableContextSet getTownContexts(@Nullable Member member) {
+        final ImmutableContextSet.Builder builder = ImmutableContextSet.builder();
+        if (member == null) {
+            builder.add(ContextKey.PLAYER_IS_TOWN_MEMBER.getKey(plugin), "false");
+            return builder.build();
+        }
+        builder.add(ContextKey.PLAYER_IS_TOWN_MEMBER.getKey(plugin), "true");
+        builder.add(ContextKey.PLAYER_TOWN_NAME.getKey(plugin), member.town().getName());
+        builder.add(ContextKey.PLAYER_TOWN_ROLE.getKey(plugin), member.role().getName());
+        builder.add(ContextKey.PLAYER_TOWN_LEVEL.getKey(plugin), Integer.toString(member.town().getLevel()));
+        return builder.build();
+    }
+
+    private final class ClaimContextCalculator implements ContextCalculator<Player> {
+        @Override
+        public void calculate(@NotNull Player target, @NotNull ContextConsumer consumer) {
+            consumer.accept(getContexts(target).claim());
         }
 
         @Override
@@ -143,30 +241,12 @@ public class LuckPermsHook extends Hook {
             );
             return builder.build();
         }
-
-        private void setContextsFromRules(@NotNull ContextConsumer consumer, Rules wilderness) {
-            consumer.accept(ContextKey.CAN_PLAYER_BUILD.getKey(plugin), wilderness
-                .cancelOperation(OperationType.BLOCK_BREAK, plugin.getFlags()) ? "false" : "true");
-            consumer.accept(ContextKey.CAN_PLAYER_OPEN_CONTAINERS.getKey(plugin), wilderness
-                .cancelOperation(OperationType.CONTAINER_OPEN, plugin.getFlags()) ? "false" : "true");
-            consumer.accept(ContextKey.CAN_PLAYER_INTERACT.getKey(plugin), wilderness
-                .cancelOperation(OperationType.BLOCK_INTERACT, plugin.getFlags()) ? "false" : "true");
-        }
     }
 
-    private record TownContextCalculator(@NotNull BukkitHuskTowns plugin) implements ContextCalculator<Player> {
+    private final class TownContextCalculator implements ContextCalculator<Player> {
         @Override
         public void calculate(@NotNull Player target, @NotNull ContextConsumer consumer) {
-            final Optional<Member> userTown = plugin.getUserTown(plugin.getOnlineUser(target));
-            if (userTown.isEmpty()) {
-                consumer.accept(ContextKey.PLAYER_IS_TOWN_MEMBER.getKey(plugin), "false");
-                return;
-            }
-            final Member member = userTown.get();
-            consumer.accept(ContextKey.PLAYER_IS_TOWN_MEMBER.getKey(plugin), "true");
-            consumer.accept(ContextKey.PLAYER_TOWN_NAME.getKey(plugin), member.town().getName());
-            consumer.accept(ContextKey.PLAYER_TOWN_ROLE.getKey(plugin), member.role().getName());
-            consumer.accept(ContextKey.PLAYER_TOWN_LEVEL.getKey(plugin), Integer.toString(member.town().getLevel()));
+            consumer.accept(getContexts(target).town());
         }
 
         @Override
@@ -188,6 +268,25 @@ public class LuckPermsHook extends Hook {
         }
     }
 
+    /**
+     * A player's computed contexts, with the chunk they were computed in and the towns they were computed from
+     */
+    private record CachedContexts(@NotNull Player player, @NotNull UUID world, int chunkX, int chunkZ,
+                                  @Nullable Integer claimTownId, @Nullable Integer memberTownId,
+                                  @NotNull ImmutableContextSet claim, @NotNull ImmutableContextSet town) {
+
+        private boolean isAt(@NotNull UUID world, int chunkX, int chunkZ) {
+            return this.chunkX == chunkX && this.chunkZ == chunkZ && this.world.equals(world);
+        }
+
+        // Players in the wilderness are affected too, as the town may have claimed the chunk they're standing in
+        private boolean isAffectedBy(int townId) {
+            return claimTownId == null || claimTownId == townId
+                || (memberTownId != null && memberTownId == townId);
+        }
+
+    }
+
     public enum ContextKey {
         PLAYER_IS_TOWN_MEMBER("is-town-member"),
         PLAYER_TOWN_NAME("town"),
@@ -24,16 +24,18 @@ import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import net.william278.cloplib.operation.Operation;
 import net.william278.cloplib.operation.OperationType;
 import net.william278.husktowns.HuskTowns;
-import net.william278.husktowns.audit.Action;
 import net.william278.husktowns.claim.Claim;
 import net.william278.husktowns.claim.TownClaim;
 import net.william278.husktowns.town.Member;
 import net.william278.husktowns.town.Role;
 import net.william278.husktowns.town.Town;
+import net.william278.husktowns.town.TownRankings;
 import net.william278.husktowns.user.BukkitUser;
 import net.william278.husktowns.user.OnlineUser;
 import net.william278.husktowns.user.User;
+import org.bukkit.Location;
 import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -41,17 +43,42 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
-public class PlaceholderAPIHook extends Hook {
+/**
+ * Provides HuskTowns placeholders to PlaceholderAPI.
+ * <p>
+ * Scoreboard and tab list plugins poll placeholders for every player every few ticks, so resolved values are cached
+ * per player and per town, and flagged dirty when the player moves to another chunk or the town is edited.
+ */
+public class PlaceholderAPIHook extends ContextHook {
+    private final HuskTownsExpansion expansion;
+
     @PluginHook(id = "PlaceholderAPI", register = PluginHook.Register.ON_ENABLE, platform = "bukkit")
     public PlaceholderAPIHook(@NotNull HuskTowns plugin) {
         super(plugin);
+        this.expansion = new HuskTownsExpansion(plugin);
     }
 
     @Override
     protected void onEnable() {
-        plugin.runSync(() -> new HuskTownsExpansion(plugin).register());
+        plugin.runSync(expansion::register);
+    }
+
+    @Override
+    public void invalidate(@NotNull OnlineUser user) {
+        expansion.invalidate(user.getUuid());
+    }
+
+    @Override
+    public void invalidateTown(@NotNull Town town) {
+        expansion.invalidateTown(town);
+    }
+
+    @Override
+    public void invalidateAll() {
+        expansion.invalidateAll();
     }
 
     public static class HuskTownsExpansion extends PlaceholderExpansion {
@@ -73,6 +100,14 @@ public class PlaceholderAPIHook extends Hook {
         @NotNull
         private final HuskTowns plugin;
 
+        // Resolved placeholder values, by player UUID and by town ID
+        private final Map<UUID, CachedPlayer> players = new ConcurrentHashMap<>();
+        private final Map<Integer, CachedTown> towns = new ConcurrentHashMap<>();
+
+        // Usernames of members missing from their town's audit log, and those already being looked up
+        private final Map<UUID, String> usernames = new ConcurrentHashMap<>();
+        private final Set<UUID> usernameLookups = ConcurrentHashMap.newKeySet();
+
         private HuskTownsExpansion(@NotNull HuskTowns plugin) {
             this.plugin = plugin;
         }
@@ -96,8 +131,22 @@ public class PlaceholderAPIHook extends Hook {
                     .orElse("Player offline");
             }
 
-            // Return the requested placeholder
+            // Return the requested placeholder, resolving it if it isn't cached for the player
             final OnlineUser player = plugin.getOnlineUser(offlinePlayer.getUniqueId());
+            final CachedPlayer cached = getCachedPlayer(offlinePlayer.getPlayer(), player);
+            final String cachedValue = cached.values.get(params);
+            if (cachedValue != null) {
+                return cachedValue;
+            }
+            final String value = resolvePlayerPlaceholder(player, params);
+            if (value != null) {
+                cached.values.put(params, value);
+            }
+            return value;
+        }
+
+        @Nullable
+        private String resolvePlayerPlaceholder(@NotNull OnlineUser player, @NotNull String params) {
             if (params.startsWith("town_")) {
                 if (params.length() == 5) {
                     return null;
@@ -115,6 +164,49 @@ public class PlaceholderAPIHook extends Hook {
             return null;
         }
 
+        // Get the player's cached values, replacing them if they're dirty or were resolved in another chunk
+        @NotNull
+        private CachedPlayer getCachedPlayer(@NotNull Player bukkitPlayer, @NotNull OnlineUser player) {
+            final Location location = bukkitPlayer.getLocation();
+            final UUID world = bukkitPlayer.getWorld().getUID();
+            final int chunkX = location.getBlockX() >> 4;
+            final int chunkZ = location.getBlockZ() >> 4;
+            return players.compute(player.getUuid(), (uuid, cached) -> cached != null
+                && !cached.dirty && cached.isAt(world, chunkX, chunkZ) ? cached : new CachedPlayer(
+                world, chunkX, chunkZ,
+                plugin.getClaimAt(player.getPosition()).map(claim -> claim.town().getId()).orElse(null),
+                plugin.getUserTown(player).map(member -> member.town().getId()).orElse(null)
+            ));
+        }
+
+        private void invalidate(@NotNull UUID uuid) {
+            players.remove(uuid);
+        }
+
+        private void invalidateTown(@NotNull Town town) {
+            if (plugin.getTowns().getById(town.getId()) != null) {
+                towns.computeIfPresent(town.getId(), (id, cached) -> cached.markDirty());
+            } else {
+                towns.remove(town.getId());
+            }
+
+            final Set<UUID> affected = new HashSet<>();
+            players.forEach((uuid, cached) -> {
+                if (cached.isAffectedBy(town.getId())) {
+                    affected.add(uuid);
+                }
+            });
+            plugin.getTowns().getOnlineMembers(town.getId()).forEach(user -> affected.add(user.getUuid()));
+            affected.forEach(uuid -> players.computeIfPresent(uuid, (key, cached) -> cached.markDirty()));
+        }
+
+        private void invalidateAll() {
+            players.clear();
+            towns.clear();
+            usernames.clear();
+            usernameLookups.clear();
+        }
+
         @Nullable
         private String getTown(@NotNull OnlineUser player, @NotNull String identifier) {
             return switch (identifier) {
@@ -137,8 +229,7 @@ public class PlaceholderAPIHook extends Hook {
 
                 default -> plugin.getUserTown(player)
                     .map(Member::town)
-                    .map(town -> resolveTownData(town, identifier))
-                    .map(String::valueOf)
+                    .map(town -> getTownData(town, identifier))
                     .orElse(plugin.getLocales().getRawLocale("placeholder_not_in_town")
                         .orElse("Not in town"));
             };
@@ -210,8 +301,7 @@ public class PlaceholderAPIHook extends Hook {
 
                 default -> identifier.startsWith("town_") ? plugin.getClaimAt(player.getPosition())
                     .map(TownClaim::town)
-                    .map(town -> resolveTownData(town, identifier.substring(5)))
-                    .map(String::valueOf)
+                    .map(town -> getTownData(town, identifier.substring(5)))
                     .orElse(plugin.getLocales().getRawLocale("placeholder_not_claimed")
                         .orElse("Not claimed")) : null;
             };
@@ -236,7 +326,7 @@ public class PlaceholderAPIHook extends Hook {
                 if (towns.size() >= leaderboardIndex) {
                     final Town town = towns.get(leaderboardIndex - 1);
                     if (split.length > 2) {
-                        return String.valueOf(resolveTownData(town, split[2]));
+                        return String.valueOf(getTownData(town, split[2]));
                     } else {
                         return town.getName();
                     }
@@ -248,21 +338,12 @@ public class PlaceholderAPIHook extends Hook {
             }
         }
 
+        // Leaderboards are ranked in descending order
         @Nullable
         private List<Town> getSortedTownList(@NotNull String sortingKey) {
             return switch (sortingKey.toLowerCase(Locale.ENGLISH)) {
-                case "money" -> plugin.getTowns().stream()
-                    .sorted(Comparator.comparing(Town::getMoney).reversed())
-                    .collect(Collectors.toList());
-                case "level" -> plugin.getTowns().stream()
-                    .sorted(Comparator.comparingInt(Town::getLevel).reversed())
-                    .collect(Collectors.toList());
-                case "claims" -> plugin.getTowns().stream()
-                    .sorted(Comparator.comparingInt(Town::getClaimCount).reversed())
-                    .collect(Collectors.toList());
-                case "members" -> plugin.getTowns().stream()
-                    .sorted(Comparator.comparingInt(town -> ((Town) town).getMembers().size()).reversed())
-                    .collect(Collectors.toList());
+                case "money", "level", "claims", "members" -> plugin.getTowns().getRankings()
+                    .getRanked(TownRankings.Key.valueOf(sortingKey.toUpperCase(Locale.ENGLISH)), false);
                 default -> null;
             };
         }
@@ -277,13 +358,55 @@ public class PlaceholderAPIHook extends Hook {
             }
         }
 
-        // Resolve a cached town member name from a UUID
+        // Resolve a town member's name from their town's audit log, or else the username cache
         private Optional<String> resolveTownMemberName(@NotNull Town town, @NotNull UUID uuid) {
-            return town.getLog().getActions().values().stream()
-                .map(Action::getUser).filter(Optional::isPresent).map(Optional::get)
+            return town.getLog().getUsername(uuid).or(() -> resolveUsername(uuid));
+        }
+
+        // Users on the network are resolved from the global user list; others are looked up from the database once
+        private Optional<String> resolveUsername(@NotNull UUID uuid) {
+            final String cached = usernames.get(uuid);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+            final Optional<String> username = plugin.getUserList().stream()
                 .filter(user -> user.getUuid().equals(uuid))
                 .map(User::getUsername)
                 .findFirst();
+            if (username.isPresent()) {
+                usernames.put(uuid, username.get());
+                return username;
+            }
+            if (usernameLookups.add(uuid)) {
+                plugin.runAsync(() -> plugin.getDatabase().getUser(uuid).ifPresent(saved -> {
+                    usernames.put(uuid, saved.user().getUsername());
+                    final Town town = plugin.getTowns().getByMember(uuid);
+                    if (town != null) {
+                        invalidateTown(town);
+                    } else {
+                        players.values().forEach(CachedPlayer::markDirty);
+                    }
+                }));
+            }
+            return Optional.empty();
+        }
+
+        // Get a town's cached value for a placeholder, replacing the town's values if they're dirty or out of date
+        @Nullable
+        private String getTownData(@NotNull Town town, @NotNull String identifier) {
+            final CachedTown cached = towns.compute(town.getId(), (id, existing) -> existing != null
+                && !existing.dirty && existing.town == town ? existing : new CachedTown(town));
+            final String cachedValue = cached.values.get(identifier);
+            if (cachedValue != null) {
+                return cachedValue;
+            }
+            final Object value = resolveTownData(town, identifier);
+            if (value == null) {
+                return null;
+            }
+            final String resolved = String.valueOf(value);
+            cached.values.put(identifier, resolved);
+            return resolved;
         }
 
         @Nullable
@@ -353,6 +476,66 @@ public class PlaceholderAPIHook extends Hook {
             return bool ? PlaceholderAPIPlugin.booleanTrue() : PlaceholderAPIPlugin.booleanFalse();
         }
 
+        /**
+         * A player's resolved placeholder values, with the chunk they were resolved in and the towns they were resolved
+         * from; flagged dirty when either town changes
+         */
+        private static final class CachedPlayer {
+            private final Map<String, String> values = new ConcurrentHashMap<>();
+            private final UUID world;
+            private final int chunkX;
+            private final int chunkZ;
+            @Nullable
+            private final Integer claimTownId;
+            @Nullable
+            private final Integer memberTownId;
+            private volatile boolean dirty;
+
+            private CachedPlayer(@NotNull UUID world, int chunkX, int chunkZ, @Nullable Integer claimTownId,
+                                 @Nullable Integer memberTownId) {
+                this.world = world;
+                this.chunkX = chunkX;
+                this.chunkZ = chunkZ;
+                this.claimTownId = claimTownId;
+                this.memberTownId = memberTownId;
+            }
+
+            private boolean isAt(@NotNull UUID world, int chunkX, int chunkZ) {
+                return this.chunkX == chunkX && this.chunkZ == chunkZ && this.world.equals(world);
+            }
+
+            // Players in the wilderness are affected too, as the town may have claimed the chunk they're standing in
+            private boolean isAffectedBy(int townId) {
+                return claimTownId == null || claimTownId == townId
+                    || (memberTownId != null && memberTownId == townId);
+            }
+
+            @NotNull
+            private CachedPlayer markDirty() {
+                this.dirty = true;
+                return this;
+            }
+        }
+
+        /**
+         * A town's resolved placeholder values, with the instance of the town they were resolved from
+         */
+        private static final class CachedTown {
+            private final Map<String, String> values = new ConcurrentHashMap<>();
+            private final Town town;
+            private volatile boolean dirty;
+
+            private CachedTown(@NotNull Town town) {
+                this.town = town;
+            }
+
+            @NotNull
+            private CachedTown markDirty() {
+                this.dirty = true;
+                return this;
+            }
+        }
+
     }
 
 }
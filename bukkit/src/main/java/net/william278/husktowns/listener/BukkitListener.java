@@ -86,7 +86,7 @@ public class BukkitListener extends BukkitOperationListener implements ClaimsLis
 
     @EventHandler(ignoreCancelled = true)
     public void onPlayerJoin(@NotNull PlayerJoinEvent e) {
-        getPlugin().getOnlineUserMap().remove(e.getPlayer().getUniqueId());
+        getPlugin().removeOnlineUser(e.getPlayer().getUniqueId());
         getPlugin().handlePlayerJoin(plugin.getOnlineUser(e.getPlayer()));
     }
 
@@ -19,6 +19,7 @@
 
 package net.william278.husktowns.user;
 
+import com.google.common.collect.Maps;
 import io.papermc.lib.PaperLib;
 import net.kyori.adventure.key.Key;
 import net.kyori.adventure.text.format.TextColor;
@@ -36,10 +37,13 @@ import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Map;
+
 public final class BukkitUser extends OnlineUser {
 
     private final Player player;
     private static final Particle PARTICLE = getCompatibleParticle();
+    private static final Map<TextColor, Particle.DustOptions> DUST_OPTIONS = Maps.newConcurrentMap();
 
     private BukkitUser(@NotNull Player player, @NotNull HuskTowns plugin) {
         super(player.getUniqueId(), player.getName(), plugin);
@@ -85,16 +89,13 @@ public final class BukkitUser extends OnlineUser {
     }
 
     @Override
-    public void spawnMarkerParticle(@NotNull Position position, @NotNull TextColor color, int count) {
+    public void spawnMarkerParticle(double x, double y, double z, @NotNull TextColor color, int count) {
         if (PARTICLE == null) {
             return;
         }
-        player.spawnParticle(
-            PARTICLE,
-            new Location(player.getWorld(), position.getX(), position.getY() + 1.1d, position.getZ()),
-            1,
-            new Particle.DustOptions(org.bukkit.Color.fromRGB(color.red(), color.green(), color.blue()), 1)
-        );
+        player.spawnParticle(PARTICLE, x, y + 1.1d, z, 1, DUST_OPTIONS.computeIfAbsent(
+            color, c -> new Particle.DustOptions(org.bukkit.Color.fromRGB(c.red(), c.green(), c.blue()), 1)
+        ));
     }
 
     @SuppressWarnings("JavaReflectionMemberAccess")
@@ -43,7 +43,7 @@ public interface BukkitUserProvider extends UserProvider {
         BukkitUser user = (BukkitUser) getOnlineUserMap().get(player.getUniqueId());
         if (user == null) {
             user = BukkitUser.adapt(player, getPlugin());
-            getOnlineUserMap().put(player.getUniqueId(), user);
+            addOnlineUser(user);
             return user;
         }
         return user;
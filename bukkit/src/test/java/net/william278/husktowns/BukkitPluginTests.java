@@ -347,7 +347,7 @@ public class BukkitPluginTests {
         }
 
         @Order(2)
-        @DisplayName("Test Deserializing Town Log with Duplicate Keys")
+        @DisplayName("Test Migrating Legacy Town Log with Duplicate Keys")
         @Test
         public void testTownLogSerialization() {
             final String logJson = """
@@ -360,8 +360,12 @@ public class BukkitPluginTests {
             final Log log = plugin.getGson().fromJson(logJson, Log.class);
             Assertions.assertNotNull(log, "Failed to deserialize log with duplicate keys");
 
-            final Map<OffsetDateTime, Action> actions = log.getActions();
-            Assertions.assertEquals(1, actions.size(), "Duplicate keys were not removed on load");
+            Assertions.assertTrue(log.migrateLegacyActions(), "Legacy actions were not migrated");
+            Assertions.assertAll(
+                () -> Assertions.assertEquals(1, log.getUnsavedEntries().size(), "Duplicate keys were not removed on load"),
+                () -> Assertions.assertEquals(1, log.getActionCount(Action.Type.CREATE_TOWN)),
+                () -> Assertions.assertEquals(OffsetDateTime.parse("2024-02-04T15:09:34.661609Z"), log.getFoundedTime())
+            );
         }
 
     }
@@ -34,6 +34,7 @@ import net.william278.husktowns.database.Database;
 import net.william278.husktowns.database.MySqlDatabase;
 import net.william278.husktowns.database.SqLiteDatabase;
 import net.william278.husktowns.events.EventDispatcher;
+import net.william278.husktowns.hook.ContextHook;
 import net.william278.husktowns.hook.EconomyHook;
 import net.william278.husktowns.hook.HookManager;
 import net.william278.husktowns.hook.MapHook;
@@ -47,9 +48,11 @@ import net.william278.husktowns.network.RedisBroker;
 import net.william278.husktowns.town.Invite;
 import net.william278.husktowns.town.Member;
 import net.william278.husktowns.town.Town;
+import net.william278.husktowns.town.TownRegistry;
 import net.william278.husktowns.user.*;
 import net.william278.husktowns.util.*;
 import net.william278.husktowns.visualizer.Visualizer;
+import net.william278.husktowns.visualizer.VisualizerScheduler;
 import org.intellij.lang.annotations.Subst;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -60,6 +63,9 @@ import java.math.BigDecimal;
 import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
@@ -141,6 +147,9 @@ public interface HuskTowns extends Task.Supplier, ConfigProvider, EventDispatche
         runAsync(() -> {
             consumer.accept(preferences);
             setUserPreferences(user.getUuid(), preferences);
+            if (user instanceof OnlineUser online) {
+                getContextHooks().forEach(hook -> hook.invalidate(online));
+            }
             getDatabase().updateUser(user, preferences);
         });
     }
@@ -150,26 +159,32 @@ public interface HuskTowns extends Task.Supplier, ConfigProvider, EventDispatche
     void setLoaded(boolean loaded);
 
     @NotNull
-    Set<Town> getTowns();
+    TownRegistry getTowns();
 
     default void removeTown(@NotNull Town town) {
-        getTowns().removeIf(t -> t.getId() == town.getId());
+        getTowns().remove(town);
+        getContextHooks().forEach(hook -> hook.invalidateTown(town));
     }
 
     default void updateTown(@NotNull Town town) {
-        removeTown(town);
-        getTowns().add(town);
+        getTowns().put(town);
+        getContextHooks().forEach(hook -> hook.invalidateTown(town));
+    }
+
+    // Claim worlds cache the town claims they resolve; this must be called when towns (or the admin town) are reloaded
+    private void invalidateClaimTownCaches() {
+        getClaimWorlds().values().forEach(ClaimWorld::invalidateTownCache);
     }
 
     default Optional<Member> getUserTown(@NotNull User user) throws IllegalStateException {
-        return getTowns().stream()
-                .filter(town -> town.getMembers().containsKey(user.getUuid())).findFirst()
-                .flatMap(town -> {
-                    final int weight = town.getMembers().get(user.getUuid());
-                    return Optional.of(getRoles().fromWeight(weight)
-                            .map(role -> new Member(user, town, role))
-                            .orElseThrow(() -> new IllegalStateException("No role found for weight \"" + weight + "\"")));
-                });
+        final Town town = getTowns().getByMember(user.getUuid());
+        final Integer weight = town != null ? town.getMembers().get(user.getUuid()) : null;
+        if (weight == null) {
+            return Optional.empty();
+        }
+        return Optional.of(getRoles().fromWeight(weight)
+                .map(role -> new Member(user, town, role))
+                .orElseThrow(() -> new IllegalStateException("No role found for weight \"" + weight + "\"")));
     }
 
     @NotNull
@@ -184,16 +199,23 @@ public interface HuskTowns extends Task.Supplier, ConfigProvider, EventDispatche
         log(Level.INFO, "Loading data...");
         runAsync(() -> {
             try {
-                loadClaimWorlds();
+                // Claim worlds and towns don't depend on each other, so are loaded at the same time
+                final CompletableFuture<Void> claimWorlds = supplyAsync(() -> {
+                    loadClaimWorlds();
+                    return null;
+                });
                 loadTowns();
+                claimWorlds.join();
                 pruneInactiveTowns();
                 pruneOrphanClaims();
                 pruneLocalTownWars();
+                pruneTownLogs();
                 log(Level.INFO, String.format("Loaded data in %s seconds.",
                         (ChronoUnit.MILLIS.between(startTime, LocalTime.now()) / 1000d)));
                 setLoaded(true);
                 populateMapHook();
-            } catch (IllegalStateException e) {
+                getContextHooks().forEach(ContextHook::invalidateAll);
+            } catch (IllegalStateException | CompletionException e) {
                 setLoaded(false);
                 log(Level.SEVERE, String.format("Failed to load data (after %s seconds). Interaction will be disabled!",
                         (ChronoUnit.MILLIS.between(startTime, LocalTime.now()) / 1000d)), e);
@@ -237,7 +259,16 @@ public interface HuskTowns extends Task.Supplier, ConfigProvider, EventDispatche
     default void loadTowns() throws IllegalStateException {
         log(Level.INFO, "Loading towns from the database...");
         LocalTime startTime = LocalTime.now();
-        setTowns(getDatabase().getAllTowns());
+
+        // Towns are indexed as they are decoded; once all are loaded, remove any that no longer exist
+        final TownRegistry towns = getTowns();
+        final Set<Integer> loadedIds = ConcurrentHashMap.newKeySet();
+        getDatabase().forEachTown(town -> {
+            towns.put(town);
+            loadedIds.add(town.getId());
+        });
+        towns.removeIf(town -> !loadedIds.contains(town.getId()));
+        invalidateClaimTownCaches();
 
         final int townCount = getTowns().size();
         final int memberCount = getTowns().stream().mapToInt(town -> town.getMembers().size()).sum();
@@ -246,28 +277,58 @@ public interface HuskTowns extends Task.Supplier, ConfigProvider, EventDispatche
     }
 
     default Optional<Town> findTown(int id) {
-        return getTowns().stream()
-                .filter(town -> town.getId() == id)
-                .findFirst();
+        return Optional.ofNullable(getTowns().getById(id));
     }
 
     default Optional<Town> findTown(@NotNull String name) {
-        return getTowns().stream()
-                .filter(town -> town.getName().equalsIgnoreCase(name))
-                .findFirst();
+        return Optional.ofNullable(getTowns().getByName(name));
     }
 
     @NotNull
     Map<String, ClaimWorld> getClaimWorlds();
 
     default Optional<TownClaim> getClaimAt(@NotNull Chunk chunk, @NotNull World world) {
-        return Optional.ofNullable(getClaimWorlds().get(world.getName()))
-                .flatMap(claimWorld -> claimWorld.getClaimAt(chunk, this));
+        return Optional.ofNullable(findClaimAt(chunk, world));
     }
 
     default Optional<TownClaim> getClaimAt(@NotNull Position position) {
-        return Optional.ofNullable(getClaimWorlds().get(position.getWorld().getName()))
-                .flatMap(claimWorld -> claimWorld.getClaimAt(position.getChunk(), this));
+        return Optional.ofNullable(findClaimAt(position));
+    }
+
+    /**
+     * Get the claim at a chunk in a world, or {@code null} if it is not claimed.
+     * <p>
+     * Unlike {@link #getClaimAt(Chunk, World)}, this does not allocate, and so is used on hot paths such as
+     * operation and chunk change handling.
+     *
+     * @param chunk the chunk
+     * @param world the world
+     * @return the claim at the chunk, or {@code null} if there is none
+     */
+    @Nullable
+    default TownClaim findClaimAt(@NotNull Chunk chunk, @NotNull World world) {
+        final ClaimWorld claimWorld = getClaimWorlds().get(world.getName());
+        return claimWorld != null ? claimWorld.findClaimAt(chunk.asLong(), this) : null;
+    }
+
+    /**
+     * Get the claim at a position, or {@code null} if it is not claimed.
+     * <p>
+     * Unlike {@link #getClaimAt(Position)}, this does not allocate, and so is used on hot paths such as
+     * operation and chunk change handling.
+     *
+     * @param position the position
+     * @return the claim at the position, or {@code null} if there is none
+     */
+    @Nullable
+    default TownClaim findClaimAt(@NotNull Position position) {
+        final ClaimWorld claimWorld = getClaimWorlds().get(position.getWorld().getName());
+        if (claimWorld == null) {
+            return null;
+        }
+        return claimWorld.findClaimAt(Chunk.asLong(
+                (int) Math.floor(position.getX() / 16), (int) Math.floor(position.getZ() / 16)
+        ), this);
     }
 
     default Optional<ClaimWorld> getClaimWorld(@NotNull World world) {
@@ -282,6 +343,9 @@ public interface HuskTowns extends Task.Supplier, ConfigProvider, EventDispatche
     @NotNull
     Map<UUID, Visualizer> getVisualizers();
 
+    @NotNull
+    VisualizerScheduler getVisualizerScheduler();
+
     default void highlightClaims(@NotNull OnlineUser user, @NotNull List<TownClaim> claim, final long duration) {
         // Display for 5 seconds
         this.stopHighlightingClaims(user);
@@ -417,6 +481,11 @@ public interface HuskTowns extends Task.Supplier, ConfigProvider, EventDispatche
         return getHookManager().getHook(MapHook.class);
     }
 
+    @NotNull
+    default List<ContextHook> getContextHooks() {
+        return getHookManager().getHooks(ContextHook.class);
+    }
+
     default Optional<TeleportationHook> getTeleportationHook() {
         return getHookManager().getHook(TeleportationHook.class);
     }
@@ -75,16 +75,14 @@ public interface AdvancementProvider {
         }
 
         // Award advancements to all town members
-        getPlugin().getOnlineUsers().stream()
-            .filter(online -> town.getMembers().containsKey(online.getUuid()))
-            .forEach(online -> {
-                if (!preferences.isCompletedAdvancement(advancement.getKey())) {
-                    advancement.getRewards().forEach(reward -> reward.give(online, getPlugin()));
-                    preferences.addCompletedAdvancement(advancement.getKey());
-                }
-
-                this.awardAdvancement(advancement, user);
-            });
+        for (OnlineUser online : getPlugin().getTowns().getOnlineMembers(town.getId())) {
+            if (!preferences.isCompletedAdvancement(advancement.getKey())) {
+                advancement.getRewards().forEach(reward -> reward.give(online, getPlugin()));
+                preferences.addCompletedAdvancement(advancement.getKey());
+            }
+
+            this.awardAdvancement(advancement, user);
+        }
 
         advancement.getChildren().forEach(child -> traverseAdvancements(child, town, user, preferences));
     }
@@ -43,9 +43,8 @@ public class Variable<T> {
     );
     public static final Variable<Integer> TOWN_UNIQUE_DEPOSITORS = create(
         "unique_depositors",
-        (town, onlineUser, uniqueDepositors) -> Math.toIntExact((town.getLog().getActions().values().stream()
-            .filter(action -> action.getType() == Action.Type.DEPOSIT_MONEY)
-            .map(Action::getUser).distinct().count() - uniqueDepositors)),
+        (town, onlineUser, uniqueDepositors) -> town.getLog().getDistinctUserCount(Action.Type.DEPOSIT_MONEY)
+            - uniqueDepositors,
         Integer.class
     );
     public static final Variable<Integer> TOWN_MEMBERS = create(
@@ -55,8 +54,7 @@ public class Variable<T> {
     );
     public static final Variable<Integer> MEMBERS_LEFT = create(
         "members_left",
-        (town, onlineUser, membersLeft) -> Math.toIntExact((town.getLog().getActions().values().stream()
-            .filter(action -> action.getType() == Action.Type.MEMBER_LEAVE).map(Action::getUser).distinct().count() - membersLeft)),
+        (town, onlineUser, membersLeft) -> town.getLog().getDistinctUserCount(Action.Type.MEMBER_LEAVE) - membersLeft,
         Integer.class
     );
     public static final Variable<Integer> TOWN_CLAIMS = create(
@@ -66,8 +64,7 @@ public class Variable<T> {
     );
     public static final Variable<Integer> TOWN_CHANGED_COLOR = create(
         "changed_color",
-        (town, onlineUser, changedColor) -> Math.toIntExact((town.getLog().getActions().values().stream()
-            .filter(action -> action.getType() == Action.Type.UPDATE_COLOR).count() - changedColor)),
+        (town, onlineUser, changedColor) -> town.getLog().getActionCount(Action.Type.UPDATE_COLOR) - changedColor,
         Integer.class
     );
     public static final Variable<Boolean> TOWN_HAS_BIO = create(
@@ -77,8 +74,7 @@ public class Variable<T> {
     );
     public static final Variable<Integer> TOWN_CHANGED_SPAWN = create(
         "changed_spawn",
-        (town, onlineUser, changedSpawn) -> Math.toIntExact((town.getLog().getActions().values().stream()
-            .filter(action -> action.getType() == Action.Type.UPDATE_SPAWN).count() - changedSpawn)),
+        (town, onlineUser, changedSpawn) -> town.getLog().getActionCount(Action.Type.UPDATE_SPAWN) - changedSpawn,
         Integer.class
     );
     public static final Variable<Boolean> TOWN_HAS_GREETING = create(
@@ -93,8 +89,8 @@ public class Variable<T> {
     );
     public static final Variable<Integer> TOWN_MAYOR_CHANGED = create(
         "town_mayor_changed",
-        (town, onlineUser, mayorChanged) -> Math.toIntExact((town.getLog().getActions().values().stream()
-            .filter(action -> action.getType() == Action.Type.TRANSFER_OWNERSHIP).map(Action::getUser).distinct().count() - mayorChanged)),
+        (town, onlineUser, mayorChanged) -> town.getLog().getDistinctUserCount(Action.Type.TRANSFER_OWNERSHIP)
+            - mayorChanged,
         Integer.class
     );
     public static final Variable<OffsetDateTime> TOWN_FOUNDED = create(
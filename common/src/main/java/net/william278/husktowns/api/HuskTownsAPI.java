@@ -442,7 +442,7 @@ public class HuskTownsAPI {
                 return;
             }
             claimWorld.replaceClaim(claim, plugin);
-            plugin.getDatabase().updateClaimWorld(claimWorld);
+            plugin.getDatabase().saveClaim(claimWorld, claim);
         });
     }
 
@@ -707,7 +707,7 @@ public class HuskTownsAPI {
      * @since 2.0
      */
     public Optional<Town> getTown(int id) {
-        return plugin.getTowns().stream().filter(t -> t.getId() == id).findFirst();
+        return plugin.findTown(id);
     }
 
     /**
@@ -718,7 +718,7 @@ public class HuskTownsAPI {
      * @since 2.0
      */
     public Optional<Town> getTown(@NotNull String name) {
-        return plugin.getTowns().stream().filter(t -> t.getName().equalsIgnoreCase(name)).findFirst();
+        return plugin.findTown(name);
     }
 
     /**
@@ -755,6 +755,9 @@ public class HuskTownsAPI {
     /**
      * Update a {@link Town}
      *
+     * <p>
+     * The update is applied after any edits to the town already queued, replacing the edits they make.
+     *
      * @param user the {@link OnlineUser} to act as the executor of the update.
      *             In most cases this should be the user relevant to the update operation (i.e. the trigger).
      * @param town the {@link Town} to update
@@ -762,6 +765,12 @@ public class HuskTownsAPI {
      * @since 2.0
      */
     public void updateTown(@NotNull OnlineUser user, @NotNull Town town) throws IllegalArgumentException {
+        validateTown(town);
+        plugin.getManager().replaceTown(user, town);
+    }
+
+    // Check a town's name, bio, greeting and farewell message are valid
+    private void validateTown(@NotNull Town town) throws IllegalArgumentException {
         final Validator validator = plugin.getValidator();
         if (!validator.isLegalTownName(town.getName())) {
             throw new IllegalArgumentException("Invalid town name: " + town.getName());
@@ -775,44 +784,44 @@ public class HuskTownsAPI {
         if (!town.getFarewell().map(validator::isValidTownMetadata).orElse(true)) {
             throw new IllegalArgumentException("Invalid farewell message: " + town.getGreeting().orElse(""));
         }
-
-        plugin.runAsync(() -> plugin.getManager().updateTownData(user, town));
     }
 
     /**
-     * Gets the {@link Town} by name, and, if it exists, edits it through the {@link Consumer} provided, then saves the
-     * changes.
+     * Gets the {@link Town} by name, and, if it exists, edits a copy of it through the {@link Consumer} provided, then
+     * saves the changes.
      *
      * @param actor    An actor to edit the town. Note that they do not necessarily need to be a member of or have privileges
      *                 in the town being edited
      * @param townName The name of the town to edit
      * @param editor   A {@link Consumer} that edits the town
-     * @throws IllegalArgumentException if the town has an invalid name, bio, greeting or farewell message after the edits
+     * @throws IllegalArgumentException if the town has an invalid name, bio, greeting or farewell message after the
+     *                                  edits; as the edit is queued, this is logged and the edit discarded
      * @since 2.0
      */
     public void editTown(@NotNull OnlineUser actor, @NotNull String townName, @NotNull Consumer<Town> editor) throws IllegalArgumentException {
-        getTown(townName).ifPresent(town -> {
-            editor.accept(town);
-            updateTown(actor, town);
-        });
+        getTown(townName).ifPresent(town -> plugin.getManager().editTown(actor, town, (edited -> {
+            editor.accept(edited);
+            validateTown(edited);
+        })));
     }
 
     /**
-     * Gets the {@link Town} by ID, and, if it exists, edits it through the {@link Consumer} provided, then saves the
-     * changes.
+     * Gets the {@link Town} by ID, and, if it exists, edits a copy of it through the {@link Consumer} provided, then
+     * saves the changes.
      *
      * @param actor  An actor to edit the town. Note that they do not necessarily need to be a member of or have privileges
      *               in the town being edited
      * @param townId The ID of the town to edit
      * @param editor A {@link Consumer} that edits the town
-     * @throws IllegalArgumentException if the town has an invalid name, bio, greeting or farewell message after the edits
+     * @throws IllegalArgumentException if the town has an invalid name, bio, greeting or farewell message after the
+     *                                  edits; as the edit is queued, this is logged and the edit discarded
      * @since 2.0
      */
     public void editTown(@NotNull OnlineUser actor, int townId, @NotNull Consumer<Town> editor) throws IllegalArgumentException {
-        getTown(townId).ifPresent(town -> {
-            editor.accept(town);
-            updateTown(actor, town);
-        });
+        getTown(townId).ifPresent(town -> plugin.getManager().editTown(actor, town, (edited -> {
+            editor.accept(edited);
+            validateTown(edited);
+        })));
     }
 
     /**
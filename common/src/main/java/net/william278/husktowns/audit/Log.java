@@ -20,29 +20,60 @@
 package net.william278.husktowns.audit;
 
 import com.google.common.collect.Maps;
+import com.google.common.collect.Queues;
+import com.google.common.collect.Sets;
 import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.SerializedName;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import net.william278.husktowns.user.User;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
 
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
 
 /**
  * Represents the audit log of actions taken in a {@link net.william278.husktowns.town.Town}
+ * <p>
+ * Logged actions are stored in the database's town log table, which can be queried a page at a time with
+ * {@link net.william278.husktowns.database.Database#getLogEntries(int, int, int)}. The log itself only holds values
+ * derived from those actions (such as when the town was founded), plus any actions which have been logged but not yet
+ * saved; these are written to the table the next time the town is saved.
  */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class Log {
 
-    // Format used for storing map timestamps
+    // Format used for storing timestamps
     private static final DateTimeFormatter FORMAT = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
 
     @Expose
-    private Map<String, Action> actions = Maps.newLinkedHashMap();
+    @Nullable
+    @SerializedName("founded_time")
+    private String foundedTime;
+    @Expose
+    @Nullable
+    @SerializedName("last_war_time")
+    private String lastWarTime;
+    @Expose
+    @SerializedName("action_counts")
+    private Map<Action.Type, Integer> actionCounts = Maps.newEnumMap(Action.Type.class);
+    @Expose
+    @SerializedName("action_users")
+    private Map<Action.Type, Set<UUID>> actionUsers = Maps.newEnumMap(Action.Type.class);
+    @Expose
+    private Map<UUID, String> usernames = Maps.newHashMap();
+
+    // Actions stored in the town data prior to the town log table, only read for migrating them to the table
+    @Expose(serialize = false)
+    @Nullable
+    private Map<String, Action> actions;
+
+    // Actions logged since the town was last saved
+    private Queue<Entry> unsaved = Queues.newConcurrentLinkedQueue();
 
     /**
      * Create a new Log instance for a newly created town
@@ -81,7 +112,7 @@ public class Log {
     @NotNull
     public static Log migratedLog(@NotNull OffsetDateTime foundedTime) {
         final Log log = new Log();
-        log.actions.put(foundedTime.format(FORMAT), Action.of(Action.Type.CREATE_TOWN));
+        log.add(new Entry(foundedTime, Action.of(Action.Type.CREATE_TOWN)));
         log.log(Action.of(Action.Type.TOWN_DATA_MIGRATED));
         return log;
     }
@@ -93,45 +124,153 @@ public class Log {
      * @apiNote The action will be logged as having occurred just now
      */
     public void log(@NotNull Action action) {
-        this.actions.putIfAbsent(OffsetDateTime.now().format(FORMAT), action);
+        add(new Entry(OffsetDateTime.now(), action));
+    }
+
+    private synchronized void add(@NotNull Entry entry) {
+        final Action.Type type = entry.action().getType();
+        actionCounts.merge(type, 1, Integer::sum);
+        entry.action().getUser().ifPresent(user -> {
+            actionUsers.computeIfAbsent(type, t -> Sets.newHashSet()).add(user.getUuid());
+            usernames.put(user.getUuid(), user.getUsername());
+        });
+        if (type == Action.Type.CREATE_TOWN
+            && (foundedTime == null || entry.timestamp().isBefore(OffsetDateTime.parse(foundedTime, FORMAT)))) {
+            foundedTime = entry.timestamp().format(FORMAT);
+        }
+        if (type == Action.Type.START_WAR
+            && (lastWarTime == null || entry.timestamp().isAfter(OffsetDateTime.parse(lastWarTime, FORMAT)))) {
+            lastWarTime = entry.timestamp().format(FORMAT);
+        }
+        unsaved.add(entry);
     }
 
     /**
-     * Get the map of {@link OffsetDateTime}s to their respective {@link Action}s
+     * Get the actions in the log
      *
-     * @return the map of actions to when they occurred
+     * @return an empty map, as the log no longer holds the actions logged in the town
+     * @deprecated the full log is no longer held in memory; query it a page at a time with
+     * {@link net.william278.husktowns.database.Database#getLogEntries(int, int, int)} instead
      */
     @NotNull
     @Unmodifiable
+    @Deprecated(since = "3.1.3")
     public Map<OffsetDateTime, Action> getActions() {
-        final Map<OffsetDateTime, Action> parsed = Maps.newLinkedHashMap();
-        actions.forEach((key, value) -> parsed.put(OffsetDateTime.parse(key, FORMAT), value));
-        return parsed;
+        return Map.of();
+    }
+
+    /**
+     * Get the actions that have been logged since the town was last saved
+     *
+     * @return the unsaved log entries, oldest first
+     */
+    @NotNull
+    @ApiStatus.Internal
+    public List<Entry> getUnsavedEntries() {
+        return List.copyOf(unsaved);
+    }
+
+    /**
+     * Mark log entries as saved, once they have been written to the database
+     *
+     * @param count the number of entries, from the start of the {@link #getUnsavedEntries() unsaved entries}, saved
+     */
+    @ApiStatus.Internal
+    public void markSaved(int count) {
+        for (int i = 0; i < count; i++) {
+            if (unsaved.poll() == null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Share the queue of {@link #getUnsavedEntries() unsaved entries} of another log, for when this log belongs to a
+     * copy of that log's town
+     *
+     * @param log the log to share unsaved entries with
+     */
+    @ApiStatus.Internal
+    public void shareUnsavedEntries(@NotNull Log log) {
+        this.unsaved = log.unsaved;
+    }
+
+    /**
+     * Move actions stored in the town data by an older version of the plugin into the unsaved entries, so they are
+     * written to the town log table when the town is next saved
+     *
+     * @return {@code true} if there were any actions to move
+     */
+    @ApiStatus.Internal
+    public synchronized boolean migrateLegacyActions() {
+        if (actions == null) {
+            return false;
+        }
+        final Map<String, Action> legacy = actions;
+        this.actions = null;
+        legacy.entrySet().stream()
+            .map(entry -> new Entry(OffsetDateTime.parse(entry.getKey(), FORMAT), entry.getValue()))
+            .sorted(Comparator.comparing(Entry::timestamp))
+            .forEach(this::add);
+        return !legacy.isEmpty();
     }
 
     /**
      * Returns when the town was founded
      *
-     * @return the {@link OffsetDateTime} of the first found {@link Action.Type#CREATE_TOWN} action
+     * @return the {@link OffsetDateTime} of the first {@link Action.Type#CREATE_TOWN} action
      */
     @NotNull
     public OffsetDateTime getFoundedTime() {
-        return getActions().entrySet().stream()
-            .filter(entry -> entry.getValue().getType() == Action.Type.CREATE_TOWN)
-            .map(Map.Entry::getKey)
-            .findFirst().orElse(OffsetDateTime.now());
+        return foundedTime != null ? OffsetDateTime.parse(foundedTime, FORMAT) : OffsetDateTime.now();
     }
 
     /**
      * Returns the last time a war was started
      *
-     * @return the {@link OffsetDateTime} of the last found {@link Action.Type#START_WAR} action
+     * @return the {@link OffsetDateTime} of the last {@link Action.Type#START_WAR} action
      */
     public Optional<OffsetDateTime> getLastWarTime() {
-        return getActions().entrySet().stream()
-            .filter(entry -> entry.getValue().getType() == Action.Type.START_WAR)
-            .map(Map.Entry::getKey)
-            .max(OffsetDateTime::compareTo);
+        return Optional.ofNullable(lastWarTime).map(time -> OffsetDateTime.parse(time, FORMAT));
+    }
+
+    /**
+     * Get the number of times an action of a given type has been logged
+     *
+     * @param type the type of action
+     * @return the number of actions of the type logged
+     */
+    public synchronized int getActionCount(@NotNull Action.Type type) {
+        return actionCounts.getOrDefault(type, 0);
+    }
+
+    /**
+     * Get the number of different users who have performed an action of a given type
+     *
+     * @param type the type of action
+     * @return the number of distinct users who have performed an action of the type
+     */
+    public synchronized int getDistinctUserCount(@NotNull Action.Type type) {
+        return actionUsers.getOrDefault(type, Set.of()).size();
+    }
+
+    /**
+     * Get the last known username of a user who has performed an action in the town
+     *
+     * @param uuid the user's UUID
+     * @return the username, if the user has performed a logged action
+     */
+    public synchronized Optional<String> getUsername(@NotNull UUID uuid) {
+        return Optional.ofNullable(usernames.get(uuid));
+    }
+
+    /**
+     * An entry in the town audit log
+     *
+     * @param timestamp when the action occurred
+     * @param action    the action
+     */
+    public record Entry(@NotNull OffsetDateTime timestamp, @NotNull Action action) {
     }
 
 }
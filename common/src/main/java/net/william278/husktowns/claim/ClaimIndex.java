@@ -0,0 +1,282 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.claim;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * An open-addressing hash index of {@link Chunk#asLong() packed chunk positions} to values.
+ * <p>
+ * Keys are stored as primitive {@code long}s, so lookups do not box. Reads are optimistic and do not take a lock
+ * (or allocate) unless they race with a write; writes are serialised.
+ *
+ * @param <V> the type of value stored against each chunk
+ */
+final class ClaimIndex<V> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final StampedLock lock = new StampedLock();
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    ClaimIndex() {
+        this.keys = new long[INITIAL_CAPACITY];
+        this.values = new Object[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Get the value indexed against a chunk
+     *
+     * @param key the {@link Chunk#asLong() packed chunk position}
+     * @return the value, or {@code null} if there is none
+     */
+    @Nullable
+    V get(long key) {
+        long stamp = lock.tryOptimisticRead();
+        V value = find(key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = find(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private V find(long key) {
+        // Arrays may be swapped by a concurrent resize; bound by the smaller so an optimistic read can't overrun
+        final long[] keys = this.keys;
+        final Object[] values = this.values;
+        final int mask = Math.min(keys.length, values.length) - 1;
+        int slot = mix(key) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            final Object value = values[slot];
+            if (value == null) {
+                return null;
+            }
+            if (keys[slot] == key) {
+                return (V) value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Index a value against a chunk, replacing any existing value
+     *
+     * @param key   the {@link Chunk#asLong() packed chunk position}
+     * @param value the value
+     */
+    void put(long key, @NotNull V value) {
+        final long stamp = lock.writeLock();
+        try {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            if (insert(keys, values, key, value)) {
+                size++;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove the value indexed against a chunk
+     *
+     * @param key the {@link Chunk#asLong() packed chunk position}
+     * @return the removed value, or {@code null} if there was none
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        final long stamp = lock.writeLock();
+        try {
+            final int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (values[slot] != null) {
+                if (keys[slot] == key) {
+                    final V removed = (V) values[slot];
+                    deleteSlot(slot);
+                    size--;
+                    return removed;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove every value matching a predicate
+     *
+     * @param filter the predicate
+     * @return the number of values removed
+     */
+    @SuppressWarnings("unchecked")
+    int removeIf(@NotNull Predicate<V> filter) {
+        final long stamp = lock.writeLock();
+        try {
+            final long[] retainedKeys = new long[keys.length];
+            final Object[] retainedValues = new Object[values.length];
+            int removed = 0;
+            for (int slot = 0; slot < values.length; slot++) {
+                final Object value = values[slot];
+                if (value == null) {
+                    continue;
+                }
+                if (filter.test((V) value)) {
+                    removed++;
+                    continue;
+                }
+                insert(retainedKeys, retainedValues, keys[slot], value);
+            }
+            if (removed > 0) {
+                this.keys = retainedKeys;
+                this.values = retainedValues;
+                this.size -= removed;
+            }
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove all values from the index
+     */
+    void clear() {
+        final long stamp = lock.writeLock();
+        try {
+            this.keys = new long[INITIAL_CAPACITY];
+            this.values = new Object[INITIAL_CAPACITY];
+            this.size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Run an action for each indexed value, against a snapshot of the index
+     *
+     * @param action the action to run
+     */
+    void forEach(@NotNull Consumer<V> action) {
+        values().forEach(action);
+    }
+
+    /**
+     * Get a snapshot of the indexed values
+     *
+     * @return a new list of the values in the index
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    List<V> values() {
+        final long stamp = lock.readLock();
+        try {
+            final List<V> snapshot = new ArrayList<>(size);
+            for (final Object value : values) {
+                if (value != null) {
+                    snapshot.add((V) value);
+                }
+            }
+            return snapshot;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    int size() {
+        final long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void resize(int capacity) {
+        final long[] resizedKeys = new long[capacity];
+        final Object[] resizedValues = new Object[capacity];
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                insert(resizedKeys, resizedValues, keys[slot], values[slot]);
+            }
+        }
+        this.keys = resizedKeys;
+        this.values = resizedValues;
+    }
+
+    // Returns true if a new key was added, false if an existing key was replaced
+    private static boolean insert(long[] keys, Object[] values, long key, @NotNull Object value) {
+        final int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        return true;
+    }
+
+    // Backward-shift deletion, so probe chains stay unbroken without tombstones
+    private void deleteSlot(int slot) {
+        final int mask = keys.length - 1;
+        int gap = slot;
+        int next = (slot + 1) & mask;
+        while (values[next] != null) {
+            final int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = null;
+    }
+
+    private static int mix(long key) {
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+}
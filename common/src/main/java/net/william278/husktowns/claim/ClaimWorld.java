@@ -27,17 +27,25 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import net.william278.husktowns.HuskTowns;
 import net.william278.husktowns.town.Town;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @NoArgsConstructor
 public class ClaimWorld {
 
+    /**
+     * The town ID that admin claims are stored against
+     */
+    public static final int ADMIN_CLAIM_TOWN_ID = -1;
+
     @Getter
     private int id;
     @Expose
@@ -48,7 +56,9 @@ public class ClaimWorld {
     private ConcurrentLinkedQueue<Claim> adminClaims = Queues.newConcurrentLinkedQueue();
 
     @Expose(deserialize = false, serialize = false)
-    private transient Map<Long, CachedClaim> cachedClaims = Maps.newConcurrentMap();
+    private transient ClaimIndex<CachedClaim> cachedClaims = new ClaimIndex<>();
+    @Expose(deserialize = false, serialize = false)
+    private transient AtomicInteger townCacheVersion = new AtomicInteger();
 
     private ClaimWorld(int id, @NotNull ConcurrentMap<Integer, ConcurrentLinkedQueue<Claim>> claims,
                        @NotNull ConcurrentLinkedQueue<Claim> adminClaims) {
@@ -70,16 +80,54 @@ public class ClaimWorld {
             claim.getChunk().asLong(), new CachedClaim(key, claim)
         )));
         adminClaims.forEach(claim -> this.cachedClaims.put(
-            claim.getChunk().asLong(), new CachedClaim(-1, claim)
+            claim.getChunk().asLong(), new CachedClaim(ADMIN_CLAIM_TOWN_ID, claim)
         ));
     }
 
-    private Optional<TownClaim> getClaimAt(long chunkLong, @NotNull HuskTowns plugin) {
-        return Optional.ofNullable(cachedClaims.get(chunkLong)).map(cached -> cached.getTownClaim(plugin));
+    /**
+     * Add a claim read from the database to this world
+     *
+     * @param townId the ID of the town that owns the claim, or {@link #ADMIN_CLAIM_TOWN_ID} for an admin claim
+     * @param claim  the claim
+     */
+    @ApiStatus.Internal
+    public void loadClaim(int townId, @NotNull Claim claim) {
+        if (townId == ADMIN_CLAIM_TOWN_ID) {
+            adminClaims.add(claim);
+        } else {
+            claims.computeIfAbsent(townId, id -> new ConcurrentLinkedQueue<>()).add(claim);
+        }
+        cachedClaims.put(claim.getChunk().asLong(), new CachedClaim(townId, claim));
+    }
+
+    /**
+     * Get the claim at a {@link Chunk#asLong() packed chunk position}, without wrapping it in an {@link Optional}.
+     * <p>
+     * Once a claim has been looked up, subsequent lookups return the same {@link TownClaim} instance until the town
+     * that owns it is replaced in the cache, so this does not allocate on the operation-handling hot path.
+     *
+     * @param chunkLong the {@link Chunk#asLong() packed chunk position}
+     * @param plugin    the HuskTowns plugin instance
+     * @return the claim at the chunk, or {@code null} if the chunk is not claimed
+     */
+    @Nullable
+    @ApiStatus.Internal
+    public TownClaim findClaimAt(long chunkLong, @NotNull HuskTowns plugin) {
+        final CachedClaim cached = cachedClaims.get(chunkLong);
+        return cached != null ? cached.getTownClaim(plugin, townCacheVersion.get()) : null;
     }
 
     public Optional<TownClaim> getClaimAt(@NotNull Chunk chunk, @NotNull HuskTowns plugin) {
-        return getClaimAt(chunk.asLong(), plugin);
+        return Optional.ofNullable(findClaimAt(chunk.asLong(), plugin));
+    }
+
+    /**
+     * Invalidate the {@link TownClaim}s cached by this world, so that they are resolved again next time they are
+     * looked up. Claims are checked against their town's current {@link Town} instance whenever they are looked up,
+     * so this need only be called when the admin town may have changed, or towns have been reloaded.
+     */
+    public void invalidateTownCache() {
+        townCacheVersion.incrementAndGet();
     }
 
     /**
@@ -111,9 +159,10 @@ public class ClaimWorld {
 
     @NotNull
     public List<TownClaim> getTownClaims(int townId, @NotNull HuskTowns plugin) {
+        final int version = townCacheVersion.get();
         return cachedClaims.values().stream()
             .filter(cachedClaim -> cachedClaim.townId == townId)
-            .map(cachedClaim -> cachedClaim.getTownClaim(plugin))
+            .map(cachedClaim -> cachedClaim.getTownClaim(plugin, version))
             .collect(Collectors.toList());
     }
 
@@ -124,10 +173,29 @@ public class ClaimWorld {
             .collect(Collectors.toMap(Map.Entry::getKey, entry -> new ArrayList<>(entry.getValue())));
     }
 
+    /**
+     * Get the claims made by a town in this world, without copying any other town's claims
+     *
+     * @param townId the ID of the town
+     * @return a copy of the town's claims
+     */
+    @NotNull
+    public List<Claim> getClaims(int townId) {
+        final ConcurrentLinkedQueue<Claim> townClaims = claims.get(townId);
+        return townClaims != null ? new ArrayList<>(townClaims) : List.of();
+    }
+
+    @NotNull
+    @Unmodifiable
+    public List<Claim> getAdminClaims() {
+        return List.copyOf(adminClaims);
+    }
+
     @NotNull
     public List<TownClaim> getClaims(@NotNull HuskTowns plugin) {
+        final int version = townCacheVersion.get();
         return cachedClaims.values().stream()
-            .map(cachedClaim -> cachedClaim.getTownClaim(plugin))
+            .map(cachedClaim -> cachedClaim.getTownClaim(plugin, version))
             .collect(Collectors.toList());
     }
 
@@ -142,7 +210,7 @@ public class ClaimWorld {
         if (claims.containsKey(townId)) {
             int claimCount = claims.get(townId).size();
             claims.remove(townId);
-            cachedClaims.values().removeIf(cachedClaim -> cachedClaim.townId == townId);
+            cachedClaims.removeIf(cachedClaim -> cachedClaim.townId == townId);
             return claimCount;
         }
         return 0;
@@ -161,7 +229,7 @@ public class ClaimWorld {
         if (townClaim.isAdminClaim(plugin)) {
             adminClaims.removeIf(c -> c.getChunk().equals(claim.getChunk()));
             adminClaims.add(claim);
-            cachedClaims.put(claim.getChunk().asLong(), new CachedClaim(-1, claim));
+            cachedClaims.put(claim.getChunk().asLong(), new CachedClaim(ADMIN_CLAIM_TOWN_ID, claim));
         } else if (claims.containsKey(townClaim.town().getId())) {
             claims.get(townClaim.town().getId()).removeIf(c -> c.getChunk().equals(claim.getChunk()));
             claims.get(townClaim.town().getId()).add(claim);
@@ -170,7 +238,7 @@ public class ClaimWorld {
     }
 
     public void addAdminClaim(@NotNull Claim claim) {
-        cachedClaims.put(claim.getChunk().asLong(), new CachedClaim(-1, claim));
+        cachedClaims.put(claim.getChunk().asLong(), new CachedClaim(ADMIN_CLAIM_TOWN_ID, claim));
         adminClaims.add(claim);
     }
 
@@ -194,7 +262,10 @@ public class ClaimWorld {
         final List<TownClaim> townClaims = new ArrayList<>();
         for (int x = chunk.getX() - radius; x <= chunk.getX() + radius; x++) {
             for (int z = chunk.getZ() - radius; z <= chunk.getZ() + radius; z++) {
-                getClaimAt(Chunk.asLong(x, z), plugin).ifPresent(townClaims::add);
+                final TownClaim townClaim = findClaimAt(Chunk.asLong(x, z), plugin);
+                if (townClaim != null) {
+                    townClaims.add(townClaim);
+                }
             }
         }
         townClaims.sort((chunk1, chunk2) -> chunk1.claim().getChunk().distanceBetween(chunk2.claim().getChunk()));
@@ -222,15 +293,44 @@ public class ClaimWorld {
         return id == claimWorld.id;
     }
 
-    private record CachedClaim(int townId, @NotNull Claim claim) {
+    private static final class CachedClaim {
+
+        private final int townId;
+        private final Claim claim;
+        @Nullable
+        private volatile Resolved resolved;
+
+        private CachedClaim(int townId, @NotNull Claim claim) {
+            this.townId = townId;
+            this.claim = claim;
+        }
+
+        // Towns are replaced in the cache when edited, so the owning town is looked up by ID (a map read) each time
         @NotNull
-        TownClaim getTownClaim(@NotNull HuskTowns plugin) {
-            if (townId == -1) {
-                return new TownClaim(plugin.getAdminTown(), claim);
+        TownClaim getTownClaim(@NotNull HuskTowns plugin, int version) {
+            final Resolved cached = this.resolved;
+            if (townId == ADMIN_CLAIM_TOWN_ID) {
+                if (cached != null && cached.version() == version) {
+                    return cached.townClaim();
+                }
+                final TownClaim townClaim = new TownClaim(plugin.getAdminTown(), claim);
+                this.resolved = new Resolved(version, townClaim);
+                return townClaim;
             }
-            return plugin.findTown(townId)
-                .map(town -> new TownClaim(town, claim))
-                .orElseThrow(() -> new IllegalStateException("Claim has invalid town ID: " + townId));
+
+            final Town town = plugin.getTowns().getById(townId);
+            if (cached != null && cached.version() == version && cached.townClaim().town() == town) {
+                return cached.townClaim();
+            }
+            if (town == null) {
+                throw new IllegalStateException("Claim has invalid town ID: " + townId);
+            }
+            final TownClaim townClaim = new TownClaim(town, claim);
+            this.resolved = new Resolved(version, townClaim);
+            return townClaim;
+        }
+
+        private record Resolved(int version, @NotNull TownClaim townClaim) {
         }
     }
 
@@ -25,6 +25,7 @@ import lombok.NoArgsConstructor;
 import net.william278.cloplib.operation.OperationType;
 import net.william278.husktowns.config.Flags;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -43,6 +44,9 @@ public class Rules {
     @Expose(deserialize = false, serialize = false)
     private Map<Flag, Boolean> calculatedFlags = null;
 
+    @Nullable
+    private transient volatile CompiledRules compiledRules = null;
+
     private Rules(@NotNull Map<String, Boolean> flags) {
         this.flags = flags;
     }
@@ -106,6 +110,7 @@ public class Rules {
     public void setFlag(@NotNull Flag flag, boolean value) {
         flags.put(flag.getName(), value);
         calculatedFlags = null;
+        compiledRules = null;
     }
 
     /**
@@ -117,9 +122,41 @@ public class Rules {
      * {@code true} if no flags have been set to {@code true} that permit the operation; {@code false} otherwise
      */
     public boolean cancelOperation(@NotNull OperationType type, @NotNull Flags flagConfig) {
-        return getCalculatedFlags(flagConfig).entrySet().stream()
-            .filter(Map.Entry::getValue)
-            .noneMatch(entry -> entry.getKey().isOperationAllowed(type));
+        CompiledRules compiled = compiledRules;
+        if (compiled == null || compiled.flagConfig() != flagConfig) {
+            compiledRules = compiled = CompiledRules.compile(getMapped(flags, flagConfig), flagConfig);
+        }
+        return !compiled.isAllowed(type);
+    }
+
+    /**
+     * The operations permitted by a set of rules, as a bitset indexed by {@link OperationType#ordinal()}.
+     * <p>
+     * Compiled from the rules when an operation is first checked against them, and again after a flag is set or the
+     * {@link Flags flag config} is reloaded.
+     *
+     * @param flagConfig the flag config the rules were compiled against
+     * @param allowed    the bitset of allowed operations
+     */
+    private record CompiledRules(@NotNull Flags flagConfig, long[] allowed) {
+
+        private static final int OPERATION_TYPES = OperationType.values().length;
+
+        @NotNull
+        private static CompiledRules compile(@NotNull Map<Flag, Boolean> flags, @NotNull Flags flagConfig) {
+            final long[] allowed = new long[(OPERATION_TYPES + Long.SIZE - 1) / Long.SIZE];
+            flags.forEach((flag, value) -> {
+                if (value) {
+                    flag.getAllowedOperations().forEach(type -> allowed[type.ordinal() / Long.SIZE] |= 1L << type.ordinal());
+                }
+            });
+            return new CompiledRules(flagConfig, allowed);
+        }
+
+        private boolean isAllowed(@NotNull OperationType type) {
+            return (allowed[type.ordinal() / Long.SIZE] & (1L << type.ordinal())) != 0;
+        }
+
     }
 
 }
@@ -35,6 +35,8 @@ import net.william278.husktowns.town.Invite;
 import net.william278.husktowns.town.Member;
 import net.william278.husktowns.town.Role;
 import net.william278.husktowns.town.Town;
+import net.william278.husktowns.town.TownRankings;
+import net.william278.husktowns.town.TownRegistry;
 import net.william278.husktowns.user.CommandUser;
 import net.william278.husktowns.user.OnlineUser;
 import net.william278.husktowns.user.User;
@@ -295,8 +297,10 @@ public final class TownCommand extends Command {
                     .ifPresent(executor::sendMessage);
                 return;
             }
-            executor.sendMessage(PaginatedList.of(towns.stream()
-                        .map(town -> locales.getRawLocale("town_list_item",
+
+            // Items are formatted lazily, so only those on the page shown are formatted
+            executor.sendMessage(PaginatedList.of(Lists.transform(towns,
+                        town -> locales.getRawLocale("town_list_item",
                                 Locales.escapeText(town.getName()),
                                 town.getColorRgb(),
                                 Locales.escapeText(town.getBio()
@@ -307,8 +311,7 @@ public final class TownCommand extends Command {
                                 Integer.toString(town.getMembers().size()),
                                 Integer.toString(town.getMaxMembers(plugin)),
                                 town.getFoundedTime().format(DateTimeFormatter.ofPattern("dd MMM yy")))
-                            .orElse(town.getName()))
-                        .toList(),
+                            .orElse(town.getName())),
                     locales.getBaseList(plugin.getSettings().getGeneral().getListItemsPerPage())
                         .setHeaderFormat(getListTitle(locales, towns.size(), sortOption, ascending))
                         .setItemSeparator("\n")
@@ -372,26 +375,21 @@ public final class TownCommand extends Command {
          * Options for sorting the town list
          */
         public enum SortOption {
-            FOUNDED(Comparator.comparing(Town::getFoundedTime).thenComparing(Town::getName)),
-            NAME(Comparator.comparing(Town::getName)),
-            LEVEL(Comparator.comparingInt(Town::getLevel).thenComparing(Town::getName)),
-            CLAIMS(Comparator.comparingInt(Town::getClaimCount).thenComparing(Town::getName)),
-            MEMBERS(Comparator.comparingInt((Town town) -> town.getMembers().size()).thenComparing(Town::getName)),
-            MONEY(Comparator.comparing(Town::getMoney));
-            private final Comparator<Town> comparator;
-
-            SortOption(@NotNull Comparator<Town> filter) {
-                this.comparator = filter;
+            FOUNDED(TownRankings.Key.FOUNDED),
+            NAME(TownRankings.Key.NAME),
+            LEVEL(TownRankings.Key.LEVEL),
+            CLAIMS(TownRankings.Key.CLAIMS),
+            MEMBERS(TownRankings.Key.MEMBERS),
+            MONEY(TownRankings.Key.MONEY);
+            private final TownRankings.Key key;
+
+            SortOption(@NotNull TownRankings.Key key) {
+                this.key = key;
             }
 
             @NotNull
-            private List<Town> sort(@NotNull Collection<Town> towns, boolean ascending) {
-                final List<Town> sortedTowns = Lists.newArrayList(towns);
-                sortedTowns.sort(comparator);
-                if (!ascending) {
-                    Collections.reverse(sortedTowns);
-                }
-                return sortedTowns;
+            private List<Town> sort(@NotNull TownRegistry towns, boolean ascending) {
+                return towns.getRankings().getRanked(key, ascending);
             }
 
             private static Optional<SortOption> parse(@NotNull String name) {
@@ -198,6 +198,48 @@ public class Locales {
             .setSpaceBeforeFooter(false);
     }
 
+    /**
+     * Get the footer of a list, with buttons for navigating between its pages, for lists fetched a page at a time
+     * rather than paginated from the full list of items
+     *
+     * @param page       the page being shown, starting at 1
+     * @param totalPages the total number of pages in the list
+     * @param command    the command to run with a page number to view a page
+     * @return the formatted footer
+     */
+    @NotNull
+    public String getListFooter(int page, int totalPages, @NotNull String command) {
+        final String previous = page > 1 ? getRawLocale("list_previous_page_button",
+            Integer.toString(page - 1), command).orElse("") : "";
+        final String next = page < totalPages ? getRawLocale("list_next_page_button",
+            Integer.toString(page + 1), command).orElse("") : "";
+        final String jumpers = totalPages > 1 ? getRawLocale("list_page_jumpers",
+            getPageJumpButtons(page, totalPages, command)).orElse("") : "";
+        return getRawLocale("list_footer", previous, Integer.toString(page), Integer.toString(totalPages),
+            next, jumpers).orElse("");
+    }
+
+    // Buttons for the first and last pages, and those either side of the current page, with gaps between groups
+    @NotNull
+    private String getPageJumpButtons(int page, int totalPages, @NotNull String command) {
+        final StringBuilder buttons = new StringBuilder();
+        int previous = 0;
+        for (int jump = 1; jump <= totalPages; jump++) {
+            if (jump != 1 && jump != totalPages && Math.abs(jump - page) > 2) {
+                continue;
+            }
+            if (previous > 0) {
+                buttons.append(getRawLocale(jump - previous > 1 ? "list_page_jumper_group_separator"
+                    : "list_page_jumper_separator").orElse(""));
+            }
+            buttons.append(jump == page
+                ? getRawLocale("list_page_jumper_current_page", Integer.toString(jump)).orElse("")
+                : getRawLocale("list_page_jumper_button", Integer.toString(jump), command).orElse(""));
+            previous = jump;
+        }
+        return buttons.toString();
+    }
+
     public enum Slot {
         CHAT,
         ACTION_BAR,
@@ -28,6 +28,7 @@ import lombok.NoArgsConstructor;
 import net.kyori.adventure.bossbar.BossBar;
 import net.kyori.adventure.text.format.TextColor;
 import net.william278.husktowns.claim.World;
+import net.william278.husktowns.database.DataCodec;
 import net.william278.husktowns.database.Database;
 import net.william278.husktowns.network.Broker;
 import org.jetbrains.annotations.NotNull;
@@ -110,6 +111,44 @@ public class Settings {
             private long timeout = 5000;
         }
 
+        @Comment("SQLITE database properties. Don't modify this unless you know what you're doing!")
+        private SqliteOptions sqlite = new SqliteOptions();
+
+        @Getter
+        @Configuration
+        @NoArgsConstructor(access = AccessLevel.PRIVATE)
+        public static class SqliteOptions {
+            @Comment("Whether to use write-ahead logging, letting reads happen while data is being written")
+            private boolean walMode = true;
+
+            @Comment("How many read-only connections to open when using write-ahead logging")
+            private int readConnections = 3;
+
+            @Comment("When to sync writes to disk (OFF, NORMAL or FULL). NORMAL is faster, and with write-ahead "
+                + "logging can only lose the most recent writes on a power loss, never corrupt the database")
+            private String synchronous = "FULL";
+
+            @Comment("Checkpoint the write-ahead log into the database file once it reaches this many pages. "
+                + "Set to 0 to only checkpoint on shutdown")
+            private int checkpointPages = 1000;
+        }
+
+        @Comment("How long to wait (in ticks) after a town is changed before saving it, so that changes made in quick "
+            + "succession are saved together in one write. Set to 0 to save changes immediately.")
+        private long townSaveDelay = 20;
+
+        @Comment("How many days to keep town audit log entries for before pruning them on startup. Entries recording "
+            + "when towns were founded are always kept. Set to 0 to keep all entries.")
+        private long townLogRetentionDays = 0;
+
+        @Comment("The format to save town and claim data in (JSON or BINARY). BINARY is smaller and faster to load, but "
+            + "can't be read by older versions of HuskTowns. Data saved in either format can always be read, and is "
+            + "converted when it is next saved.")
+        private DataCodec.Format dataFormat = DataCodec.Format.JSON;
+
+        @Comment("Whether to compress town data saved in the BINARY format")
+        private boolean compressData = true;
+
         @Comment("Names of tables to use on your database. Don't modify this unless you know what you're doing!")
         @Getter(AccessLevel.NONE)
         private Map<String, String> tableNames = Database.TableName.getDefaults();
@@ -140,6 +179,14 @@ public class Settings {
         @Comment("Type of network message broker to ues for data synchronization (PLUGIN_MESSAGE or REDIS)")
         private Broker.Type brokerType = Broker.Type.PLUGIN_MESSAGE;
 
+        @Comment({"Cross-server messages at least this large (in bytes) are compressed before being sent.",
+            "Set to 0 to never compress messages"})
+        private int compressionThreshold = 1024;
+
+        @Comment({"How often (in seconds) servers check their copies of each other's lists of online users are up to date.",
+            "Set to 0 to only sync user lists as users join and leave"})
+        private long userListSyncInterval = 60;
+
         @Comment("Settings for if you're using REDIS as your message broker")
         private RedisSettings redis = new RedisSettings();
 
@@ -153,6 +200,19 @@ public class Settings {
             private String password = "";
             private boolean useSsl = false;
 
+            @Comment("How many threads to handle messages received from Redis on")
+            private int subscriberThreads = 4;
+
+            @Comment("How many received messages can wait to be handled before further messages are dropped")
+            private int subscriberQueueSize = 1000;
+
+            @Comment({"How long to wait (in ticks) before publishing a message, so that messages sent in quick succession",
+                "are published together in one round trip. Set to 0 to publish messages immediately."})
+            private long publishDelay = 1;
+
+            @Comment("How many messages can be waiting to be published before they are published without waiting")
+            private int publishBatchSize = 64;
+
             @Comment({"Settings for if you're using Redis Sentinels.",
                 "If you're not sure what this is, please ignore this section."})
             private SentinelSettings sentinel = new SentinelSettings();
@@ -188,6 +248,9 @@ public class Settings {
         @Comment("How far away the inspector tool can be used from a claim. (in blocks)")
         private int maxInspectionDistance = 80;
 
+        @Comment("Settings for the particle outlines shown when inspecting claims")
+        private ClaimVisualizerSettings claimVisualizer = new ClaimVisualizerSettings();
+
         @Comment("The slot to display claim entry/teleportation notifications in. (ACTION_BAR, CHAT, TITLE, SUBTITLE, NONE)")
         private Locales.Slot notificationSlot = Locales.Slot.ACTION_BAR;
 
@@ -257,6 +320,21 @@ public class Settings {
             private String markerSetName = "Claims";
         }
 
+        @Getter
+        @Configuration
+        @NoArgsConstructor(access = AccessLevel.PRIVATE)
+        public static final class ClaimVisualizerSettings {
+            @Comment("How far from a player claim outline particles are shown, in blocks")
+            private int viewDistance = 96;
+
+            @Comment({"The most particles to show each player each time outlines are redrawn (every half second).",
+                "If more points of an outline are in view, only some are shown each redraw, in turn."})
+            private int maxParticlesPerPlayer = 600;
+
+            @Comment("The most particles to show all players in total each time outlines are redrawn, shared between them")
+            private int maxParticlesTotal = 6000;
+        }
+
         public boolean isUnclaimableWorld(@NotNull World world) {
             return unclaimableWorlds.stream().anyMatch(world.getName()::equalsIgnoreCase);
         }
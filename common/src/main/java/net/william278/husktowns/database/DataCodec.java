@@ -0,0 +1,273 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.database;
+
+import com.google.gson.JsonSyntaxException;
+import net.william278.husktowns.HuskTowns;
+import net.william278.husktowns.claim.Chunk;
+import net.william278.husktowns.claim.Claim;
+import net.william278.husktowns.town.Town;
+import net.william278.husktowns.util.GsonProvider;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Encodes {@link Town}s and {@link Claim}s for storage in the database, in the configured {@link Format}.
+ * <p>
+ * Binary data starts with a {@link #MAGIC} byte, a format version and a flags byte; anything else is read as JSON, so
+ * data saved in either format can always be read back.
+ */
+public final class DataCodec {
+
+    /**
+     * The first byte of binary-encoded data. Its low four bits are a reserved element type in SQLite's JSONB format,
+     * so binary data is never mistaken for JSONB
+     */
+    static final byte MAGIC = (byte) 0xBF;
+
+    /**
+     * The current version of the binary format
+     */
+    static final int VERSION = 1;
+
+    private static final int FLAG_COMPRESSED = 1;
+
+    private final GsonProvider json;
+    private final Supplier<Format> format;
+    private final BooleanSupplier compress;
+
+    public DataCodec(@NotNull HuskTowns plugin) {
+        this(plugin, () -> plugin.getSettings().getDatabase().getDataFormat(),
+            () -> plugin.getSettings().getDatabase().isCompressData());
+    }
+
+    // The format and compression are supplied on each save, so changes to the settings apply on reload
+    DataCodec(@NotNull GsonProvider json, @NotNull Supplier<Format> format, @NotNull BooleanSupplier compress) {
+        this.json = json;
+        this.format = format;
+        this.compress = compress;
+    }
+
+    /**
+     * Get whether data is currently being saved in the {@link Format#BINARY binary format}
+     *
+     * @return {@code true} if new data is saved as binary
+     */
+    public boolean isBinary() {
+        return format.get() == Format.BINARY;
+    }
+
+    /**
+     * Get whether data is binary-encoded, rather than JSON
+     *
+     * @param data the data
+     * @return {@code true} if the data is binary-encoded
+     */
+    public static boolean isBinary(byte @NotNull [] data) {
+        return data.length > 0 && data[0] == MAGIC;
+    }
+
+    /**
+     * Encode a town in the configured format
+     * <p>
+     * Binary-encoded towns hold the town's JSON, compressed if {@code compress_data} is enabled
+     *
+     * @param town the town
+     * @return the encoded town
+     */
+    public byte @NotNull [] encodeTown(@NotNull Town town) {
+        final byte[] data = json.getGson().toJson(town).getBytes(StandardCharsets.UTF_8);
+        if (!isBinary()) {
+            return data;
+        }
+
+        final boolean compressed = compress.getAsBoolean();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / (compressed ? 4 : 1) + 3);
+        writeHeader(bytes, compressed ? FLAG_COMPRESSED : 0);
+        try (OutputStream out = compressed ? new DeflaterOutputStream(bytes) : bytes) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode town data", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a town saved in either format
+     *
+     * @param data the encoded town
+     * @return the town
+     * @throws JsonSyntaxException      if the town's JSON is malformed
+     * @throws IllegalArgumentException if the binary data is malformed or of an unsupported version
+     */
+    @NotNull
+    public Town decodeTown(byte @NotNull [] data) throws JsonSyntaxException, IllegalArgumentException {
+        if (!isBinary(data)) {
+            return json.getTownFromJson(new String(data, StandardCharsets.UTF_8));
+        }
+
+        final int flags = readHeader(data);
+        final InputStream body = new ByteArrayInputStream(data, 3, data.length - 3);
+        try (InputStream in = (flags & FLAG_COMPRESSED) != 0 ? new InflaterInputStream(body) : body) {
+            return json.getTownFromJson(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed binary town data", e);
+        }
+    }
+
+    /**
+     * Encode a claim in the configured format
+     * <p>
+     * Binary-encoded claims hold the chunk position as zig-zag varints, the claim type and, for plots, each plot
+     * member's UUID and whether they are a manager. Claims are small enough that they are never compressed
+     *
+     * @param claim the claim
+     * @return the encoded claim
+     */
+    public byte @NotNull [] encodeClaim(@NotNull Claim claim) {
+        if (!isBinary()) {
+            return json.getGson().toJson(claim).getBytes(StandardCharsets.UTF_8);
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(16);
+        writeHeader(bytes, 0);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            writeVarInt(out, zigZag(claim.getChunk().getX()));
+            writeVarInt(out, zigZag(claim.getChunk().getZ()));
+            out.writeByte(claim.getType().ordinal());
+            if (claim.getType() == Claim.Type.PLOT) {
+                writeVarInt(out, claim.getPlotMembers().size());
+                for (UUID member : claim.getPlotMembers()) {
+                    out.writeLong(member.getMostSignificantBits());
+                    out.writeLong(member.getLeastSignificantBits());
+                    out.writeBoolean(claim.isPlotManager(member));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode claim data", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a claim saved in either format
+     *
+     * @param data the encoded claim
+     * @return the claim
+     * @throws JsonSyntaxException      if the claim's JSON is malformed
+     * @throws IllegalArgumentException if the binary data is malformed or of an unsupported version
+     */
+    @NotNull
+    public Claim decodeClaim(byte @NotNull [] data) throws JsonSyntaxException, IllegalArgumentException {
+        if (!isBinary(data)) {
+            return json.getClaimFromJson(new String(data, StandardCharsets.UTF_8));
+        }
+
+        readHeader(data);
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 3, data.length - 3));
+        try {
+            final Claim claim = Claim.at(Chunk.at(unZigZag(readVarInt(in)), unZigZag(readVarInt(in))));
+            final Claim.Type[] types = Claim.Type.values();
+            final int type = in.readUnsignedByte();
+            if (type >= types.length) {
+                throw new IllegalArgumentException("Unknown claim type " + type);
+            }
+            claim.setType(types[type]);
+            if (claim.getType() == Claim.Type.PLOT) {
+                for (int members = readVarInt(in); members > 0; members--) {
+                    claim.setPlotMember(new UUID(in.readLong(), in.readLong()), in.readBoolean());
+                }
+            }
+            return claim;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed binary claim data", e);
+        }
+    }
+
+    private static void writeHeader(@NotNull ByteArrayOutputStream out, int flags) {
+        out.write(MAGIC);
+        out.write(VERSION);
+        out.write(flags);
+    }
+
+    // Returns the flags byte
+    private static int readHeader(byte @NotNull [] data) throws IllegalArgumentException {
+        if (data.length < 3) {
+            throw new IllegalArgumentException("Binary data is missing its header");
+        }
+        final int version = data[1] & 0xFF;
+        if (version == 0 || version > VERSION) {
+            throw new IllegalArgumentException("Unsupported binary data version " + version
+                + " (supports up to v" + VERSION + ")");
+        }
+        return data[2] & 0xFF;
+    }
+
+    private static void writeVarInt(@NotNull DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(@NotNull DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            final int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint is too long");
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Formats town and claim data can be saved in
+     */
+    public enum Format {
+        /**
+         * Human-readable JSON, readable by all versions of HuskTowns
+         */
+        JSON,
+        /**
+         * Compact binary encoding, only readable by versions of HuskTowns that support it
+         */
+        BINARY
+    }
+
+}
@@ -19,11 +19,12 @@
 
 package net.william278.husktowns.database;
 
+import com.google.gson.JsonSyntaxException;
 import lombok.Getter;
 import net.william278.husktowns.HuskTowns;
-import net.william278.husktowns.claim.ClaimWorld;
-import net.william278.husktowns.claim.ServerWorld;
-import net.william278.husktowns.claim.World;
+import net.william278.husktowns.audit.Action;
+import net.william278.husktowns.audit.Log;
+import net.william278.husktowns.claim.*;
 import net.william278.husktowns.config.Settings;
 import net.william278.husktowns.town.Town;
 import net.william278.husktowns.user.Preferences;
@@ -38,9 +39,14 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -49,10 +55,12 @@ import java.util.stream.Collectors;
 public abstract class Database {
 
     protected final HuskTowns plugin;
+    protected final DataCodec codec;
     private boolean loaded;
 
     protected Database(@NotNull HuskTowns plugin) {
         this.plugin = plugin;
+        this.codec = new DataCodec(plugin);
     }
 
     /**
@@ -124,9 +132,12 @@ public abstract class Database {
 
     /**
      * Perform database migrations
+     * <p>
+     * The schema version is recorded after each migration, so if one that moves data fails, the migrations from it
+     * onwards are retried next time rather than being skipped and the data left behind.
      *
      * @param connection the database connection
-     * @throws SQLException if an SQL error occurs during migration
+     * @throws SQLException if an SQL error occurs during a migration that moves data; startup must then be aborted
      */
     protected final void performMigrations(@NotNull Connection connection, @NotNull Type type) throws SQLException {
         final int currentVersion = getSchemaVersion();
@@ -134,27 +145,53 @@ public abstract class Database {
         if (currentVersion < latestVersion) {
             plugin.log(Level.INFO, "Performing database migrations (Target version: v" + latestVersion + ")");
             for (Migration migration : Migration.getOrderedMigrations()) {
-                if (!migration.isSupported(type)) {
+                if (!migration.isSupported(type) || migration.getVersion() <= currentVersion) {
                     continue;
                 }
-                if (migration.getVersion() > currentVersion) {
-                    try {
-                        plugin.log(Level.INFO, "Performing database migration: " + migration.getMigrationName()
-                            + " (v" + migration.getVersion() + ")");
-                        final String scriptName = "migrations/" + migration.getVersion() + "-" + type.name().toLowerCase() +
-                            "-" + migration.getMigrationName() + ".sql";
-                        executeScript(connection, scriptName);
-                    } catch (SQLException e) {
-                        plugin.log(Level.WARNING, "Migration " + migration.getMigrationName()
-                            + " (v" + migration.getVersion() + ") failed; skipping", e);
+                try {
+                    plugin.log(Level.INFO, "Performing database migration: " + migration.getMigrationName()
+                        + " (v" + migration.getVersion() + ")");
+                    final String scriptName = "migrations/" + migration.getVersion() + "-" + type.name().toLowerCase() +
+                        "-" + migration.getMigrationName() + ".sql";
+                    executeScript(connection, scriptName);
+                    if (migration == Migration.SPLIT_CLAIM_WORLDS) {
+                        splitClaimWorlds(connection);
+                    } else if (migration == Migration.SPLIT_TOWN_LOGS) {
+                        splitTownLogs(connection);
+                    }
+                } catch (SQLException e) {
+                    if (migration.isMovingData()) {
+                        plugin.log(Level.SEVERE, "Migration " + migration.getMigrationName()
+                            + " (v" + migration.getVersion() + ") failed; it will be retried on next startup", e);
+                        throw e;
                     }
+                    plugin.log(Level.WARNING, "Migration " + migration.getMigrationName()
+                        + " (v" + migration.getVersion() + ") failed; skipping", e);
                 }
+                setSchemaVersion(migration.getVersion());
             }
             setSchemaVersion(latestVersion);
             plugin.log(Level.INFO, "Completed database migration (Target version: v" + latestVersion + ")");
         }
     }
 
+    /**
+     * Split the claims of each claim world, previously stored in a single serialized column of the claim worlds
+     * table, into individual rows of the claims table, then drop the old column
+     *
+     * @param connection the database connection
+     * @throws SQLException if an SQL error occurs during migration
+     */
+    protected abstract void splitClaimWorlds(@NotNull Connection connection) throws SQLException;
+
+    /**
+     * Move the audit log of each town, previously stored in the town data, into the town log table
+     *
+     * @param connection the database connection
+     * @throws SQLException if an SQL error occurs during migration
+     */
+    protected abstract void splitTownLogs(@NotNull Connection connection) throws SQLException;
+
     /**
      * Get the database schema version
      *
@@ -186,12 +223,13 @@ public abstract class Database {
     public abstract Optional<SavedUser> getUser(@NotNull String username);
 
     /**
-     * Get a list of {@link SavedUser}s who have not logged in for a given number of days
+     * Stream the UUIDs of users who have not logged in for a given number of days, as they are read
      *
      * @param daysInactive The number of days a user has not logged in for
-     * @return A list of {@link SavedUser}s who have not logged in for a given number of days
+     * @param consumer     Consumer for the UUID of each inactive user
+     * @return {@code true} if every inactive user was read, or {@code false} if reading them failed part-way
      */
-    public abstract List<SavedUser> getInactiveUsers(long daysInactive);
+    public abstract boolean forEachInactiveUser(long daysInactive, @NotNull Consumer<UUID> consumer);
 
     /**
      * Add a user to the database
@@ -239,7 +277,22 @@ public abstract class Database {
      * @return A list of all towns
      * @throws IllegalStateException if the plugin fails to fetch town data
      */
-    public abstract List<Town> getAllTowns() throws IllegalStateException;
+    public List<Town> getAllTowns() throws IllegalStateException {
+        final List<Town> towns = Collections.synchronizedList(new ArrayList<>());
+        forEachTown(towns::add);
+        return towns;
+    }
+
+    /**
+     * Read every town, passing each to a consumer as soon as it has been decoded.
+     * <p>
+     * Towns are decoded in parallel, so the consumer may be called from several threads at once. This method returns
+     * once every town has been passed to the consumer.
+     *
+     * @param consumer The consumer to pass each town to
+     * @throws IllegalStateException if the plugin fails to fetch town data
+     */
+    public abstract void forEachTown(@NotNull Consumer<Town> consumer) throws IllegalStateException;
 
     /**
      * Add a town to the database
@@ -252,12 +305,20 @@ public abstract class Database {
     public abstract Town createTown(@NotNull String name, @NotNull User creator);
 
     /**
-     * Update a town's name in the database
+     * Update a town in the database, saving any actions logged against it since it was last saved
      *
      * @param town The town to update
      */
     public abstract void updateTown(@NotNull Town town);
 
+    /**
+     * Update several towns in the database in a single batch, saving any actions logged against them since they were
+     * last saved
+     *
+     * @param towns The towns to update
+     */
+    public abstract void updateTowns(@NotNull Collection<Town> towns);
+
     /**
      * Delete a town from the database
      *
@@ -270,6 +331,87 @@ public abstract class Database {
      */
     public abstract void deleteAllTowns();
 
+    /**
+     * Get a page of a town's audit log, most recent first
+     *
+     * @param townId The ID of the town
+     * @param offset The number of entries to skip
+     * @param limit  The maximum number of entries to return
+     * @return The log entries
+     */
+    public abstract List<Log.Entry> getLogEntries(int townId, int offset, int limit);
+
+    /**
+     * Get the number of entries in a town's audit log
+     *
+     * @param townId The ID of the town
+     * @return The number of log entries
+     */
+    public abstract int getLogEntryCount(int townId);
+
+    /**
+     * Delete audit log entries older than a given time, except for those recording when towns were created
+     *
+     * @param before The time before which entries should be deleted
+     * @return The number of entries deleted
+     */
+    public abstract int pruneLogEntries(@NotNull OffsetDateTime before);
+
+    /**
+     * Insert the actions logged against towns since they were last saved into the town log table.
+     * <p>
+     * This should be run in the same transaction as saving the towns. The entries are only marked as saved by running
+     * the returned callback, which should be done once the transaction has been committed.
+     *
+     * @param connection The database connection
+     * @param towns      The towns whose unsaved log entries should be inserted
+     * @return A callback marking the inserted entries as saved
+     * @throws SQLException if the entries could not be inserted
+     */
+    @NotNull
+    protected final Runnable insertLogEntries(@NotNull Connection connection, @NotNull Collection<Town> towns)
+        throws SQLException {
+        final Map<Town, Integer> inserted = new IdentityHashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(format("""
+            INSERT INTO `%town_log%` (`town_id`, `timestamp`, `action`, `user_uuid`, `username`, `details`)
+            VALUES (?, ?, ?, ?, ?, ?)"""))) {
+            for (Town town : towns) {
+                final List<Log.Entry> entries = town.getLog().getUnsavedEntries();
+                for (Log.Entry entry : entries) {
+                    final Optional<User> user = entry.action().getUser();
+                    statement.setInt(1, town.getId());
+                    statement.setTimestamp(2, Timestamp.from(entry.timestamp().toInstant()));
+                    statement.setString(3, entry.action().getType().name());
+                    statement.setString(4, user.map(u -> u.getUuid().toString()).orElse(null));
+                    statement.setString(5, user.map(User::getUsername).orElse(null));
+                    statement.setString(6, entry.action().getDetails().orElse(null));
+                    statement.addBatch();
+                }
+                inserted.put(town, entries.size());
+            }
+            statement.executeBatch();
+        }
+        return () -> inserted.forEach((town, count) -> town.getLog().markSaved(count));
+    }
+
+    /**
+     * Read the log entry on a row of the town log table
+     *
+     * @param resultSet The result set, positioned at the row to read
+     * @return The log entry
+     * @throws SQLException             if the row could not be read
+     * @throws IllegalArgumentException if the row's action type is not recognised
+     */
+    @NotNull
+    protected final Log.Entry readLogEntry(@NotNull ResultSet resultSet) throws SQLException, IllegalArgumentException {
+        final String uuid = resultSet.getString("user_uuid");
+        final User user = uuid != null ? User.of(UUID.fromString(uuid), resultSet.getString("username")) : null;
+        return new Log.Entry(
+            OffsetDateTime.ofInstant(resultSet.getTimestamp("timestamp").toInstant(), ZoneId.systemDefault()),
+            new Action(Action.Type.valueOf(resultSet.getString("action")), user, resultSet.getString("details"))
+        );
+    }
+
     /**
      * Get a list of all claim worlds on a server
      *
@@ -297,12 +439,90 @@ public abstract class Database {
     public abstract ClaimWorld createClaimWorld(@NotNull World world);
 
     /**
-     * Update a claim world in the database
+     * Replace all the claims of a claim world in the database.
+     * <p>
+     * This rewrites every claim in the world; when only one claim has changed, use {@link #saveClaim(ClaimWorld,
+     * TownClaim)}, {@link #deleteClaim(ClaimWorld, Chunk)} or {@link #deleteTownClaims(ClaimWorld, int)} instead.
      *
      * @param claimWorld The claim world to update
      */
     public abstract void updateClaimWorld(@NotNull ClaimWorld claimWorld);
 
+    /**
+     * Save a claim in a claim world to the database, replacing any existing claim at the same chunk
+     *
+     * @param claimWorld The claim world the claim is in
+     * @param claim      The claim to save
+     */
+    public abstract void saveClaim(@NotNull ClaimWorld claimWorld, @NotNull TownClaim claim);
+
+    /**
+     * Delete the claim at a chunk in a claim world from the database
+     *
+     * @param claimWorld The claim world the claim is in
+     * @param chunk      The chunk of the claim to delete
+     */
+    public abstract void deleteClaim(@NotNull ClaimWorld claimWorld, @NotNull Chunk chunk);
+
+    /**
+     * Delete all of a town's claims in a claim world from the database
+     *
+     * @param claimWorld The claim world to delete claims from
+     * @param townId     The ID of the town whose claims should be deleted
+     */
+    public abstract void deleteTownClaims(@NotNull ClaimWorld claimWorld, int townId);
+
+    /**
+     * Get the ID of the town a claim is stored against in the claims table
+     *
+     * @param claim The claim
+     * @return the claim's town ID, or {@link ClaimWorld#ADMIN_CLAIM_TOWN_ID} if it is an admin claim
+     */
+    protected final int getClaimTownId(@NotNull TownClaim claim) {
+        return claim.isAdminClaim(plugin) ? ClaimWorld.ADMIN_CLAIM_TOWN_ID : claim.town().getId();
+    }
+
+    /**
+     * Set the parameters of a statement inserting a row into the claims table, in the order
+     * {@code world_id, chunk_x, chunk_z, town_id, data}
+     *
+     * @param statement  The statement to set the parameters of
+     * @param claimWorld The claim world the claim is in
+     * @param townId     The ID of the town that owns the claim
+     * @param claim      The claim
+     * @throws SQLException if the parameters could not be set
+     */
+    protected final void setClaimParameters(@NotNull PreparedStatement statement, @NotNull ClaimWorld claimWorld,
+                                            int townId, @NotNull Claim claim) throws SQLException {
+        statement.setInt(1, claimWorld.getId());
+        statement.setInt(2, claim.getChunk().getX());
+        statement.setInt(3, claim.getChunk().getZ());
+        statement.setInt(4, townId);
+        statement.setBytes(5, codec.encodeClaim(claim));
+    }
+
+    /**
+     * Read the claim on a row of a claim world query joined with the claims table, and queue it to be decoded and
+     * added to its claim world
+     *
+     * @param resultSet  The result set, positioned at the row to read
+     * @param claimWorld The claim world the row belongs to
+     * @param decoder    The decoder to decode the claim on
+     * @throws SQLException             if the row could not be read
+     * @throws JsonSyntaxException      if a previous claim's JSON data was malformed
+     * @throws IllegalArgumentException if a previous claim's binary data was malformed
+     */
+    protected final void readClaim(@NotNull ResultSet resultSet, @NotNull ClaimWorld claimWorld,
+                                   @NotNull RowDecoder decoder)
+        throws SQLException, JsonSyntaxException, IllegalArgumentException {
+        final byte[] data = resultSet.getBytes("data");
+        if (data == null) {
+            return;
+        }
+        final int townId = resultSet.getInt("town_id");
+        decoder.submit(() -> claimWorld.loadClaim(townId, codec.decodeClaim(data)));
+    }
+
     /**
      * Close the database connection
      */
@@ -354,7 +574,9 @@ public abstract class Database {
         META_DATA("husktowns_metadata"),
         USER_DATA("husktowns_users"),
         TOWN_DATA("husktowns_town_data"),
-        CLAIM_DATA("husktowns_claim_worlds");
+        CLAIM_DATA("husktowns_claim_worlds"),
+        CLAIM_CHUNK_DATA("husktowns_claims"),
+        TOWN_LOG("husktowns_town_log");
         @NotNull
         private final String defaultName;
 
@@ -397,6 +619,18 @@ public abstract class Database {
         CONVERT_TO_JSONB(
                 2, "convert_to_jsonb",
                 Type.SQLITE
+        ),
+        SPLIT_CLAIM_WORLDS(
+            3, "split_claim_worlds",
+            Type.MYSQL, Type.MARIADB, Type.SQLITE
+        ),
+        SPLIT_TOWN_LOGS(
+            4, "split_town_logs",
+            Type.MYSQL, Type.MARIADB, Type.SQLITE
+        ),
+        ADD_USER_INDEXES(
+            5, "add_user_indexes",
+            Type.MYSQL, Type.MARIADB, Type.SQLITE
         );
 
         private final int version;
@@ -417,6 +651,11 @@ public abstract class Database {
             return migrationName;
         }
 
+        // Migrations that move data between tables can't be skipped if they fail, or the data would be left behind
+        private boolean isMovingData() {
+            return this == SPLIT_CLAIM_WORLDS || this == SPLIT_TOWN_LOGS;
+        }
+
         private boolean isSupported(@NotNull Type type) {
             return Arrays.stream(supportedTypes).anyMatch(supportedType -> supportedType == type);
         }
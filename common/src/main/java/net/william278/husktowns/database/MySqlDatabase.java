@@ -24,9 +24,9 @@ import com.google.common.collect.Queues;
 import com.google.gson.JsonSyntaxException;
 import com.zaxxer.hikari.HikariDataSource;
 import net.william278.husktowns.HuskTowns;
-import net.william278.husktowns.claim.ClaimWorld;
-import net.william278.husktowns.claim.ServerWorld;
-import net.william278.husktowns.claim.World;
+import net.william278.husktowns.audit.Action;
+import net.william278.husktowns.audit.Log;
+import net.william278.husktowns.claim.*;
 import net.william278.husktowns.config.Settings;
 import net.william278.husktowns.town.Town;
 import net.william278.husktowns.user.Preferences;
@@ -39,6 +39,7 @@ import java.sql.*;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 public final class MySqlDatabase extends Database {
@@ -60,6 +61,11 @@ public final class MySqlDatabase extends Database {
         return dataSource.getConnection();
     }
 
+    // Have the driver stream rows as they are read, rather than buffering the whole result set in memory first
+    private static void streamResults(@NotNull Statement statement) throws SQLException {
+        statement.setFetchSize(Integer.MIN_VALUE);
+    }
+
     private void setConnection() {
         // Initialize the Hikari pooled connection
         final Settings.DatabaseSettings databaseSettings = plugin.getSettings().getDatabase();
@@ -240,6 +246,7 @@ public final class MySqlDatabase extends Database {
 
     @Override
     public Optional<SavedUser> getUser(@NotNull String username) {
+        // Usernames are stored with a case-insensitive collation, so this matches any case and uses the username index
         try (Connection connection = getConnection()) {
             try (PreparedStatement statement = connection.prepareStatement(format("""
                 SELECT `uuid`, `username`, `last_login`, `preferences`
@@ -272,32 +279,24 @@ public final class MySqlDatabase extends Database {
     }
 
     @Override
-    public List<SavedUser> getInactiveUsers(long daysInactive) {
-        final List<SavedUser> inactiveUsers = new ArrayList<>();
+    public boolean forEachInactiveUser(long daysInactive, @NotNull Consumer<UUID> consumer) {
         try (Connection connection = getConnection()) {
             try (PreparedStatement statement = connection.prepareStatement(format("""
-                SELECT `uuid`, `username`, `last_login`, `preferences`
+                SELECT `uuid`
                 FROM `%user_data%`
                 WHERE `last_login` < DATE_SUB(NOW(), INTERVAL ? DAY);"""))) {
+                streamResults(statement);
                 statement.setLong(1, daysInactive);
                 final ResultSet resultSet = statement.executeQuery();
                 while (resultSet.next()) {
-                    final UUID uuid = UUID.fromString(resultSet.getString("uuid"));
-                    final String name = resultSet.getString("username");
-                    final String preferences = new String(resultSet.getBytes("preferences"), StandardCharsets.UTF_8);
-                    inactiveUsers.add(new SavedUser(
-                        User.of(uuid, name),
-                        resultSet.getTimestamp("last_login").toLocalDateTime()
-                            .atOffset(OffsetDateTime.now().getOffset()),
-                        plugin.getPreferencesFromJson(preferences)
-                    ));
+                    consumer.accept(UUID.fromString(resultSet.getString("uuid")));
                 }
+                return true;
             }
         } catch (SQLException e) {
             plugin.log(Level.SEVERE, "Failed to fetch list of inactive users", e);
-            inactiveUsers.clear(); // Clear for safety to prevent any accidental data being returned
         }
-        return inactiveUsers;
+        return false;
     }
 
     @Override
@@ -357,38 +356,39 @@ public final class MySqlDatabase extends Database {
                 statement.setInt(1, townId);
                 final ResultSet resultSet = statement.executeQuery();
                 if (resultSet.next()) {
-                    final String data = new String(resultSet.getBytes("data"), StandardCharsets.UTF_8);
-                    final Town town = plugin.getTownFromJson(data);
+                    final Town town = codec.decodeTown(resultSet.getBytes("data"));
                     town.setId(resultSet.getInt("id"));
                     return Optional.of(town);
                 }
             }
-        } catch (SQLException | JsonSyntaxException e) {
+        } catch (SQLException | JsonSyntaxException | IllegalArgumentException e) {
             plugin.log(Level.SEVERE, "Failed to fetch town data from table by ID", e);
         }
         return Optional.empty();
     }
 
     @Override
-    public List<Town> getAllTowns() throws IllegalStateException {
-        final List<Town> towns = new ArrayList<>();
-        try (Connection connection = getConnection()) {
+    public void forEachTown(@NotNull Consumer<Town> consumer) throws IllegalStateException {
+        try (Connection connection = getConnection(); RowDecoder decoder = new RowDecoder(plugin)) {
             try (PreparedStatement statement = connection.prepareStatement(format("""
                 SELECT `id`, `data`
                 FROM `%town_data%`"""))) {
+                streamResults(statement);
                 final ResultSet resultSet = statement.executeQuery();
                 while (resultSet.next()) {
-                    final Town town = plugin.getTownFromJson(
-                        new String(resultSet.getBytes("data"), StandardCharsets.UTF_8)
-                    );
-                    town.setId(resultSet.getInt("id"));
-                    towns.add(town);
+                    final int id = resultSet.getInt("id");
+                    final byte[] data = resultSet.getBytes("data");
+                    decoder.submit(() -> {
+                        final Town town = codec.decodeTown(data);
+                        town.setId(id);
+                        consumer.accept(town);
+                    });
                 }
             }
-        } catch (SQLException | JsonSyntaxException e) {
+            decoder.await();
+        } catch (SQLException | JsonSyntaxException | IllegalArgumentException e) {
             throw new IllegalStateException("Failed to fetch all town data from table", e);
         }
-        return towns;
     }
 
     @Override
@@ -396,19 +396,28 @@ public final class MySqlDatabase extends Database {
     public Town createTown(@NotNull String name, @NotNull User creator) {
         final Town town = Town.create(name, creator, plugin);
         try (Connection connection = getConnection()) {
+            connection.setAutoCommit(false);
             try (PreparedStatement statement = connection.prepareStatement(format("""
                 INSERT INTO `%town_data%` (`name`, `data`)
                 VALUES (?, ?)"""), Statement.RETURN_GENERATED_KEYS)) {
                 statement.setString(1, town.getName());
-                statement.setBytes(2, plugin.getGson().toJson(town).getBytes(StandardCharsets.UTF_8));
+                statement.setBytes(2, codec.encodeTown(town));
                 statement.executeUpdate();
 
                 final ResultSet insertedRow = statement.getGeneratedKeys();
                 if (insertedRow.next()) {
                     town.setId(insertedRow.getInt(1));
                 }
+                final Runnable logSaved = insertLogEntries(connection, List.of(town));
+                connection.commit();
+                logSaved.run();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
             }
-        } catch (SQLException | JsonSyntaxException e) {
+        } catch (SQLException | JsonSyntaxException | IllegalArgumentException e) {
             plugin.log(Level.SEVERE, "Failed to create town in table", e);
         }
         return town;
@@ -416,18 +425,35 @@ public final class MySqlDatabase extends Database {
 
     @Override
     public void updateTown(@NotNull Town town) {
+        updateTowns(List.of(town));
+    }
+
+    @Override
+    public void updateTowns(@NotNull Collection<Town> towns) {
         try (Connection connection = getConnection()) {
+            connection.setAutoCommit(false);
             try (PreparedStatement statement = connection.prepareStatement(format("""
                 UPDATE `%town_data%`
                 SET `name` = ?, `data` = ?
                 WHERE `id` = ?"""))) {
-                statement.setString(1, town.getName());
-                statement.setBytes(2, plugin.getGson().toJson(town).getBytes(StandardCharsets.UTF_8));
-                statement.setInt(3, town.getId());
-                statement.executeUpdate();
+                for (Town town : towns) {
+                    statement.setString(1, town.getName());
+                    statement.setBytes(2, codec.encodeTown(town));
+                    statement.setInt(3, town.getId());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                final Runnable logSaved = insertLogEntries(connection, towns);
+                connection.commit();
+                logSaved.run();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
             }
         } catch (SQLException e) {
-            plugin.log(Level.SEVERE, "Failed to update town in table", e);
+            plugin.log(Level.SEVERE, "Failed to update towns in table", e);
         }
     }
 
@@ -457,29 +483,97 @@ public final class MySqlDatabase extends Database {
         }
     }
 
+    @Override
+    public List<Log.Entry> getLogEntries(int townId, int offset, int limit) {
+        final List<Log.Entry> entries = new ArrayList<>();
+        try (Connection connection = getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(format("""
+                SELECT `timestamp`, `action`, `user_uuid`, `username`, `details`
+                FROM `%town_log%`
+                WHERE `town_id` = ?
+                ORDER BY `timestamp` DESC, `id` DESC
+                LIMIT ? OFFSET ?"""))) {
+                statement.setInt(1, townId);
+                statement.setInt(2, limit);
+                statement.setInt(3, offset);
+                final ResultSet resultSet = statement.executeQuery();
+                while (resultSet.next()) {
+                    entries.add(readLogEntry(resultSet));
+                }
+            }
+        } catch (SQLException | IllegalArgumentException e) {
+            plugin.log(Level.SEVERE, "Failed to fetch town log entries from table", e);
+        }
+        return entries;
+    }
+
+    @Override
+    public int getLogEntryCount(int townId) {
+        try (Connection connection = getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(format("""
+                SELECT COUNT(*) AS `entries`
+                FROM `%town_log%`
+                WHERE `town_id` = ?"""))) {
+                statement.setInt(1, townId);
+                final ResultSet resultSet = statement.executeQuery();
+                if (resultSet.next()) {
+                    return resultSet.getInt("entries");
+                }
+            }
+        } catch (SQLException e) {
+            plugin.log(Level.SEVERE, "Failed to count town log entries in table", e);
+        }
+        return 0;
+    }
+
+    @Override
+    public int pruneLogEntries(@NotNull OffsetDateTime before) {
+        try (Connection connection = getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(format("""
+                DELETE FROM `%town_log%`
+                WHERE `timestamp` < ? AND `action` <> ?"""))) {
+                statement.setTimestamp(1, Timestamp.from(before.toInstant()));
+                statement.setString(2, Action.Type.CREATE_TOWN.name());
+                return statement.executeUpdate();
+            }
+        } catch (SQLException e) {
+            plugin.log(Level.SEVERE, "Failed to prune town log entries from table", e);
+        }
+        return 0;
+    }
+
     @Override
     public Map<World, ClaimWorld> getClaimWorlds(@NotNull String server) throws IllegalStateException {
         final Map<World, ClaimWorld> worlds = new HashMap<>();
-        try (Connection connection = getConnection()) {
+        final Map<Integer, ClaimWorld> claimWorlds = new HashMap<>();
+        try (Connection connection = getConnection(); RowDecoder decoder = new RowDecoder(plugin)) {
             try (PreparedStatement statement = connection.prepareStatement(format("""
-                SELECT `id`, `world_uuid`, `world_name`, `world_environment`, `claims`
-                FROM `%claim_data%`
-                WHERE `server_name` = ?"""))) {
+                SELECT `w`.`id`, `w`.`world_uuid`, `w`.`world_name`, `w`.`world_environment`,
+                    `c`.`town_id`, `c`.`data`
+                FROM `%claim_data%` AS `w`
+                LEFT JOIN `%claim_chunk_data%` AS `c` ON `c`.`world_id` = `w`.`id`
+                WHERE `w`.`server_name` = ?"""))) {
                 statement.setString(1, server);
+                streamResults(statement);
                 final ResultSet resultSet = statement.executeQuery();
                 while (resultSet.next()) {
-                    final String data = new String(resultSet.getBytes("claims"), StandardCharsets.UTF_8);
-                    final World world = World.of(UUID.fromString(resultSet.getString("world_uuid")),
-                        resultSet.getString("world_name"),
-                        resultSet.getString("world_environment"));
-                    final ClaimWorld claimWorld = plugin.getClaimWorldFromJson(data);
-                    claimWorld.updateId(resultSet.getInt("id"));
-                    if (!plugin.getSettings().getGeneral().isUnclaimableWorld(world)) {
-                        worlds.put(world, claimWorld);
+                    final int id = resultSet.getInt("id");
+                    ClaimWorld claimWorld = claimWorlds.get(id);
+                    if (claimWorld == null) {
+                        final World world = World.of(UUID.fromString(resultSet.getString("world_uuid")),
+                            resultSet.getString("world_name"),
+                            resultSet.getString("world_environment"));
+                        claimWorld = ClaimWorld.of(id, Maps.newConcurrentMap(), Queues.newConcurrentLinkedQueue());
+                        claimWorlds.put(id, claimWorld);
+                        if (!plugin.getSettings().getGeneral().isUnclaimableWorld(world)) {
+                            worlds.put(world, claimWorld);
+                        }
                     }
+                    readClaim(resultSet, claimWorld, decoder);
                 }
             }
-        } catch (SQLException | JsonSyntaxException e) {
+            decoder.await();
+        } catch (SQLException | JsonSyntaxException | IllegalArgumentException e) {
             throw new IllegalStateException(String.format("Failed to fetch claim world map for %s", server), e);
         }
         return worlds;
@@ -488,22 +582,31 @@ public final class MySqlDatabase extends Database {
     @Override
     public Map<ServerWorld, ClaimWorld> getAllClaimWorlds() throws IllegalStateException {
         final Map<ServerWorld, ClaimWorld> worlds = new HashMap<>();
-        try (Connection connection = getConnection()) {
+        final Map<Integer, ClaimWorld> claimWorlds = new HashMap<>();
+        try (Connection connection = getConnection(); RowDecoder decoder = new RowDecoder(plugin)) {
             try (PreparedStatement statement = connection.prepareStatement(format("""
-                SELECT `id`, `server_name`, `world_uuid`, `world_name`, `world_environment`, `claims`
-                FROM `%claim_data%`"""))) {
+                SELECT `w`.`id`, `w`.`server_name`, `w`.`world_uuid`, `w`.`world_name`, `w`.`world_environment`,
+                    `c`.`town_id`, `c`.`data`
+                FROM `%claim_data%` AS `w`
+                LEFT JOIN `%claim_chunk_data%` AS `c` ON `c`.`world_id` = `w`.`id`"""))) {
+                streamResults(statement);
                 final ResultSet resultSet = statement.executeQuery();
                 while (resultSet.next()) {
-                    final String data = new String(resultSet.getBytes("claims"), StandardCharsets.UTF_8);
-                    final World world = World.of(UUID.fromString(resultSet.getString("world_uuid")),
-                        resultSet.getString("world_name"),
-                        resultSet.getString("world_environment"));
-                    final ClaimWorld claimWorld = plugin.getClaimWorldFromJson(data);
-                    claimWorld.updateId(resultSet.getInt("id"));
-                    worlds.put(new ServerWorld(resultSet.getString("server_name"), world), claimWorld);
+                    final int id = resultSet.getInt("id");
+                    ClaimWorld claimWorld = claimWorlds.get(id);
+                    if (claimWorld == null) {
+                        final World world = World.of(UUID.fromString(resultSet.getString("world_uuid")),
+                            resultSet.getString("world_name"),
+                            resultSet.getString("world_environment"));
+                        claimWorld = ClaimWorld.of(id, Maps.newConcurrentMap(), Queues.newConcurrentLinkedQueue());
+                        claimWorlds.put(id, claimWorld);
+                        worlds.put(new ServerWorld(resultSet.getString("server_name"), world), claimWorld);
+                    }
+                    readClaim(resultSet, claimWorld, decoder);
                 }
             }
-        } catch (SQLException | JsonSyntaxException e) {
+            decoder.await();
+        } catch (SQLException | JsonSyntaxException | IllegalArgumentException e) {
             throw new IllegalStateException("Failed to fetch map of all claim worlds", e);
         }
         return worlds;
@@ -515,13 +618,12 @@ public final class MySqlDatabase extends Database {
         final ClaimWorld claimWorld = ClaimWorld.of(0, Maps.newConcurrentMap(), Queues.newConcurrentLinkedQueue());
         try (Connection connection = getConnection()) {
             try (PreparedStatement statement = connection.prepareStatement(format("""
-                INSERT INTO `%claim_data%` (`world_uuid`, `world_name`, `world_environment`, `server_name`, `claims`)
-                VALUES (?, ?, ?, ?, ?)"""), Statement.RETURN_GENERATED_KEYS)) {
+                INSERT INTO `%claim_data%` (`world_uuid`, `world_name`, `world_environment`, `server_name`)
+                VALUES (?, ?, ?, ?)"""), Statement.RETURN_GENERATED_KEYS)) {
                 statement.setString(1, world.getUuid().toString());
                 statement.setString(2, world.getName());
                 statement.setString(3, world.getEnvironment());
                 statement.setString(4, plugin.getServerName());
-                statement.setBytes(5, plugin.getGson().toJson(claimWorld).getBytes(StandardCharsets.UTF_8));
                 statement.executeUpdate();
 
                 final ResultSet insertedRow = statement.getGeneratedKeys();
@@ -529,7 +631,7 @@ public final class MySqlDatabase extends Database {
                     claimWorld.updateId(insertedRow.getInt(1));
                 }
             }
-        } catch (SQLException | JsonSyntaxException e) {
+        } catch (SQLException e) {
             plugin.log(Level.SEVERE, "Failed to create claim world in table", e);
         }
         return claimWorld;
@@ -537,17 +639,170 @@ public final class MySqlDatabase extends Database {
 
     @Override
     public void updateClaimWorld(@NotNull ClaimWorld claimWorld) {
+        try (Connection connection = getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    DELETE FROM `%claim_chunk_data%`
+                    WHERE `world_id` = ?"""))) {
+                    statement.setInt(1, claimWorld.getId());
+                    statement.executeUpdate();
+                }
+                insertClaims(connection, claimWorld);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.log(Level.SEVERE, "Failed to update claim world in table", e);
+        }
+    }
+
+    @Override
+    public void saveClaim(@NotNull ClaimWorld claimWorld, @NotNull TownClaim claim) {
         try (Connection connection = getConnection()) {
             try (PreparedStatement statement = connection.prepareStatement(format("""
-                UPDATE `%claim_data%`
-                SET `claims` = ?
-                WHERE `id` = ?"""))) {
-                statement.setBytes(1, plugin.getGson().toJson(claimWorld).getBytes(StandardCharsets.UTF_8));
-                statement.setInt(2, claimWorld.getId());
+                INSERT INTO `%claim_chunk_data%` (`world_id`, `chunk_x`, `chunk_z`, `town_id`, `data`)
+                VALUES (?, ?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE `town_id` = VALUES(`town_id`), `data` = VALUES(`data`)"""))) {
+                setClaimParameters(statement, claimWorld, getClaimTownId(claim), claim.claim());
                 statement.executeUpdate();
             }
         } catch (SQLException e) {
-            plugin.log(Level.SEVERE, "Failed to update claim world in table", e);
+            plugin.log(Level.SEVERE, "Failed to save claim in table", e);
+        }
+    }
+
+    @Override
+    public void deleteClaim(@NotNull ClaimWorld claimWorld, @NotNull Chunk chunk) {
+        try (Connection connection = getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(format("""
+                DELETE FROM `%claim_chunk_data%`
+                WHERE `world_id` = ? AND `chunk_x` = ? AND `chunk_z` = ?"""))) {
+                statement.setInt(1, claimWorld.getId());
+                statement.setInt(2, chunk.getX());
+                statement.setInt(3, chunk.getZ());
+                statement.executeUpdate();
+            }
+        } catch (SQLException e) {
+            plugin.log(Level.SEVERE, "Failed to delete claim from table", e);
+        }
+    }
+
+    @Override
+    public void deleteTownClaims(@NotNull ClaimWorld claimWorld, int townId) {
+        try (Connection connection = getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(format("""
+                DELETE FROM `%claim_chunk_data%`
+                WHERE `world_id` = ? AND `town_id` = ?"""))) {
+                statement.setInt(1, claimWorld.getId());
+                statement.setInt(2, townId);
+                statement.executeUpdate();
+            }
+        } catch (SQLException e) {
+            plugin.log(Level.SEVERE, "Failed to delete town claims from table", e);
+        }
+    }
+
+    @Override
+    protected void splitClaimWorlds(@NotNull Connection connection) throws SQLException {
+        final List<ClaimWorld> claimWorlds = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(format("""
+            SELECT `id`, `claims`
+            FROM `%claim_data%`"""))) {
+            final ResultSet resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                final ClaimWorld claimWorld = plugin.getClaimWorldFromJson(
+                    new String(resultSet.getBytes("claims"), StandardCharsets.UTF_8)
+                );
+                claimWorld.updateId(resultSet.getInt("id"));
+                claimWorlds.add(claimWorld);
+            }
+        } catch (JsonSyntaxException e) {
+            throw new SQLException("Failed to read claim world data to split", e);
+        }
+
+        connection.setAutoCommit(false);
+        try {
+            for (ClaimWorld claimWorld : claimWorlds) {
+                insertClaims(connection, claimWorld);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+
+        // DDL commits implicitly, so the old column is only dropped once the claims have been copied
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(format("ALTER TABLE `%claim_data%` DROP COLUMN `claims`"));
+        }
+    }
+
+    @Override
+    protected void splitTownLogs(@NotNull Connection connection) throws SQLException {
+        final List<Town> towns = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(format("""
+            SELECT `id`, `data`
+            FROM `%town_data%`"""))) {
+            final ResultSet resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                final Town town = plugin.getTownFromJson(
+                    new String(resultSet.getBytes("data"), StandardCharsets.UTF_8)
+                );
+                town.setId(resultSet.getInt("id"));
+                if (town.getLog().migrateLegacyActions()) {
+                    towns.add(town);
+                }
+            }
+        } catch (JsonSyntaxException e) {
+            throw new SQLException("Failed to read town data to split logs from", e);
+        }
+
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(format("""
+            UPDATE `%town_data%`
+            SET `data` = ?
+            WHERE `id` = ?"""))) {
+            for (Town town : towns) {
+                statement.setBytes(1, plugin.getGson().toJson(town).getBytes(StandardCharsets.UTF_8));
+                statement.setInt(2, town.getId());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            insertLogEntries(connection, towns);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    // Batch insert every claim in a claim world into the claims table; a chunk listed twice (as legacy claim world data
+    // may do) or already copied by an earlier attempt at a migration replaces the existing row, rather than failing
+    private void insertClaims(@NotNull Connection connection, @NotNull ClaimWorld claimWorld) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(format("""
+            INSERT INTO `%claim_chunk_data%` (`world_id`, `chunk_x`, `chunk_z`, `town_id`, `data`)
+            VALUES (?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE `town_id` = VALUES(`town_id`), `data` = VALUES(`data`)"""))) {
+            for (Map.Entry<Integer, List<Claim>> townClaims : claimWorld.getClaims().entrySet()) {
+                for (Claim claim : townClaims.getValue()) {
+                    setClaimParameters(statement, claimWorld, townClaims.getKey(), claim);
+                    statement.addBatch();
+                }
+            }
+            for (Claim claim : claimWorld.getAdminClaims()) {
+                setClaimParameters(statement, claimWorld, ClaimWorld.ADMIN_CLAIM_TOWN_ID, claim);
+                statement.addBatch();
+            }
+            statement.executeBatch();
         }
     }
 
@@ -0,0 +1,110 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.database;
+
+import net.william278.husktowns.HuskTowns;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Decodes rows read from a {@link java.sql.ResultSet} on a pool of worker threads, so that rows can be decoded while
+ * the next are still being read.
+ * <p>
+ * The number of rows waiting to be decoded is bounded, so reading blocks rather than buffering the whole result set
+ * when decoding falls behind.
+ */
+final class RowDecoder implements AutoCloseable {
+
+    private static final int QUEUED_ROWS_PER_THREAD = 256;
+
+    private final ExecutorService executor;
+    private final Semaphore queued;
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    RowDecoder(@NotNull HuskTowns plugin) {
+        final int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        final AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, plugin.getKey("row_decoder_" + count.incrementAndGet()).toString());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.queued = new Semaphore(threads * QUEUED_ROWS_PER_THREAD);
+    }
+
+    /**
+     * Queue a row to be decoded, blocking if too many rows are already waiting
+     *
+     * @param decode decodes the row; must only use values already read from the result set
+     * @throws RuntimeException the first exception thrown decoding a previous row, if any
+     */
+    void submit(@NotNull Runnable decode) throws RuntimeException {
+        rethrowFailure();
+        queued.acquireUninterruptibly();
+        try {
+            executor.execute(() -> {
+                try {
+                    decode.run();
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    queued.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Wait for every queued row to be decoded
+     *
+     * @throws RuntimeException the first exception thrown decoding a row, if any
+     */
+    void await() throws RuntimeException {
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                rethrowFailure();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for rows to be decoded", e);
+        }
+        rethrowFailure();
+    }
+
+    private void rethrowFailure() throws RuntimeException {
+        final RuntimeException e = failure.get();
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+}
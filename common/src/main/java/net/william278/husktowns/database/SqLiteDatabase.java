@@ -23,14 +23,17 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Queues;
 import com.google.gson.JsonSyntaxException;
 import net.william278.husktowns.HuskTowns;
-import net.william278.husktowns.claim.ClaimWorld;
-import net.william278.husktowns.claim.ServerWorld;
-import net.william278.husktowns.claim.World;
+import net.william278.husktowns.audit.Action;
+import net.william278.husktowns.audit.Log;
+import net.william278.husktowns.claim.*;
+import net.william278.husktowns.config.Settings;
 import net.william278.husktowns.town.Town;
 import net.william278.husktowns.user.Preferences;
 import net.william278.husktowns.user.SavedUser;
 import net.william278.husktowns.user.User;
+import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.sqlite.SQLiteConfig;
 
 import java.io.File;
@@ -40,6 +43,8 @@ import java.sql.*;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 public final class SqLiteDatabase extends Database {
@@ -49,26 +54,53 @@ public final class SqLiteDatabase extends Database {
      */
     private static final String DATABASE_FILE_NAME = "HuskTownsData.db";
 
+    /**
+     * How long to wait (in milliseconds) for a lock on the database file before failing a statement
+     */
+    private static final int BUSY_TIMEOUT = 5000;
+
     /**
      * Path to the SQLite HuskTownsData.db file
      */
     private final File databaseFile;
 
     /**
-     * The persistent SQLite database connection
+     * The connection used for writing, which is only used from the {@link #writer} thread.
+     * <p>
+     * If write-ahead logging is disabled, this connection is also used for reading.
      */
     private Connection connection;
 
+    /**
+     * Executor for the single thread all writes are made on
+     */
+    private ExecutorService writer;
+    private volatile Thread writerThread;
+
+    /**
+     * Pool of read-only connections, if write-ahead logging is enabled
+     */
+    @Nullable
+    private BlockingQueue<Connection> readers;
+
+    public SqLiteDatabase(@NotNull HuskTowns plugin) {
+        super(plugin);
+        this.databaseFile = new File(plugin.getDataFolder(), DATABASE_FILE_NAME);
+    }
+
+    @NotNull
+    private Settings.DatabaseSettings.SqliteOptions getOptions() {
+        return plugin.getSettings().getDatabase().getSqlite();
+    }
+
     private Connection getConnection() throws SQLException {
-        if (connection == null) {
-            setConnection();
-        } else if (connection.isClosed()) {
+        if (connection == null || connection.isClosed()) {
             setConnection();
         }
         return connection;
     }
 
-    private void setConnection() {
+    private void setConnection() throws SQLException {
         try {
             // Ensure that the database file exists
             if (databaseFile.createNewFile()) {
@@ -79,25 +111,146 @@ public final class SqLiteDatabase extends Database {
             Class.forName("org.sqlite.JDBC");
 
             // Set SQLite database properties
-            SQLiteConfig config = new SQLiteConfig();
+            final Settings.DatabaseSettings.SqliteOptions options = getOptions();
+            final SQLiteConfig config = getConfig();
             config.enforceForeignKeys(true);
-            config.setEncoding(SQLiteConfig.Encoding.UTF8);
-            config.setSynchronous(SQLiteConfig.SynchronousMode.FULL);
+            config.setJournalMode(options.isWalMode() ? SQLiteConfig.JournalMode.WAL : SQLiteConfig.JournalMode.DELETE);
 
             // Establish the connection
             connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath(), config.toProperties());
+            if (options.isWalMode()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("PRAGMA wal_autocheckpoint = " + Math.max(0, options.getCheckpointPages()));
+                }
+            }
         } catch (IOException e) {
             plugin.log(Level.SEVERE, "An exception occurred creating the database file", e);
-        } catch (SQLException e) {
-            plugin.log(Level.SEVERE, "An SQL exception occurred initializing the SQLite database", e);
         } catch (ClassNotFoundException e) {
             plugin.log(Level.SEVERE, "Failed to load the necessary SQLite driver", e);
         }
     }
 
-    public SqLiteDatabase(@NotNull HuskTowns plugin) {
-        super(plugin);
-        this.databaseFile = new File(plugin.getDataFolder(), DATABASE_FILE_NAME);
+    // Open the pool of read-only connections
+    private void setReaders() throws SQLException {
+        final int size = Math.max(1, getOptions().getReadConnections());
+        final SQLiteConfig config = getConfig();
+        config.setReadOnly(true);
+
+        this.readers = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            readers.add(DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath(), config.toProperties()));
+        }
+    }
+
+    @NotNull
+    private SQLiteConfig getConfig() {
+        final SQLiteConfig config = new SQLiteConfig();
+        config.setEncoding(SQLiteConfig.Encoding.UTF8);
+        config.setBusyTimeout(BUSY_TIMEOUT);
+        try {
+            config.setSynchronous(SQLiteConfig.SynchronousMode.valueOf(
+                getOptions().getSynchronous().toUpperCase(Locale.ENGLISH)
+            ));
+        } catch (IllegalArgumentException e) {
+            plugin.log(Level.WARNING, "Invalid SQLite synchronous mode \"" + getOptions().getSynchronous()
+                + "\"; using FULL");
+            config.setSynchronous(SQLiteConfig.SynchronousMode.FULL);
+        }
+        return config;
+    }
+
+    /**
+     * Run a write operation on the writer thread, waiting for it to complete
+     *
+     * @param operation the operation to run with the writer connection
+     * @param <T>       the type of value returned by the operation
+     * @return the value returned by the operation
+     * @throws SQLException if the operation fails
+     */
+    private <T> T write(@NotNull SqlOperation<T> operation) throws SQLException {
+        if (Thread.currentThread() == writerThread) {
+            return operation.apply(getConnection());
+        }
+        try {
+            return writer.submit(() -> operation.apply(getConnection())).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            } else if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SQLException("Failed to perform write operation", e.getCause());
+        } catch (InterruptedException | RejectedExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new SQLException("Write operation was not performed", e);
+        }
+    }
+
+    /**
+     * Run a write operation in a transaction on the writer thread, waiting for it to be committed
+     *
+     * @param operation the operation to run with the writer connection
+     * @param <T>       the type of value returned by the operation
+     * @return the value returned by the operation
+     * @throws SQLException if the operation fails, in which case the transaction is rolled back
+     */
+    private <T> T transaction(@NotNull SqlOperation<T> operation) throws SQLException {
+        return write(connection -> {
+            connection.setAutoCommit(false);
+            try {
+                final T result = operation.apply(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        });
+    }
+
+    /**
+     * Run a read operation with a connection from the pool of read-only connections, or on the writer thread if
+     * write-ahead logging is disabled
+     *
+     * @param operation the operation to run
+     * @param <T>       the type of value returned by the operation
+     * @return the value returned by the operation
+     * @throws SQLException if the operation fails
+     */
+    private <T> T read(@NotNull SqlOperation<T> operation) throws SQLException {
+        final BlockingQueue<Connection> readers = this.readers;
+        if (readers == null) {
+            return write(operation);
+        }
+
+        final Connection reader;
+        try {
+            reader = readers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a read connection", e);
+        }
+        try {
+            return operation.apply(reader);
+        } finally {
+            readers.add(reader);
+        }
+    }
+
+    /**
+     * Format a statement that saves town or claim data; binary data is saved as-is, rather than converted to JSONB
+     *
+     * @param statement The SQL statement to format
+     * @return The formatted SQL statement
+     */
+    @NotNull
+    private String formatData(@NotNull @Language("SQL") String statement) {
+        final String formatted = format(statement);
+        return codec.isBinary() ? formatted.replace("jsonb(?)", "?") : formatted;
     }
 
     @Override
@@ -111,9 +264,33 @@ public final class SqLiteDatabase extends Database {
 
     @Override
     public void initialize() throws RuntimeException {
-        // Establish connection
-        this.setConnection();
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, plugin.getKey("sqlite_writer").toString());
+            thread.setDaemon(true);
+            return writerThread = thread;
+        });
 
+        // Establish the writer connection, then create or migrate the tables
+        try {
+            setLoaded(write(this::initializeTables));
+        } catch (SQLException e) {
+            plugin.log(Level.SEVERE, "An SQL exception occurred initializing the SQLite database", e);
+            setLoaded(false);
+        }
+
+        // Open read connections once the tables are up-to-date
+        if (hasLoaded() && getOptions().isWalMode()) {
+            try {
+                setReaders();
+            } catch (SQLException e) {
+                plugin.log(Level.SEVERE, "Failed to open SQLite read connections", e);
+                setLoaded(false);
+            }
+        }
+    }
+
+    // Returns whether the tables were created or migrated successfully
+    private boolean initializeTables(@NotNull Connection connection) {
         // Backup database file
         this.backupFlatFile(databaseFile);
 
@@ -121,25 +298,23 @@ public final class SqLiteDatabase extends Database {
         if (!isCreated()) {
             plugin.log(Level.INFO, "Creating SQLite database tables");
             try {
-                executeScript(getConnection(), "sqlite_schema.sql");
+                executeScript(connection, "sqlite_schema.sql");
             } catch (SQLException e) {
                 plugin.log(Level.SEVERE, "Failed to create SQLite database tables");
-                setLoaded(false);
-                return;
+                return false;
             }
             setSchemaVersion(Migration.getLatestVersion());
             plugin.log(Level.INFO, "SQLite database tables created!");
-            setLoaded(true);
-            return;
+            return true;
         }
 
         // Perform migrations
         try {
-            performMigrations(getConnection(), Type.SQLITE);
-            setLoaded(true);
+            performMigrations(connection, Type.SQLITE);
+            return true;
         } catch (SQLException e) {
-            plugin.log(Level.SEVERE, "Failed to perform SQLite database migrations");
-            setLoaded(false);
+            plugin.log(Level.SEVERE, "Failed to perform SQLite database migrations", e);
+            return false;
         }
     }
 
@@ -148,12 +323,16 @@ public final class SqLiteDatabase extends Database {
         if (!databaseFile.exists()) {
             return false;
         }
-        try (PreparedStatement statement = getConnection().prepareStatement(format("""
-            SELECT `uuid`
-            FROM `%user_data%`
-            LIMIT 1;"""))) {
-            statement.executeQuery();
-            return true;
+        try {
+            return read(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    SELECT `uuid`
+                    FROM `%user_data%`
+                    LIMIT 1;"""))) {
+                    statement.executeQuery();
+                    return true;
+                }
+            });
         } catch (SQLException e) {
             return false;
         }
@@ -161,14 +340,19 @@ public final class SqLiteDatabase extends Database {
 
     @Override
     public int getSchemaVersion() {
-        try (PreparedStatement statement = getConnection().prepareStatement(format("""
-            SELECT `schema_version`
-            FROM `%meta_data%`
-            LIMIT 1;"""))) {
-            final ResultSet resultSet = statement.executeQuery();
-            if (resultSet.next()) {
-                return resultSet.getInt("schema_version");
-            }
+        try {
+            return read(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    SELECT `schema_version`
+                    FROM `%meta_data%`
+                    LIMIT 1;"""))) {
+                    final ResultSet resultSet = statement.executeQuery();
+                    if (resultSet.next()) {
+                        return resultSet.getInt("schema_version");
+                    }
+                    return -1;
+                }
+            });
         } catch (SQLException e) {
             plugin.log(Level.WARNING, "The database schema version could not be fetched; migrations will be carried out.");
         }
@@ -178,22 +362,30 @@ public final class SqLiteDatabase extends Database {
     @Override
     public void setSchemaVersion(int version) {
         if (getSchemaVersion() == -1) {
-            try (PreparedStatement insertStatement = getConnection().prepareStatement(format("""
-                INSERT INTO `%meta_data%` (`schema_version`)
-                VALUES (?);"""))) {
-                insertStatement.setInt(1, version);
-                insertStatement.executeUpdate();
+            try {
+                write(connection -> {
+                    try (PreparedStatement insertStatement = connection.prepareStatement(format("""
+                        INSERT INTO `%meta_data%` (`schema_version`)
+                        VALUES (?);"""))) {
+                        insertStatement.setInt(1, version);
+                        return insertStatement.executeUpdate();
+                    }
+                });
             } catch (SQLException e) {
                 plugin.log(Level.SEVERE, "Failed to insert schema version in table", e);
             }
             return;
         }
 
-        try (PreparedStatement statement = getConnection().prepareStatement(format("""
-            UPDATE `%meta_data%`
-            SET `schema_version` = ?;"""))) {
-            statement.setInt(1, version);
-            statement.executeUpdate();
+        try {
+            write(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    UPDATE `%meta_data%`
+                    SET `schema_version` = ?;"""))) {
+                    statement.setInt(1, version);
+                    return statement.executeUpdate();
+                }
+            });
         } catch (SQLException e) {
             plugin.log(Level.SEVERE, "Failed to update schema version in table", e);
         }
@@ -201,22 +393,27 @@ public final class SqLiteDatabase extends Database {
 
     @Override
     public Optional<SavedUser> getUser(@NotNull UUID uuid) {
-        try (PreparedStatement statement = getConnection().prepareStatement(format("""
-            SELECT `uuid`, `username`, `last_login`, json(`preferences`) AS preferences
-            FROM `%user_data%`
-            WHERE uuid = ?"""))) {
-            statement.setString(1, uuid.toString());
-            final ResultSet resultSet = statement.executeQuery();
-            if (resultSet.next()) {
-                final String name = resultSet.getString("username");
-                final String preferences = new String(resultSet.getBytes("preferences"), StandardCharsets.UTF_8);
-                return Optional.of(new SavedUser(
-                    User.of(uuid, name),
-                    resultSet.getTimestamp("last_login").toLocalDateTime()
-                        .atOffset(OffsetDateTime.now().getOffset()),
-                    plugin.getPreferencesFromJson(preferences)
-                ));
-            }
+        try {
+            return read(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    SELECT `uuid`, `username`, `last_login`, json(`preferences`) AS preferences
+                    FROM `%user_data%`
+                    WHERE uuid = ?"""))) {
+                    statement.setString(1, uuid.toString());
+                    final ResultSet resultSet = statement.executeQuery();
+                    if (resultSet.next()) {
+                        final String name = resultSet.getString("username");
+                        final String preferences = new String(resultSet.getBytes("preferences"), StandardCharsets.UTF_8);
+                        return Optional.of(new SavedUser(
+                            User.of(uuid, name),
+                            resultSet.getTimestamp("last_login").toLocalDateTime()
+                                .atOffset(OffsetDateTime.now().getOffset()),
+                            plugin.getPreferencesFromJson(preferences)
+                        ));
+                    }
+                    return Optional.empty();
+                }
+            });
         } catch (SQLException e) {
             plugin.log(Level.SEVERE, "Failed to fetch user data from table by UUID", e);
         }
@@ -225,29 +422,33 @@ public final class SqLiteDatabase extends Database {
 
     @Override
     public Optional<SavedUser> getUser(@NotNull String username) {
-        try (PreparedStatement statement = getConnection().prepareStatement(format("""
-            SELECT `uuid`, `username`, `last_login`, json(`preferences`) AS preferences
-            FROM `%user_data%`
-            WHERE `username` = ?"""))) {
-            statement.setString(1, username);
-            final ResultSet resultSet = statement.executeQuery();
-            SavedUser saved = null;
-            while (resultSet.next()) {
-                final OffsetDateTime dateTime = resultSet.getTimestamp("last_login").toLocalDateTime()
-                        .atOffset(OffsetDateTime.now().getOffset());
-                if (saved != null && saved.lastLogin().isAfter(dateTime)) {
-                    continue;
+        try {
+            return read(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    SELECT `uuid`, `username`, `last_login`, json(`preferences`) AS preferences
+                    FROM `%user_data%`
+                    WHERE lower(`username`) = lower(?)"""))) {
+                    statement.setString(1, username);
+                    final ResultSet resultSet = statement.executeQuery();
+                    SavedUser saved = null;
+                    while (resultSet.next()) {
+                        final OffsetDateTime dateTime = resultSet.getTimestamp("last_login").toLocalDateTime()
+                                .atOffset(OffsetDateTime.now().getOffset());
+                        if (saved != null && saved.lastLogin().isAfter(dateTime)) {
+                            continue;
+                        }
+                        final UUID uuid = UUID.fromString(resultSet.getString("uuid"));
+                        final String name = resultSet.getString("username");
+                        final String preferences = new String(resultSet.getBytes("preferences"), StandardCharsets.UTF_8);
+                        saved = new SavedUser(
+                                User.of(uuid, name),
+                                dateTime,
+                                plugin.getPreferencesFromJson(preferences)
+                        );
+                    }
+                    return Optional.ofNullable(saved);
                 }
-                final UUID uuid = UUID.fromString(resultSet.getString("uuid"));
-                final String name = resultSet.getString("username");
-                final String preferences = new String(resultSet.getBytes("preferences"), StandardCharsets.UTF_8);
-                saved = new SavedUser(
-                        User.of(uuid, name),
-                        dateTime,
-                        plugin.getPreferencesFromJson(preferences)
-                );
-            }
-            return Optional.ofNullable(saved);
+            });
         } catch (SQLException e) {
             plugin.log(Level.SEVERE, "Failed to fetch user data from table by username", e);
         }
@@ -255,42 +456,42 @@ public final class SqLiteDatabase extends Database {
     }
 
     @Override
-    public List<SavedUser> getInactiveUsers(long daysInactive) {
-        final List<SavedUser> inactiveUsers = new ArrayList<>();
-        try (PreparedStatement statement = getConnection().prepareStatement(format("""
-            SELECT `uuid`, `username`, `last_login`, json(`preferences`) AS preferences
-            FROM `%user_data%`
-            WHERE datetime(`last_login` / 1000, 'unixepoch') < datetime('now', ?);"""))) {
-            statement.setString(1, String.format("-%d days", daysInactive));
-            final ResultSet resultSet = statement.executeQuery();
-            while (resultSet.next()) {
-                final UUID uuid = UUID.fromString(resultSet.getString("uuid"));
-                final String name = resultSet.getString("username");
-                final String preferences = new String(resultSet.getBytes("preferences"), StandardCharsets.UTF_8);
-                inactiveUsers.add(new SavedUser(
-                    User.of(uuid, name),
-                    resultSet.getTimestamp("last_login").toLocalDateTime()
-                        .atOffset(OffsetDateTime.now().getOffset()),
-                    plugin.getPreferencesFromJson(preferences)
-                ));
-            }
+    public boolean forEachInactiveUser(long daysInactive, @NotNull Consumer<UUID> consumer) {
+        try {
+            return read(connection -> {
+                // Compared against the stored timestamp directly, so the last login index can be used
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    SELECT `uuid`
+                    FROM `%user_data%`
+                    WHERE `last_login` < ?;"""))) {
+                    statement.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now().minusDays(daysInactive)));
+                    final ResultSet resultSet = statement.executeQuery();
+                    while (resultSet.next()) {
+                        consumer.accept(UUID.fromString(resultSet.getString("uuid")));
+                    }
+                    return true;
+                }
+            });
         } catch (SQLException e) {
             plugin.log(Level.SEVERE, "Failed to fetch list of inactive users", e);
-            inactiveUsers.clear(); // Clear for safety to prevent any accidental data being returned
         }
-        return inactiveUsers;
+        return false;
     }
 
     @Override
     public void createUser(@NotNull User user, @NotNull Preferences preferences) {
-        try (PreparedStatement statement = getConnection().prepareStatement(format("""
-            INSERT INTO `%user_data%` (`uuid`, `username`, `last_login`, `preferences`)
-            VALUES (?, ?, ?, jsonb(?))"""))) {
-            statement.setString(1, user.getUuid().toString());
-            statement.setString(2, user.getUsername());
-            statement.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
-            statement.setBytes(4, plugin.getGson().toJson(preferences).getBytes(StandardCharsets.UTF_8));
-            statement.executeUpdate();
+        try {
+            write(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    INSERT INTO `%user_data%` (`uuid`, `username`, `last_login`, `preferences`)
+                    VALUES (?, ?, ?, jsonb(?))"""))) {
+                    statement.setString(1, user.getUuid().toString());
+                    statement.setString(2, user.getUsername());
+                    statement.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+                    statement.setBytes(4, plugin.getGson().toJson(preferences).getBytes(StandardCharsets.UTF_8));
+                    return statement.executeUpdate();
+                }
+            });
         } catch (SQLException e) {
             plugin.log(Level.SEVERE, "Failed to create user in table", e);
         }
@@ -298,15 +499,19 @@ public final class SqLiteDatabase extends Database {
 
     @Override
     public void updateUser(@NotNull User user, @NotNull OffsetDateTime lastLogin, @NotNull Preferences preferences) {
-        try (PreparedStatement statement = getConnection().prepareStatement(format("""
-            UPDATE `%user_data%`
-            SET `username` = ?, `last_login` = ?, `preferences` = jsonb(?)
-            WHERE `uuid` = ?"""))) {
-            statement.setString(1, user.getUsername());
-            statement.setTimestamp(2, Timestamp.valueOf(lastLogin.toLocalDateTime()));
-            statement.setBytes(3, plugin.getGson().toJson(preferences).getBytes(StandardCharsets.UTF_8));
-            statement.setString(4, user.getUuid().toString());
-            statement.executeUpdate();
+        try {
+            write(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    UPDATE `%user_data%`
+                    SET `username` = ?, `last_login` = ?, `preferences` = jsonb(?)
+                    WHERE `uuid` = ?"""))) {
+                    statement.setString(1, user.getUsername());
+                    statement.setTimestamp(2, Timestamp.valueOf(lastLogin.toLocalDateTime()));
+                    statement.setBytes(3, plugin.getGson().toJson(preferences).getBytes(StandardCharsets.UTF_8));
+                    statement.setString(4, user.getUuid().toString());
+                    return statement.executeUpdate();
+                }
+            });
         } catch (SQLException e) {
             plugin.log(Level.SEVERE, "Failed to update user in table", e);
         }
@@ -314,8 +519,12 @@ public final class SqLiteDatabase extends Database {
 
     @Override
     public void deleteAllUsers() {
-        try (Statement statement = getConnection().createStatement()) {
-            statement.execute(format("DELETE FROM `%user_data%`"));
+        try {
+            write(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    return statement.execute(format("DELETE FROM `%user_data%`"));
+                }
+            });
         } catch (SQLException e) {
             plugin.log(Level.SEVERE, "Failed to delete all users from table", e);
         }
@@ -323,60 +532,74 @@ public final class SqLiteDatabase extends Database {
 
     @Override
     public Optional<Town> getTown(int townId) {
-        try (PreparedStatement statement = getConnection().prepareStatement(format("""
-            SELECT `id`, json(`data`) AS data
-            FROM `%town_data%`
-            WHERE `id` = ?"""))) {
-            statement.setInt(1, townId);
-            final ResultSet resultSet = statement.executeQuery();
-            if (resultSet.next()) {
-                final Town town = plugin.getTownFromJson(
-                    new String(resultSet.getBytes("data"), StandardCharsets.UTF_8)
-                );
-                town.setId(resultSet.getInt("id"));
-                return Optional.of(town);
-            }
-        } catch (SQLException | JsonSyntaxException e) {
+        try {
+            return read(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    SELECT `id`, iif(json_valid(`data`, 8), json(`data`), `data`) AS data
+                    FROM `%town_data%`
+                    WHERE `id` = ?"""))) {
+                    statement.setInt(1, townId);
+                    final ResultSet resultSet = statement.executeQuery();
+                    if (resultSet.next()) {
+                        final Town town = codec.decodeTown(resultSet.getBytes("data"));
+                        town.setId(resultSet.getInt("id"));
+                        return Optional.of(town);
+                    }
+                    return Optional.empty();
+                }
+            });
+        } catch (SQLException | JsonSyntaxException | IllegalArgumentException e) {
             plugin.log(Level.SEVERE, "Failed to fetch town data from table by ID", e);
         }
         return Optional.empty();
     }
 
     @Override
-    public List<Town> getAllTowns() throws IllegalStateException {
-        final List<Town> towns = new ArrayList<>();
-        try (PreparedStatement statement = getConnection().prepareStatement(format("""
-            SELECT `id`, json(`data`) AS data
-            FROM `%town_data%`"""))) {
-            final ResultSet resultSet = statement.executeQuery();
-            while (resultSet.next()) {
-                final Town town = plugin.getTownFromJson(
-                    new String(resultSet.getBytes("data"), StandardCharsets.UTF_8)
-                );
-                town.setId(resultSet.getInt("id"));
-                towns.add(town);
-            }
-        } catch (SQLException | JsonSyntaxException e) {
+    public void forEachTown(@NotNull Consumer<Town> consumer) throws IllegalStateException {
+        try (RowDecoder decoder = new RowDecoder(plugin)) {
+            read(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    SELECT `id`, iif(json_valid(`data`, 8), json(`data`), `data`) AS data
+                    FROM `%town_data%`"""))) {
+                    final ResultSet resultSet = statement.executeQuery();
+                    while (resultSet.next()) {
+                        final int id = resultSet.getInt("id");
+                        final byte[] data = resultSet.getBytes("data");
+                        decoder.submit(() -> {
+                            final Town town = codec.decodeTown(data);
+                            town.setId(id);
+                            consumer.accept(town);
+                        });
+                    }
+                }
+                return null;
+            });
+            decoder.await();
+        } catch (SQLException | JsonSyntaxException | IllegalArgumentException e) {
             throw new IllegalStateException("Failed to fetch all town data from table", e);
         }
-        return towns;
     }
 
     @Override
     @NotNull
     public Town createTown(@NotNull String name, @NotNull User creator) {
         final Town town = Town.create(name, creator, plugin);
-        try (PreparedStatement statement = getConnection().prepareStatement(format("""
-            INSERT INTO `%town_data%` (`name`, `data`)
-            VALUES (?, jsonb(?))
-            RETURNING `id`;"""))) {
-            statement.setString(1, town.getName());
-            statement.setBytes(2, plugin.getGson().toJson(town).getBytes(StandardCharsets.UTF_8));
-            final ResultSet resultSet = statement.executeQuery();
-            if (resultSet.next()) {
-                town.setId(resultSet.getInt("id"));
-            }
-        } catch (SQLException | JsonSyntaxException e) {
+        try {
+            transaction(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(formatData("""
+                    INSERT INTO `%town_data%` (`name`, `data`)
+                    VALUES (?, jsonb(?))
+                    RETURNING `id`;"""))) {
+                    statement.setString(1, town.getName());
+                    statement.setBytes(2, codec.encodeTown(town));
+                    final ResultSet resultSet = statement.executeQuery();
+                    if (resultSet.next()) {
+                        town.setId(resultSet.getInt("id"));
+                    }
+                }
+                return insertLogEntries(connection, List.of(town));
+            }).run();
+        } catch (SQLException | JsonSyntaxException | IllegalArgumentException e) {
             plugin.log(Level.SEVERE, "Failed to create town in table", e);
         }
         return town;
@@ -384,26 +607,43 @@ public final class SqLiteDatabase extends Database {
 
     @Override
     public void updateTown(@NotNull Town town) {
-        try (PreparedStatement statement = getConnection().prepareStatement(format("""
-            UPDATE `%town_data%`
-            SET `name` = ?, `data` = jsonb(?)
-            WHERE `id` = ?"""))) {
-            statement.setString(1, town.getName());
-            statement.setBytes(2, plugin.getGson().toJson(town).getBytes(StandardCharsets.UTF_8));
-            statement.setInt(3, town.getId());
-            statement.executeUpdate();
+        updateTowns(List.of(town));
+    }
+
+    @Override
+    public void updateTowns(@NotNull Collection<Town> towns) {
+        try {
+            transaction(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(formatData("""
+                    UPDATE `%town_data%`
+                    SET `name` = ?, `data` = jsonb(?)
+                    WHERE `id` = ?"""))) {
+                    for (Town town : towns) {
+                        statement.setString(1, town.getName());
+                        statement.setBytes(2, codec.encodeTown(town));
+                        statement.setInt(3, town.getId());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+                return insertLogEntries(connection, towns);
+            }).run();
         } catch (SQLException e) {
-            plugin.log(Level.SEVERE, "Failed to update town in table", e);
+            plugin.log(Level.SEVERE, "Failed to update towns in table", e);
         }
     }
 
     @Override
     public void deleteTown(int townId) {
-        try (PreparedStatement statement = getConnection().prepareStatement(format("""
-            DELETE FROM `%town_data%`
-            WHERE `id` = ?"""))) {
-            statement.setInt(1, townId);
-            statement.executeUpdate();
+        try {
+            write(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    DELETE FROM `%town_data%`
+                    WHERE `id` = ?"""))) {
+                    statement.setInt(1, townId);
+                    return statement.executeUpdate();
+                }
+            });
         } catch (SQLException e) {
             plugin.log(Level.SEVERE, "Failed to delete town from table", e);
         }
@@ -411,78 +651,177 @@ public final class SqLiteDatabase extends Database {
 
     @Override
     public void deleteAllTowns() {
-        try (Statement statement = getConnection().createStatement()) {
-            statement.execute(format("DELETE FROM `%town_data%`"));
+        try {
+            write(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    return statement.execute(format("DELETE FROM `%town_data%`"));
+                }
+            });
         } catch (SQLException e) {
             plugin.log(Level.SEVERE, "Failed to delete all towns from table", e);
         }
     }
 
+    @Override
+    public List<Log.Entry> getLogEntries(int townId, int offset, int limit) {
+        try {
+            return read(connection -> {
+                final List<Log.Entry> entries = new ArrayList<>();
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    SELECT `timestamp`, `action`, `user_uuid`, `username`, `details`
+                    FROM `%town_log%`
+                    WHERE `town_id` = ?
+                    ORDER BY `timestamp` DESC, `id` DESC
+                    LIMIT ? OFFSET ?"""))) {
+                    statement.setInt(1, townId);
+                    statement.setInt(2, limit);
+                    statement.setInt(3, offset);
+                    final ResultSet resultSet = statement.executeQuery();
+                    while (resultSet.next()) {
+                        entries.add(readLogEntry(resultSet));
+                    }
+                }
+                return entries;
+            });
+        } catch (SQLException | IllegalArgumentException e) {
+            plugin.log(Level.SEVERE, "Failed to fetch town log entries from table", e);
+        }
+        return new ArrayList<>();
+    }
+
+    @Override
+    public int getLogEntryCount(int townId) {
+        try {
+            return read(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    SELECT COUNT(*) AS `entries`
+                    FROM `%town_log%`
+                    WHERE `town_id` = ?"""))) {
+                    statement.setInt(1, townId);
+                    final ResultSet resultSet = statement.executeQuery();
+                    return resultSet.next() ? resultSet.getInt("entries") : 0;
+                }
+            });
+        } catch (SQLException e) {
+            plugin.log(Level.SEVERE, "Failed to count town log entries in table", e);
+        }
+        return 0;
+    }
+
+    @Override
+    public int pruneLogEntries(@NotNull OffsetDateTime before) {
+        try {
+            return write(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    DELETE FROM `%town_log%`
+                    WHERE `timestamp` < ? AND `action` <> ?"""))) {
+                    statement.setTimestamp(1, Timestamp.from(before.toInstant()));
+                    statement.setString(2, Action.Type.CREATE_TOWN.name());
+                    return statement.executeUpdate();
+                }
+            });
+        } catch (SQLException e) {
+            plugin.log(Level.SEVERE, "Failed to prune town log entries from table", e);
+        }
+        return 0;
+    }
+
     @Override
     public Map<World, ClaimWorld> getClaimWorlds(@NotNull String server) throws IllegalStateException {
-        final Map<World, ClaimWorld> worlds = new HashMap<>();
-        try (PreparedStatement statement = getConnection().prepareStatement(format("""
-            SELECT `id`, `world_uuid`, `world_name`, `world_environment`, json(`claims`) AS claims
-            FROM `%claim_data%`
-            WHERE `server_name` = ?"""))) {
-            statement.setString(1, server);
-            final ResultSet resultSet = statement.executeQuery();
-            while (resultSet.next()) {
-                final World world = World.of(UUID.fromString(resultSet.getString("world_uuid")),
-                    resultSet.getString("world_name"),
-                    resultSet.getString("world_environment"));
-                final ClaimWorld claimWorld = plugin.getClaimWorldFromJson(
-                    new String(resultSet.getBytes("claims"), StandardCharsets.UTF_8)
-                );
-                claimWorld.updateId(resultSet.getInt("id"));
-                if (!plugin.getSettings().getGeneral().isUnclaimableWorld(world)) {
-                    worlds.put(world, claimWorld);
+        try (RowDecoder decoder = new RowDecoder(plugin)) {
+            final Map<World, ClaimWorld> loaded = read(connection -> {
+                final Map<World, ClaimWorld> worlds = new HashMap<>();
+                final Map<Integer, ClaimWorld> claimWorlds = new HashMap<>();
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    SELECT `w`.`id`, `w`.`world_uuid`, `w`.`world_name`, `w`.`world_environment`,
+                        `c`.`town_id`, iif(json_valid(`c`.`data`, 8), json(`c`.`data`), `c`.`data`) AS data
+                    FROM `%claim_data%` AS `w`
+                    LEFT JOIN `%claim_chunk_data%` AS `c` ON `c`.`world_id` = `w`.`id`
+                    WHERE `w`.`server_name` = ?"""))) {
+                    statement.setString(1, server);
+                    final ResultSet resultSet = statement.executeQuery();
+                    while (resultSet.next()) {
+                        final int id = resultSet.getInt("id");
+                        ClaimWorld claimWorld = claimWorlds.get(id);
+                        if (claimWorld == null) {
+                            final World world = World.of(UUID.fromString(resultSet.getString("world_uuid")),
+                                resultSet.getString("world_name"),
+                                resultSet.getString("world_environment"));
+                            claimWorld = ClaimWorld.of(id, Maps.newConcurrentMap(), Queues.newConcurrentLinkedQueue());
+                            claimWorlds.put(id, claimWorld);
+                            if (!plugin.getSettings().getGeneral().isUnclaimableWorld(world)) {
+                                worlds.put(world, claimWorld);
+                            }
+                        }
+                        readClaim(resultSet, claimWorld, decoder);
+                    }
                 }
-            }
-        } catch (SQLException | JsonSyntaxException e) {
+                return worlds;
+            });
+            decoder.await();
+            return loaded;
+        } catch (SQLException | JsonSyntaxException | IllegalArgumentException e) {
             throw new IllegalStateException(String.format("Failed to fetch claim world map for %s", server), e);
         }
-        return worlds;
     }
 
     @Override
     public Map<ServerWorld, ClaimWorld> getAllClaimWorlds() throws IllegalStateException {
-        final Map<ServerWorld, ClaimWorld> worlds = new HashMap<>();
-        try (PreparedStatement statement = getConnection().prepareStatement(format("""
-            SELECT `id`, `server_name`, `world_uuid`, `world_name`, `world_environment`, json(`claims`) AS claims
-            FROM `%claim_data%`"""))) {
-            final ResultSet resultSet = statement.executeQuery();
-            while (resultSet.next()) {
-                final World world = World.of(UUID.fromString(resultSet.getString("world_uuid")),
-                    resultSet.getString("world_name"),
-                    resultSet.getString("world_environment"));
-                final ClaimWorld claimWorld = plugin.getClaimWorldFromJson(
-                    new String(resultSet.getBytes("claims"), StandardCharsets.UTF_8)
-                );
-                claimWorld.updateId(resultSet.getInt("id"));
-                worlds.put(new ServerWorld(resultSet.getString("server_name"), world), claimWorld);
-            }
-        } catch (SQLException | JsonSyntaxException e) {
+        try (RowDecoder decoder = new RowDecoder(plugin)) {
+            final Map<ServerWorld, ClaimWorld> loaded = read(connection -> {
+                final Map<ServerWorld, ClaimWorld> worlds = new HashMap<>();
+                final Map<Integer, ClaimWorld> claimWorlds = new HashMap<>();
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    SELECT `w`.`id`, `w`.`server_name`, `w`.`world_uuid`, `w`.`world_name`, `w`.`world_environment`,
+                        `c`.`town_id`, iif(json_valid(`c`.`data`, 8), json(`c`.`data`), `c`.`data`) AS data
+                    FROM `%claim_data%` AS `w`
+                    LEFT JOIN `%claim_chunk_data%` AS `c` ON `c`.`world_id` = `w`.`id`"""))) {
+                    final ResultSet resultSet = statement.executeQuery();
+                    while (resultSet.next()) {
+                        final int id = resultSet.getInt("id");
+                        ClaimWorld claimWorld = claimWorlds.get(id);
+                        if (claimWorld == null) {
+                            final World world = World.of(UUID.fromString(resultSet.getString("world_uuid")),
+                                resultSet.getString("world_name"),
+                                resultSet.getString("world_environment"));
+                            claimWorld = ClaimWorld.of(id, Maps.newConcurrentMap(), Queues.newConcurrentLinkedQueue());
+                            claimWorlds.put(id, claimWorld);
+                            worlds.put(new ServerWorld(resultSet.getString("server_name"), world), claimWorld);
+                        }
+                        readClaim(resultSet, claimWorld, decoder);
+                    }
+                }
+                return worlds;
+            });
+            decoder.await();
+            return loaded;
+        } catch (SQLException | JsonSyntaxException | IllegalArgumentException e) {
             throw new IllegalStateException("Failed to fetch map of all claim worlds", e);
         }
-        return worlds;
     }
 
-
     @Override
     @NotNull
     public ClaimWorld createClaimWorld(@NotNull World world) {
         final ClaimWorld claimWorld = ClaimWorld.of(0, Maps.newConcurrentMap(), Queues.newConcurrentLinkedQueue());
-        try (PreparedStatement statement = getConnection().prepareStatement(format("""
-            INSERT INTO `%claim_data%` (`world_uuid`, `world_name`, `world_environment`, `server_name`, `claims`)
-            VALUES (?, ?, ?, ?, jsonb(?))"""))) {
-            statement.setString(1, world.getUuid().toString());
-            statement.setString(2, world.getName());
-            statement.setString(3, world.getEnvironment());
-            statement.setString(4, plugin.getServerName());
-            statement.setBytes(5, plugin.getGson().toJson(claimWorld).getBytes(StandardCharsets.UTF_8));
-            claimWorld.updateId(statement.executeUpdate());
-        } catch (SQLException | JsonSyntaxException e) {
+        try {
+            write(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    INSERT INTO `%claim_data%` (`world_uuid`, `world_name`, `world_environment`, `server_name`)
+                    VALUES (?, ?, ?, ?)
+                    RETURNING `id`;"""))) {
+                    statement.setString(1, world.getUuid().toString());
+                    statement.setString(2, world.getName());
+                    statement.setString(3, world.getEnvironment());
+                    statement.setString(4, plugin.getServerName());
+                    final ResultSet resultSet = statement.executeQuery();
+                    if (resultSet.next()) {
+                        claimWorld.updateId(resultSet.getInt("id"));
+                    }
+                    return claimWorld;
+                }
+            });
+        } catch (SQLException e) {
             plugin.log(Level.SEVERE, "Failed to create claim world in table", e);
         }
         return claimWorld;
@@ -490,21 +829,192 @@ public final class SqLiteDatabase extends Database {
 
     @Override
     public void updateClaimWorld(@NotNull ClaimWorld claimWorld) {
-        try (PreparedStatement statement = getConnection().prepareStatement(format("""
-            UPDATE `%claim_data%`
-            SET `claims` = jsonb(?)
-            WHERE `id` = ?"""))) {
-            statement.setBytes(1, plugin.getGson().toJson(claimWorld).getBytes(StandardCharsets.UTF_8));
-            statement.setInt(2, claimWorld.getId());
-            statement.executeUpdate();
+        try {
+            transaction(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    DELETE FROM `%claim_chunk_data%`
+                    WHERE `world_id` = ?"""))) {
+                    statement.setInt(1, claimWorld.getId());
+                    statement.executeUpdate();
+                }
+                insertClaims(connection, claimWorld);
+                return claimWorld;
+            });
         } catch (SQLException e) {
             plugin.log(Level.SEVERE, "Failed to update claim world in table", e);
         }
     }
 
+    @Override
+    public void saveClaim(@NotNull ClaimWorld claimWorld, @NotNull TownClaim claim) {
+        try {
+            write(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(formatData("""
+                    INSERT INTO `%claim_chunk_data%` (`world_id`, `chunk_x`, `chunk_z`, `town_id`, `data`)
+                    VALUES (?, ?, ?, ?, jsonb(?))
+                    ON CONFLICT (`world_id`, `chunk_x`, `chunk_z`)
+                    DO UPDATE SET `town_id` = `excluded`.`town_id`, `data` = `excluded`.`data`;"""))) {
+                    setClaimParameters(statement, claimWorld, getClaimTownId(claim), claim.claim());
+                    return statement.executeUpdate();
+                }
+            });
+        } catch (SQLException e) {
+            plugin.log(Level.SEVERE, "Failed to save claim in table", e);
+        }
+    }
+
+    @Override
+    public void deleteClaim(@NotNull ClaimWorld claimWorld, @NotNull Chunk chunk) {
+        try {
+            write(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    DELETE FROM `%claim_chunk_data%`
+                    WHERE `world_id` = ? AND `chunk_x` = ? AND `chunk_z` = ?"""))) {
+                    statement.setInt(1, claimWorld.getId());
+                    statement.setInt(2, chunk.getX());
+                    statement.setInt(3, chunk.getZ());
+                    return statement.executeUpdate();
+                }
+            });
+        } catch (SQLException e) {
+            plugin.log(Level.SEVERE, "Failed to delete claim from table", e);
+        }
+    }
+
+    @Override
+    public void deleteTownClaims(@NotNull ClaimWorld claimWorld, int townId) {
+        try {
+            write(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(format("""
+                    DELETE FROM `%claim_chunk_data%`
+                    WHERE `world_id` = ? AND `town_id` = ?"""))) {
+                    statement.setInt(1, claimWorld.getId());
+                    statement.setInt(2, townId);
+                    return statement.executeUpdate();
+                }
+            });
+        } catch (SQLException e) {
+            plugin.log(Level.SEVERE, "Failed to delete town claims from table", e);
+        }
+    }
+
+    @Override
+    protected void splitClaimWorlds(@NotNull Connection connection) throws SQLException {
+        final List<ClaimWorld> claimWorlds = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(format("""
+            SELECT `id`, json(`claims`) AS claims
+            FROM `%claim_data%`"""))) {
+            final ResultSet resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                final ClaimWorld claimWorld = plugin.getClaimWorldFromJson(
+                    new String(resultSet.getBytes("claims"), StandardCharsets.UTF_8)
+                );
+                claimWorld.updateId(resultSet.getInt("id"));
+                claimWorlds.add(claimWorld);
+            }
+        } catch (JsonSyntaxException e) {
+            throw new SQLException("Failed to read claim world data to split", e);
+        }
+
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            for (ClaimWorld claimWorld : claimWorlds) {
+                insertClaims(connection, claimWorld);
+            }
+            statement.execute(format("ALTER TABLE `%claim_data%` DROP COLUMN `claims`"));
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    @Override
+    protected void splitTownLogs(@NotNull Connection connection) throws SQLException {
+        final List<Town> towns = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(format("""
+            SELECT `id`, json(`data`) AS data
+            FROM `%town_data%`"""))) {
+            final ResultSet resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                final Town town = plugin.getTownFromJson(
+                    new String(resultSet.getBytes("data"), StandardCharsets.UTF_8)
+                );
+                town.setId(resultSet.getInt("id"));
+                if (town.getLog().migrateLegacyActions()) {
+                    towns.add(town);
+                }
+            }
+        } catch (JsonSyntaxException e) {
+            throw new SQLException("Failed to read town data to split logs from", e);
+        }
+
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(format("""
+            UPDATE `%town_data%`
+            SET `data` = jsonb(?)
+            WHERE `id` = ?"""))) {
+            for (Town town : towns) {
+                statement.setBytes(1, plugin.getGson().toJson(town).getBytes(StandardCharsets.UTF_8));
+                statement.setInt(2, town.getId());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            insertLogEntries(connection, towns);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    // Batch insert every claim in a claim world into the claims table; a chunk listed twice (as legacy claim world data
+    // may do) or already copied by an earlier attempt at a migration replaces the existing row, rather than failing
+    private void insertClaims(@NotNull Connection connection, @NotNull ClaimWorld claimWorld) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(formatData("""
+            INSERT INTO `%claim_chunk_data%` (`world_id`, `chunk_x`, `chunk_z`, `town_id`, `data`)
+            VALUES (?, ?, ?, ?, jsonb(?))
+            ON CONFLICT (`world_id`, `chunk_x`, `chunk_z`)
+            DO UPDATE SET `town_id` = `excluded`.`town_id`, `data` = `excluded`.`data`;"""))) {
+            for (Map.Entry<Integer, List<Claim>> townClaims : claimWorld.getClaims().entrySet()) {
+                for (Claim claim : townClaims.getValue()) {
+                    setClaimParameters(statement, claimWorld, townClaims.getKey(), claim);
+                    statement.addBatch();
+                }
+            }
+            for (Claim claim : claimWorld.getAdminClaims()) {
+                setClaimParameters(statement, claimWorld, ClaimWorld.ADMIN_CLAIM_TOWN_ID, claim);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
     @Override
     public void close() {
+        if (writer != null) {
+            writer.shutdown();
+            try {
+                if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                    plugin.log(Level.WARNING, "Timed out waiting for SQLite writes to complete");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
         try {
+            if (readers != null) {
+                for (Connection reader : readers) {
+                    reader.close();
+                }
+                readers = null;
+            }
+
+            // Closing the last connection checkpoints the write-ahead log into the database file
             if (connection != null && !connection.isClosed()) {
                 connection.close();
             }
@@ -513,4 +1023,14 @@ public final class SqLiteDatabase extends Database {
         }
     }
 
+    /**
+     * An operation run with a database connection
+     *
+     * @param <T> the type of value returned by the operation
+     */
+    @FunctionalInterface
+    private interface SqlOperation<T> {
+        T apply(@NotNull Connection connection) throws SQLException;
+    }
+
 }
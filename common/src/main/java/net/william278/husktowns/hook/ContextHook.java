@@ -0,0 +1,58 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.hook;
+
+import net.william278.husktowns.HuskTowns;
+import net.william278.husktowns.town.Town;
+import net.william278.husktowns.user.OnlineUser;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A hook providing values computed from the town a user is a member of and the claim they are standing in, such as
+ * permission contexts or placeholders. Values are cached per user, so must be invalidated when either of those change.
+ */
+public abstract class ContextHook extends Hook {
+
+    protected ContextHook(@NotNull HuskTowns plugin) {
+        super(plugin);
+    }
+
+    /**
+     * Invalidate a user's values, for when they have moved to a different chunk, changed their preferences or have left
+     * the server
+     *
+     * @param user the user
+     */
+    public abstract void invalidate(@NotNull OnlineUser user);
+
+    /**
+     * Invalidate the values of users who are, or were, members of a town, or are standing in its claims or in the
+     * wilderness, for when the town's members, roles, rules or claims have changed
+     *
+     * @param town the town
+     */
+    public abstract void invalidateTown(@NotNull Town town);
+
+    /**
+     * Invalidate every user's values, for when the plugin has been (re)loaded
+     */
+    public abstract void invalidateAll();
+
+}
@@ -25,12 +25,16 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Unmodifiable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 @AllArgsConstructor
 public abstract class HookManager {
     protected final HuskTowns plugin;
     protected final static HashSet<Hook> registeredHooks = new HashSet<>();
 
+    // Registered hooks of each type looked up, resolved once and reset when a hook is registered
+    private final static Map<Class<? extends Hook>, List<? extends Hook>> hooksByType = new ConcurrentHashMap<>();
+
     public abstract void registerOnLoad();
 
     public abstract void registerOnEnable();
@@ -48,11 +52,22 @@ public abstract class HookManager {
             .findFirst();
     }
 
+    @Unmodifiable
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public <T extends Hook> List<T> getHooks(@NotNull Class<T> hookClass) {
+        return (List<T>) hooksByType.computeIfAbsent(hookClass, type -> registeredHooks.stream()
+            .filter(hook -> hookClass.isAssignableFrom(hook.getClass()))
+            .map(hookClass::cast)
+            .toList());
+    }
+
     public void registerHook(@NotNull Hook hook) {
         if (getHook(hook.getClass()).isPresent() || registeredHooks.stream().anyMatch(var1 ->
             Objects.equals(var1.getHookInfo().id(), hook.getHookInfo().id()))) {
             throw new RuntimeException("Hook with matching Class or ID already registered! ID: %s".formatted(hook.getHookInfo().id()));
         }
         registeredHooks.add(hook);
+        hooksByType.clear();
     }
 }
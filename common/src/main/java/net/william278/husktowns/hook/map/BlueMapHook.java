@@ -19,6 +19,7 @@
 
 package net.william278.husktowns.hook.map;
 
+import com.flowpowered.math.vector.Vector2d;
 import de.bluecolored.bluemap.api.BlueMapAPI;
 import de.bluecolored.bluemap.api.BlueMapMap;
 import de.bluecolored.bluemap.api.BlueMapWorld;
@@ -31,6 +32,7 @@ import net.william278.husktowns.claim.TownClaim;
 import net.william278.husktowns.claim.World;
 import net.william278.husktowns.hook.MapHook;
 import net.william278.husktowns.hook.PluginHook;
+import net.william278.husktowns.town.Town;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.HashMap;
@@ -41,6 +43,7 @@ import java.util.logging.Level;
 
 public final class BlueMapHook extends MapHook {
 
+    private final TownShapeCache shapes = new TownShapeCache();
     private Map<String, MarkerSet> markerSets;
 
     @PluginHook(id = "BlueMap", register = PluginHook.Register.ON_ENABLE, platform = "common")
@@ -70,68 +73,83 @@ public final class BlueMapHook extends MapHook {
     }
 
     @NotNull
-    private ShapeMarker getClaimMarker(@NotNull TownClaim claim) {
-        final int x = claim.claim().getChunk().getX() * 16;
-        final int z = claim.claim().getChunk().getZ() * 16;
+    private ShapeMarker getTownMarker(@NotNull Town town, @NotNull ChunkShapes.Shape shape) {
         return ShapeMarker.builder()
-            .label(claim.town().getName())
+            .label(town.getName())
             .fillColor(new Color(
-                claim.town().getDisplayColor().red(),
-                claim.town().getDisplayColor().green(),
-                claim.town().getDisplayColor().blue(),
+                town.getDisplayColor().red(),
+                town.getDisplayColor().green(),
+                town.getDisplayColor().blue(),
                 0.5f
             ))
             .lineColor(new Color(
-                claim.town().getDisplayColor().red(),
-                claim.town().getDisplayColor().green(),
-                claim.town().getDisplayColor().blue(),
+                town.getDisplayColor().red(),
+                town.getDisplayColor().green(),
+                town.getDisplayColor().blue(),
                 1f
             ))
-            .shape(Shape.createRect(x, z, x + 16, z + 16), 64)
+            .shape(toShape(shape.outline()), 64)
+            .holes(shape.holes().stream().map(BlueMapHook::toShape).toArray(Shape[]::new))
             .lineWidth(1)
             .depthTestEnabled(false)
             .build();
     }
 
     @NotNull
-    private String getClaimMarkerKey(@NotNull TownClaim claim) {
-        return plugin.getKey(
-            Integer.toString(claim.town().getId()),
-            Integer.toString(claim.claim().getChunk().getX()),
-            Integer.toString(claim.claim().getChunk().getZ())
-        ).toString();
+    private static Shape toShape(int @NotNull [] corners) {
+        final Vector2d[] points = new Vector2d[corners.length / 2];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new Vector2d(corners[i * 2] * 16, corners[i * 2 + 1] * 16);
+        }
+        return new Shape(points);
+    }
+
+    @NotNull
+    private String getTownMarkerKey(@NotNull Town town, int shape) {
+        return plugin.getKey(Integer.toString(town.getId()), Integer.toString(shape)).toString();
     }
 
     @Override
     public void setClaimMarker(@NotNull TownClaim claim, @NotNull World world) {
-        getMarkerSet(world).ifPresent(markerSet -> markerSet.put(getClaimMarkerKey(claim), getClaimMarker(claim)));
+        shapes.add(world.getName(), claim);
+        updateMarkers(world);
     }
 
     @Override
     public void setClaimMarkers(@NotNull List<TownClaim> claims, @NotNull World world) {
-        getMarkerSet(world).ifPresent(markerSet -> plugin.getClaimWorld(world).ifPresent(claimWorld -> {
-            for (TownClaim claim : claims) {
-                markerSet.put(getClaimMarkerKey(claim), getClaimMarker(claim));
-            }
-        }));
+        claims.forEach(claim -> shapes.add(world.getName(), claim));
+        updateMarkers(world);
     }
 
     @Override
     public void removeClaimMarker(@NotNull TownClaim claim, @NotNull World world) {
-        getMarkerSet(world).ifPresent(markerSet -> markerSet.remove(getClaimMarkerKey(claim)));
+        shapes.remove(world.getName(), claim);
+        updateMarkers(world);
     }
 
     @Override
     public void removeClaimMarkers(@NotNull List<TownClaim> claims, @NotNull World world) {
-        getMarkerSet(world).ifPresent(markerSet -> plugin.getClaimWorld(world).ifPresent(claimWorld -> {
-            for (TownClaim claim : claims) {
-                markerSet.remove(getClaimMarkerKey(claim));
+        claims.forEach(claim -> shapes.remove(world.getName(), claim));
+        updateMarkers(world);
+    }
+
+    // Replace the markers of towns whose claims in the world have changed
+    private void updateMarkers(@NotNull World world) {
+        getMarkerSet(world).ifPresent(markerSet -> {
+            for (TownShapeCache.Traced traced : shapes.retrace(world.getName())) {
+                for (int i = 0; i < traced.shapes().size(); i++) {
+                    markerSet.put(getTownMarkerKey(traced.town(), i), getTownMarker(traced.town(), traced.shapes().get(i)));
+                }
+                for (int i = traced.shapes().size(); i < traced.previousShapes(); i++) {
+                    markerSet.remove(getTownMarkerKey(traced.town(), i));
+                }
             }
-        }));
+        });
     }
 
     @Override
     public void clearAllMarkers() {
+        shapes.clear();
         if (markerSets != null) {
             for (MarkerSet markerSet : markerSets.values()) {
                 for (String markerId : markerSet.getMarkers().keySet()) {
@@ -0,0 +1,250 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.hook.map;
+
+import net.william278.husktowns.claim.Chunk;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Traces the boundaries of sets of chunks, merging adjacent chunks into shapes so that edges shared between two chunks
+ * in the set are not drawn.
+ * <p>
+ * Coordinates are in chunk units; a corner at {@code (x, z)} is at block {@code (x * 16, z * 16)}.
+ */
+public final class ChunkShapes {
+
+    private ChunkShapes() {
+    }
+
+    /**
+     * Trace the shapes formed by a set of chunks
+     *
+     * @param chunks the chunks
+     * @return a shape for each group of (edge-)connected chunks
+     */
+    @NotNull
+    public static List<Shape> trace(@NotNull Collection<Chunk> chunks) {
+        final TileFlags remaining = new TileFlags();
+        chunks.forEach(chunk -> remaining.setFlag(chunk.getX(), chunk.getZ(), true));
+
+        final List<Shape> shapes = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            if (!remaining.getFlag(chunk.getX(), chunk.getZ())) {
+                continue;
+            }
+            final TileFlags shape = new TileFlags();
+            final Bounds bounds = floodFill(remaining, shape, chunk.getX(), chunk.getZ());
+            shapes.add(new Shape(traceOutline(shape, bounds.startX(), bounds.startZ()), traceHoles(shape, bounds)));
+        }
+        return shapes;
+    }
+
+    // Move a connected group of tiles from one set of flags to another, returning the group's bounds
+    @NotNull
+    private static Bounds floodFill(@NotNull TileFlags src, @NotNull TileFlags dest, int x, int z) {
+        int startX = x, startZ = z, minZ = z, maxX = x, maxZ = z;
+        final ArrayDeque<int[]> stack = new ArrayDeque<>();
+        stack.push(new int[]{x, z});
+        while (!stack.isEmpty()) {
+            final int[] next = stack.pop();
+            x = next[0];
+            z = next[1];
+            if (!src.getFlag(x, z)) {
+                continue;
+            }
+            src.setFlag(x, z, false);
+            dest.setFlag(x, z, true);
+            if (x < startX || (x == startX && z < startZ)) {
+                startX = x;
+                startZ = z;
+            }
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxZ = Math.max(maxZ, z);
+            if (src.getFlag(x + 1, z)) {
+                stack.push(new int[]{x + 1, z});
+            }
+            if (src.getFlag(x - 1, z)) {
+                stack.push(new int[]{x - 1, z});
+            }
+            if (src.getFlag(x, z + 1)) {
+                stack.push(new int[]{x, z + 1});
+            }
+            if (src.getFlag(x, z - 1)) {
+                stack.push(new int[]{x, z - 1});
+            }
+        }
+        return new Bounds(startX, startZ, minZ, maxX, maxZ);
+    }
+
+    /**
+     * Trace the outer boundary of a connected shape, starting from its top-left corner and going clockwise
+     *
+     * @param shape the shape
+     * @param minX  the lowest x coordinate of a tile in the shape
+     * @param minZ  the lowest z coordinate of a tile in the shape with the lowest x coordinate
+     * @return the corners of the boundary, as x, z pairs
+     */
+    private static int @NotNull [] traceOutline(@NotNull TileFlags shape, int minX, int minZ) {
+        final List<int[]> corners = new ArrayList<>();
+        corners.add(new int[]{minX, minZ});
+        int x = minX;
+        int z = minZ;
+        Direction direction = Direction.X_PLUS;
+        while (x != minX || z != minZ || direction != Direction.Z_MINUS) {
+            switch (direction) {
+                case X_PLUS -> {
+                    if (!shape.getFlag(x + 1, z)) {
+                        corners.add(new int[]{x + 1, z});
+                        direction = Direction.Z_PLUS;
+                    } else if (!shape.getFlag(x + 1, z - 1)) {
+                        x++;
+                    } else {
+                        corners.add(new int[]{x + 1, z});
+                        direction = Direction.Z_MINUS;
+                        x++;
+                        z--;
+                    }
+                }
+                case Z_PLUS -> {
+                    if (!shape.getFlag(x, z + 1)) {
+                        corners.add(new int[]{x + 1, z + 1});
+                        direction = Direction.X_MINUS;
+                    } else if (!shape.getFlag(x + 1, z + 1)) {
+                        z++;
+                    } else {
+                        corners.add(new int[]{x + 1, z + 1});
+                        direction = Direction.X_PLUS;
+                        x++;
+                        z++;
+                    }
+                }
+                case X_MINUS -> {
+                    if (!shape.getFlag(x - 1, z)) {
+                        corners.add(new int[]{x, z + 1});
+                        direction = Direction.Z_MINUS;
+                    } else if (!shape.getFlag(x - 1, z + 1)) {
+                        x--;
+                    } else {
+                        corners.add(new int[]{x, z + 1});
+                        direction = Direction.Z_PLUS;
+                        x--;
+                        z++;
+                    }
+                }
+                case Z_MINUS -> {
+                    if (!shape.getFlag(x, z - 1)) {
+                        corners.add(new int[]{x, z});
+                        direction = Direction.X_PLUS;
+                    } else if (!shape.getFlag(x - 1, z - 1)) {
+                        z--;
+                    } else {
+                        corners.add(new int[]{x, z});
+                        direction = Direction.X_MINUS;
+                        x--;
+                        z--;
+                    }
+                }
+            }
+        }
+
+        final int[] outline = new int[corners.size() * 2];
+        for (int i = 0; i < corners.size(); i++) {
+            outline[i * 2] = corners.get(i)[0];
+            outline[i * 2 + 1] = corners.get(i)[1];
+        }
+        return outline;
+    }
+
+    // Trace the boundary of each group of tiles within the shape's bounds that is enclosed by the shape
+    @NotNull
+    private static List<int[]> traceHoles(@NotNull TileFlags shape, @NotNull Bounds bounds) {
+        // Find the tiles outside the shape reachable from outside its bounds
+        final TileFlags outside = new TileFlags();
+        final ArrayDeque<int[]> stack = new ArrayDeque<>();
+        stack.push(new int[]{bounds.startX() - 1, bounds.minZ() - 1});
+        while (!stack.isEmpty()) {
+            final int[] next = stack.pop();
+            final int x = next[0];
+            final int z = next[1];
+            if (x < bounds.startX() - 1 || x > bounds.maxX() + 1 || z < bounds.minZ() - 1 || z > bounds.maxZ() + 1
+                || shape.getFlag(x, z) || outside.getFlag(x, z)) {
+                continue;
+            }
+            outside.setFlag(x, z, true);
+            stack.push(new int[]{x + 1, z});
+            stack.push(new int[]{x - 1, z});
+            stack.push(new int[]{x, z + 1});
+            stack.push(new int[]{x, z - 1});
+        }
+
+        // Any other tiles within the bounds that aren't in the shape are holes
+        final TileFlags enclosed = new TileFlags();
+        boolean hasHoles = false;
+        for (int x = bounds.startX(); x <= bounds.maxX(); x++) {
+            for (int z = bounds.minZ(); z <= bounds.maxZ(); z++) {
+                if (!shape.getFlag(x, z) && !outside.getFlag(x, z)) {
+                    enclosed.setFlag(x, z, true);
+                    hasHoles = true;
+                }
+            }
+        }
+        if (!hasHoles) {
+            return List.of();
+        }
+
+        final List<int[]> holes = new ArrayList<>();
+        for (int x = bounds.startX(); x <= bounds.maxX(); x++) {
+            for (int z = bounds.minZ(); z <= bounds.maxZ(); z++) {
+                if (enclosed.getFlag(x, z)) {
+                    final TileFlags hole = new TileFlags();
+                    final Bounds holeBounds = floodFill(enclosed, hole, x, z);
+                    holes.add(traceOutline(hole, holeBounds.startX(), holeBounds.startZ()));
+                }
+            }
+        }
+        return holes;
+    }
+
+    /**
+     * A shape traced from a group of connected chunks
+     *
+     * @param outline the corners of the shape's outer boundary, as x, z pairs
+     * @param holes   the corners of the boundary of each hole in the shape, as x, z pairs
+     */
+    public record Shape(int @NotNull [] outline, @NotNull List<int[]> holes) {
+    }
+
+    private record Bounds(int startX, int startZ, int minZ, int maxX, int maxZ) {
+    }
+
+    private enum Direction {
+        X_PLUS,
+        Z_PLUS,
+        X_MINUS,
+        Z_MINUS
+    }
+
+}
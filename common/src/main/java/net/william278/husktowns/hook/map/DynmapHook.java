@@ -19,8 +19,8 @@
 
 package net.william278.husktowns.hook.map;
 
+import com.google.common.collect.Maps;
 import net.william278.husktowns.HuskTowns;
-import net.william278.husktowns.claim.Chunk;
 import net.william278.husktowns.claim.Claim;
 import net.william278.husktowns.claim.TownClaim;
 import net.william278.husktowns.claim.World;
@@ -36,19 +36,36 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
 import java.util.regex.Pattern;
 
 public class DynmapHook extends MapHook {
 
+    // How often to redraw the markers of towns whose claims have changed
+    private static final long REFRESH_FREQUENCY = 20L * 20;
+    private static final Pattern COLOR_CODES = Pattern.compile("§.");
+
     @Nullable
     private DynmapCommonAPI dynmapApi;
     @Nullable
     private MarkerSet markerSet;
 
-    private Map<String, AreaMarker> existingAreaMarkers = new HashMap<>();
+    // The markers drawn for each town in each world, and the towns whose markers need redrawing
+    private final Map<Integer, Map<String, List<AreaMarker>>> townMarkers = Maps.newHashMap();
+    private final Set<Integer> refreshTowns = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    @Nullable
+    private Task.Repeating task;
 
-    private List<Town> refreshTowns = new ArrayList<>();
-    private Task.Repeating task = null;
+    // Timings of the last refresh
+    private volatile int lastRefreshTowns;
+    private volatile long lastRefreshMillis;
+    private volatile long slowestTownMillis;
 
     @PluginHook(id = "Dynmap", register = PluginHook.Register.ON_ENABLE, platform = "common")
     public DynmapHook(@NotNull HuskTowns plugin) {
@@ -71,160 +88,218 @@ public class DynmapHook extends MapHook {
             getMarkerSet();
             plugin.populateMapHook();
 
-            task = plugin.getRepeatingTask(() -> {
-                plugin.runAsync(() -> {
-
-                    if (!refreshTowns.isEmpty()) {
-                        for (Town town : refreshTowns) {
-
-                            plugin.getClaimWorlds().forEach((world, claimWorld) -> {
-                                claimWorld.getClaims().forEach((townID, claims) -> {
-                                    if (townID == town.getId()) {
-                                        try {
-                                            handleTown(town, new HashMap<>(), world, claims);
-                                        } catch (Exception e) {
-                                            throw new RuntimeException(e);
-                                        }
-                                    }
-                                });
-
-                            });
-                        }
-                    }
-
-                    refreshTowns.clear();
-                });
-
-            }, 20L * 20);
+            if (task != null) {
+                task.cancel();
+            }
+            task = plugin.getRepeatingTask(this::refreshMarkers, REFRESH_FREQUENCY);
             task.run();
         });
-
     }
 
-    private void addMarker(@NotNull TownClaim claim, @NotNull World world, @NotNull MarkerSet markerSet) {
-        final Chunk chunk = claim.claim().getChunk();
-
-        final String markerId = getClaimMarkerKey(claim, world);
-        AreaMarker marker = markerSet.findAreaMarker(markerId);
-        if (marker == null) {
-            // Get the corner coordinates
-            double[] x = new double[4];
-            double[] z = new double[4];
-            x[0] = chunk.getX() * 16;
-            z[0] = chunk.getZ() * 16;
-            x[1] = (chunk.getX() * 16) + 16;
-            z[1] = (chunk.getZ() * 16);
-            x[2] = (chunk.getX() * 16) + 16;
-            z[2] = (chunk.getZ() * 16) + 16;
-            x[3] = (chunk.getX() * 16);
-            z[3] = (chunk.getZ() * 16) + 16;
-
-            // Define the marker
-            marker = markerSet.createAreaMarker(
-                markerId,
-                claim.town().getName(),
-                false,
-                world.getName(), x, z,
-                false
-            );
-        }
-
-        // Set the marker y level
-        final double markerY = 64;
-        marker.setRangeY(markerY, markerY);
-
-        // Set the fill and stroke colors
-        final int color = Integer.parseInt(claim.town().getColorRgb().substring(1), 16);
-        marker.setFillStyle(0.5f, color);
-        marker.setLineStyle(1, 1, color);
-        marker.setLabel(claim.town().getName());
+    @Override
+    public void setClaimMarker(@NotNull TownClaim claim, @NotNull World world) {
+        refreshTowns.add(claim.town().getId());
     }
 
-
-      /*      plugin.runAsync(() -> {
-            for (World world : plugin.getWorlds()) {
-                plugin.getClaimWorld(world).ifPresent(claimWorld -> claimWorld.getClaims().forEach((townID, claims) -> {
-                    Town town = plugin.findTown(townID).orElse(null);
-                    handleClaimChunkOnWorld(town, world.getName(), claims);
-                }));
-            }
-            });*/
-
-
     @Override
-    public void removeClaimMarkers(@NotNull Town town) {
-        plugin.getWorlds().forEach(world -> clearAllMarkers(world.getName(), town.getName()));
+    public void removeClaimMarker(@NotNull TownClaim claim, @NotNull World world) {
+        refreshTowns.add(claim.town().getId());
     }
 
-    private void removeMarker(@NotNull TownClaim claim, @NotNull World world) {
-        refreshTowns.add(claim.town());
+    @Override
+    public void setClaimMarkers(@NotNull List<TownClaim> townClaims, @NotNull World world) {
+        townClaims.forEach(claim -> refreshTowns.add(claim.town().getId()));
     }
 
-
     @Override
-    public void setClaimMarker(@NotNull TownClaim claim, @NotNull World world) {
-        refreshTowns.add(claim.town());
+    public void removeClaimMarkers(@NotNull List<TownClaim> townClaims, @NotNull World world) {
+        townClaims.forEach(claim -> refreshTowns.add(claim.town().getId()));
     }
 
+    // Towns that have been deleted, or have no claims left, have their markers removed when refreshed
     @Override
-    public void removeClaimMarker(@NotNull TownClaim claim, @NotNull World world) {
-        plugin.runSync(() -> removeMarker(claim, world));
+    public void removeClaimMarkers(@NotNull Town town) {
+        refreshTowns.add(town.getId());
     }
 
     @Override
-    public void setClaimMarkers(@NotNull List<TownClaim> townClaims, @NotNull World world) {
-
-        HashMap<Town, List<Claim>> newWorldNameAreaMarkerMap = new HashMap<>();
+    public void clearAllMarkers() {
         plugin.runSync(() -> getMarkerSet().ifPresent(markerSet -> {
-            for (TownClaim claim : townClaims) {
-                newWorldNameAreaMarkerMap.computeIfAbsent(claim.town(), k -> new ArrayList<>()).add(claim.claim());
+            synchronized (townMarkers) {
+                markerSet.getAreaMarkers().forEach(AreaMarker::deleteMarker);
+                townMarkers.clear();
             }
-            plugin.runAsync(() -> newWorldNameAreaMarkerMap.forEach((town, claims) -> {
-                HashMap<String, AreaMarker> newWorldNameMarkerMap = new HashMap<>();
+        }));
+    }
+
+    /**
+     * Get how many towns had their markers redrawn in the last refresh
+     *
+     * @return the number of towns
+     */
+    public int getLastRefreshTowns() {
+        return lastRefreshTowns;
+    }
+
+    /**
+     * Get how long the last refresh took
+     *
+     * @return the time taken, in milliseconds
+     */
+    public long getLastRefreshMillis() {
+        return lastRefreshMillis;
+    }
+
+    /**
+     * Get how long the slowest town took to trace in the last refresh
+     *
+     * @return the time taken, in milliseconds
+     */
+    public long getSlowestTownMillis() {
+        return slowestTownMillis;
+    }
+
+    // Trace the outlines of towns whose claims have changed in parallel, then redraw their markers
+    private void refreshMarkers() {
+        if (refreshTowns.isEmpty() || getMarkerSet().isEmpty() || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            final long start = System.nanoTime();
+            final List<Integer> townIds = new ArrayList<>(refreshTowns);
+            refreshTowns.removeAll(townIds);
+
+            final List<CompletableFuture<TownOutlines>> traced = townIds.stream()
+                .map(townId -> plugin.supplyAsync(() -> traceTown(townId)))
+                .toList();
+            long slowest = 0;
+            for (CompletableFuture<TownOutlines> future : traced) {
                 try {
-                    handleTown(town, newWorldNameMarkerMap, world.getName(), claims);
-                } catch (Exception e) {
-                    System.out.println("Error adding area marker " + town.getName());
+                    final TownOutlines outlines = future.join();
+                    drawTown(outlines);
+                    slowest = Math.max(slowest, outlines.traceNanos());
+                } catch (CompletionException e) {
+                    plugin.log(Level.WARNING, "Failed to trace a town's Dynmap markers", e.getCause());
                 }
-            }));
-
+            }
 
-        }));
+            lastRefreshTowns = townIds.size();
+            lastRefreshMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            slowestTownMillis = TimeUnit.NANOSECONDS.toMillis(slowest);
+        } finally {
+            refreshing.set(false);
+        }
     }
 
-    @Override
-    public void removeClaimMarkers(@NotNull List<TownClaim> townClaims, @NotNull World world) {
-        plugin.runSync(() -> getMarkerSet().ifPresent(markerSet -> {
-            for (TownClaim claim : townClaims) {
-                removeMarker(claim, world);
+    // Trace the outline of each connected group of a town's claims in each world, reading only that town's claims
+    @NotNull
+    private TownOutlines traceTown(int townId) {
+        final long start = System.nanoTime();
+        final Optional<Town> town = plugin.findTown(townId);
+        final Map<String, List<ChunkShapes.Shape>> shapes = new HashMap<>();
+        town.ifPresent(found -> plugin.getClaimWorlds().forEach((world, claimWorld) -> {
+            final List<Claim> claims = claimWorld.getClaims(townId);
+            if (!claims.isEmpty()) {
+                shapes.put(world, ChunkShapes.trace(claims.stream().map(Claim::getChunk).toList()));
             }
         }));
+        final String popup = town.map(this::getInfoWindowPopup).orElse("");
+        return new TownOutlines(townId, town.orElse(null), shapes, popup, System.nanoTime() - start);
     }
 
-    @Override
-    public void clearAllMarkers() {
-        plugin.runSync(() -> getMarkerSet().ifPresent(markerSet -> markerSet.getAreaMarkers()
-            .forEach(AreaMarker::deleteMarker)));
+    @NotNull
+    private String getInfoWindowPopup(@NotNull Town town) {
+        final StringBuilder membersList = new StringBuilder();
+        town.getMembers().forEach((uuid, roleWeight) -> plugin.getDatabase().getUser(uuid)
+            .ifPresent(user -> plugin.getRoles().fromWeight(roleWeight)
+                .ifPresent(role -> {
+                    final String roleName = COLOR_CODES.matcher(role.getName().replace("娕", " \uD83D\uDC51"))
+                        .replaceAll("");
+                    membersList.append(user.user().getName()).append(" (").append(roleName).append("), ");
+                })
+            ));
+
+        return "<div class=\"infowindow\">" +
+            "<span style=\"font-size:120%;\"><b>" + town.getName() + "</b></span><br>" +
+            "<span style=\"font-size:90%;\">" + town.getClaimCount() + " claims</span><br>" +
+            "<span style=\"font-size:90%;\">" + town.getBio().orElse("No bio available") + "</span><br>" +
+            "<span style=\"font-size:90%;\">" + town.getMembers().size() + " members: " + membersList + "</span>" +
+            "</div>";
     }
 
-    public void clearAllMarkers(String world, String townName) {
-        getMarkerSet().ifPresent(markerSet -> markerSet.getAreaMarkers()
-                .forEach(areaMarker -> {
-                    if (areaMarker.getWorld().equals(world) && areaMarker.getMarkerID().startsWith(townName)) {
-                        areaMarker.deleteMarker();
-                        existingAreaMarkers.remove(areaMarker.getMarkerID());
+    // Redraw a town's markers, reusing those already drawn and deleting any no longer needed
+    private void drawTown(@NotNull TownOutlines outlines) {
+        synchronized (townMarkers) {
+            final Map<String, List<AreaMarker>> drawn = townMarkers.computeIfAbsent(
+                outlines.townId(), id -> new HashMap<>()
+            );
+            drawn.entrySet().removeIf(world -> {
+                if (outlines.shapes().containsKey(world.getKey())) {
+                    return false;
+                }
+                world.getValue().forEach(AreaMarker::deleteMarker);
+                return true;
+            });
+
+            final Town town = outlines.town();
+            if (town != null && markerSet != null) {
+                outlines.shapes().forEach((world, shapes) -> {
+                    final List<AreaMarker> markers = drawn.computeIfAbsent(world, name -> new ArrayList<>());
+                    for (int i = 0; i < shapes.size(); i++) {
+                        final AreaMarker marker = drawOutline(town, world, i, shapes.get(i).outline(),
+                            i < markers.size() ? markers.get(i) : null);
+                        if (marker != null && i >= markers.size()) {
+                            markers.add(marker);
+                        }
+                        if (marker != null) {
+                            marker.setDescription(outlines.popup());
+                        }
                     }
-                }));
+                    while (markers.size() > shapes.size()) {
+                        markers.remove(markers.size() - 1).deleteMarker();
+                    }
+                });
+            }
+            if (drawn.isEmpty()) {
+                townMarkers.remove(outlines.townId());
+            }
+        }
+    }
+
+    @Nullable
+    private AreaMarker drawOutline(@NotNull Town town, @NotNull String world, int index, int @NotNull [] outline,
+                                   @Nullable AreaMarker existing) {
+        final double[] x = new double[outline.length / 2];
+        final double[] z = new double[outline.length / 2];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = outline[i * 2] * 16d;
+            z[i] = outline[i * 2 + 1] * 16d;
+        }
+
+        AreaMarker marker = existing;
+        if (marker == null) {
+            final String markerId = getTownMarkerKey(town, world, index);
+            marker = markerSet.createAreaMarker(markerId, town.getName(), false, world, x, z, false);
+            if (marker == null) {
+                marker = markerSet.findAreaMarker(markerId);
+            }
+            if (marker == null) {
+                plugin.log(Level.WARNING, "Failed to add Dynmap area marker " + markerId);
+                return null;
+            }
+        }
+        marker.setCornerLocations(x, z);
+        marker.setLabel(town.getName());
+
+        final int color = Integer.parseInt(town.getColorRgb().substring(1), 16);
+        marker.setFillStyle(0.5, color);
+        marker.setLineStyle(1, 0.8, color);
+        return marker;
     }
 
     @NotNull
-    private String getClaimMarkerKey(@NotNull TownClaim claim, @NotNull World world) {
-        return plugin.getKey(
-            Integer.toString(claim.town().getId()),
-            Integer.toString(claim.claim().getChunk().getX()),
-            Integer.toString(claim.claim().getChunk().getZ()),
-            world.getName()
-        ).toString();
+    private String getTownMarkerKey(@NotNull Town town, @NotNull String world, int index) {
+        return plugin.getKey(Integer.toString(town.getId()), world, Integer.toString(index)).toString();
     }
 
     private Optional<DynmapCommonAPI> getDynmap() {
@@ -249,245 +324,9 @@ public class DynmapHook extends MapHook {
         });
     }
 
-
-    public enum direction {
-        XPLUS,
-        ZPLUS,
-        XMINUS,
-        ZMINUS;
-    }
-
-    public void floodFillTarget(TileFlags src, TileFlags dest, int x, int y) {
-        int cnt = 0;
-        ArrayDeque<int[]> stack = new ArrayDeque<>();
-        stack.push(new int[]{x, y});
-        while (!stack.isEmpty()) {
-            int[] nxt = stack.pop();
-            x = nxt[0];
-            y = nxt[1];
-            if (src.getFlag(x, y)) {
-                src.setFlag(x, y, false);
-                dest.setFlag(x, y, true);
-                cnt++;
-                if (src.getFlag(x + 1, y))
-                    stack.push(new int[]{x + 1, y});
-                if (src.getFlag(x - 1, y))
-                    stack.push(new int[]{x - 1, y});
-                if (src.getFlag(x, y + 1))
-                    stack.push(new int[]{x, y + 1});
-                if (src.getFlag(x, y - 1))
-                    stack.push(new int[]{x, y - 1});
-            }
-        }
-    }
-
-
-//NEW VERSION
-
-
-    private void handleTown(Town town, Map<String, AreaMarker> newWorldNameAreaMarkerMap, String world, List<Claim> blocks) throws Exception {
-        int poly_index = 0; /* Index of polygon for when a town has multiple shapes. */
-
-        if (blocks.isEmpty())
-            return;
-
-        /* Build popup */
-        clearAllMarkers(world, town.getName());
-
-
-        StringBuilder membersList = new StringBuilder();
-
-        town.getMembers().forEach((uuid, roleWeight) -> plugin.getDatabase().getUser(uuid)
-                .ifPresent(user -> plugin.getRoles().fromWeight(roleWeight)
-                        .ifPresent(role -> {
-                            String roleName = role.getName();
-                            roleName=   roleName.replace("娕", " \uD83D\uDC51");
-                            Pattern pattern = Pattern.compile("§.");
-                            roleName = pattern.matcher(roleName).replaceAll("");
-                            membersList.append(user.user().getName()).append(" (").append(roleName).append("), ");
-                        })
-                ));
-
-        String infoWindowPopup = "<div class=\"infowindow\">" +
-                "<span style=\"font-size:120%;\"><b>" + town.getName() + "</b></span><br>" +
-                "<span style=\"font-size:90%;\">" + town.getClaimCount() + " claims</span><br>" +
-                "<span style=\"font-size:90%;\">" + town.getBio().orElse("No bio available") + "</span><br>" +
-                "<span style=\"font-size:90%;\">" + town.getMembers().size() + " members: " + membersList + "</span>" +
-                "</div>";
-
-        //HashMap<String, TileFlags> worldNameShapeMap = new HashMap<>();
-        LinkedList<Claim> townBlocksToDraw = new LinkedList<>();
-        TileFlags currentShape = new TileFlags();
-        ;
-
-        /* Loop through blocks: set flags on blockmaps for worlds */
-        for (Claim townBlock : blocks) {
-            //   currentShape = worldNameShapeMap.get(world);  /* Find existing */
-            //  if(currentShape == null) {
-            //     currentShape = new TileFlags();
-            //    worldNameShapeMap.put(world, currentShape);   /* Add fresh one */
-            // }
-
-            currentShape.setFlag(townBlock.getChunk().getX(), townBlock.getChunk().getZ(), true); /* Set flag for block */
-            townBlocksToDraw.addLast(townBlock);
-
-        }
-        /* Loop through until we don't find more areas */
-        while (townBlocksToDraw != null) {
-            LinkedList<Claim> ourTownBlocks = null;
-            LinkedList<Claim> townBlockLeftToDraw = null;
-            TileFlags ourShape = null;
-            int minx = Integer.MAX_VALUE;
-            int minz = Integer.MAX_VALUE;
-            for (Claim tb : townBlocksToDraw) {
-                int tbX = tb.getChunk().getX();
-                int tbZ = tb.getChunk().getZ();
-
-                /* If we need to start shape, and this block is not part of one yet */
-                if ((ourShape == null) && currentShape.getFlag(tbX, tbZ)) {
-                    ourShape = new TileFlags();  /* Create map for shape */
-                    ourTownBlocks = new LinkedList<Claim>();
-                    floodFillTarget(currentShape, ourShape, tbX, tbZ);   /* Copy shape */
-                    ourTownBlocks.add(tb); /* Add it to our node list */
-                    minx = tbX;
-                    minz = tbZ;
-                }
-                /* If shape found, and we're in it, add to our node list */
-                else if ((ourShape != null) &&
-                        (ourShape.getFlag(tbX, tbZ))) {
-                    ourTownBlocks.add(tb);
-                    if (tbX < minx) {
-                        minx = tbX;
-                        minz = tbZ;
-                    } else if ((tbX == minx) && (tbZ < minz)) {
-                        minz = tbZ;
-                    }
-                } else {  /* Else, keep it in the list for the next polygon */
-                    if (townBlockLeftToDraw == null)
-                        townBlockLeftToDraw = new LinkedList<>();
-                    townBlockLeftToDraw.add(tb);
-                }
-            }
-            townBlocksToDraw = townBlockLeftToDraw; /* Replace list (null if no more to process) */
-            if (ourShape != null) {
-                poly_index = traceTownOutline(town, newWorldNameAreaMarkerMap, poly_index, infoWindowPopup, world, ourShape, minx, minz);
-            }
-        }
-
-
-        ///  drawTownMarkers(town, newWorldNameMarkerMap, townName, infoWindowPopup);
-    }
-
-
-    ;
-
-    private int traceTownOutline(Town town, Map<String, AreaMarker> newWorldNameMarkerMap, int poly_index,
-                                 String infoWindowPopup, String worldName, TileFlags ourShape, int minx, int minz) throws Exception {
-
-        double[] x;
-        double[] z;
-        /* Trace outline of blocks - start from minx, minz going to x+ */
-        int init_x = minx;
-        int init_z = minz;
-        int cur_x = minx;
-        int cur_z = minz;
-        direction dir = direction.XPLUS;
-        ArrayList<int[]> linelist = new ArrayList<int[]>();
-        linelist.add(new int[]{init_x, init_z}); // Add start point
-        while ((cur_x != init_x) || (cur_z != init_z) || (dir != direction.ZMINUS)) {
-            switch (dir) {
-                case XPLUS: /* Segment in X+ direction */
-                    if (!ourShape.getFlag(cur_x + 1, cur_z)) { /* Right turn? */
-                        linelist.add(new int[]{cur_x + 1, cur_z}); /* Finish line */
-                        dir = direction.ZPLUS;  /* Change direction */
-                    } else if (!ourShape.getFlag(cur_x + 1, cur_z - 1)) {  /* Straight? */
-                        cur_x++;
-                    } else {  /* Left turn */
-                        linelist.add(new int[]{cur_x + 1, cur_z}); /* Finish line */
-                        dir = direction.ZMINUS;
-                        cur_x++;
-                        cur_z--;
-                    }
-                    break;
-                case ZPLUS: /* Segment in Z+ direction */
-                    if (!ourShape.getFlag(cur_x, cur_z + 1)) { /* Right turn? */
-                        linelist.add(new int[]{cur_x + 1, cur_z + 1}); /* Finish line */
-                        dir = direction.XMINUS;  /* Change direction */
-                    } else if (!ourShape.getFlag(cur_x + 1, cur_z + 1)) {  /* Straight? */
-                        cur_z++;
-                    } else {  /* Left turn */
-                        linelist.add(new int[]{cur_x + 1, cur_z + 1}); /* Finish line */
-                        dir = direction.XPLUS;
-                        cur_x++;
-                        cur_z++;
-                    }
-                    break;
-                case XMINUS: /* Segment in X- direction */
-                    if (!ourShape.getFlag(cur_x - 1, cur_z)) { /* Right turn? */
-                        linelist.add(new int[]{cur_x, cur_z + 1}); /* Finish line */
-                        dir = direction.ZMINUS;  /* Change direction */
-                    } else if (!ourShape.getFlag(cur_x - 1, cur_z + 1)) {  /* Straight? */
-                        cur_x--;
-                    } else {  /* Left turn */
-                        linelist.add(new int[]{cur_x, cur_z + 1}); /* Finish line */
-                        dir = direction.ZPLUS;
-                        cur_x--;
-                        cur_z++;
-                    }
-                    break;
-                case ZMINUS: /* Segment in Z- direction */
-                    if (!ourShape.getFlag(cur_x, cur_z - 1)) { /* Right turn? */
-                        linelist.add(new int[]{cur_x, cur_z}); /* Finish line */
-                        dir = direction.XPLUS;  /* Change direction */
-                    } else if (!ourShape.getFlag(cur_x - 1, cur_z - 1)) {  /* Straight? */
-                        cur_z--;
-                    } else {  /* Left turn */
-                        linelist.add(new int[]{cur_x, cur_z}); /* Finish line */
-                        dir = direction.XMINUS;
-                        cur_x--;
-                        cur_z--;
-                    }
-                    break;
-            }
-        }
-        /* Build information for specific area */
-        String polyid = town.getName() + "__" + poly_index;
-        int sz = linelist.size();
-        x = new double[sz];
-        z = new double[sz];
-        for (int i = 0; i < sz; i++) {
-            int[] line = linelist.get(i);
-            x[i] = (double) line[0] * (double) 16;
-            z[i] = (double) line[1] * (double) 16;
-        }
-        /* Find existing one */
-        AreaMarker areaMarker = existingAreaMarkers.remove(polyid); /* Existing area? */
-        if (areaMarker == null) {
-
-            areaMarker = markerSet.createAreaMarker(polyid, town.getName(), false, worldName, x, z, false);
-            if (areaMarker == null) {
-                areaMarker = markerSet.findAreaMarker(polyid);
-                if (areaMarker == null) {
-                    throw new Exception("Error adding area marker " + polyid);
-                }
-            }
-        } else {
-            areaMarker.setCornerLocations(x, z); /* Replace corner locations */
-            areaMarker.setLabel(town.getName());   /* Update label */
-        }
-        /* Set popup */
-        areaMarker.setDescription(infoWindowPopup);
-        /* Set line and fill properties */
-        areaMarker.setFillStyle(0.5, Integer.parseInt(town.getColorRgb().substring(1), 16));
-        areaMarker.setLineStyle(1, 0.8, Integer.parseInt(town.getColorRgb().substring(1), 16));
-
-        /* Add to map */
-        newWorldNameMarkerMap.put(polyid, areaMarker);
-        poly_index++;
-        return poly_index;
+    // A town's traced outlines in each world it has claims in, ready to be drawn
+    private record TownOutlines(int townId, @Nullable Town town, @NotNull Map<String, List<ChunkShapes.Shape>> shapes,
+                                @NotNull String popup, long traceNanos) {
     }
 
-
-
-
 }
@@ -29,28 +29,30 @@ import net.pl3x.map.core.event.world.WorldUnloadedEvent;
 import net.pl3x.map.core.markers.Point;
 import net.pl3x.map.core.markers.layer.SimpleLayer;
 import net.pl3x.map.core.markers.marker.Marker;
+import net.pl3x.map.core.markers.marker.Polygon;
+import net.pl3x.map.core.markers.marker.Polyline;
 import net.pl3x.map.core.markers.option.Options;
 import net.pl3x.map.core.markers.option.Tooltip;
 import net.pl3x.map.core.util.Colors;
 import net.william278.husktowns.HuskTowns;
-import net.william278.husktowns.claim.ClaimWorld;
 import net.william278.husktowns.claim.TownClaim;
 import net.william278.husktowns.claim.World;
 import net.william278.husktowns.hook.MapHook;
 import net.william278.husktowns.hook.PluginHook;
+import net.william278.husktowns.town.Town;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class Pl3xMapHook extends MapHook {
 
     private static final String CLAIMS_LAYER = "claim_markers";
-    private final ConcurrentHashMap<ClaimWorld, ConcurrentLinkedQueue<TownClaim>> claims = new ConcurrentHashMap<>();
+    private final TownShapeCache shapes = new TownShapeCache();
+    private final Map<String, Map<Integer, Marker<?>>> markers = new ConcurrentHashMap<>();
 
     @PluginHook(id = "Pl3xMap", register = PluginHook.Register.ON_ENABLE, platform = "common")
     public Pl3xMapHook(@NotNull HuskTowns plugin) {
@@ -69,21 +71,12 @@ public class Pl3xMapHook extends MapHook {
 
     @Override
     public void setClaimMarker(@NotNull TownClaim claim, @NotNull World world) {
-        plugin.getClaimWorld(world).ifPresent(claimWorld -> {
-            ConcurrentLinkedQueue<TownClaim> townClaims = claims.computeIfAbsent(claimWorld, k -> new ConcurrentLinkedQueue<>());
-            townClaims.add(claim);
-        });
+        shapes.add(world.getName(), claim);
     }
 
     @Override
     public void removeClaimMarker(@NotNull TownClaim claim, @NotNull World world) {
-        plugin.getClaimWorld(world).ifPresent(claimWorld -> {
-            ConcurrentLinkedQueue<TownClaim> townClaims = claims.get(claimWorld);
-
-            if (townClaims != null) {
-                townClaims.remove(claim);
-            }
-        });
+        shapes.remove(world.getName(), claim);
     }
 
     @Override
@@ -98,7 +91,8 @@ public class Pl3xMapHook extends MapHook {
 
     @Override
     public void clearAllMarkers() {
-        claims.clear();
+        shapes.clear();
+        markers.clear();
     }
 
     @NotNull
@@ -107,13 +101,47 @@ public class Pl3xMapHook extends MapHook {
     }
 
     @NotNull
-    private String getClaimMarkerKey(@NotNull TownClaim claim, @NotNull net.pl3x.map.core.world.World world) {
-        return plugin.getKey(
-            Integer.toString(claim.town().getId()),
-            Integer.toString(claim.claim().getChunk().getX()),
-            Integer.toString(claim.claim().getChunk().getZ()),
-            world.getName()
-        ).toString();
+    private String getTownMarkerKey(@NotNull Town town, @NotNull net.pl3x.map.core.world.World world) {
+        return plugin.getKey(Integer.toString(town.getId()), world.getName()).toString();
+    }
+
+    // Rebuild the markers of towns whose claims in the world have changed, and get every town's marker
+    @NotNull
+    private Collection<Marker<?>> getTownMarkers(@NotNull net.pl3x.map.core.world.World mapWorld) {
+        final Map<Integer, Marker<?>> worldMarkers = markers.computeIfAbsent(
+            mapWorld.getName(), name -> new ConcurrentHashMap<>()
+        );
+        synchronized (worldMarkers) {
+            for (TownShapeCache.Traced traced : shapes.retrace(mapWorld.getName())) {
+                if (traced.shapes().isEmpty()) {
+                    worldMarkers.remove(traced.town().getId());
+                    continue;
+                }
+                final String key = getTownMarkerKey(traced.town(), mapWorld);
+                final Polygon[] polygons = new Polygon[traced.shapes().size()];
+                for (int i = 0; i < polygons.length; i++) {
+                    final ChunkShapes.Shape shape = traced.shapes().get(i);
+                    final Polyline[] lines = new Polyline[shape.holes().size() + 1];
+                    lines[0] = toPolyline(key + "_" + i, shape.outline());
+                    for (int hole = 0; hole < shape.holes().size(); hole++) {
+                        lines[hole + 1] = toPolyline(key + "_" + i + "_" + hole, shape.holes().get(hole));
+                    }
+                    polygons[i] = Marker.polygon(key + "_" + i, lines);
+                }
+                worldMarkers.put(traced.town().getId(), Marker.multiPolygon(key, polygons)
+                    .setOptions(getMarkerOptions(traced.town())));
+            }
+            return new ArrayList<>(worldMarkers.values());
+        }
+    }
+
+    @NotNull
+    private static Polyline toPolyline(@NotNull String key, int @NotNull [] corners) {
+        final Point[] points = new Point[corners.length / 2];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = Point.of(corners[i * 2] * 16, corners[i * 2 + 1] * 16);
+        }
+        return Marker.polyline(key, points);
     }
 
     private void registerLayers(@NotNull net.pl3x.map.core.world.World mapWorld) {
@@ -122,10 +150,10 @@ public class Pl3xMapHook extends MapHook {
     }
 
     @NotNull
-    public Options getMarkerOptions(@NotNull TownClaim claim) {
-        final TextColor color = claim.town().getDisplayColor();
+    public Options getMarkerOptions(@NotNull Town town) {
+        final TextColor color = town.getDisplayColor();
         return Options.builder()
-            .tooltip(new Tooltip(claim.town().getName()).setDirection(Tooltip.Direction.TOP))
+            .tooltip(new Tooltip(town.getName()).setDirection(Tooltip.Direction.TOP))
             .fillColor(Colors.argb(255 / 2, color.red(), color.green(), color.blue()))
             .strokeColor(Colors.rgb((int) (color.red() * 0.7), (int) (color.green() * 0.7), (int) (color.blue() * 0.7)))
             .build();
@@ -145,23 +173,7 @@ public class Pl3xMapHook extends MapHook {
         @Override
         @NotNull
         public Collection<Marker<?>> getMarkers() {
-            Collection<Marker<?>> markers = new ArrayList<>();
-
-            Optional<ClaimWorld> world = Optional.ofNullable(hook.plugin.getClaimWorlds().get(mapWorld.getName()));
-
-            world.ifPresent(claimWorld -> {
-                ConcurrentLinkedQueue<TownClaim> claimQueue = hook.claims.get(claimWorld);
-
-                if (claimQueue != null) {
-                    claimQueue.forEach(claim -> markers.add(Marker.rectangle(
-                        hook.getClaimMarkerKey(claim, mapWorld),
-                        Point.of((claim.claim().getChunk().getX() * 16), (claim.claim().getChunk().getZ() * 16)),
-                        Point.of(((claim.claim().getChunk().getX() * 16) + 16), ((claim.claim().getChunk().getZ() * 16) + 16))
-                    ).setOptions(hook.getMarkerOptions(claim))));
-                }
-            });
-
-            return markers;
+            return hook.getTownMarkers(mapWorld);
         }
     }
 
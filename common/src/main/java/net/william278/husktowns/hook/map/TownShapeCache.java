@@ -0,0 +1,127 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.hook.map;
+
+import net.william278.husktowns.claim.Chunk;
+import net.william278.husktowns.claim.TownClaim;
+import net.william278.husktowns.town.Town;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * The claims of each town in each world, {@link ChunkShapes traced} into merged shapes for web map markers.
+ * <p>
+ * Claims are added and removed as a map hook is told about them. A town's shapes in a world are only re-traced when
+ * its claims there have changed since they were last traced.
+ */
+final class TownShapeCache {
+
+    private final Map<String, WorldClaims> worlds = new HashMap<>();
+
+    /**
+     * Add (or update) a town's claim in a world
+     *
+     * @param world the world name
+     * @param claim the claim
+     */
+    synchronized void add(@NotNull String world, @NotNull TownClaim claim) {
+        final WorldClaims claims = worlds.computeIfAbsent(world, name -> new WorldClaims());
+        final TownClaims town = claims.towns.computeIfAbsent(claim.town().getId(), id -> new TownClaims());
+        town.town = claim.town();
+        town.chunks.put(claim.claim().getChunk().asLong(), claim.claim().getChunk());
+        claims.changed.add(claim.town().getId());
+    }
+
+    /**
+     * Remove a town's claim in a world
+     *
+     * @param world the world name
+     * @param claim the claim
+     */
+    synchronized void remove(@NotNull String world, @NotNull TownClaim claim) {
+        final WorldClaims claims = worlds.get(world);
+        final TownClaims town = claims != null ? claims.towns.get(claim.town().getId()) : null;
+        if (town != null && town.chunks.remove(claim.claim().getChunk().asLong()) != null) {
+            claims.changed.add(claim.town().getId());
+        }
+    }
+
+    /**
+     * Remove every claim
+     */
+    synchronized void clear() {
+        worlds.clear();
+    }
+
+    /**
+     * Re-trace the shapes of each town whose claims in a world have changed since this was last called
+     *
+     * @param world the world name
+     * @return the towns whose shapes have changed. Towns with no claims left in the world have no shapes, and are
+     * forgotten
+     */
+    @NotNull
+    synchronized List<Traced> retrace(@NotNull String world) {
+        final WorldClaims claims = worlds.get(world);
+        if (claims == null || claims.changed.isEmpty()) {
+            return List.of();
+        }
+
+        final List<Traced> traced = new ArrayList<>(claims.changed.size());
+        for (int townId : claims.changed) {
+            final TownClaims town = claims.towns.get(townId);
+            if (town == null) {
+                continue;
+            }
+            final int previousShapes = town.shapes;
+            final List<ChunkShapes.Shape> shapes = ChunkShapes.trace(town.chunks.values());
+            town.shapes = shapes.size();
+            if (shapes.isEmpty()) {
+                claims.towns.remove(townId);
+            }
+            traced.add(new Traced(town.town, shapes, previousShapes));
+        }
+        claims.changed.clear();
+        return traced;
+    }
+
+    /**
+     * A town's re-traced shapes in a world
+     *
+     * @param town           the town
+     * @param shapes         the town's shapes in the world
+     * @param previousShapes how many shapes the town had when its claims in the world were last traced
+     */
+    record Traced(@NotNull Town town, @NotNull List<ChunkShapes.Shape> shapes, int previousShapes) {
+    }
+
+    private static final class WorldClaims {
+        private final Map<Integer, TownClaims> towns = new HashMap<>();
+        private final Set<Integer> changed = new LinkedHashSet<>();
+    }
+
+    private static final class TownClaims {
+        private final Map<Long, Chunk> chunks = new HashMap<>();
+        private Town town;
+        private int shapes;
+    }
+
+}
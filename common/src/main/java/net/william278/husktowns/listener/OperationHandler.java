@@ -37,6 +37,7 @@ import net.william278.husktowns.user.OnlineUser;
 import net.william278.husktowns.user.Preferences;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Objects;
 import java.util.Optional;
 
 public interface OperationHandler extends ChunkHandler {
@@ -62,30 +63,36 @@ public interface OperationHandler extends ChunkHandler {
         }
 
         // Handle wars
-        final Optional<TownClaim> fromClaim = getPlugin().getClaimAt(from, user.getWorld());
-        final Optional<TownClaim> toClaim = getPlugin().getClaimAt(to, user.getWorld());
+        final TownClaim fromClaim = getPlugin().findClaimAt(from, user.getWorld());
+        final TownClaim toClaim = getPlugin().findClaimAt(to, user.getWorld());
+
+        // Contexts depend on the town (and its rules for the type of claim) the user is in, so only change between them
+        if (!Objects.equals(fromClaim != null ? fromClaim.town().getId() : null,
+            toClaim != null ? toClaim.town().getId() : null)
+            || (fromClaim != null && toClaim != null && fromClaim.claim().getType() != toClaim.claim().getType())) {
+            getPlugin().getContextHooks().forEach(hook -> hook.invalidate(user));
+        }
         final Locales.Slot notificationSlot = getPlugin().getSettings().getGeneral().getNotificationSlot();
         getPlugin().getManager().wars().ifPresent(wars -> wars.handlePlayerFlee(user));
 
         // Auto-claiming
-        if (toClaim.isEmpty() && getPlugin().getUserPreferences(user.getUuid())
+        if (toClaim == null && getPlugin().getUserPreferences(user.getUuid())
             .map(Preferences::isAutoClaimingLand)
             .orElse(false)) {
             getPlugin().getManager().claims().createClaim(user, user.getWorld(), to, false);
             return false;
         }
-        if (fromClaim.map(TownClaim::town).equals(toClaim.map(TownClaim::town))) {
+        if (fromClaim != null && toClaim != null && fromClaim.town().equals(toClaim.town())) {
             return false;
         }
 
         // Claim entry messages
-        if (toClaim.isPresent()) {
-            final TownClaim entering = toClaim.get();
-            if (getPlugin().fireIsCancelled(getPlugin().getPlayerEnterTownEvent(user, entering, user.getPosition(), user.getPosition()))) {
+        if (toClaim != null) {
+            if (getPlugin().fireIsCancelled(getPlugin().getPlayerEnterTownEvent(user, toClaim, user.getPosition(), user.getPosition()))) {
                 return true;
             }
 
-            final Town town = entering.town();
+            final Town town = toClaim.town();
             final TextColor color = TextColor.fromHexString(town.getColorRgb());
             user.sendMessage(notificationSlot, Component.text(town.getName()).color(color));
             if (town.getGreeting().isPresent()) {
@@ -98,13 +105,12 @@ public interface OperationHandler extends ChunkHandler {
         }
 
         // Town exit messages
-        if (fromClaim.isPresent()) {
-            final TownClaim leaving = fromClaim.get();
-            if (getPlugin().fireIsCancelled(getPlugin().getPlayerLeaveTownEvent(user, leaving, user.getPosition(), user.getPosition()))) {
+        if (fromClaim != null) {
+            if (getPlugin().fireIsCancelled(getPlugin().getPlayerLeaveTownEvent(user, fromClaim, user.getPosition(), user.getPosition()))) {
                 return true;
             }
 
-            final Town town = leaving.town();
+            final Town town = fromClaim.town();
             getPlugin().getLocales().getLocale("wilderness")
                 .ifPresent(locale -> user.sendMessage(notificationSlot, locale));
             if (town.getFarewell().isPresent()) {
@@ -146,9 +152,9 @@ public interface OperationHandler extends ChunkHandler {
         }
 
         // Handle operations in claims
-        final Optional<TownClaim> claim = getPlugin().getClaimAt((Position) operation.getOperationPosition());
-        if (claim.isPresent()) {
-            return cancelOperation(operation, claim.get());
+        final TownClaim claim = getPlugin().findClaimAt((Position) operation.getOperationPosition());
+        if (claim != null) {
+            return cancelOperation(operation, claim);
         }
 
         // Handle operations in unclaimable worlds
@@ -269,12 +275,12 @@ public interface OperationHandler extends ChunkHandler {
             return false;
         }
 
-        final Optional<TownClaim> claim1 = getPlugin().getClaimAt((Chunk) chunk1, world);
-        final Optional<TownClaim> claim2 = getPlugin().getClaimAt((Chunk) chunk2, world);
-        if (claim1.isPresent() && claim2.isPresent()) {
-            return !claim1.get().town().equals(claim2.get().town());
+        final TownClaim claim1 = getPlugin().findClaimAt((Chunk) chunk1, world);
+        final TownClaim claim2 = getPlugin().findClaimAt((Chunk) chunk2, world);
+        if (claim1 != null && claim2 != null) {
+            return !claim1.town().equals(claim2.town());
         }
-        return !(claim1.isEmpty() && claim2.isEmpty());
+        return !(claim1 == null && claim2 == null);
     }
 
     private boolean cancelFriendlyFire(@NotNull OnlineUser user, @NotNull OnlineUser victim) {
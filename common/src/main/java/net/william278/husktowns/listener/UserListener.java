@@ -23,17 +23,13 @@ import net.william278.husktowns.HuskTowns;
 import net.william278.husktowns.advancement.Advancement;
 import net.william278.husktowns.claim.Position;
 import net.william278.husktowns.network.Broker;
-import net.william278.husktowns.network.Message;
-import net.william278.husktowns.network.Payload;
 import net.william278.husktowns.town.Member;
 import net.william278.husktowns.town.Town;
 import net.william278.husktowns.user.OnlineUser;
 import net.william278.husktowns.user.Preferences;
 import net.william278.husktowns.user.SavedUser;
-import net.william278.husktowns.user.User;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
 import java.util.Optional;
 
 public interface UserListener {
@@ -73,9 +69,13 @@ public interface UserListener {
                 }
 
                 // Synchronize the global player list
-                getPlugin().runSyncDelayed(() -> this.syncGlobalUserList(
-                        user, getPlugin().getOnlineUsers().stream().map(online -> (User) online).toList()), user, 40L
-                );
+                getPlugin().getMessageBroker().ifPresent(broker -> getPlugin().runSyncDelayed(
+                        () -> broker.getUserListSync().userJoined(user), user, 40L
+                ));
+
+                // Send town updates held while nobody was online to send them through
+                getPlugin().getMessageBroker().filter(Broker::requiresMessenger).ifPresent(broker -> getPlugin()
+                        .runAsyncDelayed(() -> getPlugin().getManager().deliverTownUpdates(), 40L));
 
                 // Handle teleportation completion
                 if (preferences.getTeleportTarget().isPresent()) {
@@ -115,24 +115,13 @@ public interface UserListener {
 
     // When a player quits
     default void handlePlayerQuit(@NotNull OnlineUser user) {
-        if (getPlugin().getSettings().getCrossServer().isEnabled()) {
-            final List<User> localPlayerList = getPlugin().getOnlineUsers().stream()
-                    .filter(u -> !u.equals(user)).map(u -> (User) u).toList();
-
-            // Update global user list if needed
-            if (getPlugin().getSettings().getCrossServer().getBrokerType() == Broker.Type.REDIS) {
-                this.syncGlobalUserList(user, localPlayerList);
-            } else {
-                getPlugin().getOnlineUsers().stream()
-                        .filter(u -> !u.equals(user))
-                        .findAny()
-                        .ifPresent(player -> this.syncGlobalUserList(player, localPlayerList));
-            }
-        }
+        // Update the global user list
+        getPlugin().getMessageBroker().ifPresent(broker -> broker.getUserListSync().userLeft(user));
 
         // Handle war victory checks
         getPlugin().getManager().wars().ifPresent(wars -> wars.handlePlayerQuit(user));
-        getPlugin().getOnlineUserMap().remove(user.getUuid());
+        getPlugin().getContextHooks().forEach(hook -> hook.invalidate(user));
+        getPlugin().removeOnlineUser(user.getUuid());
     }
 
     default boolean handlePlayerChat(@NotNull OnlineUser user, @NotNull String message) {
@@ -144,31 +133,6 @@ public interface UserListener {
         return false;
     }
 
-    // Synchronize the global player list
-    default void syncGlobalUserList(@NotNull OnlineUser user, @NotNull List<User> onlineUsers) {
-        final Optional<Broker> optionalBroker = getPlugin().getMessageBroker();
-        if (optionalBroker.isEmpty()) {
-            return;
-        }
-        final Broker broker = optionalBroker.get();
-
-        // Send this server's player list to all servers
-        Message.builder()
-                .type(Message.Type.UPDATE_USER_LIST)
-                .target(Message.TARGET_ALL, Message.TargetType.SERVER)
-                .payload(Payload.userList(onlineUsers))
-                .build().send(broker, user);
-
-        // Clear cached global player lists and request updated lists from all servers
-        if (getPlugin().getOnlineUsers().size() == 1) {
-            getPlugin().getGlobalUserList().clear();
-            Message.builder()
-                    .type(Message.Type.REQUEST_USER_LIST)
-                    .target(Message.TARGET_ALL, Message.TargetType.SERVER)
-                    .build().send(broker, user);
-        }
-    }
-
     @NotNull
     HuskTowns getPlugin();
 
@@ -54,9 +54,7 @@ public class AdminManager {
     }
 
     private Optional<Town> getTownByName(@NotNull String townName) {
-        return plugin.getTowns().stream()
-            .filter(town -> town.getName().equalsIgnoreCase(townName))
-            .findFirst();
+        return plugin.findTown(townName);
     }
 
     public void createAdminClaim(@NotNull OnlineUser user, @NotNull World world, @NotNull Chunk chunk, boolean showMap) {
@@ -290,20 +288,12 @@ public class AdminManager {
                 .ifPresent(user::sendMessage);
         };
 
-        // Execute the operation with an online user if applicable
-        plugin.runAsync(() -> {
-            final OnlineUser editor = user instanceof OnlineUser online
-                ? online : plugin.getOnlineUsers().stream().findAny().orElse(null);
-            if (editor != null) {
-                plugin.getManager().editTown(editor, toEdit.get(), moneySetter);
-                return;
-            }
-
-            final Town town = toEdit.get();
-            moneySetter.accept(town);
-            plugin.updateTown(town);
-            plugin.getDatabase().updateTown(town);
-        });
+        // Execute the operation as the online user if applicable, so it counts towards their advancements
+        if (user instanceof OnlineUser online) {
+            plugin.getManager().editTown(online, toEdit.get(), moneySetter);
+            return;
+        }
+        plugin.getManager().editTown(toEdit.get(), moneySetter);
     }
 
     public void changeTownBalance(@NotNull CommandUser user, @NotNull String townName, @NotNull BigDecimal amount) {
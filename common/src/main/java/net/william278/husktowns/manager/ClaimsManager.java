@@ -129,6 +129,7 @@ public class ClaimsManager {
             .orElseThrow(() -> new IllegalArgumentException("World \"" + world.getName() + "\" is not claimable"));
         if (claim.isAdminClaim(plugin)) {
             claimWorld.addAdminClaim(claim.claim());
+            plugin.getContextHooks().forEach(hook -> hook.invalidateTown(claim.town()));
         } else {
             claimWorld.addClaim(claim);
             plugin.getManager().editTown(user, claim.town(), (town -> {
@@ -140,7 +141,7 @@ public class ClaimsManager {
                 }
             }));
         }
-        plugin.getDatabase().updateClaimWorld(claimWorld);
+        plugin.getDatabase().saveClaim(claimWorld, claim);
         plugin.getMapHook().ifPresent(map -> map.setClaimMarker(claim, world));
     }
 
@@ -218,13 +219,9 @@ public class ClaimsManager {
         plugin.fireEvent(plugin.getUnClaimAllEvent(user, town), (event -> {
             try {
                 plugin.getMapHook().ifPresent(mapHook -> mapHook.removeClaimMarkers(town));
-                plugin.getClaimWorlds().values().forEach(world -> world.removeTownClaims(town.getId()));
-                plugin.getDatabase().getAllClaimWorlds().forEach((serverWorld, claimWorld) -> {
-                    if (serverWorld.server().equals(plugin.getServerName())) {
-                        if (claimWorld.removeTownClaims(town.getId()) > 0) {
-                            plugin.getDatabase().updateClaimWorld(claimWorld);
-                        }
-                    }
+                plugin.getClaimWorlds().values().forEach(world -> {
+                    world.removeTownClaims(town.getId());
+                    plugin.getDatabase().deleteTownClaims(world, town.getId());
                 });
                 plugin.getManager().editTown(user, town, (townToEdit -> {
                     townToEdit.setClaimCount(0);
@@ -255,7 +252,8 @@ public class ClaimsManager {
             .orElseThrow(() -> new IllegalArgumentException("World \"" + world.getName() + "\" is not claimable"));
         if (claim.isAdminClaim(plugin)) {
             claimWorld.removeAdminClaim(claim.claim().getChunk());
-            plugin.getDatabase().updateClaimWorld(claimWorld);
+            plugin.getContextHooks().forEach(hook -> hook.invalidateTown(claim.town()));
+            plugin.getDatabase().deleteClaim(claimWorld, claim.claim().getChunk());
             plugin.getMapHook().ifPresent(map -> map.removeClaimMarker(claim, world));
             return;
         }
@@ -265,7 +263,7 @@ public class ClaimsManager {
             town.setClaimCount(town.getClaimCount() - 1);
             town.getLog().log(Action.of(user, Action.Type.DELETE_CLAIM, claim.claim().toString()));
         }), (town -> {
-            plugin.getDatabase().updateClaimWorld(claimWorld);
+            plugin.getDatabase().deleteClaim(claimWorld, claim.claim().getChunk());
             plugin.getMapHook().ifPresent(map -> map.removeClaimMarker(claim, world));
         }));
     }
@@ -282,7 +280,7 @@ public class ClaimsManager {
 
                 plugin.runAsync(() -> {
                     townClaim.claim().setType(Claim.Type.PLOT);
-                    plugin.getDatabase().updateClaimWorld(claimWorld.get());
+                    plugin.getDatabase().saveClaim(claimWorld.get(), townClaim);
                     plugin.getManager().editTown(user, townClaim.town(), (town -> town.getLog()
                         .log(Action.of(user, Action.Type.MAKE_CLAIM_PLOT, townClaim.claim().toString()))));
                     plugin.getLocales().getLocale("claim_made_plot", Integer.toString(chunk.getX()),
@@ -303,7 +301,7 @@ public class ClaimsManager {
 
                 plugin.runAsync(() -> {
                     townClaim.claim().setType(Claim.Type.FARM);
-                    plugin.getDatabase().updateClaimWorld(claimWorld.get());
+                    plugin.getDatabase().saveClaim(claimWorld.get(), townClaim);
                     plugin.getManager().editTown(user, townClaim.town(), (town -> town.getLog()
                         .log(Action.of(user, Action.Type.MAKE_CLAIM_FARM, townClaim.claim().toString()))));
 
@@ -327,7 +325,7 @@ public class ClaimsManager {
 
                 plugin.runAsync(() -> {
                     claim.setType(Claim.Type.CLAIM);
-                    plugin.getDatabase().updateClaimWorld(claimWorld.get());
+                    plugin.getDatabase().saveClaim(claimWorld.get(), townClaim);
                     plugin.getManager().editTown(user, townClaim.town(), (town -> town.getLog()
                         .log(Action.of(user, Action.Type.MAKE_CLAIM_REGULAR, townClaim.claim().toString()))));
 
@@ -369,7 +367,7 @@ public class ClaimsManager {
                     }
 
                     claim.claim().setPlotMember(targetUser.get().getUuid(), manager);
-                    plugin.getDatabase().updateClaimWorld(claimWorld.get());
+                    plugin.getDatabase().saveClaim(claimWorld.get(), claim);
                     plugin.getManager().editTown(user, claim.town(), (town -> town.getLog().log(Action.of(user,
                         Action.Type.ADD_PLOT_MEMBER, claim.claim() + ": +" + targetUser.get().getUsername()))));
 
@@ -411,7 +409,7 @@ public class ClaimsManager {
                     }
 
                     claim.claim().removePlotMember(targetUser.get().getUuid());
-                    plugin.getDatabase().updateClaimWorld(claimWorld.get());
+                    plugin.getDatabase().saveClaim(claimWorld.get(), claim);
                     plugin.getManager().editTown(user, claim.town(), (town -> town.getLog().log(Action.of(user,
                         Action.Type.REMOVE_PLOT_MEMBER, claim.claim() + ": -" + targetUser.get().getUsername()))));
 
@@ -441,7 +439,7 @@ public class ClaimsManager {
                     }
 
                     claim.claim().setPlotMember(user.getUuid(), true);
-                    plugin.getDatabase().updateClaimWorld(claimWorld.get());
+                    plugin.getDatabase().saveClaim(claimWorld.get(), claim);
                     plugin.getManager().editTown(user, claim.town(), (town -> town.getLog().log(Action.of(user,
                         Action.Type.CLAIM_VACANT_PLOT, claim.claim().toString()))));
 
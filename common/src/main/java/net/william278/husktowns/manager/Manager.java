@@ -26,8 +26,6 @@ import net.william278.husktowns.claim.ClaimWorld;
 import net.william278.husktowns.claim.TownClaim;
 import net.william278.husktowns.claim.World;
 import net.william278.husktowns.config.Settings;
-import net.william278.husktowns.network.Message;
-import net.william278.husktowns.network.Payload;
 import net.william278.husktowns.town.Member;
 import net.william278.husktowns.town.Privilege;
 import net.william278.husktowns.town.Town;
@@ -39,6 +37,7 @@ import org.jetbrains.annotations.Nullable;
 import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Manager, for interfacing and editing town, claim and user data
@@ -51,9 +50,13 @@ public class Manager {
     private final ClaimsManager claims;
     private final AdminManager admin;
     private final WarManager wars;
+    private final TownSaveQueue townSaves;
+    private final TownEditQueue townEdits;
 
     public Manager(@NotNull HuskTowns plugin) {
         this.plugin = plugin;
+        this.townSaves = new TownSaveQueue(plugin);
+        this.townEdits = new TownEditQueue(plugin);
         this.towns = new TownsManager(plugin);
         this.claims = new ClaimsManager(plugin);
         this.admin = new AdminManager(plugin);
@@ -85,29 +88,88 @@ public class Manager {
         editTown(user, town, editor, null);
     }
 
+    /**
+     * Edit a town, then update the town and run the callback.
+     * <p>
+     * Edits to a town are queued and run one at a time. Each is applied to a copy of the latest version of the town,
+     * which then replaces it in the cache, so readers never see a half-applied edit.
+     *
+     * @param user     the user editing the town
+     * @param town     the town to edit
+     * @param editor   the editor to run against a copy of the town
+     * @param callback the callback to run with the edited town
+     */
     public void editTown(@NotNull OnlineUser user, @NotNull Town town, @NotNull Consumer<Town> editor,
                          @Nullable Consumer<Town> callback) {
-        plugin.runAsync(() -> {
-            editor.accept(town);
-            updateTownData(user, town);
+        townEdits.submit(town.getId(), () -> {
+            final Town edited = copyLatest(town);
+            if (edited == null) {
+                return;
+            }
+            editor.accept(edited);
+            updateTownData(user, edited);
             if (callback != null) {
-                callback.accept(town);
+                callback.accept(edited);
+            }
+            plugin.checkAdvancements(edited, user);
+        });
+    }
+
+    /**
+     * Edit a town on behalf of no particular user (e.g. from the console, or when pruning data), then update the town.
+     * <p>
+     * The edit is queued and applied to a copy of the latest version of the town, as with
+     * {@link #editTown(OnlineUser, Town, Consumer, Consumer)}.
+     *
+     * @param town   the town to edit
+     * @param editor the editor to run against a copy of the town
+     */
+    public void editTown(@NotNull Town town, @NotNull Consumer<Town> editor) {
+        townEdits.submit(town.getId(), () -> {
+            final Town edited = copyLatest(town);
+            if (edited == null) {
+                return;
+            }
+            editor.accept(edited);
+            updateTownData(edited);
+        });
+    }
+
+    /**
+     * Replace a town with a copy of a version of it edited outside the edit queue (i.e. through the API), then update
+     * the town.
+     * <p>
+     * The replacement is queued behind other edits to the town, and published as the next version of the latest one.
+     *
+     * @param user the user replacing the town
+     * @param town the edited town
+     */
+    public void replaceTown(@NotNull OnlineUser user, @NotNull Town town) {
+        townEdits.submit(town.getId(), () -> {
+            final Town latest = copyLatest(town);
+            if (latest == null) {
+                return;
             }
-            plugin.checkAdvancements(town, user);
+            final Town replacement = town.copy(plugin.getGson());
+            replacement.setVersion(latest.getVersion());
+            updateTownData(user, replacement);
         });
     }
 
+    /**
+     * Delete a town once the edits already queued for it have run. Edits queued after the deletion are dropped.
+     *
+     * @param town     the town to delete
+     * @param deletion the deletion to run
+     */
+    void deleteTown(@NotNull Town town, @NotNull Runnable deletion) {
+        townEdits.submit(town.getId(), deletion);
+    }
+
     public void memberEditTown(@NotNull OnlineUser user, @Nullable Privilege privilege,
                                @NotNull Function<Member, Boolean> editor, @Nullable Consumer<Member> callback) {
-        this.ifMember(user, privilege, (member -> plugin.runAsync(() -> {
-            if (editor.apply(member)) {
-                updateTownData(user, member.town());
-                if (callback != null) {
-                    callback.accept(member);
-                }
-                plugin.checkAdvancements(member.town(), user);
-            }
-        })));
+        this.ifMember(user, privilege, (member -> queueMemberEdit(user, member,
+            (latest -> isPrivileged(user, latest, privilege)), editor, callback)));
     }
 
     public void memberEditTown(@NotNull OnlineUser user, @NotNull Privilege privilege, @NotNull Function<Member, Boolean> editor) {
@@ -122,17 +184,44 @@ public class Manager {
      * @param callback the callback to run
      */
     public void mayorEditTown(@NotNull OnlineUser user, @NotNull Function<Member, Boolean> editor, @Nullable Consumer<Member> callback) {
-        this.ifMayor(user, (mayor -> plugin.runSync(() -> {
-            if (editor.apply(mayor)) {
-                plugin.runAsync(() -> {
-                    updateTownData(user, mayor.town());
-                    if (callback != null) {
-                        callback.accept(mayor);
-                    }
-                    plugin.checkAdvancements(mayor.town(), user);
-                });
+        this.ifMayor(user, (mayor -> queueMemberEdit(user, mayor, (latest -> isMayor(user, latest)), editor, callback)));
+    }
+
+    // Queue an edit to a member's town; the member's role is re-checked against the town when the edit runs, as edits
+    // queued before it may have changed it, and the edit is discarded if the check fails or the editor returns false
+    private void queueMemberEdit(@NotNull OnlineUser user, @NotNull Member member, @NotNull Predicate<Member> check,
+                                 @NotNull Function<Member, Boolean> editor, @Nullable Consumer<Member> callback) {
+        townEdits.submit(member.town().getId(), () -> {
+            final Town edited = copyLatest(member.town());
+            if (edited == null) {
+                return;
+            }
+            final Member editing = Optional.ofNullable(edited.getMembers().get(user.getUuid()))
+                .flatMap(plugin.getRoles()::fromWeight)
+                .map(role -> new Member(member.user(), edited, role))
+                .orElse(null);
+            if (!check.test(editing)) {
+                return;
+            }
+            if (editor.apply(editing)) {
+                updateTownData(user, edited);
+                if (callback != null) {
+                    callback.accept(editing);
+                }
+                plugin.checkAdvancements(edited, user);
             }
-        }, user)));
+        });
+    }
+
+    // Copy the latest cached version of a town to edit, or null if it has since been deleted; the admin town isn't
+    // cached, so is edited as-is
+    @Nullable
+    private Town copyLatest(@NotNull Town town) {
+        final Town latest = plugin.getTowns().getById(town.getId());
+        if (latest != null) {
+            return latest.copy(plugin.getGson());
+        }
+        return town.getName().equalsIgnoreCase(plugin.getSettings().getTowns().getAdminTown().getName()) ? town : null;
     }
 
     /**
@@ -143,20 +232,26 @@ public class Manager {
      * @param callback  the callback to run
      */
     protected void ifMember(@NotNull OnlineUser user, @Nullable Privilege privilege, @NotNull Consumer<Member> callback) {
-        final Optional<Member> member = plugin.getUserTown(user);
-        if (member.isEmpty()) {
+        final Member member = plugin.getUserTown(user).orElse(null);
+        if (isPrivileged(user, member, privilege)) {
+            callback.accept(member);
+        }
+    }
+
+    // Check a user is a member of a town with a privilege, sending them an error message if not
+    private boolean isPrivileged(@NotNull OnlineUser user, @Nullable Member member, @Nullable Privilege privilege) {
+        if (member == null) {
             plugin.getLocales().getLocale("error_not_in_town")
                 .ifPresent(user::sendMessage);
-            return;
+            return false;
         }
 
-        if (privilege != null && !member.get().hasPrivilege(plugin, privilege)) {
-            plugin.getLocales().getLocale("error_insufficient_privileges", member.get().town().getName())
+        if (privilege != null && !member.hasPrivilege(plugin, privilege)) {
+            plugin.getLocales().getLocale("error_insufficient_privileges", member.town().getName())
                 .ifPresent(user::sendMessage);
-            return;
+            return false;
         }
-
-        callback.accept(member.get());
+        return true;
     }
 
     /**
@@ -176,20 +271,26 @@ public class Manager {
      * @param callback The callback
      */
     protected void ifMayor(@NotNull OnlineUser user, @NotNull Consumer<Member> callback) {
-        final Optional<Member> member = plugin.getUserTown(user);
-        if (member.isEmpty()) {
+        final Member member = plugin.getUserTown(user).orElse(null);
+        if (isMayor(user, member)) {
+            callback.accept(member);
+        }
+    }
+
+    // Check a user is the mayor of a town, sending them an error message if not
+    private boolean isMayor(@NotNull OnlineUser user, @Nullable Member member) {
+        if (member == null) {
             plugin.getLocales().getLocale("error_not_in_town")
                 .ifPresent(user::sendMessage);
-            return;
+            return false;
         }
 
-        if (!member.get().role().equals(plugin.getRoles().getMayorRole())) {
-            plugin.getLocales().getLocale("error_not_town_mayor", member.get().town().getName())
+        if (!member.role().equals(plugin.getRoles().getMayorRole())) {
+            plugin.getLocales().getLocale("error_not_town_mayor", member.town().getName())
                 .ifPresent(user::sendMessage);
-            return;
+            return false;
         }
-
-        callback.accept(member.get());
+        return true;
     }
 
     /**
@@ -229,25 +330,49 @@ public class Manager {
     }
 
     /**
-     * Update a town's data to the database and propagate cross-server
+     * Update a town's data in the cache, then queue it to be saved to the database and propagated cross-server
      *
      * @param actor The user who is updating the town's data
      * @param town  The town to update
      */
     public void updateTownData(@NotNull OnlineUser actor, @NotNull Town town) {
+        updateTownData(town);
+    }
+
+    /**
+     * Update a town's data in the cache, then queue it to be saved to the database and propagated cross-server
+     * <p>
+     * The update is propagated through whichever user is online when the save is written, so no actor is needed.
+     *
+     * @param town The town to update
+     */
+    public void updateTownData(@NotNull Town town) {
         // Update in the cache
+        town.incrementVersion();
         plugin.updateTown(town);
 
-        // Update in the database
-        plugin.getDatabase().updateTown(town);
+        // Queue the update to the database; it will be propagated to other servers once saved
+        townSaves.enqueue(town);
+    }
+
+    /**
+     * Save all queued town updates to the database now; called on shutdown
+     */
+    public void flushTownSaves() {
+        townSaves.flush();
+    }
+
+    /**
+     * Propagate the updates of saved towns held while nobody was online to send them through; called when a user joins
+     */
+    public void deliverTownUpdates() {
+        townSaves.deliver();
+    }
 
-        // Propagate to other servers
-        plugin.getMessageBroker().ifPresent(broker -> Message.builder()
-            .type(Message.Type.TOWN_UPDATE)
-            .payload(Payload.integer(town.getId()))
-            .target(Message.TARGET_ALL, Message.TargetType.SERVER)
-            .build()
-            .send(broker, actor));
+    // Drop a queued save for a town that is being deleted, so it isn't written (and broadcast) after deletion
+    void discardTownSave(@NotNull Town town) {
+        townSaves.discard(town.getId());
+        plugin.getMessageBroker().ifPresent(broker -> broker.getTownSync().forget(town.getId()));
     }
 
     /**
@@ -257,11 +382,12 @@ public class Manager {
      * @param message The message to send
      */
     public void sendTownMessage(@NotNull Town town, @NotNull Component message) {
-        plugin.getOnlineUsers().stream()
-            .filter(user -> town.getMembers().containsKey(user.getUuid()))
-            .filter(user -> plugin.getUserPreferences(user.getUuid())
-                .map(Preferences::sendTownMessages).orElse(true))
-            .forEach(user -> user.sendMessage(message));
+        for (OnlineUser user : plugin.getTowns().getOnlineMembers(town.getId())) {
+            final Preferences preferences = plugin.getUserPreferences().get(user.getUuid());
+            if (preferences == null || preferences.sendTownMessages()) {
+                user.sendMessage(message);
+            }
+        }
     }
 
 }
@@ -0,0 +1,68 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.manager;
+
+import com.google.common.collect.Maps;
+import net.william278.husktowns.HuskTowns;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+
+/**
+ * Runs edits to each town on the async scheduler one at a time, in the order they were queued.
+ * <p>
+ * Edits to different towns still run concurrently. Because each edit is applied to a copy of the latest published
+ * version of its town (see {@link Manager#editTown}), running them in order means no edit is lost to another one
+ * copying the same version.
+ */
+class TownEditQueue {
+
+    private final HuskTowns plugin;
+    private final Map<Integer, CompletableFuture<Void>> queued = Maps.newConcurrentMap();
+
+    TownEditQueue(@NotNull HuskTowns plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Queue an edit to a town, to run once all edits already queued for it have run
+     *
+     * @param townId the ID of the town
+     * @param edit   the edit
+     */
+    void submit(int townId, @NotNull Runnable edit) {
+        final CompletableFuture<Void> next = queued.compute(townId, (id, last) -> (last != null
+            ? last : CompletableFuture.<Void>completedFuture(null))
+            .thenCompose(ignored -> plugin.<Void>supplyAsync(() -> {
+                edit.run();
+                return null;
+            }))
+            .exceptionally(e -> {
+                plugin.log(Level.SEVERE, "Failed to apply an edit to town #" + id, e);
+                return null;
+            }));
+
+        // Stop tracking the town once its queue has drained
+        next.whenComplete((ignored, e) -> queued.remove(townId, next));
+    }
+
+}
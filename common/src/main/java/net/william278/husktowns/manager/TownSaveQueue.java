@@ -0,0 +1,145 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.manager;
+
+import com.google.common.collect.Maps;
+import net.william278.husktowns.HuskTowns;
+import net.william278.husktowns.network.Message;
+import net.william278.husktowns.network.Payload;
+import net.william278.husktowns.town.Town;
+import net.william278.husktowns.user.OnlineUser;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind queue for saving towns to the database.
+ * <p>
+ * Saves are held for the configured {@code town_save_delay}, during which further saves of the same town replace the
+ * queued one, then all queued towns are written in a single batch. A town's {@link Message.Type#TOWN_UPDATE} is only
+ * broadcast once it has been written, so other servers that fall back to reading the town from the database don't read
+ * stale data. Where the broker sends messages through a player, updates are sent through one online when the queue is
+ * flushed; if there is none, they are held until a player joins.
+ */
+class TownSaveQueue {
+
+    private final HuskTowns plugin;
+    private final Map<Integer, Town> pending = Maps.newConcurrentMap();
+    private final Map<Integer, Town> undelivered = Maps.newConcurrentMap();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    TownSaveQueue(@NotNull HuskTowns plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Queue a town to be saved, replacing any save of it that is already queued
+     *
+     * @param town the town to save
+     */
+    void enqueue(@NotNull Town town) {
+        pending.put(town.getId(), town);
+        final long delay = plugin.getSettings().getDatabase().getTownSaveDelay();
+        if (delay <= 0) {
+            flush();
+            return;
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            plugin.runAsyncDelayed(() -> {
+                flushScheduled.set(false);
+                flush();
+            }, delay);
+        }
+    }
+
+    /**
+     * Drop a queued save, if there is one; for when a town has been deleted
+     *
+     * @param townId the ID of the town
+     */
+    void discard(int townId) {
+        pending.remove(townId);
+        undelivered.remove(townId);
+    }
+
+    /**
+     * Write all queued towns to the database now, then propagate their updates cross-server
+     */
+    synchronized void flush() {
+        final List<Town> saves = new ArrayList<>(pending.size());
+        for (Integer townId : pending.keySet()) {
+            final Town town = pending.remove(townId);
+            if (town != null && !isSuperseded(town)) {
+                saves.add(town);
+            }
+        }
+        if (!saves.isEmpty()) {
+            plugin.getDatabase().updateTowns(saves);
+        }
+
+        plugin.getMessageBroker().ifPresent(broker -> {
+            saves.forEach(town -> undelivered.put(town.getId(), town));
+            deliver();
+        });
+    }
+
+    /**
+     * Propagate the updates of saved towns cross-server.
+     * <p>
+     * Plugin messages are sent through a player, so are sent through one who is online now, rather than the user who
+     * made an edit and may since have left; if nobody is online, the updates are held until someone joins.
+     */
+    synchronized void deliver() {
+        plugin.getMessageBroker().ifPresent(broker -> {
+            final Optional<OnlineUser> messenger = plugin.getOnlineUsers().stream().findAny();
+            if ((broker.requiresMessenger() && messenger.isEmpty()) || undelivered.isEmpty()) {
+                return;
+            }
+            for (Integer townId : undelivered.keySet()) {
+                final Town town = undelivered.remove(townId);
+                if (town == null) {
+                    continue;
+                }
+                final Message message = Message.builder()
+                    .type(Message.Type.TOWN_UPDATE)
+                    .payload(Payload.townUpdate(broker.getTownSync().createUpdate(town)))
+                    .target(Message.TARGET_ALL, Message.TargetType.SERVER)
+                    .build();
+                if (broker.requiresMessenger()) {
+                    message.send(broker, messenger.get());
+                } else {
+                    message.send(broker);
+                }
+            }
+        });
+    }
+
+    // A queued town has been superseded if an update from another server (or a reload from the database) has since
+    // replaced it in the cache with the same or a later version, which writing the queued town would overwrite
+    private boolean isSuperseded(@NotNull Town town) {
+        final Town cached = plugin.getTowns().getById(town.getId());
+        return cached != null && cached != town && cached.getVersion() >= town.getVersion();
+    }
+
+}
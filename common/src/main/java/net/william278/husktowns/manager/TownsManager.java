@@ -24,6 +24,7 @@ import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.TextColor;
 import net.william278.husktowns.HuskTowns;
 import net.william278.husktowns.audit.Action;
+import net.william278.husktowns.audit.Log;
 import net.william278.husktowns.claim.Claim;
 import net.william278.husktowns.claim.Flag;
 import net.william278.husktowns.claim.Position;
@@ -41,12 +42,10 @@ import net.william278.husktowns.user.OnlineUser;
 import net.william278.husktowns.user.SavedUser;
 import net.william278.husktowns.user.User;
 import net.william278.husktowns.util.Validator;
-import net.william278.paginedown.PaginatedList;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.math.BigDecimal;
-import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.logging.Level;
@@ -103,10 +102,10 @@ public class TownsManager {
     @NotNull
     public Town createTownData(@NotNull OnlineUser user, @NotNull String townName) {
         final Town town = plugin.getDatabase().createTown(townName, user);
-        plugin.getTowns().add(town);
+        plugin.updateTown(town);
         plugin.getMessageBroker().ifPresent(broker -> Message.builder()
                 .type(Message.Type.TOWN_UPDATE)
-                .payload(Payload.integer(town.getId()))
+                .payload(Payload.townUpdate(broker.getTownSync().createUpdate(town)))
                 .target(Message.TARGET_ALL, Message.TargetType.SERVER)
                 .build()
                 .send(broker, user));
@@ -137,25 +136,29 @@ public class TownsManager {
         }));
     }
 
+    // Deletions are queued behind edits to the town, so an edit queued before the deletion can't re-add the town after
     public void deleteTownData(@Nullable OnlineUser user, @NotNull Town town) {
-        plugin.getMapHook().ifPresent(mapHook -> mapHook.removeClaimMarkers(town));
-        plugin.getDatabase().deleteTown(town.getId());
-        plugin.removeTown(town);
-        plugin.getClaimWorlds().values().forEach(world -> {
-            if (world.removeTownClaims(town.getId()) > 0) {
-                plugin.getDatabase().updateClaimWorld(world);
+        plugin.getManager().deleteTown(town, () -> {
+            plugin.getMapHook().ifPresent(mapHook -> mapHook.removeClaimMarkers(town));
+            plugin.getManager().discardTownSave(town);
+            plugin.getDatabase().deleteTown(town.getId());
+            plugin.removeTown(town);
+            plugin.getClaimWorlds().values().forEach(world -> {
+                if (world.removeTownClaims(town.getId()) > 0) {
+                    plugin.getDatabase().deleteTownClaims(world, town.getId());
+                }
+            });
+
+            // Propagate the town deletion to all servers
+            if (user != null) {
+                plugin.getMessageBroker().ifPresent(broker -> Message.builder()
+                        .type(Message.Type.TOWN_DELETE)
+                        .payload(Payload.integer(town.getId()))
+                        .target(Message.TARGET_ALL, Message.TargetType.SERVER)
+                        .build()
+                        .send(broker, user));
             }
         });
-
-        // Propagate the town deletion to all servers
-        if (user != null) {
-            plugin.getMessageBroker().ifPresent(broker -> Message.builder()
-                    .type(Message.Type.TOWN_DELETE)
-                    .payload(Payload.integer(town.getId()))
-                    .target(Message.TARGET_ALL, Message.TargetType.SERVER)
-                    .build()
-                    .send(broker, user));
-        }
     }
 
     public void inviteMember(@NotNull OnlineUser user, @NotNull String target) {
@@ -483,12 +486,11 @@ public class TownsManager {
 
             town.getLog().log(Action.of(user, Action.Type.RENAME_TOWN, town.getName() + " → " + newName));
             town.setName(newName);
-            plugin.getMapHook().ifPresent(map -> map.reloadClaimMarkers(town));
             plugin.getLocales().getLocale("town_renamed", town.getName())
                     .map(MineDown::toComponent)
                     .ifPresent(message -> plugin.getManager().sendTownMessage(town, message));
             return true;
-        }));
+        }), (member -> plugin.getMapHook().ifPresent(map -> map.reloadClaimMarkers(member.town()))));
     }
 
     public void setTownBio(@NotNull OnlineUser user, @NotNull String newBio) {
@@ -564,12 +566,10 @@ public class TownsManager {
             final String newColorRgb = String.format("#%02x%02x%02x", color.red(), color.green(), color.blue());
             town.getLog().log(Action.of(user, Action.Type.UPDATE_COLOR, town.getColorRgb() + " → " + newColorRgb));
             town.setTextColor(color);
-            plugin.getMapHook().ifPresent(map -> map.reloadClaimMarkers(town));
-            plugin.getMapHook().ifPresent(map -> map.reloadClaimMarkers(town));
             plugin.getLocales().getLocale("town_color_changed", member.town().getName(), member.town().getColorRgb())
                     .ifPresent(user::sendMessage);
             return true;
-        }));
+        }), (member -> plugin.getMapHook().ifPresent(map -> map.reloadClaimMarkers(member.town()))));
     }
 
     public void setTownSpawn(@NotNull OnlineUser user, @NotNull Position position) {
@@ -625,7 +625,7 @@ public class TownsManager {
 
     public void teleportToTownSpawn(@NotNull OnlineUser user, @Nullable String townName) {
         final Optional<Town> optionalTown = townName == null ? plugin.getUserTown(user).map(Member::town) :
-                plugin.getTowns().stream().filter(t -> t.getName().equalsIgnoreCase(townName)).findFirst();
+                plugin.findTown(townName);
         if (optionalTown.isEmpty()) {
             plugin.getLocales().getLocale("error_town_spawn_not_found")
                     .ifPresent(user::sendMessage);
@@ -890,31 +890,44 @@ public class TownsManager {
     }
 
     public void showTownLogs(@NotNull OnlineUser user, int page) {
-        plugin.getManager().ifMember(user, Privilege.VIEW_LOGS, (member -> {
-            final TreeMap<OffsetDateTime, Action> actions = new TreeMap<>(Comparator.reverseOrder());
-            actions.putAll(member.town().getLog().getActions());
+        plugin.getManager().ifMember(user, Privilege.VIEW_LOGS, (member -> plugin.runAsync(() -> {
+            final Town town = member.town();
+
+            // Entries not yet saved to the town log table are newer than those in it, so are listed first
+            final List<Log.Entry> unsaved = new ArrayList<>(town.getLog().getUnsavedEntries());
+            Collections.reverse(unsaved);
+
+            // Only fetch the entries on the requested page
+            final int perPage = plugin.getSettings().getGeneral().getListItemsPerPage();
+            final int entryCount = unsaved.size() + plugin.getDatabase().getLogEntryCount(town.getId());
+            final int totalPages = Math.max(1, (entryCount + perPage - 1) / perPage);
+            final int shownPage = Math.max(1, Math.min(page, totalPages));
+            final int offset = (shownPage - 1) * perPage;
+            final List<Log.Entry> entries = new ArrayList<>(
+                    unsaved.subList(Math.min(offset, unsaved.size()), Math.min(offset + perPage, unsaved.size())));
+            if (entries.size() < perPage) {
+                entries.addAll(plugin.getDatabase().getLogEntries(town.getId(),
+                        Math.max(0, offset - unsaved.size()), perPage - entries.size()));
+            }
+
             final Locales locales = plugin.getLocales();
             final String NOT_APPLICABLE = plugin.getLocales().getNotApplicable();
-            user.sendMessage(PaginatedList.of(actions.entrySet().stream()
-                                    .map(entry -> locales.getRawLocale("town_audit_log_list_item",
-                                                    entry.getKey().format(DateTimeFormatter.ofPattern("dd MMM")),
-                                                    entry.getKey().format(DateTimeFormatter.ofPattern("dd MMM, yyyy, HH:mm:ss")),
-                                                    Locales.escapeText(entry.getValue().getUser().map(User::getUsername)
-                                                            .orElse(NOT_APPLICABLE)),
-                                                    Locales.escapeText(entry.getValue().getType().name().toLowerCase()),
-                                                    Locales.escapeText(locales.truncateText(entry.getValue().getDetails()
-                                                            .orElse(NOT_APPLICABLE), 10)),
-                                                    Locales.escapeText(entry.getValue().getDetails()
-                                                            .orElse(NOT_APPLICABLE)))
-                                            .orElse(entry.getValue().toString()))
-                                    .toList(),
-                            locales.getBaseList(plugin.getSettings().getGeneral().getListItemsPerPage())
-                                    .setHeaderFormat(locales.getRawLocale("town_audit_log_list_title",
-                                            Locales.escapeText(member.town().getName())).orElse(""))
-                                    .setItemSeparator("\n").setCommand("/husktowns:town log")
-                                    .build())
-                    .getNearestValidPage(page));
-        }));
+            final StringJoiner list = new StringJoiner("\n",
+                    locales.getRawLocale("town_audit_log_list_title", Locales.escapeText(town.getName())).orElse(""),
+                    locales.getListFooter(shownPage, totalPages, "/husktowns:town log"));
+            entries.forEach(entry -> list.add(locales.getRawLocale("town_audit_log_list_item",
+                            entry.timestamp().format(DateTimeFormatter.ofPattern("dd MMM")),
+                            entry.timestamp().format(DateTimeFormatter.ofPattern("dd MMM, yyyy, HH:mm:ss")),
+                            Locales.escapeText(entry.action().getUser().map(User::getUsername)
+                                    .orElse(NOT_APPLICABLE)),
+                            Locales.escapeText(entry.action().getType().name().toLowerCase()),
+                            Locales.escapeText(locales.truncateText(entry.action().getDetails()
+                                    .orElse(NOT_APPLICABLE), 10)),
+                            Locales.escapeText(entry.action().getDetails()
+                                    .orElse(NOT_APPLICABLE)))
+                    .orElse(entry.action().toString())));
+            user.sendMessage(locales.format(list.toString()));
+        })));
     }
 
     public void setFlagRule(@NotNull OnlineUser user, @NotNull Flag flag, @NotNull Claim.Type type, boolean value, boolean showMenu) {
@@ -37,9 +37,9 @@ import org.jetbrains.annotations.Nullable;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static net.william278.husktowns.config.Settings.TownSettings.RelationsSettings.WarSettings;
 
@@ -51,8 +51,8 @@ public class WarManager {
 
     public WarManager(@NotNull HuskTowns plugin) {
         this.plugin = plugin;
-        this.activeWars = new ArrayList<>();
-        this.pendingDeclarations = new ArrayList<>();
+        this.activeWars = new CopyOnWriteArrayList<>();
+        this.pendingDeclarations = new CopyOnWriteArrayList<>();
     }
 
     @NotNull
@@ -319,8 +319,7 @@ public class WarManager {
     }
 
     public void handlePlayerQuit(@NotNull OnlineUser user) {
-        for (int i = 0; i < getActiveWars().size(); i++) {
-            final War war = getActiveWars().get(i);
+        for (final War war : getActiveWars()) {
             if (war.isPlayerActive(user.getUuid())) {
                 plugin.runSyncDelayed(
                     () -> war.handlePlayerDieOrFlee(plugin, user, true), user, 10L
@@ -331,14 +330,13 @@ public class WarManager {
     }
 
     public void handlePlayerDeath(@NotNull OnlineUser user) {
-        for (int i = 0; i < getActiveWars().size(); i++) {
-            getActiveWars().get(i).handlePlayerDieOrFlee(plugin, user, false);
+        for (final War war : getActiveWars()) {
+            war.handlePlayerDieOrFlee(plugin, user, false);
         }
     }
 
     public void handlePlayerFlee(@NotNull OnlineUser user) {
-        for (int i = 0; i < getActiveWars().size(); i++) {
-            final War war = getActiveWars().get(i);
+        for (final War war : getActiveWars()) {
             if (war.isPlayerActive(user.getUuid()) &&
                 user.getPosition().distanceBetween(war.getDefenderSpawn()) > war.getWarZoneRadius()) {
                 war.handlePlayerDieOrFlee(plugin, user, true);
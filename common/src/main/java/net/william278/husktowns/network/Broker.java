@@ -34,6 +34,9 @@ import java.util.logging.Level;
 public abstract class Broker implements MessageHandler {
 
     protected final HuskTowns plugin;
+    private final TownSync townSync;
+    private final MessageCodec codec;
+    private final UserListSync userListSync;
 
     /**
      * Create a new broker
@@ -42,6 +45,9 @@ public abstract class Broker implements MessageHandler {
      */
     protected Broker(@NotNull HuskTowns plugin) {
         this.plugin = plugin;
+        this.townSync = new TownSync(plugin);
+        this.codec = new MessageCodec(plugin.getGson(), plugin.getSettings().getCrossServer().getCompressionThreshold());
+        this.userListSync = createUserListSync();
     }
 
     /**
@@ -57,6 +63,9 @@ public abstract class Broker implements MessageHandler {
         switch (message.getType()) {
             case REQUEST_USER_LIST -> handleRequestUserList(message, receiver);
             case UPDATE_USER_LIST -> handleUpdateUserList(message);
+            case USER_JOINED -> handleUserJoined(message);
+            case USER_LEFT -> handleUserLeft(message);
+            case USER_LIST_CHECKSUM -> handleUserListChecksum(message, receiver);
             case TOWN_DELETE -> handleTownDelete(message);
             case TOWN_DELETE_ALL_CLAIMS -> handleTownDeleteAllClaims(message);
             case TOWN_UPDATE -> handleTownUpdate(message);
@@ -72,6 +81,16 @@ public abstract class Broker implements MessageHandler {
         }
     }
 
+    /**
+     * Create the {@link UserListSync} for keeping user lists in sync through this broker
+     *
+     * @return the user list sync
+     */
+    @NotNull
+    protected UserListSync createUserListSync() {
+        return new UserListSync(plugin, this);
+    }
+
     /**
      * Initialize the message broker
      *
@@ -95,6 +114,25 @@ public abstract class Broker implements MessageHandler {
      */
     protected abstract void send(@NotNull Message message, @NotNull OnlineUser sender);
 
+    /**
+     * Send a message to the broker on behalf of this server, rather than through an online user
+     *
+     * @param message the message to send
+     * @throws IllegalStateException if the broker {@link #requiresMessenger() requires a messenger}
+     */
+    protected void send(@NotNull Message message) throws IllegalStateException {
+        throw new IllegalStateException("Messages can only be sent through an online user with this broker");
+    }
+
+    /**
+     * Get whether messages must be sent through an online user, as plugin messages are
+     *
+     * @return {@code true} if messages can only be sent while a user is online
+     */
+    public boolean requiresMessenger() {
+        return true;
+    }
+
     /**
      * Terminate the broker
      */
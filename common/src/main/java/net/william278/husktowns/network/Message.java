@@ -64,6 +64,14 @@ public class Message {
         this.targetType = targetType;
     }
 
+    // Used when decoding a message received from another server
+    Message(@NotNull Type type, @NotNull String target, @NotNull TargetType targetType, @NotNull Payload payload,
+            @NotNull String sender, @NotNull String sourceServer) {
+        this(type, target, targetType, payload);
+        this.sender = sender;
+        this.sourceServer = sourceServer;
+    }
+
     @NotNull
     public static Builder builder() {
         return new Builder();
@@ -75,6 +83,17 @@ public class Message {
         broker.send(this, sender);
     }
 
+    /**
+     * Send the message on behalf of this server, rather than through an online user
+     *
+     * @param broker the broker, which must not {@link Broker#requiresMessenger() require a messenger}
+     */
+    public void send(@NotNull Broker broker) {
+        this.sender = broker.getServer();
+        this.sourceServer = broker.getServer();
+        broker.send(this);
+    }
+
     @NotNull
     public Type getType() {
         return type;
@@ -215,7 +234,20 @@ public class Message {
         /**
          * A message containing a list of users on a server
          */
-        UPDATE_USER_LIST
+        UPDATE_USER_LIST,
+        /**
+         * A notification that users have joined a server, carrying the users
+         */
+        USER_JOINED,
+        /**
+         * A notification that a user has left a server, carrying their UUID
+         */
+        USER_LEFT,
+        /**
+         * A checksum of the list of users on a server, sent periodically so servers with an out-of-date copy of the
+         * list can request it
+         */
+        USER_LIST_CHECKSUM
     }
 
     @AllArgsConstructor(access = AccessLevel.PRIVATE)
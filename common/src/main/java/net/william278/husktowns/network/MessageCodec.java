@@ -0,0 +1,435 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.network;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import net.william278.husktowns.town.Invite;
+import net.william278.husktowns.user.User;
+import net.william278.husktowns.war.Declaration;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes {@link Message}s sent cross-server by a {@link Broker} as compact binary frames.
+ * <p>
+ * A frame starts with a {@link #MAGIC} byte, a format version and a flags byte. The message's fields follow, with
+ * each {@link Payload} field that is set flagged in a bitmask; strings are length-prefixed, so they are not limited to
+ * 64KB. Frames whose body is at least the compression threshold are deflated, preceded by the body's length.
+ * <p>
+ * Each thread encodes into its own reusable buffers, so encoding a message allocates little more than the frame.
+ */
+public final class MessageCodec {
+
+    /**
+     * The first byte of a message frame
+     */
+    static final byte MAGIC = (byte) 0xB7;
+
+    /**
+     * The current version of the message format
+     */
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 3;
+
+    private static final int FLAG_COMPRESSED = 1;
+
+    // Payload fields present in a frame
+    private static final int FIELD_UUID = 1;
+    private static final int FIELD_INTEGER = 1 << 1;
+    private static final int FIELD_INVITE = 1 << 2;
+    private static final int FIELD_DECLARATION = 1 << 3;
+    private static final int FIELD_BOOL = 1 << 4;
+    private static final int FIELD_STRING = 1 << 5;
+    private static final int FIELD_USER_LIST = 1 << 6;
+    private static final int FIELD_TOWN_UPDATE = 1 << 7;
+
+    // Buffers larger than this after encoding a message are dropped, so one large message isn't held on to
+    private static final int INITIAL_BUFFER_SIZE = 512;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 256 * 1024;
+
+    // Guards against inflating a malformed or malicious frame into an enormous array
+    private static final int MAX_BODY_SIZE = 64 * 1024 * 1024;
+
+    private static final ThreadLocal<Encoder> ENCODER = ThreadLocal.withInitial(Encoder::new);
+
+    private final Gson gson;
+    private final int compressionThreshold;
+
+    /**
+     * Create a message codec
+     *
+     * @param gson                 the Gson instance to encode invites and war declarations with
+     * @param compressionThreshold the size of message body, in bytes, at or above which frames are compressed; or
+     *                             {@code 0} or less to never compress frames
+     */
+    public MessageCodec(@NotNull Gson gson, int compressionThreshold) {
+        this.gson = gson;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * Get whether data is a message frame
+     *
+     * @param data the data
+     * @return {@code true} if the data starts with a frame header
+     */
+    public static boolean isFrame(byte @NotNull [] data) {
+        return data.length >= HEADER_SIZE && data[0] == MAGIC;
+    }
+
+    /**
+     * Encode a message as a frame
+     *
+     * @param message the message
+     * @return the encoded frame
+     */
+    public byte @NotNull [] encode(@NotNull Message message) {
+        final Encoder encoder = ENCODER.get();
+        try {
+            writeMessage(encoder.bodyWriter, message);
+            final Buffer body = encoder.body;
+            if (compressionThreshold <= 0 || body.size() < compressionThreshold || !encoder.compress()) {
+                final byte[] frame = new byte[HEADER_SIZE + body.size()];
+                writeHeader(frame, 0);
+                System.arraycopy(body.array(), 0, frame, HEADER_SIZE, body.size());
+                return frame;
+            }
+
+            final Buffer compressed = encoder.frame;
+            final byte[] frame = new byte[HEADER_SIZE + compressed.size()];
+            writeHeader(frame, FLAG_COMPRESSED);
+            System.arraycopy(compressed.array(), 0, frame, HEADER_SIZE, compressed.size());
+            return frame;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode message", e);
+        } finally {
+            encoder.release();
+        }
+    }
+
+    /**
+     * Decode a message frame
+     *
+     * @param frame the encoded frame
+     * @return the message
+     * @throws IllegalArgumentException if the frame is malformed or of an unsupported version
+     */
+    @NotNull
+    public Message decode(byte @NotNull [] frame) throws IllegalArgumentException {
+        if (!isFrame(frame)) {
+            throw new IllegalArgumentException("Data is not a message frame");
+        }
+        final int version = frame[1] & 0xFF;
+        if (version == 0 || version > VERSION) {
+            throw new IllegalArgumentException("Unsupported message frame version " + version
+                + " (supports up to v" + VERSION + ")");
+        }
+
+        try {
+            final byte[] body;
+            final int offset;
+            final int length;
+            if ((frame[2] & FLAG_COMPRESSED) != 0) {
+                body = inflate(frame);
+                offset = 0;
+                length = body.length;
+            } else {
+                body = frame;
+                offset = HEADER_SIZE;
+                length = frame.length - HEADER_SIZE;
+            }
+            return readMessage(new DataInputStream(new ByteArrayInputStream(body, offset, length)));
+        } catch (IOException | DataFormatException | JsonParseException | IllegalStateException e) {
+            throw new IllegalArgumentException("Malformed message frame", e);
+        }
+    }
+
+    private void writeMessage(@NotNull DataOutputStream out, @NotNull Message message) throws IOException {
+        out.writeByte(message.getType().ordinal());
+        out.writeByte(message.getTargetType().ordinal());
+        writeString(out, message.getTarget());
+        writeString(out, message.getSender());
+        writeString(out, message.getSourceServer());
+        writePayload(out, message.getPayload());
+    }
+
+    @NotNull
+    private Message readMessage(@NotNull DataInputStream in) throws IOException {
+        final Message.Type type = readEnum(in, Message.Type.values());
+        final Message.TargetType targetType = readEnum(in, Message.TargetType.values());
+        final String target = readString(in);
+        final String sender = readString(in);
+        final String sourceServer = readString(in);
+        return new Message(type, target, targetType, readPayload(in), sender, sourceServer);
+    }
+
+    private void writePayload(@NotNull DataOutputStream out, @NotNull Payload payload) throws IOException {
+        final UUID uuid = payload.getUuid().orElse(null);
+        final Integer integer = payload.getInteger().orElse(null);
+        final Invite invite = payload.getInvite().orElse(null);
+        final Declaration declaration = payload.getDeclaration().orElse(null);
+        final Boolean bool = payload.getBool().orElse(null);
+        final String string = payload.getString().orElse(null);
+        final List<User> userList = payload.getUserList().orElse(null);
+        final TownUpdate townUpdate = payload.getTownUpdate().orElse(null);
+        out.writeByte((uuid != null ? FIELD_UUID : 0)
+            | (integer != null ? FIELD_INTEGER : 0)
+            | (invite != null ? FIELD_INVITE : 0)
+            | (declaration != null ? FIELD_DECLARATION : 0)
+            | (bool != null ? FIELD_BOOL : 0)
+            | (string != null ? FIELD_STRING : 0)
+            | (userList != null ? FIELD_USER_LIST : 0)
+            | (townUpdate != null ? FIELD_TOWN_UPDATE : 0));
+
+        if (uuid != null) {
+            writeUuid(out, uuid);
+        }
+        if (integer != null) {
+            out.writeInt(integer);
+        }
+        if (invite != null) {
+            writeString(out, gson.toJson(invite));
+        }
+        if (declaration != null) {
+            writeString(out, gson.toJson(declaration));
+        }
+        if (bool != null) {
+            out.writeBoolean(bool);
+        }
+        if (string != null) {
+            writeString(out, string);
+        }
+        if (userList != null) {
+            writeVarInt(out, userList.size());
+            for (User user : userList) {
+                writeUuid(out, user.getUuid());
+                writeString(out, user.getName());
+            }
+        }
+        if (townUpdate != null) {
+            writeTownUpdate(out, townUpdate);
+        }
+    }
+
+    @NotNull
+    private Payload readPayload(@NotNull DataInputStream in) throws IOException {
+        final int fields = in.readUnsignedByte();
+        final UUID uuid = (fields & FIELD_UUID) != 0 ? readUuid(in) : null;
+        final Integer integer = (fields & FIELD_INTEGER) != 0 ? in.readInt() : null;
+        final Invite invite = (fields & FIELD_INVITE) != 0 ? gson.fromJson(readString(in), Invite.class) : null;
+        final Declaration declaration = (fields & FIELD_DECLARATION) != 0
+            ? gson.fromJson(readString(in), Declaration.class) : null;
+        final Boolean bool = (fields & FIELD_BOOL) != 0 ? in.readBoolean() : null;
+        final String string = (fields & FIELD_STRING) != 0 ? readString(in) : null;
+        List<User> userList = null;
+        if ((fields & FIELD_USER_LIST) != 0) {
+            final int size = readVarInt(in);
+            userList = new ArrayList<>(Math.min(size, 1024));
+            for (int i = 0; i < size; i++) {
+                userList.add(User.of(readUuid(in), readString(in)));
+            }
+        }
+        final TownUpdate townUpdate = (fields & FIELD_TOWN_UPDATE) != 0 ? readTownUpdate(in) : null;
+        return Payload.of(uuid, integer, invite, declaration, bool, string, userList, townUpdate);
+    }
+
+    // Town JSON is carried as-is; receivers apply it as JSON anyway
+    private void writeTownUpdate(@NotNull DataOutputStream out, @NotNull TownUpdate update) throws IOException {
+        out.writeInt(update.getTownId());
+        out.writeLong(update.getVersion());
+        final JsonObject town = update.getTown().orElse(null);
+        out.writeBoolean(town != null);
+        if (town != null) {
+            writeString(out, town.toString());
+            return;
+        }
+        out.writeLong(update.getBaseVersion().orElseThrow());
+        writeString(out, update.getChanges().toString());
+        writeVarInt(out, update.getRemoved().size());
+        for (String field : update.getRemoved()) {
+            writeString(out, field);
+        }
+    }
+
+    @NotNull
+    private TownUpdate readTownUpdate(@NotNull DataInputStream in) throws IOException {
+        final int townId = in.readInt();
+        final long version = in.readLong();
+        if (in.readBoolean()) {
+            return TownUpdate.full(townId, version, JsonParser.parseString(readString(in)).getAsJsonObject());
+        }
+        final long baseVersion = in.readLong();
+        final JsonObject changes = JsonParser.parseString(readString(in)).getAsJsonObject();
+        final int removedCount = readVarInt(in);
+        final List<String> removed = new ArrayList<>(Math.min(removedCount, 64));
+        for (int i = 0; i < removedCount; i++) {
+            removed.add(readString(in));
+        }
+        return TownUpdate.delta(townId, version, baseVersion, changes, removed);
+    }
+
+    private static byte @NotNull [] inflate(byte @NotNull [] frame) throws IOException, DataFormatException {
+        final DataInputStream in = new DataInputStream(
+            new ByteArrayInputStream(frame, HEADER_SIZE, frame.length - HEADER_SIZE)
+        );
+        final int size = readVarInt(in);
+        if (size < 0 || size > MAX_BODY_SIZE) {
+            throw new IOException("Invalid message body size " + size);
+        }
+        final int offset = frame.length - in.available();
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(frame, offset, frame.length - offset);
+            final byte[] body = new byte[size];
+            int read = 0;
+            while (read < size) {
+                final int inflated = inflater.inflate(body, read, size - read);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Compressed message body is truncated");
+                }
+                read += inflated;
+            }
+            return body;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeHeader(byte @NotNull [] frame, int flags) {
+        frame[0] = MAGIC;
+        frame[1] = VERSION;
+        frame[2] = (byte) flags;
+    }
+
+    private static void writeString(@NotNull DataOutputStream out, @NotNull String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    @NotNull
+    private static String readString(@NotNull DataInputStream in) throws IOException {
+        final int length = readVarInt(in);
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Invalid string length " + length);
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeUuid(@NotNull DataOutputStream out, @NotNull UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    @NotNull
+    private static UUID readUuid(@NotNull DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    @NotNull
+    private static <E extends Enum<E>> E readEnum(@NotNull DataInputStream in, @NotNull E[] values) throws IOException {
+        final int ordinal = in.readUnsignedByte();
+        if (ordinal >= values.length) {
+            throw new IOException("Unknown " + values[0].getDeclaringClass().getSimpleName() + " " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+    static void writeVarInt(@NotNull DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(@NotNull DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            final int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint is too long");
+    }
+
+    // A thread's reusable encoding state
+    private static final class Encoder {
+        private final Buffer body = new Buffer();
+        private final DataOutputStream bodyWriter = new DataOutputStream(body);
+        private final Buffer frame = new Buffer();
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        private final byte[] chunk = new byte[4096];
+
+        // Deflates the body into the frame buffer, returning false if that wouldn't make it smaller
+        private boolean compress() throws IOException {
+            writeVarInt(new DataOutputStream(frame), body.size());
+            deflater.reset();
+            deflater.setInput(body.array(), 0, body.size());
+            deflater.finish();
+            while (!deflater.finished()) {
+                frame.write(chunk, 0, deflater.deflate(chunk));
+                if (frame.size() >= body.size()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void release() {
+            body.release();
+            frame.release();
+        }
+    }
+
+    private static final class Buffer extends ByteArrayOutputStream {
+        private Buffer() {
+            super(INITIAL_BUFFER_SIZE);
+        }
+
+        private byte @NotNull [] array() {
+            return buf;
+        }
+
+        private void release() {
+            if (buf.length > MAX_RETAINED_BUFFER_SIZE) {
+                buf = new byte[INITIAL_BUFFER_SIZE];
+            }
+            count = 0;
+        }
+    }
+
+}
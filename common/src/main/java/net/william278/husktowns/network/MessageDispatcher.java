@@ -0,0 +1,183 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.network;
+
+import net.william278.husktowns.HuskTowns;
+import net.william278.husktowns.town.Invite;
+import net.william278.husktowns.war.Declaration;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Hands messages received by the {@link RedisBroker} to a bounded pool of worker threads, so a message whose handler
+ * blocks (such as one reading a town from the database) doesn't hold up every message received after it.
+ * <p>
+ * Each worker handles messages from its own queue, in order. Messages about a town are always queued on the same
+ * worker, so updates to a town are applied in the order they were sent; other messages are queued by the server that
+ * sent them. When a worker's queue is full, the subscriber waits briefly for space before dropping the message.
+ */
+public final class MessageDispatcher {
+
+    private static final long QUEUE_TIMEOUT_MILLIS = 250;
+
+    private final HuskTowns plugin;
+    private final Worker[] workers;
+    private final AtomicLong handled = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+    private volatile long lastLagMillis;
+
+    MessageDispatcher(@NotNull HuskTowns plugin, int threads, int queueSize) {
+        this.plugin = plugin;
+        this.workers = new Worker[Math.max(1, threads)];
+        final int workerQueueSize = Math.max(1, queueSize / workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(new ArrayBlockingQueue<>(workerQueueSize));
+            workers[i].setName(plugin.getKey("redis_worker_" + i).toString());
+            workers[i].setDaemon(true);
+        }
+    }
+
+    void start() {
+        for (Worker worker : workers) {
+            worker.start();
+        }
+    }
+
+    /**
+     * Queue a received message to be handled on a worker thread
+     *
+     * @param message the message
+     * @param handler the action that handles the message
+     */
+    void dispatch(@NotNull Message message, @NotNull Runnable handler) {
+        final Worker worker = workers[Math.floorMod(getOrderingKey(message), workers.length)];
+        try {
+            if (worker.queue.offer(new Queued(handler, System.nanoTime()), QUEUE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+            plugin.log(Level.WARNING, "Dropped a received " + message.getType() + " message from "
+                + message.getSourceServer() + " as the message queue is full");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dropped.incrementAndGet();
+    }
+
+    // Messages about a town, including invites to join one, are ordered by the town's ID, others by the sending server
+    private static int getOrderingKey(@NotNull Message message) {
+        final Payload payload = message.getPayload();
+        return payload.getTownUpdate().map(TownUpdate::getTownId)
+            .or(() -> payload.getDeclaration().map(Declaration::attackingTown))
+            .or(() -> payload.getInvite().map(Invite::getTownId))
+            .or(() -> switch (message.getType()) {
+                case TOWN_UPDATE, TOWN_DELETE, TOWN_DELETE_ALL_CLAIMS, TOWN_LEVEL_UP, TOWN_TRANSFERRED,
+                    TOWN_RENAMED, TOWN_WAR_END -> payload.getInteger();
+                default -> Optional.empty();
+            })
+            .orElseGet(() -> message.getSourceServer().hashCode());
+    }
+
+    /**
+     * Get the number of received messages waiting to be handled
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return Arrays.stream(workers).mapToInt(worker -> worker.queue.size()).sum();
+    }
+
+    public long getHandledCount() {
+        return handled.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Get how long the most recently handled message waited to be handled
+     *
+     * @return the lag, in milliseconds
+     */
+    public long getLastLagMillis() {
+        return lastLagMillis;
+    }
+
+    /**
+     * Get the longest any message has waited to be handled
+     *
+     * @return the lag, in milliseconds
+     */
+    public long getMaxLagMillis() {
+        return maxLagMillis.get();
+    }
+
+    /**
+     * Stop the workers, discarding any messages still queued
+     */
+    void close() {
+        for (Worker worker : workers) {
+            worker.interrupt();
+            worker.queue.clear();
+        }
+    }
+
+    private final class Worker extends Thread {
+        private final BlockingQueue<Queued> queue;
+
+        private Worker(@NotNull BlockingQueue<Queued> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void run() {
+            while (!isInterrupted()) {
+                final Queued next;
+                try {
+                    next = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                final long lag = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - next.received());
+                lastLagMillis = lag;
+                maxLagMillis.accumulateAndGet(lag, Math::max);
+                try {
+                    next.handler().run();
+                } catch (Throwable e) {
+                    plugin.log(Level.SEVERE, "Exception handling a received Redis message", e);
+                }
+                handled.incrementAndGet();
+            }
+        }
+    }
+
+    private record Queued(@NotNull Runnable handler, long received) {
+    }
+
+}
@@ -43,11 +43,7 @@ public interface MessageHandler {
             return;
         }
 
-        Message.builder()
-                .type(Message.Type.UPDATE_USER_LIST)
-                .payload(Payload.userList(getPlugin().getOnlineUsers().stream().map(online -> (User) online).toList()))
-                .target(message.getSourceServer(), Message.TargetType.SERVER).build()
-                .send(getBroker(), receiver);
+        getUserListSync().sendUserList(receiver, message.getSourceServer());
     }
 
     // Handle inbound user list updates (returned from requests)
@@ -57,18 +53,31 @@ public interface MessageHandler {
         );
     }
 
+    default void handleUserJoined(@NotNull Message message) {
+        getUserListSync().handleUserJoined(message);
+    }
+
+    default void handleUserLeft(@NotNull Message message) {
+        getUserListSync().handleUserLeft(message);
+    }
+
+    default void handleUserListChecksum(@NotNull Message message, @Nullable OnlineUser receiver) {
+        getUserListSync().handleChecksum(message, receiver);
+    }
+
     default void handleTownDelete(@NotNull Message message) {
         message.getPayload().getInteger()
-                .flatMap(townId -> getPlugin().getTowns().stream().filter(town -> town.getId() == townId).findFirst())
+                .flatMap(townId -> getPlugin().findTown(townId))
                 .ifPresent(town -> getPlugin().runAsync(() -> {
                     getPlugin().getManager().sendTownMessage(town, getPlugin().getLocales()
                             .getLocale("town_deleted_notification", town.getName())
                             .map(MineDown::toComponent).orElse(Component.empty()));
                     getPlugin().getMapHook().ifPresent(mapHook -> mapHook.removeClaimMarkers(town));
                     getPlugin().removeTown(town);
+                    getTownSync().forget(town.getId());
                     getPlugin().getClaimWorlds().values().forEach(world -> {
                         if (world.removeTownClaims(town.getId()) > 0) {
-                            getPlugin().getDatabase().updateClaimWorld(world);
+                            getPlugin().getDatabase().deleteTownClaims(world, town.getId());
                         }
                     });
                 }));
@@ -76,7 +85,7 @@ public interface MessageHandler {
 
     default void handleTownDeleteAllClaims(@NotNull Message message) {
         message.getPayload().getInteger()
-                .flatMap(townId -> getPlugin().getTowns().stream().filter(town -> town.getId() == townId).findFirst())
+                .flatMap(townId -> getPlugin().findTown(townId))
                 .ifPresent(town -> getPlugin().runAsync(() -> {
                     getPlugin().getManager().sendTownMessage(town, getPlugin().getLocales()
                             .getLocale("deleted_all_claims_notification", town.getName())
@@ -87,12 +96,17 @@ public interface MessageHandler {
     }
 
     default void handleTownUpdate(@NotNull Message message) {
-        message.getPayload().getInteger()
-                .flatMap(id -> getPlugin().getDatabase().getTown(id))
-                .ifPresentOrElse(
-                        getPlugin()::updateTown,
-                        () -> getPlugin().log(Level.WARNING, "Failed to update town: Town not found")
-                );
+        final Optional<TownUpdate> update = message.getPayload().getTownUpdate();
+        if (update.isPresent()) {
+            getTownSync().applyUpdate(update.get());
+            return;
+        }
+
+        // Updates from older versions only carry the town ID
+        message.getPayload().getInteger().ifPresentOrElse(
+                getTownSync()::reload,
+                () -> getPlugin().log(Level.WARNING, "Invalid town update payload!")
+        );
     }
 
     default void handleTownInviteRequest(@NotNull Message message, @Nullable OnlineUser receiver) {
@@ -135,8 +149,7 @@ public interface MessageHandler {
     }
 
     default void handleTownAction(@NotNull Message message) {
-        message.getPayload().getInteger().flatMap(id -> getPlugin().getTowns().stream()
-                .filter(town -> town.getId() == id).findFirst()).ifPresent(town -> {
+        message.getPayload().getInteger().flatMap(id -> getPlugin().findTown(id)).ifPresent(town -> {
             final Component locale = switch (message.getType()) {
                 case TOWN_LEVEL_UP -> getPlugin().getLocales().getLocale("town_levelled_up",
                         Integer.toString(town.getLevel())).map(MineDown::toComponent).orElse(Component.empty());
@@ -247,6 +260,12 @@ public interface MessageHandler {
     @NotNull
     Broker getBroker();
 
+    @NotNull
+    TownSync getTownSync();
+
+    @NotNull
+    UserListSync getUserListSync();
+
     @NotNull
     HuskTowns getPlugin();
 
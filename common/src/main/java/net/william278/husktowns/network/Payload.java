@@ -59,9 +59,30 @@ public class Payload {
     @Expose
     private List<User> userList;
 
+    @Nullable
+    @Expose
+    private TownUpdate townUpdate;
+
     private Payload() {
     }
 
+    // Used when decoding a payload received from another server
+    @NotNull
+    static Payload of(@Nullable UUID uuid, @Nullable Integer integer, @Nullable Invite invite,
+                      @Nullable Declaration declaration, @Nullable Boolean bool, @Nullable String string,
+                      @Nullable List<User> userList, @Nullable TownUpdate townUpdate) {
+        final Payload payload = new Payload();
+        payload.uuid = uuid;
+        payload.integer = integer;
+        payload.invite = invite;
+        payload.declaration = declaration;
+        payload.bool = bool;
+        payload.string = string;
+        payload.userList = userList;
+        payload.townUpdate = townUpdate;
+        return payload;
+    }
+
     @NotNull
     public static Payload uuid(@NotNull UUID uuid) {
         final Payload payload = new Payload();
@@ -115,6 +136,13 @@ public class Payload {
         return payload;
     }
 
+    @NotNull
+    public static Payload townUpdate(@NotNull TownUpdate update) {
+        final Payload payload = new Payload();
+        payload.townUpdate = update;
+        return payload;
+    }
+
     public Optional<UUID> getUuid() {
         return Optional.ofNullable(uuid);
     }
@@ -143,4 +171,8 @@ public class Payload {
         return Optional.ofNullable(userList);
     }
 
+    public Optional<TownUpdate> getTownUpdate() {
+        return Optional.ofNullable(townUpdate);
+    }
+
 }
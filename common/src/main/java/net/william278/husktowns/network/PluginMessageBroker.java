@@ -19,19 +19,27 @@
 
 package net.william278.husktowns.network;
 
+import com.google.common.collect.Maps;
 import com.google.common.io.ByteArrayDataInput;
 import com.google.common.io.ByteArrayDataOutput;
 import com.google.common.io.ByteStreams;
 import net.william278.husktowns.HuskTowns;
 import net.william278.husktowns.user.OnlineUser;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.io.*;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 /**
  * <a href="https://www.spigotmc.org/wiki/bukkit-bungee-plugin-messaging-channel/">Plugin Messaging channel</a> message
- * broker implementation
+ * broker implementation.
+ * <p>
+ * Messages are sent as {@link MessageCodec binary frames}, split over several plugin messages when they are larger
+ * than the proxy will forward in one, and reassembled by receiving servers.
  */
 public class PluginMessageBroker extends Broker {
 
@@ -46,6 +54,16 @@ public class PluginMessageBroker extends Broker {
      */
     public static final String BUNGEE_CHANNEL_ID = "BungeeCord";
 
+    // Each part carries the ID of its message, its index and the number of parts
+    private static final int PART_HEADER_SIZE = 12;
+    private static final int MAX_PART_BODY_SIZE = 30_000;
+    private static final int MAX_PARTS = 1024;
+    private static final long PART_TIMEOUT_MILLIS = 30_000;
+
+    // Message IDs start at a random point, so parts of messages from different servers don't collide
+    private final AtomicLong messageIds = new AtomicLong(ThreadLocalRandom.current().nextLong());
+    private final Map<Long, PartialMessage> pendingParts = Maps.newConcurrentMap();
+
     public PluginMessageBroker(@NotNull HuskTowns plugin) {
         super(plugin);
     }
@@ -53,6 +71,7 @@ public class PluginMessageBroker extends Broker {
     @Override
     public void initialize() throws RuntimeException {
         plugin.initializePluginChannels();
+        getUserListSync().start();
     }
 
     public final void onReceive(@NotNull String channel, @NotNull OnlineUser user, byte[] message) {
@@ -66,37 +85,93 @@ public class PluginMessageBroker extends Broker {
             return;
         }
 
-        short messageLength = inputStream.readShort();
-        byte[] messageBody = new byte[messageLength];
-        inputStream.readFully(messageBody);
+        final byte[] part = new byte[inputStream.readUnsignedShort()];
+        inputStream.readFully(part);
+        try {
+            final byte[] frame = reassemble(part);
+            if (frame != null) {
+                super.handle(user, getCodec().decode(frame));
+            }
+        } catch (IllegalArgumentException e) {
+            plugin.log(Level.SEVERE, "Failed to read plugin message", e);
+        }
+    }
 
-        try (final DataInputStream messageReader = new DataInputStream(new ByteArrayInputStream(messageBody))) {
-            super.handle(user, plugin.getMessageFromJson(messageReader.readUTF()));
-        } catch (IOException e) {
-            plugin.log(Level.SEVERE, "Failed to fully read plugin message", e);
+    // Returns the whole frame once all of its parts have arrived, otherwise null
+    private byte @Nullable [] reassemble(byte @NotNull [] part) throws IllegalArgumentException {
+        if (part.length < PART_HEADER_SIZE) {
+            throw new IllegalArgumentException("Plugin message part is missing its header");
         }
+        final ByteArrayDataInput header = ByteStreams.newDataInput(part);
+        final long messageId = header.readLong();
+        final int index = header.readUnsignedShort();
+        final int count = header.readUnsignedShort();
+        final byte[] body = Arrays.copyOfRange(part, PART_HEADER_SIZE, part.length);
+        if (count == 1) {
+            return body;
+        }
+        if (count == 0 || index >= count) {
+            throw new IllegalArgumentException("Invalid plugin message part " + index + "/" + count);
+        }
+
+        final long now = System.currentTimeMillis();
+        pendingParts.values().removeIf(pending -> now - pending.started() > PART_TIMEOUT_MILLIS);
+        final PartialMessage pending = pendingParts.computeIfAbsent(
+            messageId, id -> new PartialMessage(new byte[count][], now)
+        );
+        synchronized (pending) {
+            if (pending.parts().length != count || pending.parts()[index] != null) {
+                throw new IllegalArgumentException("Unexpected plugin message part " + index + "/" + count);
+            }
+            pending.parts()[index] = body;
+            for (byte[] received : pending.parts()) {
+                if (received == null) {
+                    return null;
+                }
+            }
+        }
+        pendingParts.remove(messageId);
+
+        final byte[] frame = new byte[Arrays.stream(pending.parts()).mapToInt(received -> received.length).sum()];
+        int offset = 0;
+        for (byte[] received : pending.parts()) {
+            System.arraycopy(received, 0, frame, offset, received.length);
+            offset += received.length;
+        }
+        return frame;
     }
 
     @Override
     protected void send(@NotNull Message message, @NotNull OnlineUser sender) {
-        final ByteArrayDataOutput messageWriter = ByteStreams.newDataOutput();
-        messageWriter.writeUTF(message.getTargetType().getPluginMessageChannel());
-        messageWriter.writeUTF(message.getTarget());
-        messageWriter.writeUTF(getSubChannelId());
-
-        // Write the plugin message
-        try (final ByteArrayOutputStream messageByteStream = new ByteArrayOutputStream()) {
-            try (DataOutputStream messageDataStream = new DataOutputStream(messageByteStream)) {
-                messageDataStream.writeUTF(plugin.getGson().toJson(message));
-                messageWriter.writeShort(messageByteStream.toByteArray().length);
-                messageWriter.write(messageByteStream.toByteArray());
-            }
-        } catch (IOException e) {
+        final byte[] frame;
+        try {
+            frame = getCodec().encode(message);
+        } catch (IllegalStateException e) {
             plugin.log(Level.SEVERE, "Exception dispatching plugin message", e);
             return;
         }
 
-        sender.sendPluginMessage(BUNGEE_CHANNEL_ID, messageWriter.toByteArray());
+        // Split frames over several plugin messages, as the proxy reads each forwarded message's length as a short
+        final int count = Math.max(1, (frame.length + MAX_PART_BODY_SIZE - 1) / MAX_PART_BODY_SIZE);
+        if (count > MAX_PARTS) {
+            plugin.log(Level.SEVERE, "Plugin message is too large to send (" + frame.length + " bytes)");
+            return;
+        }
+        final long messageId = messageIds.getAndIncrement();
+        for (int index = 0; index < count; index++) {
+            final int offset = index * MAX_PART_BODY_SIZE;
+            final int length = Math.min(MAX_PART_BODY_SIZE, frame.length - offset);
+            final ByteArrayDataOutput messageWriter = ByteStreams.newDataOutput(length + PART_HEADER_SIZE + 64);
+            messageWriter.writeUTF(message.getTargetType().getPluginMessageChannel());
+            messageWriter.writeUTF(message.getTarget());
+            messageWriter.writeUTF(getSubChannelId());
+            messageWriter.writeShort(length + PART_HEADER_SIZE);
+            messageWriter.writeLong(messageId);
+            messageWriter.writeShort(index);
+            messageWriter.writeShort(count);
+            messageWriter.write(frame, offset, length);
+            sender.sendPluginMessage(BUNGEE_CHANNEL_ID, messageWriter.toByteArray());
+        }
     }
 
     @Override
@@ -111,6 +186,11 @@ public class PluginMessageBroker extends Broker {
 
     @Override
     public void close() {
+        getUserListSync().stop();
+        pendingParts.clear();
+    }
+
+    private record PartialMessage(byte[][] parts, long started) {
     }
 
 }
@@ -27,24 +27,32 @@ import org.jetbrains.annotations.NotNull;
 import redis.clients.jedis.*;
 import redis.clients.jedis.util.Pool;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Set;
 import java.util.logging.Level;
 
 /**
- * Redis message broker implementation
+ * Redis message broker implementation. Messages are published as {@link MessageCodec binary frames}
  */
 public class RedisBroker extends PluginMessageBroker {
+    private final MessageDispatcher dispatcher;
     private Pool<Jedis> jedisPool;
+    private RedisPublisher publisher;
 
     public RedisBroker(@NotNull HuskTowns plugin) {
         super(plugin);
+        final Settings.CrossServerSettings.RedisSettings settings = plugin.getSettings().getCrossServer().getRedis();
+        this.dispatcher = new MessageDispatcher(plugin, settings.getSubscriberThreads(), settings.getSubscriberQueueSize());
     }
 
     @Override
     public void initialize() throws RuntimeException {
+        this.jedisPool = establishJedisPool();
+        this.publisher = new RedisPublisher(plugin, jedisPool, getSubChannelId().getBytes(StandardCharsets.UTF_8));
         super.initialize();
 
-        this.jedisPool = establishJedisPool();
+        dispatcher.start();
         new Thread(getSubscriber(), plugin.getKey("redis_subscriber").toString()).start();
 
         plugin.log(Level.INFO, "Initialized Redis connection pool");
@@ -80,41 +88,87 @@ public class RedisBroker extends PluginMessageBroker {
     @NotNull
     private Runnable getSubscriber() {
         return () -> {
+            final byte[] subChannelId = getSubChannelId().getBytes(StandardCharsets.UTF_8);
             try (Jedis jedis = jedisPool.getResource()) {
-                jedis.subscribe(new JedisPubSub() {
+                jedis.subscribe(new BinaryJedisPubSub() {
                     @Override
-                    public void onMessage(@NotNull String channel, @NotNull String encodedMessage) {
-                        if (!channel.equals(getSubChannelId())) {
+                    public void onMessage(byte @NotNull [] channel, byte @NotNull [] encodedMessage) {
+                        if (!Arrays.equals(channel, subChannelId)) {
                             return;
                         }
 
-                        final Message message = plugin.getMessageFromJson(encodedMessage);
+                        final Message message;
+                        try {
+                            message = getCodec().decode(encodedMessage);
+                        } catch (IllegalArgumentException e) {
+                            plugin.log(Level.SEVERE, "Failed to read Redis message", e);
+                            return;
+                        }
                         if (message.getTargetType() == Message.TargetType.PLAYER) {
-                            plugin.getOnlineUsers().stream()
-                                .filter(online -> online.getName().equalsIgnoreCase(message.getTarget()))
-                                .findFirst()
-                                .ifPresent(receiver -> handle(receiver, message));
+                            plugin.findOnlineUser(message.getTarget()).ifPresent(
+                                receiver -> dispatcher.dispatch(message, () -> handle(receiver, message))
+                            );
                             return;
                         }
-                        handle(plugin.getOnlineUsers().stream().findAny().orElse(null), message);
+                        dispatcher.dispatch(message, () -> handle(
+                            plugin.getOnlineUsers().stream().findAny().orElse(null), message
+                        ));
                     }
-                }, getSubChannelId());
+                }, subChannelId);
             }
         };
     }
 
     @Override
     protected void send(@NotNull Message message, @NotNull OnlineUser sender) {
-        plugin.runAsync(() -> {
-            try (Jedis jedis = jedisPool.getResource()) {
-                jedis.publish(getSubChannelId(), plugin.getGson().toJson(message));
-            }
-        });
+        send(message);
+    }
+
+    @Override
+    protected void send(@NotNull Message message) {
+        final byte[] frame;
+        try {
+            frame = getCodec().encode(message);
+        } catch (IllegalStateException e) {
+            plugin.log(Level.SEVERE, "Exception dispatching Redis message", e);
+            return;
+        }
+        publisher.publish(frame);
+    }
+
+    @Override
+    public boolean requiresMessenger() {
+        return false;
+    }
+
+    @NotNull
+    @Override
+    protected UserListSync createUserListSync() {
+        return new RedisUserListSync(plugin, this);
+    }
+
+    @NotNull
+    Pool<Jedis> getJedisPool() {
+        return jedisPool;
+    }
+
+    /**
+     * Get the dispatcher handling messages received from Redis
+     *
+     * @return the dispatcher
+     */
+    @NotNull
+    public MessageDispatcher getDispatcher() {
+        return dispatcher;
     }
 
     @Override
     public void close() {
         super.close();
+        dispatcher.close();
+        if (publisher != null) {
+            publisher.flush();
+        }
         if (jedisPool != null) {
             jedisPool.close();
         }
@@ -0,0 +1,107 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.network;
+
+import net.william278.husktowns.HuskTowns;
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.util.Pool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Outbound queue for messages published by the {@link RedisBroker}.
+ * <p>
+ * Messages are held for the configured {@code publish_delay}, then everything queued meanwhile is published in one
+ * pipelined round trip, so bursts of messages (such as from mass town deletions, or user list syncs) don't each cost
+ * a round trip. Once {@code publish_batch_size} messages are queued, they are published without waiting out the delay.
+ * Messages are always published in the order they were sent.
+ */
+class RedisPublisher {
+
+    private final HuskTowns plugin;
+    private final Pool<Jedis> pool;
+    private final byte[] channel;
+    private final Queue<byte[]> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    RedisPublisher(@NotNull HuskTowns plugin, @NotNull Pool<Jedis> pool, byte @NotNull [] channel) {
+        this.plugin = plugin;
+        this.pool = pool;
+        this.channel = channel;
+    }
+
+    /**
+     * Queue an encoded message to be published
+     *
+     * @param frame the {@link MessageCodec encoded} message
+     */
+    void publish(byte @NotNull [] frame) {
+        queue.add(frame);
+        final int size = queued.incrementAndGet();
+        final long delay = plugin.getSettings().getCrossServer().getRedis().getPublishDelay();
+        if (delay <= 0 || size >= plugin.getSettings().getCrossServer().getRedis().getPublishBatchSize()) {
+            plugin.runAsync(this::flush);
+            return;
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            plugin.runAsyncDelayed(() -> {
+                flushScheduled.set(false);
+                flush();
+            }, delay);
+        }
+    }
+
+    /**
+     * Publish all queued messages now
+     */
+    synchronized void flush() {
+        final List<byte[]> frames = new ArrayList<>(queued.get());
+        for (byte[] frame = queue.poll(); frame != null; frame = queue.poll()) {
+            frames.add(frame);
+            queued.decrementAndGet();
+        }
+        if (frames.isEmpty()) {
+            return;
+        }
+
+        try (Jedis jedis = pool.getResource()) {
+            if (frames.size() == 1) {
+                jedis.publish(channel, frames.get(0));
+                return;
+            }
+            try (Pipeline pipeline = jedis.pipelined()) {
+                frames.forEach(frame -> pipeline.publish(channel, frame));
+            }
+        } catch (JedisException e) {
+            plugin.log(Level.SEVERE, "Failed to publish " + frames.size() + " message(s) to Redis", e);
+        }
+    }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.network;
+
+import net.william278.husktowns.HuskTowns;
+import net.william278.husktowns.user.OnlineUser;
+import net.william278.husktowns.user.User;
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Keeps user lists in sync through Redis, where each server also keeps the users online on it in a shared hash.
+ * <p>
+ * Servers read each other's lists from these hashes when they reconcile their lists, or when their first user joins,
+ * rather than requesting the full lists from every server. Hashes expire unless they are refreshed, so a server that
+ * stops without clearing its hash doesn't stay listed for long.
+ */
+class RedisUserListSync extends UserListSync {
+
+    private final RedisBroker redis;
+
+    RedisUserListSync(@NotNull HuskTowns plugin, @NotNull RedisBroker broker) {
+        super(plugin, broker);
+        this.redis = broker;
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        write(jedis -> {
+            jedis.del(getUsersKey(broker.getServer()));
+            jedis.srem(getServersKey(), broker.getServer());
+        });
+    }
+
+    @Override
+    public void userJoined(@NotNull OnlineUser user) {
+        super.userJoined(user);
+        plugin.runAsync(() -> write(jedis -> {
+            jedis.hset(getUsersKey(broker.getServer()), user.getUuid().toString(), user.getUsername());
+            jedis.sadd(getServersKey(), broker.getServer());
+        }));
+    }
+
+    @Override
+    public void userLeft(@NotNull OnlineUser user) {
+        super.userLeft(user);
+        plugin.runAsync(() -> write(jedis -> jedis.hdel(getUsersKey(broker.getServer()), user.getUuid().toString())));
+    }
+
+    // Write this server's users to its hash, then read every other server's
+    @Override
+    protected void reconcile() {
+        final Map<String, String> users = new HashMap<>();
+        plugin.getOnlineUsers().forEach(user -> users.put(user.getUuid().toString(), user.getUsername()));
+        final long expiry = plugin.getSettings().getCrossServer().getUserListSyncInterval() * 3;
+        write(jedis -> {
+            final Map<String, Response<Map<String, String>>> lists = new HashMap<>();
+            try (Pipeline pipeline = jedis.pipelined()) {
+                final String key = getUsersKey(broker.getServer());
+                pipeline.del(key);
+                if (!users.isEmpty()) {
+                    pipeline.hset(key, users);
+                    if (expiry > 0) {
+                        pipeline.expire(key, expiry);
+                    }
+                }
+                pipeline.sadd(getServersKey(), broker.getServer());
+                final Response<Set<String>> servers = pipeline.smembers(getServersKey());
+                pipeline.sync();
+
+                servers.get().stream()
+                    .filter(server -> !server.equals(broker.getServer()))
+                    .forEach(server -> lists.put(server, pipeline.hgetAll(getUsersKey(server))));
+            }
+            lists.forEach((server, list) -> readUserList(jedis, server, list.get()));
+        });
+    }
+
+    @Override
+    protected void refreshUserLists(@NotNull OnlineUser messenger) {
+        plugin.getGlobalUserList().clear();
+        plugin.runAsync(this::reconcile);
+    }
+
+    // Redis messages aren't sent through a player, so the user leaving can send the message
+    @NotNull
+    @Override
+    protected Optional<OnlineUser> getMessenger(@NotNull OnlineUser leaving) {
+        return Optional.of(leaving);
+    }
+
+    private void readUserList(@NotNull Jedis jedis, @NotNull String server, @NotNull Map<String, String> users) {
+        if (users.isEmpty()) {
+            jedis.srem(getServersKey(), server);
+            plugin.getGlobalUserList().remove(server);
+            return;
+        }
+        final List<User> list = new ArrayList<>(users.size());
+        users.forEach((uuid, name) -> {
+            try {
+                list.add(User.of(UUID.fromString(uuid), name));
+            } catch (IllegalArgumentException e) {
+                plugin.log(Level.WARNING, "Skipping invalid user " + uuid + " in the user list of " + server);
+            }
+        });
+        plugin.setUserList(server, list);
+    }
+
+    private void write(@NotNull Consumer<Jedis> action) {
+        try (Jedis jedis = redis.getJedisPool().getResource()) {
+            action.accept(jedis);
+        } catch (JedisException e) {
+            plugin.log(Level.WARNING, "Failed to sync the user list with Redis", e);
+        }
+    }
+
+    @NotNull
+    private String getServersKey() {
+        return broker.getSubChannelId() + ":servers";
+    }
+
+    @NotNull
+    private String getUsersKey(@NotNull String server) {
+        return broker.getSubChannelId() + ":users:" + server;
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.network;
+
+import com.google.common.collect.Maps;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import net.william278.husktowns.HuskTowns;
+import net.william278.husktowns.town.Town;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Creates and applies {@link TownUpdate}s, so that servers can update their cached towns from the update itself rather
+ * than reading the town back from the database.
+ * <p>
+ * Towns whose JSON is small are always sent whole. For larger towns, the last version sent or received is kept so the
+ * next update can be sent as a delta against it.
+ */
+public class TownSync {
+
+    // Towns whose JSON is at most this many characters long are always sent whole
+    private static final int MAX_FULL_UPDATE_LENGTH = 4096;
+
+    private final HuskTowns plugin;
+    private final Map<Integer, Synced> synced = Maps.newConcurrentMap();
+
+    public TownSync(@NotNull HuskTowns plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Create an update for a town that has just been saved
+     *
+     * @param town the town, which must have had its {@link Town#incrementVersion() version incremented} when edited
+     * @return the update to send
+     */
+    @NotNull
+    public TownUpdate createUpdate(@NotNull Town town) {
+        final JsonObject json = plugin.getGson().toJsonTree(town).getAsJsonObject();
+        final Synced previous = remember(town.getId(), town.getVersion(), json);
+        if (previous == null || previous.version() >= town.getVersion()) {
+            return TownUpdate.full(town.getId(), town.getVersion(), json);
+        }
+
+        final JsonObject changes = new JsonObject();
+        final List<String> removed = new ArrayList<>();
+        for (Map.Entry<String, JsonElement> field : json.entrySet()) {
+            if (!field.getValue().equals(previous.json().get(field.getKey()))) {
+                changes.add(field.getKey(), field.getValue());
+            }
+        }
+        for (String field : previous.json().keySet()) {
+            if (!json.has(field)) {
+                removed.add(field);
+            }
+        }
+        return TownUpdate.delta(town.getId(), town.getVersion(), previous.version(), changes, removed);
+    }
+
+    /**
+     * Apply an update received from another server to the cached town, reading the town from the database instead if
+     * the update can't be applied to the cached version
+     *
+     * @param update the update
+     */
+    public void applyUpdate(@NotNull TownUpdate update) {
+        final Town local = plugin.getTowns().getById(update.getTownId());
+        final long localVersion = local != null ? local.getVersion() : -1;
+
+        // Whole towns can be applied to any older version. Versions are counted by each server, so if the update has
+        // the same version as the cached town but different data, both servers edited the town at once
+        if (update.getTown().isPresent()) {
+            final JsonObject json = update.getTown().get();
+            if (update.getVersion() > localVersion) {
+                apply(update.getTownId(), json);
+            } else if (local != null && update.getVersion() == localVersion
+                       && !json.equals(plugin.getGson().toJsonTree(local).getAsJsonObject())) {
+                reload(update.getTownId());
+            }
+            return;
+        }
+
+        // Deltas can only be applied to the version they were made against
+        final long baseVersion = update.getBaseVersion().orElse(-1L);
+        if (local != null && localVersion == baseVersion) {
+            final JsonObject json = plugin.getGson().toJsonTree(local).getAsJsonObject();
+            update.getChanges().entrySet().forEach(field -> json.add(field.getKey(), field.getValue()));
+            update.getRemoved().forEach(json::remove);
+            apply(update.getTownId(), json);
+            return;
+        }
+        if (update.getVersion() < localVersion) {
+            return;
+        }
+
+        // A version was missed, or the town was changed on this server at the same time
+        reload(update.getTownId());
+    }
+
+    /**
+     * Read a town from the database and update the cached town with it
+     *
+     * @param townId the ID of the town
+     */
+    public void reload(int townId) {
+        plugin.getDatabase().getTown(townId).ifPresentOrElse(
+            town -> {
+                remember(townId, town.getVersion(), plugin.getGson().toJsonTree(town).getAsJsonObject());
+                plugin.updateTown(town);
+            },
+            () -> plugin.log(Level.WARNING, "Failed to update town: Town not found")
+        );
+    }
+
+    /**
+     * Forget the last version of a town sent or received; for when a town has been deleted
+     *
+     * @param townId the ID of the town
+     */
+    public void forget(int townId) {
+        synced.remove(townId);
+    }
+
+    private void apply(int townId, @NotNull JsonObject json) {
+        try {
+            final Town town = plugin.getTownFromJson(json.toString());
+            town.setId(townId);
+            remember(townId, town.getVersion(), json);
+            plugin.updateTown(town);
+        } catch (JsonSyntaxException e) {
+            plugin.log(Level.WARNING, "Failed to apply town update; reading town from the database", e);
+            reload(townId);
+        }
+    }
+
+    // Returns the previously remembered version of the town, if any
+    private Synced remember(int townId, long version, @NotNull JsonObject json) {
+        if (json.toString().length() <= MAX_FULL_UPDATE_LENGTH) {
+            return synced.remove(townId);
+        }
+        return synced.put(townId, new Synced(version, json));
+    }
+
+    private record Synced(long version, @NotNull JsonObject json) {
+    }
+
+}
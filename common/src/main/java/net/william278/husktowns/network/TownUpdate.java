@@ -0,0 +1,134 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.network;
+
+import com.google.gson.JsonObject;
+import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.SerializedName;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A versioned update to a town, sent to other servers once the town has been saved.
+ * <p>
+ * An update carries either the whole town, or the top-level fields of the town's JSON that have changed since the
+ * previous version (the {@link #getBaseVersion() base version}). A delta can only be applied to a town at its base
+ * version; receivers with any other version read the town from the database instead.
+ */
+public class TownUpdate {
+
+    @Expose
+    @SerializedName("town_id")
+    private int townId;
+
+    @Expose
+    private long version;
+
+    @Nullable
+    @Expose
+    @SerializedName("base_version")
+    private Long baseVersion;
+
+    @Nullable
+    @Expose
+    private JsonObject town;
+
+    @Nullable
+    @Expose
+    private JsonObject changes;
+
+    @Nullable
+    @Expose
+    private List<String> removed;
+
+    @SuppressWarnings("unused")
+    private TownUpdate() {
+    }
+
+    private TownUpdate(int townId, long version) {
+        this.townId = townId;
+        this.version = version;
+    }
+
+    /**
+     * Create an update carrying the whole town
+     *
+     * @param townId  the ID of the town
+     * @param version the version of the town
+     * @param town    the town's JSON
+     * @return the update
+     */
+    @NotNull
+    public static TownUpdate full(int townId, long version, @NotNull JsonObject town) {
+        final TownUpdate update = new TownUpdate(townId, version);
+        update.town = town;
+        return update;
+    }
+
+    /**
+     * Create an update carrying the fields of a town that have changed since its previous version
+     *
+     * @param townId      the ID of the town
+     * @param version     the version of the town
+     * @param baseVersion the version of the town the changes apply to
+     * @param changes     the top-level fields that have been added or changed
+     * @param removed     the names of the top-level fields that have been removed
+     * @return the update
+     */
+    @NotNull
+    public static TownUpdate delta(int townId, long version, long baseVersion,
+                                   @NotNull JsonObject changes, @NotNull List<String> removed) {
+        final TownUpdate update = new TownUpdate(townId, version);
+        update.baseVersion = baseVersion;
+        update.changes = changes;
+        update.removed = removed.isEmpty() ? null : removed;
+        return update;
+    }
+
+    public int getTownId() {
+        return townId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Optional<Long> getBaseVersion() {
+        return Optional.ofNullable(baseVersion);
+    }
+
+    public Optional<JsonObject> getTown() {
+        return Optional.ofNullable(town);
+    }
+
+    @NotNull
+    public JsonObject getChanges() {
+        return changes == null ? new JsonObject() : changes;
+    }
+
+    @NotNull
+    public List<String> getRemoved() {
+        return removed == null ? List.of() : removed;
+    }
+
+}
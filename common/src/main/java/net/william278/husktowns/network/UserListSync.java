@@ -0,0 +1,190 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.network;
+
+import net.william278.husktowns.HuskTowns;
+import net.william278.husktowns.user.OnlineUser;
+import net.william278.husktowns.user.User;
+import net.william278.husktowns.util.Task;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps each server's copy of the users online on other servers up to date.
+ * <p>
+ * When a user joins or leaves, only that user is sent to other servers, rather than the whole list of users online on
+ * this server. Each server also periodically sends a {@link #checksum checksum} of its user list; a server whose copy
+ * of that list doesn't match requests the full list from it.
+ */
+public class UserListSync {
+
+    protected final HuskTowns plugin;
+    protected final Broker broker;
+    @Nullable
+    private Task.Repeating task;
+
+    protected UserListSync(@NotNull HuskTowns plugin, @NotNull Broker broker) {
+        this.plugin = plugin;
+        this.broker = broker;
+    }
+
+    /**
+     * Start periodically reconciling user lists with other servers
+     */
+    public void start() {
+        final long interval = plugin.getSettings().getCrossServer().getUserListSyncInterval();
+        if (interval > 0) {
+            task = plugin.getRepeatingTask(this::reconcile, interval * 20L);
+            task.run();
+        }
+    }
+
+    /**
+     * Stop reconciling user lists
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Tell other servers a user has joined this server
+     *
+     * @param user the user
+     */
+    public void userJoined(@NotNull OnlineUser user) {
+        // When the first user joins, other servers' copies of this server's list may be stale, so replace them
+        if (plugin.getOnlineUsers().size() == 1) {
+            sendUserList(user, Message.TARGET_ALL);
+            refreshUserLists(user);
+            return;
+        }
+        Message.builder()
+            .type(Message.Type.USER_JOINED)
+            .target(Message.TARGET_ALL, Message.TargetType.SERVER)
+            .payload(Payload.userList(List.of(user)))
+            .build().send(broker, user);
+    }
+
+    /**
+     * Tell other servers a user has left this server
+     *
+     * @param user the user
+     */
+    public void userLeft(@NotNull OnlineUser user) {
+        getMessenger(user).ifPresent(messenger -> Message.builder()
+            .type(Message.Type.USER_LEFT)
+            .target(Message.TARGET_ALL, Message.TargetType.SERVER)
+            .payload(Payload.uuid(user.getUuid()))
+            .build().send(broker, messenger));
+    }
+
+    /**
+     * Send a checksum of the users online on this server to other servers, so those with an out-of-date copy of it can
+     * request the full list
+     */
+    protected void reconcile() {
+        plugin.getOnlineUsers().stream().findAny().ifPresent(messenger -> Message.builder()
+            .type(Message.Type.USER_LIST_CHECKSUM)
+            .target(Message.TARGET_ALL, Message.TargetType.SERVER)
+            .payload(Payload.integer(checksum(plugin.getOnlineUsers())))
+            .build().send(broker, messenger));
+    }
+
+    /**
+     * Replace this server's copies of other servers' user lists, for when this server has been empty
+     *
+     * @param messenger a user to send messages through
+     */
+    protected void refreshUserLists(@NotNull OnlineUser messenger) {
+        plugin.getGlobalUserList().clear();
+        Message.builder()
+            .type(Message.Type.REQUEST_USER_LIST)
+            .target(Message.TARGET_ALL, Message.TargetType.SERVER)
+            .build().send(broker, messenger);
+    }
+
+    /**
+     * Send the full list of users online on this server
+     *
+     * @param messenger a user to send the message through
+     * @param server    the server to send the list to, or {@link Message#TARGET_ALL} for all servers
+     */
+    public void sendUserList(@NotNull OnlineUser messenger, @NotNull String server) {
+        Message.builder()
+            .type(Message.Type.UPDATE_USER_LIST)
+            .target(server, Message.TargetType.SERVER)
+            .payload(Payload.userList(plugin.getOnlineUsers().stream().map(online -> (User) online).toList()))
+            .build().send(broker, messenger);
+    }
+
+    // Plugin messages are sent through a player, so a user who is leaving can't carry the message themselves
+    @NotNull
+    protected Optional<OnlineUser> getMessenger(@NotNull OnlineUser leaving) {
+        return plugin.getOnlineUsers().stream().filter(online -> !online.equals(leaving)).findAny();
+    }
+
+    void handleUserJoined(@NotNull Message message) {
+        message.getPayload().getUserList().ifPresent(users -> users.forEach(
+            user -> plugin.addToUserList(message.getSourceServer(), user)
+        ));
+    }
+
+    void handleUserLeft(@NotNull Message message) {
+        message.getPayload().getUuid().ifPresent(
+            uuid -> plugin.removeFromUserList(message.getSourceServer(), uuid)
+        );
+    }
+
+    void handleChecksum(@NotNull Message message, @Nullable OnlineUser receiver) {
+        final Optional<Integer> checksum = message.getPayload().getInteger();
+        final List<User> users = plugin.getGlobalUserList().getOrDefault(message.getSourceServer(), List.of());
+        if (receiver == null || checksum.isEmpty() || checksum.get() == checksum(users)) {
+            return;
+        }
+        Message.builder()
+            .type(Message.Type.REQUEST_USER_LIST)
+            .target(message.getSourceServer(), Message.TargetType.SERVER)
+            .build().send(broker, receiver);
+    }
+
+    /**
+     * Get a checksum of a list of users, which doesn't depend on the order of the list
+     *
+     * @param users the users
+     * @return the checksum
+     */
+    public static int checksum(@NotNull Collection<? extends User> users) {
+        int checksum = 0;
+        for (User user : users) {
+            long hash = user.getUuid().getMostSignificantBits() * 31 + user.getUuid().getLeastSignificantBits();
+            hash = (hash ^ user.getName().hashCode()) * 0x9E3779B97F4A7C15L;
+            checksum += (int) (hash ^ (hash >>> 32));
+        }
+        return checksum;
+    }
+
+}
@@ -105,6 +105,10 @@ public class Town {
     @Expose
     @SerializedName("schema_version")
     private int schemaVersion;
+    // Incremented each time the town is saved, so that cross-server updates can be applied in order
+    @Expose
+    @Builder.Default
+    private long version = 0;
 
     /**
      * Create an admin town
@@ -729,6 +733,55 @@ public class Town {
         this.schemaVersion = schemaVersion;
     }
 
+    /**
+     * Get the version of this town's data, which is incremented each time it is edited
+     *
+     * @return the version of this town's data
+     */
+    @ApiStatus.Internal
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Increment the version of this town's data; called when an edit to the town is published
+     */
+    @ApiStatus.Internal
+    public void incrementVersion() {
+        this.version++;
+    }
+
+    /**
+     * Set the version of this town's data; used to publish a town edited outside the edit queue as the next version
+     * of the latest one
+     *
+     * @param version the version of the town's data
+     */
+    @ApiStatus.Internal
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Create a deep copy of this town, to apply an edit to without readers of this town seeing it half-applied.
+     * <p>
+     * The copy shares this town's queue of {@link Log#getUnsavedEntries() unsaved log entries}, so entries are saved
+     * once whichever of the two is saved, and this town's {@link #getCurrentWar() current war}, whose live state
+     * (the attackers and defenders left alive) is updated in place by the war manager.
+     *
+     * @param gson the Gson instance
+     * @return the copy
+     */
+    @NotNull
+    @ApiStatus.Internal
+    public Town copy(@NotNull Gson gson) {
+        final Town copy = gson.fromJson(gson.toJsonTree(this), Town.class);
+        copy.setId(id);
+        copy.getLog().shareUnsavedEntries(log);
+        copy.currentWar = currentWar;
+        return copy;
+    }
+
     /**
      * Carries out town schema object upgrades
      *
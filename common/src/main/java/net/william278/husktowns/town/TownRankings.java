@@ -0,0 +1,211 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.town;
+
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * {@link Town}s ranked by each {@link Key}, kept sorted as towns are put in and removed from the {@link TownRegistry}.
+ * <p>
+ * The value each town is ranked by is read once when the town is put, rather than in every comparison. Reads are
+ * served from an immutable snapshot of each ranking, rebuilt only after the ranking has changed, so looking up a
+ * position or a page does not sort or lock.
+ */
+public class TownRankings {
+
+    private final Map<Key, List<Ranked>> rankings = new EnumMap<>(Key.class);
+    private final Map<Integer, Ranked[]> ranked = Maps.newConcurrentMap();
+    private final AtomicReferenceArray<Ranked[]> snapshots = new AtomicReferenceArray<>(Key.values().length);
+
+    TownRankings() {
+        for (Key key : Key.values()) {
+            rankings.put(key, new ArrayList<>());
+        }
+    }
+
+    /**
+     * Get the towns ranked by a key, as an unmodifiable view of the ranking as it is now
+     *
+     * @param key       the key to rank towns by
+     * @param ascending whether to list towns in ascending order of the key, rather than descending
+     * @return the ranked towns
+     */
+    @NotNull
+    @Unmodifiable
+    public List<Town> getRanked(@NotNull Key key, boolean ascending) {
+        final Ranked[] snapshot = getSnapshot(key);
+        return new RankedList(snapshot, ascending);
+    }
+
+    /**
+     * Get the position of a town in a ranking
+     *
+     * @param key       the key towns are ranked by
+     * @param ascending whether towns are listed in ascending order of the key, rather than descending
+     * @param town      the town
+     * @return the town's zero-based position, or {@code -1} if the town is not ranked
+     */
+    public int getPosition(@NotNull Key key, boolean ascending, @NotNull Town town) {
+        final Ranked[] entries = ranked.get(town.getId());
+        if (entries == null) {
+            return -1;
+        }
+        final Ranked[] snapshot = getSnapshot(key);
+        final int index = Arrays.binarySearch(snapshot, entries[key.ordinal()]);
+        if (index < 0) {
+            return -1;
+        }
+        return ascending ? index : snapshot.length - 1 - index;
+    }
+
+    synchronized void put(@NotNull Town town) {
+        final Ranked[] previous = ranked.get(town.getId());
+        final Ranked[] entries = new Ranked[Key.values().length];
+        for (Key key : Key.values()) {
+            final Ranked entry = new Ranked(key.getValue(town), town.getName(), town.getId(), town);
+            final List<Ranked> ranking = rankings.get(key);
+            if (previous != null) {
+                removeEntry(ranking, previous[key.ordinal()]);
+            }
+            ranking.add(-Collections.binarySearch(ranking, entry) - 1, entry);
+            entries[key.ordinal()] = entry;
+            snapshots.set(key.ordinal(), null);
+        }
+        ranked.put(town.getId(), entries);
+    }
+
+    synchronized void remove(int townId) {
+        final Ranked[] previous = ranked.remove(townId);
+        if (previous == null) {
+            return;
+        }
+        for (Key key : Key.values()) {
+            removeEntry(rankings.get(key), previous[key.ordinal()]);
+            snapshots.set(key.ordinal(), null);
+        }
+    }
+
+    synchronized void clear() {
+        rankings.values().forEach(List::clear);
+        ranked.clear();
+        for (Key key : Key.values()) {
+            snapshots.set(key.ordinal(), null);
+        }
+    }
+
+    private static void removeEntry(@NotNull List<Ranked> ranking, @NotNull Ranked entry) {
+        final int index = Collections.binarySearch(ranking, entry);
+        if (index >= 0) {
+            ranking.remove(index);
+        }
+    }
+
+    @NotNull
+    private Ranked[] getSnapshot(@NotNull Key key) {
+        final Ranked[] snapshot = snapshots.get(key.ordinal());
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (this) {
+            final Ranked[] rebuilt = rankings.get(key).toArray(Ranked[]::new);
+            snapshots.set(key.ordinal(), rebuilt);
+            return rebuilt;
+        }
+    }
+
+    /**
+     * Keys towns can be ranked by
+     */
+    public enum Key {
+        FOUNDED(Town::getFoundedTime),
+        NAME(Town::getName),
+        LEVEL(Town::getLevel),
+        CLAIMS(Town::getClaimCount),
+        MEMBERS(town -> town.getMembers().size()),
+        MONEY(Town::getMoney);
+
+        private final Function<Town, Comparable<?>> value;
+
+        Key(@NotNull Function<Town, Comparable<?>> value) {
+            this.value = value;
+        }
+
+        @NotNull
+        private Comparable<?> getValue(@NotNull Town town) {
+            return value.apply(town);
+        }
+
+        /**
+         * Get a key by its name, case-insensitively
+         *
+         * @param name the name of the key
+         * @return the key, if there is one with the name
+         */
+        @NotNull
+        public static Optional<Key> parse(@NotNull String name) {
+            return Arrays.stream(values())
+                .filter(key -> key.name().equalsIgnoreCase(name))
+                .findFirst();
+        }
+    }
+
+    // A town and the value it is ranked by; ties are ranked by town name, then ID
+    private record Ranked(@NotNull Comparable<?> value, @NotNull String name, int id, @NotNull Town town)
+        implements Comparable<Ranked> {
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public int compareTo(@NotNull Ranked other) {
+            final int byValue = ((Comparable) value).compareTo(other.value);
+            if (byValue != 0) {
+                return byValue;
+            }
+            final int byName = name.compareTo(other.name);
+            return byName != 0 ? byName : Integer.compare(id, other.id);
+        }
+    }
+
+    private static final class RankedList extends AbstractList<Town> implements RandomAccess {
+        private final Ranked[] snapshot;
+        private final boolean ascending;
+
+        private RankedList(@NotNull Ranked[] snapshot, boolean ascending) {
+            this.snapshot = snapshot;
+            this.ascending = ascending;
+        }
+
+        @Override
+        public Town get(int index) {
+            return snapshot[ascending ? index : snapshot.length - 1 - index].town();
+        }
+
+        @Override
+        public int size() {
+            return snapshot.length;
+        }
+    }
+
+}
@@ -0,0 +1,286 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.town;
+
+import com.google.common.collect.Maps;
+import net.william278.husktowns.user.OnlineUser;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * The set of cached {@link Town}s, indexed by town ID, (case-insensitive) town name and member {@link UUID}, and
+ * {@link TownRankings ranked} for town lists and leaderboards. Users online on this server are also indexed by name,
+ * and against their town's online members as users join and leave and as towns' members change, so messages can be
+ * sent to them directly.
+ * <p>
+ * Towns are unique by {@link Town#getId() ID}; adding a town with the ID of one already in the registry replaces it.
+ * Towns are edited by publishing an edited {@link Town#copy copy} through {@link #put(Town)} (as
+ * {@link net.william278.husktowns.HuskTowns#updateTown(Town)} does), which also refreshes the name and member indexes,
+ * so readers always see either the old or the new town in full.
+ */
+public class TownRegistry extends AbstractSet<Town> {
+
+    private final Map<Integer, Town> towns = Maps.newConcurrentMap();
+    private final Map<String, Integer> names = Maps.newConcurrentMap();
+    private final Map<UUID, Integer> members = Maps.newConcurrentMap();
+    private final TownRankings rankings = new TownRankings();
+
+    // Users online on this server, by UUID and (case-insensitive) name, and those of them who are members of each town
+    private final Map<UUID, OnlineUser> online = Maps.newConcurrentMap();
+    private final Map<String, OnlineUser> onlineNames = Maps.newConcurrentMap();
+    private final Map<Integer, Map<UUID, OnlineUser>> onlineMembers = Maps.newConcurrentMap();
+
+    // What each town was last indexed as, so stale entries can be removed when it changes
+    private final Map<Integer, IndexedTown> indexed = Maps.newHashMap();
+
+    /**
+     * Get a town by its ID
+     *
+     * @param id the town ID
+     * @return the town, or {@code null} if there is no town with the ID
+     */
+    @Nullable
+    public Town getById(int id) {
+        return towns.get(id);
+    }
+
+    /**
+     * Get a town by its name, case-insensitively
+     *
+     * @param name the town name
+     * @return the town, or {@code null} if there is no town with the name
+     */
+    @Nullable
+    public Town getByName(@NotNull String name) {
+        final Integer id = names.get(toKey(name));
+        return id != null ? towns.get(id) : null;
+    }
+
+    /**
+     * Get the town a user is a member of
+     *
+     * @param uuid the user's {@link UUID}
+     * @return the town, or {@code null} if the user is not a member of a town
+     */
+    @Nullable
+    public Town getByMember(@NotNull UUID uuid) {
+        final Integer id = members.get(uuid);
+        return id != null ? towns.get(id) : null;
+    }
+
+    /**
+     * Get the members of a town who are online on this server
+     *
+     * @param townId the town ID
+     * @return an unmodifiable view of the town's online members
+     */
+    @NotNull
+    @Unmodifiable
+    public Collection<OnlineUser> getOnlineMembers(int townId) {
+        final Map<UUID, OnlineUser> users = onlineMembers.get(townId);
+        return users != null ? Collections.unmodifiableCollection(users.values()) : List.of();
+    }
+
+    /**
+     * Get a user online on this server by their username, case-insensitively
+     *
+     * @param username the user's username
+     * @return the user, or {@code null} if no user with the name is online on this server
+     */
+    @Nullable
+    public OnlineUser getOnlineUser(@NotNull String username) {
+        return onlineNames.get(toKey(username));
+    }
+
+    /**
+     * Index a user who has joined this server against the online members of their town
+     *
+     * @param user the user
+     */
+    public synchronized void setOnline(@NotNull OnlineUser user) {
+        online.put(user.getUuid(), user);
+        onlineNames.put(toKey(user.getUsername()), user);
+        final Integer townId = members.get(user.getUuid());
+        if (townId != null) {
+            onlineMembers.computeIfAbsent(townId, id -> Maps.newConcurrentMap()).put(user.getUuid(), user);
+        }
+    }
+
+    /**
+     * Remove a user who has left this server from the online members of their town
+     *
+     * @param uuid the user's {@link UUID}
+     */
+    public synchronized void setOffline(@NotNull UUID uuid) {
+        final OnlineUser user = online.remove(uuid);
+        if (user != null) {
+            onlineNames.remove(toKey(user.getUsername()), user);
+        }
+        final Integer townId = members.get(uuid);
+        final Map<UUID, OnlineUser> users = townId != null ? onlineMembers.get(townId) : null;
+        if (users != null) {
+            users.remove(uuid);
+        }
+    }
+
+    /**
+     * Get the towns in the registry, ranked by each {@link TownRankings.Key}
+     *
+     * @return the rankings
+     */
+    @NotNull
+    public TownRankings getRankings() {
+        return rankings;
+    }
+
+    /**
+     * Add or replace a town in the registry, and (re-)index its name and members
+     *
+     * @param town the town
+     * @return the town previously registered with the same ID, or {@code null} if there was none
+     */
+    @Nullable
+    public synchronized Town put(@NotNull Town town) {
+        final Town previous = towns.put(town.getId(), town);
+
+        // Write the new entries before removing stale ones, so lookups of unchanged names and members never miss
+        final IndexedTown entry = new IndexedTown(toKey(town.getName()), Set.copyOf(town.getMembers().keySet()));
+        names.put(entry.name(), town.getId());
+        entry.members().forEach(uuid -> members.put(uuid, town.getId()));
+        final IndexedTown stale = indexed.put(town.getId(), entry);
+        if (stale != null) {
+            if (!stale.name().equals(entry.name())) {
+                names.remove(stale.name(), town.getId());
+            }
+            stale.members().stream()
+                .filter(uuid -> !entry.members().contains(uuid))
+                .forEach(uuid -> members.remove(uuid, town.getId()));
+        }
+        rankings.put(town);
+
+        // Swap in the town's online members in one step, so messages sent meanwhile reach the old or new members
+        final Map<UUID, OnlineUser> users = Maps.newConcurrentMap();
+        entry.members().forEach(uuid -> {
+            final OnlineUser user = online.get(uuid);
+            if (user != null) {
+                users.put(uuid, user);
+            }
+        });
+        onlineMembers.put(town.getId(), users);
+        return previous;
+    }
+
+    @Override
+    public boolean add(@NotNull Town town) {
+        return put(town) == null;
+    }
+
+    @Override
+    public synchronized boolean remove(Object o) {
+        if (!(o instanceof Town town)) {
+            return false;
+        }
+        unindex(town.getId());
+        rankings.remove(town.getId());
+        onlineMembers.remove(town.getId());
+        return towns.remove(town.getId()) != null;
+    }
+
+    @Override
+    public synchronized boolean removeIf(@NotNull Predicate<? super Town> filter) {
+        boolean removed = false;
+        for (final Town town : List.copyOf(towns.values())) {
+            if (filter.test(town)) {
+                removed |= remove(town);
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public synchronized void clear() {
+        towns.clear();
+        names.clear();
+        members.clear();
+        indexed.clear();
+        rankings.clear();
+        onlineMembers.clear();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Town town && towns.containsKey(town.getId());
+    }
+
+    @NotNull
+    @Override
+    public Iterator<Town> iterator() {
+        final Iterator<Town> iterator = towns.values().iterator();
+        return new Iterator<>() {
+            private Town current;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Town next() {
+                return current = iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                if (current == null) {
+                    throw new IllegalStateException();
+                }
+                TownRegistry.this.remove(current);
+                current = null;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return towns.size();
+    }
+
+    private void unindex(int townId) {
+        final IndexedTown entry = indexed.remove(townId);
+        if (entry == null) {
+            return;
+        }
+        names.remove(entry.name(), townId);
+        entry.members().forEach(uuid -> members.remove(uuid, townId));
+    }
+
+    @NotNull
+    private static String toKey(@NotNull String name) {
+        return name.toLowerCase(Locale.ENGLISH);
+    }
+
+    private record IndexedTown(@NotNull String name, @NotNull Set<UUID> members) {
+    }
+
+}
@@ -94,7 +94,11 @@ public abstract class OnlineUser extends User implements CommandUser, OperationU
 
     public abstract boolean isSneaking();
 
-    public abstract void spawnMarkerParticle(@NotNull Position position, @NotNull TextColor color, int count);
+    public void spawnMarkerParticle(@NotNull Position position, @NotNull TextColor color, int count) {
+        spawnMarkerParticle(position.getX(), position.getY(), position.getZ(), color, count);
+    }
+
+    public abstract void spawnMarkerParticle(double x, double y, double z, @NotNull TextColor color, int count);
 
     public abstract void teleportTo(@NotNull Position position);
 
@@ -24,6 +24,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Unmodifiable;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Stream;
 
 /**
@@ -42,6 +43,26 @@ public interface UserProvider {
     @NotNull
     Map<String, List<User>> getGlobalUserList();
 
+    /**
+     * Track a user as online on this server, indexing them against their town's online members
+     *
+     * @param user the user
+     */
+    default void addOnlineUser(@NotNull OnlineUser user) {
+        getOnlineUserMap().put(user.getUuid(), user);
+        getPlugin().getTowns().setOnline(user);
+    }
+
+    /**
+     * Stop tracking a user as online on this server
+     *
+     * @param uuid the user's {@link UUID}
+     */
+    default void removeOnlineUser(@NotNull UUID uuid) {
+        getOnlineUserMap().remove(uuid);
+        getPlugin().getTowns().setOffline(uuid);
+    }
+
     @NotNull
     @Unmodifiable
     default Collection<OnlineUser> getOnlineUsers() {
@@ -49,9 +70,7 @@ public interface UserProvider {
     }
 
     default Optional<OnlineUser> findOnlineUser(@NotNull String username) {
-        return getOnlineUsers().stream()
-                .filter(online -> online.getUsername().equalsIgnoreCase(username))
-                .findFirst();
+        return Optional.ofNullable(getPlugin().getTowns().getOnlineUser(username));
     }
 
     @NotNull
@@ -63,11 +82,35 @@ public interface UserProvider {
     }
 
     default void setUserList(@NotNull String server, @NotNull List<User> players) {
-        getGlobalUserList().values().forEach(list -> {
-            list.removeAll(players);
-            list.removeAll(getPlugin().getOnlineUsers());
-        });
-        getGlobalUserList().put(server, players);
+        final Set<UUID> moved = new HashSet<>(players.size());
+        players.forEach(player -> moved.add(player.getUuid()));
+        getGlobalUserList().values().forEach(list -> list.removeIf(user -> moved.contains(user.getUuid())
+                || getOnlineUserMap().containsKey(user.getUuid())));
+        getGlobalUserList().put(server, new CopyOnWriteArrayList<>(players));
+    }
+
+    /**
+     * Add a user who has joined another server to the global user list
+     *
+     * @param server the server the user joined
+     * @param user   the user
+     */
+    default void addToUserList(@NotNull String server, @NotNull User user) {
+        getGlobalUserList().values().forEach(list -> list.removeIf(other -> other.getUuid().equals(user.getUuid())));
+        getGlobalUserList().computeIfAbsent(server, name -> new CopyOnWriteArrayList<>()).add(user);
+    }
+
+    /**
+     * Remove a user who has left another server from the global user list
+     *
+     * @param server the server the user left
+     * @param uuid   the user's {@link UUID}
+     */
+    default void removeFromUserList(@NotNull String server, @NotNull UUID uuid) {
+        final List<User> list = getGlobalUserList().get(server);
+        if (list != null) {
+            list.removeIf(user -> user.getUuid().equals(uuid));
+        }
     }
 
     default boolean isUserOnline(@NotNull User user) {
@@ -21,21 +21,16 @@ package net.william278.husktowns.util;
 
 import net.william278.husktowns.HuskTowns;
 import net.william278.husktowns.audit.Action;
-import net.william278.husktowns.town.Member;
 import net.william278.husktowns.town.Town;
 import net.william278.husktowns.user.OnlineUser;
-import net.william278.husktowns.user.SavedUser;
-import net.william278.husktowns.user.User;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.time.LocalTime;
+import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
-import java.util.Set;
-import java.util.UUID;
+import java.util.*;
 import java.util.logging.Level;
-import java.util.stream.Collectors;
 
 import static net.william278.husktowns.config.Settings.TownSettings;
 
@@ -98,21 +93,39 @@ public interface DataPruner {
             return 0L;
         }
 
-        // Get inactive users
-        final List<SavedUser> inactiveUsers = getPlugin().getDatabase().getInactiveUsers(daysInactive);
-        final Set<UUID> inactiveUuids = inactiveUsers.stream()
-            .map(SavedUser::user).map(User::getUuid)
-            .collect(Collectors.toUnmodifiableSet());
-
-        // Find towns matching the inactive users and prune
-        return inactiveUsers.stream()
-            .flatMap(user -> getPlugin().getUserTown(user.user()).stream().map(Member::town))
-            .filter(town -> inactiveUuids.containsAll(town.getMembers().keySet())).distinct()
-            .peek(town -> {
-                getPlugin().log(Level.INFO, "Pruning town " + town.getName() + "...");
-                getPlugin().getManager().towns().deleteTownData(actor, town);
+        // Stream inactive users against the member index, collecting the inactive members of each town
+        final LocalTime startTime = LocalTime.now();
+        final Map<Integer, Set<UUID>> inactiveMembers = new HashMap<>();
+        final long[] inactiveUsers = {0L};
+        final boolean read = getPlugin().getDatabase().forEachInactiveUser(daysInactive, uuid -> {
+            inactiveUsers[0]++;
+            final Town town = getPlugin().getTowns().getByMember(uuid);
+            if (town != null) {
+                inactiveMembers.computeIfAbsent(town.getId(), id -> new HashSet<>()).add(uuid);
+            }
+        });
+        if (!read) {
+            return 0L;
+        }
+
+        // Prune towns that have no active members
+        final List<Town> inactiveTowns = inactiveMembers.entrySet().stream()
+            .map(entry -> {
+                final Town town = getPlugin().getTowns().getById(entry.getKey());
+                return town != null && entry.getValue().containsAll(town.getMembers().keySet()) ? town : null;
             })
-            .count();
+            .filter(Objects::nonNull)
+            .toList();
+        getPlugin().log(Level.INFO, "Found " + inactiveUsers[0] + " users inactive for " + daysInactive + "+ days, "
+            + "of whom " + inactiveMembers.values().stream().mapToInt(Set::size).sum() + " are members of "
+            + inactiveMembers.size() + " towns, " + inactiveTowns.size() + " of which have no active members, in "
+            + (ChronoUnit.MILLIS.between(startTime, LocalTime.now()) / 1000d) + " seconds");
+
+        inactiveTowns.forEach(town -> {
+            getPlugin().log(Level.INFO, "Pruning town " + town.getName() + "...");
+            getPlugin().getManager().towns().deleteTownData(actor, town);
+        });
+        return inactiveTowns.size();
     }
 
     /**
@@ -129,22 +142,44 @@ public interface DataPruner {
             return;
         }
 
-        final OnlineUser actor = getPlugin().getOnlineUsers().stream().findAny().orElse(null);
         final List<Town> warsToClear = getPlugin().getTowns().stream()
             .filter(town -> town.getCurrentWar().map(
                 war -> !getPlugin().getSettings().getCrossServer().isEnabled() ||
                     war.getHostServer().equals(getPlugin().getServerName())
             ).orElse(false)).toList();
-        warsToClear.forEach(town -> {
+        if (warsToClear.isEmpty()) {
+            return;
+        }
+        getPlugin().log(Level.INFO, "Clearing expired local wars...");
+        final LocalTime startTime = LocalTime.now();
+
+        warsToClear.forEach(cached -> getPlugin().getManager().editTown(cached, town -> {
             town.clearCurrentWar();
             town.getLog().log(Action.of(Action.Type.LOST_WAR));
-            if (actor != null) {
-                getPlugin().getManager().updateTownData(actor, town);
-            } else {
-                getPlugin().getDatabase().updateTown(town);
-                getPlugin().updateTown(town);
-            }
-        });
+        }));
+
+        getPlugin().log(Level.INFO, "Successfully cleared " + warsToClear.size() + " expired local wars in " +
+            (ChronoUnit.MILLIS.between(startTime, LocalTime.now()) / 1000d) + " seconds");
+    }
+
+    /**
+     * Delete town audit log entries older than the configured retention period
+     * <p>
+     * This method will use the "town_log_retention_days" setting to determine how old entries must be to be deleted.
+     * Entries recording when towns were founded are never deleted.
+     */
+    default void pruneTownLogs() {
+        final long retentionDays = getPlugin().getSettings().getDatabase().getTownLogRetentionDays();
+        if (retentionDays <= 0) {
+            return;
+        }
+        getPlugin().log(Level.INFO, "Pruning town audit logs...");
+        final LocalTime startTime = LocalTime.now();
+
+        final int pruned = getPlugin().getDatabase().pruneLogEntries(OffsetDateTime.now().minusDays(retentionDays));
+
+        getPlugin().log(Level.INFO, "Successfully pruned " + pruned + " town audit log entries in " +
+            (ChronoUnit.MILLIS.between(startTime, LocalTime.now()) / 1000d) + " seconds");
     }
 
     @NotNull
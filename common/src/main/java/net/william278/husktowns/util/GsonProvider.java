@@ -23,6 +23,7 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonSyntaxException;
+import net.william278.husktowns.claim.Claim;
 import net.william278.husktowns.claim.ClaimWorld;
 import net.william278.husktowns.network.Message;
 import net.william278.husktowns.town.Town;
@@ -58,6 +59,11 @@ public interface GsonProvider {
         return world;
     }
 
+    @NotNull
+    default Claim getClaimFromJson(@NotNull String json) throws JsonSyntaxException {
+        return getGson().fromJson(json, Claim.class);
+    }
+
     @NotNull
     default Message getMessageFromJson(@NotNull String json) throws JsonSyntaxException {
         return getGson().fromJson(json, Message.class);
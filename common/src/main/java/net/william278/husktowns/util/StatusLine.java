@@ -25,6 +25,8 @@ import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextColor;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import net.william278.husktowns.HuskTowns;
+import net.william278.husktowns.hook.map.DynmapHook;
+import net.william278.husktowns.network.RedisBroker;
 import org.apache.commons.text.WordUtils;
 import org.jetbrains.annotations.NotNull;
 
@@ -50,12 +52,36 @@ public enum StatusLine {
             .isBlank())),
     REDIS_USING_SSL(plugin -> getBoolean(!plugin.getSettings().getCrossServer().getRedis().isUseSsl())),
     IS_REDIS_LOCAL(plugin -> getLocalhostBoolean(plugin.getSettings().getCrossServer().getRedis().getHost())),
+    REDIS_RECEIVED_MESSAGES(plugin -> plugin.getMessageBroker()
+            .filter(broker -> broker instanceof RedisBroker)
+            .map(broker -> ((RedisBroker) broker).getDispatcher())
+            .map(dispatcher -> Component.text(String.format(
+                    "%d handled, %d queued, %d dropped (lag %dms, max %dms)",
+                    dispatcher.getHandledCount(), dispatcher.getQueueDepth(), dispatcher.getDroppedCount(),
+                    dispatcher.getLastLagMillis(), dispatcher.getMaxLagMillis()
+            )))
+            .orElse(Component.text("N/A"))),
     REGISTERED_CUSTOM_OPERATION_TYPES(plugin -> Component.join(
             JoinConfiguration.commas(true),
             plugin.getOperationListener().getRegisteredOperationTypes().stream()
                     .filter(t -> !t.getKey().namespace().equals("cloplib"))
                     .map(tag -> Component.text(tag.getKey().asString())).toList()
     )),
+    CLAIM_VISUALIZER_PARTICLES(plugin -> Component.text(String.format(
+            "%d sent, %d out of range, %d over budget (%d active)",
+            plugin.getVisualizerScheduler().getParticlesSent(),
+            plugin.getVisualizerScheduler().getParticlesCulled(),
+            plugin.getVisualizerScheduler().getParticlesDropped(),
+            plugin.getVisualizerScheduler().getActiveCount()
+    ))),
+    DYNMAP_REFRESH(plugin -> plugin.getMapHook()
+            .filter(hook -> hook instanceof DynmapHook)
+            .map(hook -> (DynmapHook) hook)
+            .map(hook -> Component.text(String.format(
+                    "%d towns in %dms (slowest %dms)",
+                    hook.getLastRefreshTowns(), hook.getLastRefreshMillis(), hook.getSlowestTownMillis()
+            )))
+            .orElse(Component.text("N/A"))),
     LOADED_HOOKS(plugin -> Component.join(
             JoinConfiguration.commas(true),
             plugin.getHookManager().getHooks().stream()
@@ -46,8 +46,7 @@ public class Validator {
      * @return True if the town name is valid as per the plugin settings, false otherwise
      */
     public boolean isValidTownName(@NotNull String name) {
-        return plugin.getTowns().stream().noneMatch(town -> town.getName().equalsIgnoreCase(name))
-            && isLegalTownName(name);
+        return plugin.findTown(name).isEmpty() && isLegalTownName(name);
     }
 
     /**
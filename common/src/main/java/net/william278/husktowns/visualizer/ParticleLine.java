@@ -19,13 +19,9 @@
 
 package net.william278.husktowns.visualizer;
 
-import net.william278.husktowns.HuskTowns;
 import net.william278.husktowns.claim.Position;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class ParticleLine {
 
     private static final double PARTICLE_SPACING = 0.2d;
@@ -42,17 +38,28 @@ public class ParticleLine {
         return new ParticleLine(start, end);
     }
 
-    @NotNull
-    protected List<Position> getInterpolatedPositions(@NotNull HuskTowns plugin) {
-        final List<Position> positions = new ArrayList<>();
-        final double distance = start.distanceBetween(end);
-        final double step = PARTICLE_SPACING / distance;
-        for (double t = 0; t < 1; t += step) {
-            positions.add(start.interpolate(end, t));
+    // The number of particles along the line, including both ends
+    protected int getPointCount() {
+        return (int) Math.ceil(start.distanceBetween(end) / PARTICLE_SPACING) + 1;
+    }
+
+    /**
+     * Write the {@link #getPointCount() particle positions} along the line into a buffer, as x, y, z triples. The
+     * y coordinate is left for the caller to set to the surface height
+     *
+     * @param buffer the buffer to write to
+     * @param offset the index to start writing at
+     * @return the index after the last position written
+     */
+    protected int interpolate(double @NotNull [] buffer, int offset) {
+        final int segments = getPointCount() - 1;
+        for (int i = 0; i <= segments; i++) {
+            final double t = segments == 0 ? 1 : (double) i / segments;
+            buffer[offset++] = start.getX() + (end.getX() - start.getX()) * t;
+            buffer[offset++] = 0;
+            buffer[offset++] = start.getZ() + (end.getZ() - start.getZ()) * t;
         }
-        positions.add(end);
-        positions.forEach(position -> position.setY(plugin.getHighestBlockAt(position)));
-        return positions;
+        return offset;
     }
 
 }
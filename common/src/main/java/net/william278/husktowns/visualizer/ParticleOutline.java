@@ -0,0 +1,149 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.visualizer;
+
+import net.kyori.adventure.text.format.TextColor;
+import net.william278.husktowns.HuskTowns;
+import net.william278.husktowns.claim.Chunk;
+import net.william278.husktowns.claim.Position;
+import net.william278.husktowns.claim.World;
+import net.william278.husktowns.user.OnlineUser;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The particle positions along a set of {@link ParticleLine}s, with their surface heights resolved, stored in a flat
+ * buffer so they can be redrawn every tick without being recomputed
+ */
+public class ParticleOutline {
+
+    // Particle positions, as x, y, z triples
+    private final double[] points;
+
+    private ParticleOutline(double @NotNull [] points) {
+        this.points = points;
+    }
+
+    /**
+     * Compute the outline of a set of lines. Must be called on a thread that can read the world's heightmap
+     *
+     * @param lines  the lines
+     * @param world  the world the lines are in
+     * @param plugin the plugin instance
+     * @return the outline
+     */
+    @NotNull
+    public static ParticleOutline of(@NotNull List<ParticleLine> lines, @NotNull World world,
+                                     @NotNull HuskTowns plugin) {
+        int count = 0;
+        for (ParticleLine line : lines) {
+            count += line.getPointCount();
+        }
+        final double[] points = new double[count * 3];
+        int offset = 0;
+        for (ParticleLine line : lines) {
+            offset = line.interpolate(points, offset);
+        }
+
+        // Resolve the surface height at each point, looking up each block column only once
+        final Map<Long, Double> heights = new HashMap<>();
+        final Position column = Position.at(0, 0, 0, world);
+        for (int i = 0; i < points.length; i += 3) {
+            final long key = Chunk.asLong((int) Math.floor(points[i]), (int) Math.floor(points[i + 2]));
+            Double height = heights.get(key);
+            if (height == null) {
+                column.setX(points[i]);
+                column.setZ(points[i + 2]);
+                height = plugin.getHighestBlockAt(column);
+                heights.put(key, height);
+            }
+            points[i + 1] = height;
+        }
+        return new ParticleOutline(points);
+    }
+
+    /**
+     * Count the points in the outline within a horizontal distance of a position
+     *
+     * @param x                  the x coordinate of the position
+     * @param z                  the z coordinate of the position
+     * @param maxDistanceSquared the square of the distance
+     * @return the number of points in range
+     */
+    public int countWithin(double x, double z, double maxDistanceSquared) {
+        int count = 0;
+        for (int i = 0; i < points.length; i += 3) {
+            if (isWithin(i, x, z, maxDistanceSquared)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Show the points of the outline within a horizontal distance of a position to a user, thinning them out to
+     * every {@code stride}th point in range
+     *
+     * @param user               the user
+     * @param color              the color of the particles
+     * @param count              the number of particles to spawn at each point
+     * @param x                  the x coordinate of the position
+     * @param z                  the z coordinate of the position
+     * @param maxDistanceSquared the square of the distance
+     * @param stride             the gap between shown points, counting only points in range
+     * @param first              the index (among points in range) of the first point to show
+     * @return the number of points shown
+     */
+    public int draw(@NotNull OnlineUser user, @NotNull TextColor color, int count, double x, double z,
+                    double maxDistanceSquared, int stride, int first) {
+        int index = 0;
+        int shown = 0;
+        for (int i = 0; i < points.length; i += 3) {
+            if (!isWithin(i, x, z, maxDistanceSquared)) {
+                continue;
+            }
+            if (index >= first && (index - first) % stride == 0) {
+                user.spawnMarkerParticle(points[i], points[i + 1], points[i + 2], color, count);
+                shown++;
+            }
+            index++;
+        }
+        return shown;
+    }
+
+    private boolean isWithin(int point, double x, double z, double maxDistanceSquared) {
+        final double dx = points[point] - x;
+        final double dz = points[point + 2] - z;
+        return dx * dx + dz * dz <= maxDistanceSquared;
+    }
+
+    /**
+     * Get the number of points in the outline
+     *
+     * @return the number of points
+     */
+    public int size() {
+        return points.length / 3;
+    }
+
+}
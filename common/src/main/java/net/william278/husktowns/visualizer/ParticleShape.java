@@ -0,0 +1,79 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.visualizer;
+
+import net.william278.husktowns.claim.Position;
+import net.william278.husktowns.claim.World;
+import net.william278.husktowns.hook.map.ChunkShapes;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The perimeter of a connected group of claimed chunks, with edges shared between chunks in the group merged away
+ */
+public class ParticleShape {
+
+    // Variables for determining how to space particles for visualizing claims
+    private static final double CHUNK_SIZE = 16d;
+    private static final double PARTICLE_OFFSET = 0.025d;
+
+    private final List<ParticleLine> lines = new ArrayList<>();
+
+    private ParticleShape(@NotNull ChunkShapes.Shape shape, @NotNull World world) {
+        addLines(shape.outline(), 1, world);
+        shape.holes().forEach(hole -> addLines(hole, -1, world));
+    }
+
+    @NotNull
+    public static ParticleShape of(@NotNull ChunkShapes.Shape shape, @NotNull World world) {
+        return new ParticleShape(shape, world);
+    }
+
+    // Corners are traced clockwise, so the inside of each edge is to its right; for holes, the claimed side is the left
+    private void addLines(int @NotNull [] corners, int side, @NotNull World world) {
+        final int count = corners.length / 2;
+        final Position[] positions = new Position[count];
+        for (int i = 0; i < count; i++) {
+            final int previous = (i + count - 1) % count;
+            final int next = (i + 1) % count;
+            final int inX = Integer.signum(corners[i * 2] - corners[previous * 2]);
+            final int inZ = Integer.signum(corners[i * 2 + 1] - corners[previous * 2 + 1]);
+            final int outX = Integer.signum(corners[next * 2] - corners[i * 2]);
+            final int outZ = Integer.signum(corners[next * 2 + 1] - corners[i * 2 + 1]);
+
+            // Inset each corner along the inward normals of both of its edges, so neighbouring towns' lines don't overlap
+            positions[i] = Position.at(
+                corners[i * 2] * CHUNK_SIZE - (inZ + outZ) * side * PARTICLE_OFFSET, 64,
+                corners[i * 2 + 1] * CHUNK_SIZE + (inX + outX) * side * PARTICLE_OFFSET, world
+            );
+        }
+        for (int i = 0; i < count; i++) {
+            lines.add(ParticleLine.between(positions[i], positions[(i + 1) % count]));
+        }
+    }
+
+    @NotNull
+    protected List<ParticleLine> getLines() {
+        return lines;
+    }
+
+}
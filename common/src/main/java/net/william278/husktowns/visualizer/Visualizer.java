@@ -21,66 +21,138 @@ package net.william278.husktowns.visualizer;
 
 import net.kyori.adventure.text.format.TextColor;
 import net.william278.husktowns.HuskTowns;
+import net.william278.husktowns.claim.Chunk;
+import net.william278.husktowns.claim.Position;
 import net.william278.husktowns.claim.TownClaim;
 import net.william278.husktowns.claim.World;
+import net.william278.husktowns.hook.map.ChunkShapes;
 import net.william278.husktowns.user.OnlineUser;
-import net.william278.husktowns.util.Task;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Visualizes a claim by outlining it with particles
+ * Visualizes claims by outlining them with particles; adjacent claims of the same town are outlined as one shape
  */
 public class Visualizer {
     private static final int PARTICLE_COUNT = 3;
-    private static final long PARTICLE_FREQUENCY = 10L;
 
     private final HuskTowns plugin;
     private final OnlineUser user;
-    private final Map<TextColor, List<ParticleChunk>> chunks;
-    private Task.Repeating task = null;
+    private final World world;
+    private final Map<TextColor, List<ParticleShape>> shapes;
+    private Map<TextColor, ParticleOutline> outlines = null;
+    private long remainingTicks = 0;
+    private int redraws = 0;
     private boolean done = false;
 
     public Visualizer(@NotNull OnlineUser user, @NotNull List<TownClaim> claims, @NotNull World world, @NotNull HuskTowns plugin) {
         this.user = user;
         this.plugin = plugin;
-        this.chunks = new ConcurrentHashMap<>();
+        this.world = world;
+        this.shapes = new ConcurrentHashMap<>();
+        final Map<Integer, TextColor> townColors = new HashMap<>();
+        final Map<Integer, List<Chunk>> townChunks = new HashMap<>();
         for (TownClaim claim : claims) {
-            this.chunks.computeIfAbsent(claim.town().getDisplayColor(), k -> new ArrayList<>())
-                .add(ParticleChunk.of(claim.claim().getChunk(), world));
+            townColors.putIfAbsent(claim.town().getId(), claim.town().getDisplayColor());
+            townChunks.computeIfAbsent(claim.town().getId(), k -> new ArrayList<>()).add(claim.claim().getChunk());
         }
+        townChunks.forEach((townId, chunks) -> ChunkShapes.trace(chunks).forEach(
+            shape -> this.shapes.computeIfAbsent(townColors.get(townId), k -> new ArrayList<>())
+                .add(ParticleShape.of(shape, world))
+        ));
     }
 
     public void show(long duration) {
         if (done) {
             return;
         }
-        final AtomicLong currentTicks = new AtomicLong();
-        this.task = plugin.getRepeatingTask(() -> {
-            if (currentTicks.addAndGet(PARTICLE_FREQUENCY) > duration) {
-                cancel();
-                return;
-            }
-            this.chunks.forEach((color, chunks) -> chunks.forEach(chunk -> chunk.getLines().stream()
-                .map(line -> line.getInterpolatedPositions(plugin))
-                .forEach(line -> line.forEach(point -> user.spawnMarkerParticle(point, color, PARTICLE_COUNT)))));
-        }, PARTICLE_FREQUENCY);
-        this.task.run();
+        this.remainingTicks = duration;
+        plugin.getVisualizerScheduler().schedule(this);
+    }
+
+    // Count down the time left to show the visualizer for, returning false once it has expired
+    boolean tick(long ticks) {
+        if (done) {
+            return false;
+        }
+        remainingTicks -= ticks;
+        if (remainingTicks < 0) {
+            this.done = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Draw the outlines within view distance of the user, showing at most {@code budget} particles
+     *
+     * @param budget       the maximum number of particles to show
+     * @param viewDistance the distance from the user, in blocks, within which to show particles
+     * @param scheduler    the scheduler to record the number of particles shown, culled and dropped against
+     * @return the number of particles shown
+     */
+    int draw(int budget, double viewDistance, @NotNull VisualizerScheduler scheduler) {
+        final Position position = user.getPosition();
+        if (!position.getWorld().equals(world)) {
+            return 0;
+        }
+
+        final double x = position.getX();
+        final double z = position.getZ();
+        final double maxDistanceSquared = viewDistance * viewDistance;
+        final Map<TextColor, ParticleOutline> outlines = getOutlines();
+        final Map<TextColor, Integer> visible = new HashMap<>();
+        int total = 0;
+        int inRange = 0;
+        for (Map.Entry<TextColor, ParticleOutline> entry : outlines.entrySet()) {
+            final int count = entry.getValue().countWithin(x, z, maxDistanceSquared);
+            visible.put(entry.getKey(), count);
+            total += entry.getValue().size();
+            inRange += count;
+        }
+        if (inRange == 0 || budget <= 0) {
+            scheduler.record(0, total - inRange, inRange);
+            return 0;
+        }
+
+        // Over budget, show every nth point, shifting which ones each redraw so the whole outline still gets drawn
+        final int stride = (inRange + budget - 1) / budget;
+        final int phase = redraws++ % stride;
+        int shown = 0;
+        int start = 0;
+        for (Map.Entry<TextColor, ParticleOutline> entry : outlines.entrySet()) {
+            shown += entry.getValue().draw(user, entry.getKey(), PARTICLE_COUNT, x, z, maxDistanceSquared,
+                stride, Math.floorMod(phase - start, stride));
+            start += visible.get(entry.getKey());
+        }
+        scheduler.record(shown, total - inRange, inRange - shown);
+        return shown;
+    }
+
+    // Outlines are computed on the first tick they are shown, then redrawn from the same buffers
+    @NotNull
+    private Map<TextColor, ParticleOutline> getOutlines() {
+        if (outlines == null) {
+            final Map<TextColor, ParticleOutline> computed = new HashMap<>();
+            shapes.forEach((color, shapes) -> computed.put(color, ParticleOutline.of(
+                shapes.stream().flatMap(shape -> shape.getLines().stream()).toList(), world, plugin
+            )));
+            outlines = computed;
+        }
+        return outlines;
     }
 
     public void cancel() {
         if (done) {
             return;
         }
-        if (task != null) {
-            task.cancel();
-        }
         this.done = true;
+        plugin.getVisualizerScheduler().unschedule(this);
     }
 
 }
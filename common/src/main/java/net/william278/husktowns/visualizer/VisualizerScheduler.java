@@ -0,0 +1,138 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.visualizer;
+
+import net.william278.husktowns.HuskTowns;
+import net.william278.husktowns.config.Settings;
+import net.william278.husktowns.util.Task;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Redraws every active {@link Visualizer} from a single repeating task, sharing out a budget of particles between them.
+ * <p>
+ * Each redraw, points further from a player than the configured view distance are culled, and each player is shown
+ * at most their share of the global particle budget (capped at the per-player budget). Counts of particles sent,
+ * culled and dropped for being over budget are kept for the {@code /husktowns status} report.
+ */
+public class VisualizerScheduler {
+
+    private static final long PARTICLE_FREQUENCY = 10L;
+
+    private final HuskTowns plugin;
+    private final Set<Visualizer> visualizers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong particlesSent = new AtomicLong();
+    private final AtomicLong particlesCulled = new AtomicLong();
+    private final AtomicLong particlesDropped = new AtomicLong();
+    private Task.Repeating task = null;
+
+    public VisualizerScheduler(@NotNull HuskTowns plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Start redrawing a visualizer
+     *
+     * @param visualizer the visualizer
+     */
+    public synchronized void schedule(@NotNull Visualizer visualizer) {
+        visualizers.add(visualizer);
+        if (task == null) {
+            task = plugin.getRepeatingTask(this::redraw, PARTICLE_FREQUENCY);
+            task.run();
+        }
+    }
+
+    /**
+     * Stop redrawing a visualizer
+     *
+     * @param visualizer the visualizer
+     */
+    public synchronized void unschedule(@NotNull Visualizer visualizer) {
+        visualizers.remove(visualizer);
+        if (visualizers.isEmpty() && task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private void redraw() {
+        final Settings.GeneralSettings.ClaimVisualizerSettings settings = plugin.getSettings().getGeneral()
+            .getClaimVisualizer();
+        final List<Visualizer> active = List.copyOf(visualizers);
+        int remaining = settings.getMaxParticlesTotal();
+        int viewers = active.size();
+        for (Visualizer visualizer : active) {
+            final int budget = Math.min(settings.getMaxParticlesPerPlayer(), remaining / viewers--);
+            if (!visualizer.tick(PARTICLE_FREQUENCY)) {
+                unschedule(visualizer);
+                continue;
+            }
+            remaining -= visualizer.draw(budget, settings.getViewDistance(), this);
+        }
+    }
+
+    void record(int sent, int culled, int dropped) {
+        particlesSent.addAndGet(sent);
+        particlesCulled.addAndGet(culled);
+        particlesDropped.addAndGet(dropped);
+    }
+
+    /**
+     * Get the number of visualizers currently being shown
+     *
+     * @return the number of active visualizers
+     */
+    public int getActiveCount() {
+        return visualizers.size();
+    }
+
+    /**
+     * Get the number of particles (and so particle packets) sent to players since the server started
+     *
+     * @return the number of particles sent
+     */
+    public long getParticlesSent() {
+        return particlesSent.get();
+    }
+
+    /**
+     * Get the number of particles not sent because they were outside a player's view distance
+     *
+     * @return the number of particles culled
+     */
+    public long getParticlesCulled() {
+        return particlesCulled.get();
+    }
+
+    /**
+     * Get the number of particles in view distance not sent because a particle budget was exhausted
+     *
+     * @return the number of particles dropped
+     */
+    public long getParticlesDropped() {
+        return particlesDropped.get();
+    }
+
+}
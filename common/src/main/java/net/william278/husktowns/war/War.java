@@ -193,18 +193,10 @@ public class War {
                     .send(broker, delegate));
             },
             () -> {
-                plugin.getDatabase().getTown(getAttacking())
-                    .ifPresent(attacking -> {
-                        endForTown(attacking, false, state);
-                        plugin.updateTown(attacking);
-                        plugin.getDatabase().updateTown(attacking);
-                    });
-                plugin.getDatabase().getTown(getDefending())
-                    .ifPresent(defending -> {
-                        endForTown(defending, true, state);
-                        plugin.updateTown(defending);
-                        plugin.getDatabase().updateTown(defending);
-                    });
+                plugin.findTown(getAttacking()).ifPresent(town -> plugin.getManager().editTown(town,
+                    (attacking -> endForTown(attacking, false, state))));
+                plugin.findTown(getDefending()).ifPresent(town -> plugin.getManager().editTown(town,
+                    (defending -> endForTown(defending, true, state))));
             }
         );
         if (!plugin.getSettings().getCrossServer().isEnabled() || getHostServer().equals(plugin.getServerName())) {
@@ -305,9 +297,8 @@ public class War {
 
     @NotNull
     private List<OnlineUser> getOnlineAttackers(@NotNull HuskTowns plugin, boolean onlyAlive) {
-        return plugin.getOnlineUsers().stream()
-            .filter(user -> (onlyAlive ? this.aliveAttackers : getAttacking(plugin).getMembers().keySet())
-                .contains(user.getUuid()))
+        return plugin.getTowns().getOnlineMembers(getAttacking()).stream()
+            .filter(user -> !onlyAlive || this.aliveAttackers.contains(user.getUuid()))
             .collect(Collectors.toUnmodifiableList());
     }
 
@@ -319,9 +310,8 @@ public class War {
 
     @NotNull
     private List<OnlineUser> getOnlineDefenders(@NotNull HuskTowns plugin, boolean onlyAlive) {
-        return plugin.getOnlineUsers().stream()
-            .filter(user -> (onlyAlive ? this.aliveDefenders : getDefending(plugin).getMembers().keySet())
-                .contains(user.getUuid()))
+        return plugin.getTowns().getOnlineMembers(getDefending()).stream()
+            .filter(user -> !onlyAlive || this.aliveDefenders.contains(user.getUuid()))
             .collect(Collectors.toUnmodifiableList());
     }
 
@@ -22,6 +22,7 @@ CREATE TABLE IF NOT EXISTS `%user_data%`
 ) ENGINE = InnoDB
   DEFAULT CHARSET = utf8mb4
   COLLATE = utf8mb4_unicode_ci;
+CREATE INDEX IF NOT EXISTS `%user_data%_last_login` ON `%user_data%` (`last_login`);
 CREATE INDEX IF NOT EXISTS `%user_data%_username` ON `%user_data%` (`username`);
 
 -- Create the towns table if it does not exist
@@ -42,8 +43,40 @@ CREATE TABLE IF NOT EXISTS `%claim_data%`
     `server_name`       varchar(255) NOT NULL,
     `world_uuid`        char(36)     NOT NULL,
     `world_name`        varchar(128) NOT NULL,
-    `world_environment` varchar(32)  NOT NULL,
-    `claims`            longblob     NOT NULL
+    `world_environment` varchar(32)  NOT NULL
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4
+  COLLATE = utf8mb4_unicode_ci;
+
+-- Create the claims table if it does not exist
+CREATE TABLE IF NOT EXISTS `%claim_chunk_data%`
+(
+    `world_id` int      NOT NULL,
+    `chunk_x`  int      NOT NULL,
+    `chunk_z`  int      NOT NULL,
+    `town_id`  int      NOT NULL,
+    `data`     longblob NOT NULL,
+
+    PRIMARY KEY (`world_id`, `chunk_x`, `chunk_z`),
+    INDEX `%claim_chunk_data%_town` (`world_id`, `town_id`),
+    FOREIGN KEY (`world_id`) REFERENCES `%claim_data%` (`id`) ON DELETE CASCADE
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4
+  COLLATE = utf8mb4_unicode_ci;
+
+-- Create the town log table if it does not exist
+CREATE TABLE IF NOT EXISTS `%town_log%`
+(
+    `id`        bigint      NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    `town_id`   int         NOT NULL,
+    `timestamp` datetime(3) NOT NULL,
+    `action`    varchar(64) NOT NULL,
+    `user_uuid` char(36),
+    `username`  varchar(16),
+    `details`   text,
+
+    INDEX `%town_log%_town` (`town_id`, `timestamp`),
+    FOREIGN KEY (`town_id`) REFERENCES `%town_data%` (`id`) ON DELETE CASCADE
 ) ENGINE = InnoDB
   DEFAULT CHARSET = utf8mb4
   COLLATE = utf8mb4_unicode_ci;
\ No newline at end of file
@@ -0,0 +1,15 @@
+# Create the claims table if it does not exist (claims are copied into it from the claim worlds table after this)
+CREATE TABLE IF NOT EXISTS `%claim_chunk_data%`
+(
+    `world_id` int      NOT NULL,
+    `chunk_x`  int      NOT NULL,
+    `chunk_z`  int      NOT NULL,
+    `town_id`  int      NOT NULL,
+    `data`     longblob NOT NULL,
+
+    PRIMARY KEY (`world_id`, `chunk_x`, `chunk_z`),
+    INDEX `%claim_chunk_data%_town` (`world_id`, `town_id`),
+    FOREIGN KEY (`world_id`) REFERENCES `%claim_data%` (`id`) ON DELETE CASCADE
+) ENGINE = InnoDB
+    DEFAULT CHARSET = utf8mb4
+    COLLATE = utf8mb4_unicode_ci;
\ No newline at end of file
@@ -0,0 +1,13 @@
+-- Create the claims table if it does not exist (claims are copied into it from the claim worlds table after this)
+CREATE TABLE IF NOT EXISTS `%claim_chunk_data%`
+(
+    `world_id` integer  NOT NULL,
+    `chunk_x`  integer  NOT NULL,
+    `chunk_z`  integer  NOT NULL,
+    `town_id`  integer  NOT NULL,
+    `data`     longblob NOT NULL,
+
+    PRIMARY KEY (`world_id`, `chunk_x`, `chunk_z`),
+    FOREIGN KEY (`world_id`) REFERENCES `%claim_data%` (`id`) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS `%claim_chunk_data%_town` ON `%claim_chunk_data%` (`world_id`, `town_id`);
\ No newline at end of file
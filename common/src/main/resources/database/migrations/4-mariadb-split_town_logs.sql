@@ -0,0 +1,16 @@
+# Create the town log table if it does not exist (town logs are moved into it from the town data after this)
+CREATE TABLE IF NOT EXISTS `%town_log%`
+(
+    `id`        bigint      NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    `town_id`   int         NOT NULL,
+    `timestamp` datetime(3) NOT NULL,
+    `action`    varchar(64) NOT NULL,
+    `user_uuid` char(36),
+    `username`  varchar(16),
+    `details`   text,
+
+    INDEX `%town_log%_town` (`town_id`, `timestamp`),
+    FOREIGN KEY (`town_id`) REFERENCES `%town_data%` (`id`) ON DELETE CASCADE
+) ENGINE = InnoDB
+    DEFAULT CHARSET = utf8mb4
+    COLLATE = utf8mb4_unicode_ci;
\ No newline at end of file
@@ -0,0 +1,14 @@
+-- Create the town log table if it does not exist (town logs are moved into it from the town data after this)
+CREATE TABLE IF NOT EXISTS `%town_log%`
+(
+    `id`        integer     NOT NULL PRIMARY KEY AUTOINCREMENT,
+    `town_id`   integer     NOT NULL,
+    `timestamp` timestamp   NOT NULL,
+    `action`    varchar(64) NOT NULL,
+    `user_uuid` char(36),
+    `username`  varchar(16),
+    `details`   text,
+
+    FOREIGN KEY (`town_id`) REFERENCES `%town_data%` (`id`) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS `%town_log%_town` ON `%town_log%` (`town_id`, `timestamp`);
\ No newline at end of file
@@ -0,0 +1,4 @@
+-- Index users by last login, for finding inactive users, and by username, for looking users up by name
+-- (the username column uses a case-insensitive collation, so this index serves lookups in any case)
+CREATE INDEX IF NOT EXISTS `%user_data%_last_login` ON `%user_data%` (`last_login`);
+CREATE INDEX IF NOT EXISTS `%user_data%_username` ON `%user_data%` (`username`);
\ No newline at end of file
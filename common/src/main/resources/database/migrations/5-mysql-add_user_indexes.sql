@@ -0,0 +1,5 @@
+# Index users by last login, for finding inactive users, and by username, for looking users up by name
+# (the username column uses a case-insensitive collation, so this index serves lookups in any case)
+ALTER TABLE `%user_data%`
+    ADD INDEX `%user_data%_last_login` (`last_login`),
+    ADD INDEX `%user_data%_username` (`username`);
\ No newline at end of file
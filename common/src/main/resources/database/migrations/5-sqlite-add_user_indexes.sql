@@ -0,0 +1,9 @@
+-- Convert last login times left as text by the column default to milliseconds, as all others are stored,
+-- so they can be compared against directly
+UPDATE `%user_data%`
+SET `last_login` = CAST((julianday(`last_login`) - 2440587.5) * 86400000 AS INTEGER)
+WHERE typeof(`last_login`) = 'text';
+
+-- Index users by last login, for finding inactive users, and by lower-cased username, for looking users up by name
+CREATE INDEX IF NOT EXISTS `%user_data%_last_login` ON `%user_data%` (`last_login`);
+CREATE INDEX IF NOT EXISTS `%user_data%_username` ON `%user_data%` (lower(`username`));
\ No newline at end of file
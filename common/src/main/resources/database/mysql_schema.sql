@@ -17,7 +17,10 @@ CREATE TABLE IF NOT EXISTS `%user_data%`
     `uuid`        char(36)    NOT NULL UNIQUE PRIMARY KEY,
     `username`    varchar(16) NOT NULL,
     `last_login`  timestamp   NOT NULL DEFAULT CURRENT_TIMESTAMP,
-    `preferences` longblob    NOT NULL
+    `preferences` longblob    NOT NULL,
+
+    INDEX `%user_data%_last_login` (`last_login`),
+    INDEX `%user_data%_username` (`username`)
 ) CHARACTER SET utf8
   COLLATE utf8_unicode_ci;
 
@@ -37,7 +40,37 @@ CREATE TABLE IF NOT EXISTS `%claim_data%`
     `server_name`       varchar(255) NOT NULL,
     `world_uuid`        char(36)     NOT NULL,
     `world_name`        varchar(128) NOT NULL,
-    `world_environment` varchar(32)  NOT NULL,
-    `claims`            longblob     NOT NULL
+    `world_environment` varchar(32)  NOT NULL
+) CHARACTER SET utf8
+  COLLATE utf8_unicode_ci;
+
+# Create the claims table if it does not exist
+CREATE TABLE IF NOT EXISTS `%claim_chunk_data%`
+(
+    `world_id` int      NOT NULL,
+    `chunk_x`  int      NOT NULL,
+    `chunk_z`  int      NOT NULL,
+    `town_id`  int      NOT NULL,
+    `data`     longblob NOT NULL,
+
+    PRIMARY KEY (`world_id`, `chunk_x`, `chunk_z`),
+    INDEX `%claim_chunk_data%_town` (`world_id`, `town_id`),
+    FOREIGN KEY (`world_id`) REFERENCES `%claim_data%` (`id`) ON DELETE CASCADE
+) CHARACTER SET utf8
+  COLLATE utf8_unicode_ci;
+
+# Create the town log table if it does not exist
+CREATE TABLE IF NOT EXISTS `%town_log%`
+(
+    `id`        bigint      NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    `town_id`   int         NOT NULL,
+    `timestamp` datetime(3) NOT NULL,
+    `action`    varchar(64) NOT NULL,
+    `user_uuid` char(36),
+    `username`  varchar(16),
+    `details`   text,
+
+    INDEX `%town_log%_town` (`town_id`, `timestamp`),
+    FOREIGN KEY (`town_id`) REFERENCES `%town_data%` (`id`) ON DELETE CASCADE
 ) CHARACTER SET utf8
   COLLATE utf8_unicode_ci;
\ No newline at end of file
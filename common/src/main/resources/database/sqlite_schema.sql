@@ -14,6 +14,8 @@ CREATE TABLE IF NOT EXISTS `%user_data%`
 
     PRIMARY KEY (`uuid`)
 );
+CREATE INDEX IF NOT EXISTS `%user_data%_last_login` ON `%user_data%` (`last_login`);
+CREATE INDEX IF NOT EXISTS `%user_data%_username` ON `%user_data%` (lower(`username`));
 
 -- Create the towns table if it does not exist
 CREATE TABLE IF NOT EXISTS `%town_data%`
@@ -30,6 +32,34 @@ CREATE TABLE IF NOT EXISTS `%claim_data%`
     `server_name`       varchar(255) NOT NULL,
     `world_uuid`        char(36)     NOT NULL,
     `world_name`        varchar(128) NOT NULL,
-    `world_environment` varchar(32)  NOT NULL,
-    `claims`            longblob     NOT NULL
-);
\ No newline at end of file
+    `world_environment` varchar(32)  NOT NULL
+);
+
+-- Create the claims table if it does not exist
+CREATE TABLE IF NOT EXISTS `%claim_chunk_data%`
+(
+    `world_id` integer  NOT NULL,
+    `chunk_x`  integer  NOT NULL,
+    `chunk_z`  integer  NOT NULL,
+    `town_id`  integer  NOT NULL,
+    `data`     longblob NOT NULL,
+
+    PRIMARY KEY (`world_id`, `chunk_x`, `chunk_z`),
+    FOREIGN KEY (`world_id`) REFERENCES `%claim_data%` (`id`) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS `%claim_chunk_data%_town` ON `%claim_chunk_data%` (`world_id`, `town_id`);
+
+-- Create the town log table if it does not exist
+CREATE TABLE IF NOT EXISTS `%town_log%`
+(
+    `id`        integer     NOT NULL PRIMARY KEY AUTOINCREMENT,
+    `town_id`   integer     NOT NULL,
+    `timestamp` timestamp   NOT NULL,
+    `action`    varchar(64) NOT NULL,
+    `user_uuid` char(36),
+    `username`  varchar(16),
+    `details`   text,
+
+    FOREIGN KEY (`town_id`) REFERENCES `%town_data%` (`id`) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS `%town_log%_town` ON `%town_log%` (`town_id`, `timestamp`);
\ No newline at end of file
@@ -0,0 +1,88 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.claim;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Claim Index Tests")
+public class ClaimIndexTests {
+
+    @Test
+    @DisplayName("Test Put, Get and Remove")
+    public void testPutGetRemove() {
+        final ClaimIndex<String> index = new ClaimIndex<>();
+        index.put(Chunk.asLong(0, 0), "origin");
+        index.put(Chunk.asLong(-1, 5), "negative");
+        index.put(Chunk.asLong(0, 0), "replaced");
+
+        assertEquals(2, index.size());
+        assertEquals("replaced", index.get(Chunk.asLong(0, 0)));
+        assertEquals("negative", index.get(Chunk.asLong(-1, 5)));
+        assertNull(index.get(Chunk.asLong(5, -1)));
+
+        assertEquals("negative", index.remove(Chunk.asLong(-1, 5)));
+        assertNull(index.remove(Chunk.asLong(-1, 5)));
+        assertNull(index.get(Chunk.asLong(-1, 5)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("Test Index Matches HashMap Under Random Edits")
+    public void testMatchesHashMap() {
+        final ClaimIndex<Integer> index = new ClaimIndex<>();
+        final Map<Long, Integer> expected = new HashMap<>();
+        final Random random = new Random(278);
+        for (int i = 0; i < 50_000; i++) {
+            final long key = Chunk.asLong(random.nextInt(200) - 100, random.nextInt(200) - 100);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), index.remove(key));
+            } else {
+                expected.put(key, i);
+                index.put(key, i);
+            }
+        }
+
+        assertEquals(expected.size(), index.size());
+        expected.forEach((key, value) -> assertEquals(value, index.get(key)));
+    }
+
+    @Test
+    @DisplayName("Test Remove If")
+    public void testRemoveIf() {
+        final ClaimIndex<Integer> index = new ClaimIndex<>();
+        for (int x = 0; x < 100; x++) {
+            index.put(Chunk.asLong(x, x), x);
+        }
+
+        assertEquals(50, index.removeIf(value -> value % 2 == 0));
+        assertEquals(50, index.size());
+        for (int x = 0; x < 100; x++) {
+            assertEquals(x % 2 == 0 ? null : x, index.get(Chunk.asLong(x, x)));
+        }
+    }
+
+}
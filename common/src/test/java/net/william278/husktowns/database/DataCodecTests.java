@@ -0,0 +1,152 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.database;
+
+import net.william278.husktowns.claim.Chunk;
+import net.william278.husktowns.claim.Claim;
+import net.william278.husktowns.town.Town;
+import net.william278.husktowns.util.GsonProvider;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Data Codec Tests")
+public class DataCodecTests {
+
+    private static final GsonProvider GSON = new GsonProvider() {
+    };
+    private static final DataCodec BINARY = new DataCodec(GSON, () -> DataCodec.Format.BINARY, () -> false);
+    private static final DataCodec COMPRESSED = new DataCodec(GSON, () -> DataCodec.Format.BINARY, () -> true);
+    private static final DataCodec JSON = new DataCodec(GSON, () -> DataCodec.Format.JSON, () -> true);
+
+    @Test
+    @DisplayName("Test Encoding Towns Uncompressed")
+    public void testUncompressedTown() {
+        final Town town = town();
+        final byte[] data = BINARY.encodeTown(town);
+        assertTrue(DataCodec.isBinary(data));
+        assertEquals(0, data[2] & 1, "Town should not be compressed");
+        assertTownEquals(town, BINARY.decodeTown(data));
+    }
+
+    @Test
+    @DisplayName("Test Encoding Towns Compressed")
+    public void testCompressedTown() {
+        final Town town = town();
+        final byte[] data = COMPRESSED.encodeTown(town);
+        assertTrue(DataCodec.isBinary(data));
+        assertEquals(1, data[2] & 1, "Town should be compressed");
+        assertTrue(data.length < BINARY.encodeTown(town).length);
+        assertTownEquals(town, COMPRESSED.decodeTown(data));
+
+        // Data saved in any format can be read whatever the current format is
+        assertTownEquals(town, JSON.decodeTown(data));
+        assertTownEquals(town, COMPRESSED.decodeTown(JSON.encodeTown(town)));
+    }
+
+    @Test
+    @DisplayName("Test Encoding Claims With Negative Coordinates And Plot Members")
+    public void testClaims() {
+        final UUID member = UUID.randomUUID();
+        final UUID manager = UUID.randomUUID();
+        final Claim plot = Claim.at(Chunk.at(-1_000_000, Integer.MIN_VALUE));
+        plot.setType(Claim.Type.PLOT);
+        plot.setPlotMember(member, false);
+        plot.setPlotMember(manager, true);
+
+        final Claim decoded = BINARY.decodeClaim(BINARY.encodeClaim(plot));
+        assertEquals(-1_000_000, decoded.getChunk().getX());
+        assertEquals(Integer.MIN_VALUE, decoded.getChunk().getZ());
+        assertEquals(Claim.Type.PLOT, decoded.getType());
+        assertEquals(Set.of(member, manager), decoded.getPlotMembers());
+        assertFalse(decoded.isPlotManager(member));
+        assertTrue(decoded.isPlotManager(manager));
+
+        final Claim farm = Claim.at(Chunk.at(-3, 7));
+        farm.setType(Claim.Type.FARM);
+        final byte[] data = COMPRESSED.encodeClaim(farm);
+        assertEquals(0, data[2] & 1, "Claims should never be compressed");
+        final Claim decodedFarm = COMPRESSED.decodeClaim(data);
+        assertEquals(-3, decodedFarm.getChunk().getX());
+        assertEquals(7, decodedFarm.getChunk().getZ());
+        assertEquals(Claim.Type.FARM, decodedFarm.getType());
+    }
+
+    @Test
+    @DisplayName("Test Decoding Legacy JSON Rows")
+    public void testLegacyJson() {
+        final Town town = BINARY.decodeTown("""
+            {"name": "Oldtown", "bio": "Founded long ago", "money": 5, "members": {}}"""
+            .getBytes(StandardCharsets.UTF_8));
+        assertEquals("Oldtown", town.getName());
+        assertEquals("Founded long ago", town.getBio().orElseThrow());
+        assertEquals(0, new BigDecimal(5).compareTo(town.getMoney()));
+        assertEquals(Town.CURRENT_SCHEMA, town.getSchemaVersion());
+
+        final Claim claim = Claim.at(Chunk.at(-12, 34));
+        claim.setType(Claim.Type.FARM);
+        final Claim decoded = BINARY.decodeClaim(GSON.getGson().toJson(claim).getBytes(StandardCharsets.UTF_8));
+        assertEquals(-12, decoded.getChunk().getX());
+        assertEquals(34, decoded.getChunk().getZ());
+        assertEquals(Claim.Type.FARM, decoded.getType());
+    }
+
+    @Test
+    @DisplayName("Test Rejecting Malformed Binary Data")
+    public void testMalformedData() {
+        final byte[] town = COMPRESSED.encodeTown(town());
+        assertThrows(IllegalArgumentException.class, () -> BINARY.decodeTown(Arrays.copyOf(town, 2)));
+        final byte[] future = town.clone();
+        future[1] = (byte) (DataCodec.VERSION + 1);
+        assertThrows(IllegalArgumentException.class, () -> BINARY.decodeTown(future));
+
+        final byte[] claim = BINARY.encodeClaim(Claim.at(Chunk.at(1, 2)));
+        assertThrows(IllegalArgumentException.class, () -> BINARY.decodeClaim(Arrays.copyOf(claim, 4)));
+    }
+
+    private static Town town() {
+        final Map<UUID, Integer> members = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            members.put(UUID.randomUUID(), i % 3);
+        }
+        return Town.builder()
+            .name("Ætherton")
+            .members(members)
+            .level(4)
+            .money(new BigDecimal("1234.56"))
+            .schemaVersion(Town.CURRENT_SCHEMA)
+            .version(9)
+            .build();
+    }
+
+    private static void assertTownEquals(Town expected, Town actual) {
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getMembers(), actual.getMembers());
+        assertEquals(expected.getLevel(), actual.getLevel());
+        assertEquals(0, expected.getMoney().compareTo(actual.getMoney()));
+        assertEquals(expected.getVersion(), actual.getVersion());
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.hook.map;
+
+import net.william278.husktowns.claim.Chunk;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Chunk Shapes Tests")
+public class ChunkShapesTests {
+
+    @Test
+    @DisplayName("Test Adjacent Chunks Merge Into One Outline")
+    public void testMergesAdjacentChunks() {
+        final List<ChunkShapes.Shape> shapes = ChunkShapes.trace(List.of(
+            Chunk.at(0, 0), Chunk.at(1, 0), Chunk.at(0, 1), Chunk.at(5, 5)
+        ));
+
+        assertEquals(2, shapes.size());
+        assertArrayEquals(new int[]{0, 0, 2, 0, 2, 1, 1, 1, 1, 2, 0, 2}, shapes.get(0).outline());
+        assertArrayEquals(new int[]{5, 5, 6, 5, 6, 6, 5, 6}, shapes.get(1).outline());
+        assertTrue(shapes.stream().allMatch(shape -> shape.holes().isEmpty()));
+    }
+
+    @Test
+    @DisplayName("Test Enclosed Unclaimed Chunks Are Traced As Holes")
+    public void testTracesHoles() {
+        final List<Chunk> chunks = new ArrayList<>();
+        for (int x = 0; x < 3; x++) {
+            for (int z = 0; z < 3; z++) {
+                if (x != 1 || z != 1) {
+                    chunks.add(Chunk.at(x, z));
+                }
+            }
+        }
+        final List<ChunkShapes.Shape> shapes = ChunkShapes.trace(chunks);
+
+        assertEquals(1, shapes.size());
+        assertArrayEquals(new int[]{0, 0, 3, 0, 3, 3, 0, 3}, shapes.get(0).outline());
+        assertEquals(1, shapes.get(0).holes().size());
+        assertArrayEquals(new int[]{1, 1, 2, 1, 2, 2, 1, 2}, shapes.get(0).holes().get(0));
+    }
+
+}
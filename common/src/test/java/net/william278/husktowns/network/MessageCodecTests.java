@@ -0,0 +1,110 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.network;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import net.william278.husktowns.user.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Message Codec Tests")
+public class MessageCodecTests {
+
+    private static final MessageCodec CODEC = new MessageCodec(
+        new GsonBuilder().excludeFieldsWithoutExposeAnnotation().create(), 1024
+    );
+
+    @Test
+    @DisplayName("Test Encoding Small Message Uncompressed")
+    public void testSmallMessage() {
+        final UUID uuid = UUID.randomUUID();
+        final Message decoded = CODEC.decode(CODEC.encode(message(Message.Type.TOWN_EVICTED, Payload.uuid(uuid))));
+
+        assertEquals(Message.Type.TOWN_EVICTED, decoded.getType());
+        assertEquals(Message.TargetType.SERVER, decoded.getTargetType());
+        assertEquals(Message.TARGET_ALL, decoded.getTarget());
+        assertEquals("Steve", decoded.getSender());
+        assertEquals("lobby", decoded.getSourceServer());
+        assertEquals(uuid, decoded.getPayload().getUuid().orElseThrow());
+        assertTrue(decoded.getPayload().getInteger().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test Encoding Large User List Compressed")
+    public void testLargeUserList() {
+        final List<User> users = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            users.add(User.of(UUID.randomUUID(), "Player" + i));
+        }
+        final byte[] frame = CODEC.encode(message(Message.Type.UPDATE_USER_LIST, Payload.userList(users)));
+        assertTrue(frame.length > 65_535 / 2);
+        assertEquals(1, frame[2] & 1, "Frame should be compressed");
+
+        final List<User> decoded = CODEC.decode(frame).getPayload().getUserList().orElseThrow();
+        assertEquals(users.size(), decoded.size());
+        for (int i = 0; i < users.size(); i++) {
+            assertEquals(users.get(i).getUuid(), decoded.get(i).getUuid());
+            assertEquals(users.get(i).getName(), decoded.get(i).getName());
+        }
+    }
+
+    @Test
+    @DisplayName("Test Encoding Town Updates")
+    public void testTownUpdates() {
+        final JsonObject town = new JsonObject();
+        town.addProperty("name", "\u00C6therton");
+        town.addProperty("money", 12.5);
+        final TownUpdate full = CODEC.decode(CODEC.encode(message(Message.Type.TOWN_UPDATE,
+            Payload.townUpdate(TownUpdate.full(7, 3, town))))).getPayload().getTownUpdate().orElseThrow();
+        assertEquals(7, full.getTownId());
+        assertEquals(3, full.getVersion());
+        assertEquals(town, full.getTown().orElseThrow());
+
+        final TownUpdate delta = CODEC.decode(CODEC.encode(message(Message.Type.TOWN_UPDATE,
+            Payload.townUpdate(TownUpdate.delta(7, 4, 3, town, List.of("bio")))))).getPayload()
+            .getTownUpdate().orElseThrow();
+        assertEquals(3, delta.getBaseVersion().orElseThrow());
+        assertEquals(town, delta.getChanges());
+        assertEquals(List.of("bio"), delta.getRemoved());
+    }
+
+    @Test
+    @DisplayName("Test Rejecting Malformed Frames")
+    public void testMalformedFrames() {
+        final byte[] frame = CODEC.encode(message(Message.Type.TOWN_CHAT_MESSAGE, Payload.string("Hello")));
+        assertThrows(IllegalArgumentException.class, () -> CODEC.decode("{}".getBytes()));
+        assertThrows(IllegalArgumentException.class, () -> CODEC.decode(
+            Arrays.copyOf(frame, frame.length - 2)
+        ));
+    }
+
+    private static Message message(Message.Type type, Payload payload) {
+        return new Message(type, Message.TARGET_ALL, Message.TargetType.SERVER, payload, "Steve", "lobby");
+    }
+
+}
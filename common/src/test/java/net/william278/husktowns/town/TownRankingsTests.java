@@ -0,0 +1,75 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.town;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Town Rankings Tests")
+public class TownRankingsTests {
+
+    @Test
+    @DisplayName("Test Towns Are Re-Ranked When Replaced And Removed")
+    public void testRankingUpdates() {
+        final TownRegistry towns = new TownRegistry();
+        towns.put(town(1, "Alpha", 3));
+        towns.put(town(2, "Bravo", 1));
+        towns.put(town(3, "Charlie", 2));
+
+        final TownRankings rankings = towns.getRankings();
+        assertEquals(List.of("Alpha", "Charlie", "Bravo"), names(rankings.getRanked(TownRankings.Key.LEVEL, false)));
+        assertEquals(List.of("Bravo", "Charlie", "Alpha"), names(rankings.getRanked(TownRankings.Key.LEVEL, true)));
+
+        final Town levelledUp = town(2, "Bravo", 5);
+        towns.put(levelledUp);
+        assertEquals(List.of("Bravo", "Alpha", "Charlie"), names(rankings.getRanked(TownRankings.Key.LEVEL, false)));
+        assertEquals(0, rankings.getPosition(TownRankings.Key.LEVEL, false, levelledUp));
+        assertEquals(2, rankings.getPosition(TownRankings.Key.LEVEL, true, levelledUp));
+
+        towns.remove(levelledUp);
+        assertEquals(List.of("Alpha", "Charlie"), names(rankings.getRanked(TownRankings.Key.LEVEL, false)));
+        assertEquals(-1, rankings.getPosition(TownRankings.Key.LEVEL, false, levelledUp));
+    }
+
+    @Test
+    @DisplayName("Test Ties Are Ranked By Name")
+    public void testTiesRankedByName() {
+        final TownRegistry towns = new TownRegistry();
+        towns.put(town(1, "Charlie", 1));
+        towns.put(town(2, "Alpha", 1));
+        towns.put(town(3, "Bravo", 1));
+
+        assertEquals(List.of("Alpha", "Bravo", "Charlie"),
+            names(towns.getRankings().getRanked(TownRankings.Key.LEVEL, true)));
+    }
+
+    private static Town town(int id, String name, int level) {
+        return Town.builder().id(id).name(name).level(level).build();
+    }
+
+    private static List<String> names(List<Town> towns) {
+        return towns.stream().map(Town::getName).toList();
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * This file is part of HuskTowns, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.husktowns.town;
+
+import net.william278.husktowns.user.OnlineUser;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Town Registry Tests")
+public class TownRegistryTests {
+
+    private static final UUID MAYOR = UUID.randomUUID();
+    private static final UUID MEMBER = UUID.randomUUID();
+
+    @Test
+    @DisplayName("Test Towns Are Re-Indexed When Renamed And Members Change")
+    public void testReindexing() {
+        final TownRegistry towns = new TownRegistry();
+        towns.put(town(1, "Alpha", MAYOR, MEMBER));
+        assertEquals(1, Objects.requireNonNull(towns.getByName("alpha")).getId());
+        assertEquals(1, Objects.requireNonNull(towns.getByMember(MEMBER)).getId());
+
+        towns.put(town(1, "Bravo", MAYOR));
+        assertNull(towns.getByName("Alpha"));
+        assertEquals("Bravo", Objects.requireNonNull(towns.getByName("BRAVO")).getName());
+        assertEquals(1, Objects.requireNonNull(towns.getByMember(MAYOR)).getId());
+        assertNull(towns.getByMember(MEMBER));
+
+        towns.put(town(2, "Charlie", MEMBER));
+        towns.remove(Objects.requireNonNull(towns.getById(1)));
+        assertNull(towns.getByName("Bravo"));
+        assertNull(towns.getByMember(MAYOR));
+        assertEquals(2, Objects.requireNonNull(towns.getByMember(MEMBER)).getId());
+    }
+
+    @Test
+    @DisplayName("Test Members Are Found While Their Town Is Replaced")
+    public void testLookupDuringPut() throws InterruptedException {
+        final TownRegistry towns = new TownRegistry();
+        towns.put(town(1, "Alpha", MAYOR));
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicInteger misses = new AtomicInteger();
+        final Thread reader = new Thread(() -> {
+            while (running.get()) {
+                if (towns.getByMember(MAYOR) == null || towns.getByName("Alpha") == null) {
+                    misses.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 20_000; i++) {
+            towns.put(i % 2 == 0 ? town(1, "Alpha", MAYOR, MEMBER) : town(1, "Alpha", MAYOR));
+        }
+        running.set(false);
+        reader.join();
+        assertEquals(0, misses.get());
+    }
+
+    @Test
+    @DisplayName("Test Online Members Are Indexed As Users Join, Leave And Change Town")
+    public void testOnlineMembers() {
+        final TownRegistry towns = new TownRegistry();
+        towns.put(town(1, "Alpha", MAYOR));
+        final OnlineUser mayor = user(MAYOR, "Mayor");
+        final OnlineUser member = user(MEMBER, "Member");
+        towns.setOnline(mayor);
+        towns.setOnline(member);
+        assertEquals(List.of(mayor), List.copyOf(towns.getOnlineMembers(1)));
+        assertSame(member, towns.getOnlineUser("member"));
+
+        towns.put(town(1, "Alpha", MAYOR, MEMBER));
+        assertEquals(Set.of(mayor, member), Set.copyOf(towns.getOnlineMembers(1)));
+
+        towns.setOffline(MAYOR);
+        assertEquals(List.of(member), List.copyOf(towns.getOnlineMembers(1)));
+        assertNull(towns.getOnlineUser("Mayor"));
+
+        towns.put(town(1, "Alpha", MAYOR));
+        assertTrue(towns.getOnlineMembers(1).isEmpty());
+        assertSame(member, towns.getOnlineUser("Member"));
+
+        towns.remove(Objects.requireNonNull(towns.getById(1)));
+        assertTrue(towns.getOnlineMembers(1).isEmpty());
+    }
+
+    @NotNull
+    private static Town town(int id, @NotNull String name, @NotNull UUID... members) {
+        final Map<UUID, Integer> roles = new HashMap<>();
+        Arrays.stream(members).forEach(uuid -> roles.put(uuid, 1));
+        return Town.builder().id(id).name(name).members(roles).build();
+    }
+
+    // The registry only reads the UUID and username of online users
+    @NotNull
+    private static OnlineUser user(@NotNull UUID uuid, @NotNull String username) {
+        final OnlineUser user = mock(OnlineUser.class);
+        when(user.getUuid()).thenReturn(uuid);
+        when(user.getUsername()).thenReturn(username);
+        return user;
+    }
+
+}